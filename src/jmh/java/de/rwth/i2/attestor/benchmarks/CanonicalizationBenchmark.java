@@ -0,0 +1,85 @@
+package de.rwth.i2.attestor.benchmarks;
+
+import de.rwth.i2.attestor.grammar.AbstractionOptions;
+import de.rwth.i2.attestor.grammar.canonicalization.CanonicalizationStrategy;
+import de.rwth.i2.attestor.grammar.canonicalization.CanonicalizationStrategyBuilder;
+import de.rwth.i2.attestor.graph.SelectorLabel;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.main.scene.SceneObject;
+import de.rwth.i2.attestor.types.Type;
+import gnu.trove.list.array.TIntArrayList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the canonicalization of a concrete data structure as well as the canonicalization of
+ * an abstract heap configuration after a new element has been prepended to it.
+ * The latter corresponds to the typical workload during state space generation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CanonicalizationBenchmark {
+
+    @Param({"SLList", "DLList", "BT"})
+    public Workload workload;
+
+    /**
+     * The number of elements of the concrete data structure.
+     */
+    @Param({"10", "50", "200"})
+    public int size;
+
+    /**
+     * True if the benchmarked strategy canonicalizes incrementally.
+     */
+    @Param({"false", "true"})
+    public boolean incremental;
+
+    private Type type;
+    private SelectorLabel selector;
+    private CanonicalizationStrategy strategy;
+    private HeapConfiguration heap;
+    private HeapConfiguration abstractHeap;
+
+    @Setup
+    public void setup() {
+
+        SceneObject sceneObject = Workload.createSceneObject();
+        strategy = new CanonicalizationStrategyBuilder()
+                .setOptions(new AbstractionOptions())
+                .setGrammar(workload.loadGrammar(sceneObject))
+                .setIncrementalMode(incremental)
+                .build();
+        heap = workload.createHeap(sceneObject, size);
+        abstractHeap = strategy.canonicalize(heap.clone());
+        type = workload.getType(sceneObject);
+        selector = sceneObject.scene().getSelectorLabel(workload.getTraversalSelector());
+    }
+
+    @Benchmark
+    public HeapConfiguration canonicalizeConcrete() {
+
+        return strategy.canonicalize(heap.clone());
+    }
+
+    @Benchmark
+    public HeapConfiguration canonicalizeAfterChange() {
+
+        HeapConfiguration copy = abstractHeap.clone();
+        int variable = copy.variableWith(Workload.VARIABLE);
+        int head = copy.targetOf(variable);
+        TIntArrayList nodes = new TIntArrayList(1);
+        copy.builder()
+                .addNodes(type, 1, nodes)
+                .addSelector(nodes.get(0), selector, head)
+                .removeVariableEdge(variable)
+                .addVariableEdge(Workload.VARIABLE, nodes.get(0))
+                .build();
+        return strategy.canonicalize(copy);
+    }
+}
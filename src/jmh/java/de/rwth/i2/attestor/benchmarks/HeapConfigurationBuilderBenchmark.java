@@ -0,0 +1,70 @@
+package de.rwth.i2.attestor.benchmarks;
+
+import de.rwth.i2.attestor.graph.SelectorLabel;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.main.scene.SceneObject;
+import de.rwth.i2.attestor.types.Type;
+import gnu.trove.list.array.TIntArrayList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the construction of heap configurations from scratch as well as the modification of
+ * a copy of an existing heap configuration as performed by the concrete semantics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeapConfigurationBuilderBenchmark {
+
+    @Param({"SLList", "DLList", "BT"})
+    public Workload workload;
+
+    /**
+     * The number of elements of the concrete data structure.
+     */
+    @Param({"10", "50", "200"})
+    public int size;
+
+    private SceneObject sceneObject;
+    private Type type;
+    private SelectorLabel selector;
+    private HeapConfiguration heap;
+
+    @Setup
+    public void setup() {
+
+        sceneObject = Workload.createSceneObject();
+        heap = workload.createHeap(sceneObject, size);
+        type = workload.getType(sceneObject);
+        selector = sceneObject.scene().getSelectorLabel(workload.getTraversalSelector());
+    }
+
+    @Benchmark
+    public HeapConfiguration build() {
+
+        return workload.createHeap(sceneObject, size);
+    }
+
+    /**
+     * Prepends a new element to the data structure and moves the variable to it.
+     */
+    @Benchmark
+    public HeapConfiguration modifyCopy() {
+
+        HeapConfiguration copy = heap.clone();
+        int variable = copy.variableWith(Workload.VARIABLE);
+        int head = copy.targetOf(variable);
+        TIntArrayList nodes = new TIntArrayList(1);
+        return copy.builder()
+                .addNodes(type, 1, nodes)
+                .addSelector(nodes.get(0), selector, head)
+                .removeVariableEdge(variable)
+                .addVariableEdge(Workload.VARIABLE, nodes.get(0))
+                .build();
+    }
+}
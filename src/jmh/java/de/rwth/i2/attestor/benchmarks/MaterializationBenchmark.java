@@ -0,0 +1,63 @@
+package de.rwth.i2.attestor.benchmarks;
+
+import de.rwth.i2.attestor.grammar.AbstractionOptions;
+import de.rwth.i2.attestor.grammar.Grammar;
+import de.rwth.i2.attestor.grammar.canonicalization.CanonicalizationStrategyBuilder;
+import de.rwth.i2.attestor.grammar.materialization.strategies.MaterializationStrategy;
+import de.rwth.i2.attestor.grammar.materialization.strategies.MaterializationStrategyBuilder;
+import de.rwth.i2.attestor.grammar.materialization.util.ViolationPoints;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.main.scene.SceneObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the materialization of the first element of an abstract data structure, i.e. the
+ * canonical form of a concrete data structure, such that the traversal selector becomes accessible.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MaterializationBenchmark {
+
+    @Param({"SLList", "DLList", "BT"})
+    public Workload workload;
+
+    /**
+     * The number of elements of the concrete data structure that is abstracted before materialization.
+     */
+    @Param({"10", "50", "200"})
+    public int size;
+
+    private MaterializationStrategy strategy;
+    private HeapConfiguration abstractHeap;
+    private ViolationPoints violationPoints;
+
+    @Setup
+    public void setup() {
+
+        SceneObject sceneObject = Workload.createSceneObject();
+        Grammar grammar = workload.loadGrammar(sceneObject);
+        strategy = new MaterializationStrategyBuilder()
+                .setGrammar(grammar)
+                .setIndexedMode(false)
+                .build();
+        abstractHeap = new CanonicalizationStrategyBuilder()
+                .setOptions(new AbstractionOptions())
+                .setGrammar(grammar)
+                .build()
+                .canonicalize(workload.createHeap(sceneObject, size));
+        violationPoints = new ViolationPoints(Workload.VARIABLE, workload.getTraversalSelector());
+    }
+
+    @Benchmark
+    public Collection<HeapConfiguration> materialize() {
+
+        return strategy.materialize(abstractHeap, violationPoints);
+    }
+}
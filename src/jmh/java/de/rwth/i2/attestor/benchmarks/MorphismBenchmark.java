@@ -0,0 +1,68 @@
+package de.rwth.i2.attestor.benchmarks;
+
+import de.rwth.i2.attestor.grammar.AbstractionOptions;
+import de.rwth.i2.attestor.grammar.Grammar;
+import de.rwth.i2.attestor.graph.Nonterminal;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.graph.morphism.MorphismOptions;
+import de.rwth.i2.attestor.main.scene.SceneObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the VF2 algorithm, i.e. searching embeddings of all right-hand sides of a grammar into
+ * a concrete heap configuration and checking two isomorphic heap configurations for isomorphism.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MorphismBenchmark {
+
+    @Param({"SLList", "DLList", "BT"})
+    public Workload workload;
+
+    /**
+     * The number of elements of the concrete data structure.
+     */
+    @Param({"10", "50", "200"})
+    public int size;
+
+    private final MorphismOptions options = new AbstractionOptions();
+
+    private HeapConfiguration heap;
+    private HeapConfiguration isomorphicHeap;
+    private final List<HeapConfiguration> rightHandSides = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+
+        SceneObject sceneObject = Workload.createSceneObject();
+        Grammar grammar = workload.loadGrammar(sceneObject);
+        for (Nonterminal lhs : grammar.getAllLeftHandSides()) {
+            rightHandSides.addAll(grammar.getRightHandSidesFor(lhs));
+        }
+        heap = workload.createHeap(sceneObject, size);
+        isomorphicHeap = workload.createHeap(sceneObject, size);
+    }
+
+    @Benchmark
+    public void embeddings(Blackhole blackhole) {
+
+        for (HeapConfiguration rhs : rightHandSides) {
+            blackhole.consume(heap.getEmbeddingsOf(rhs, options).hasMatching());
+        }
+    }
+
+    @Benchmark
+    public boolean isomorphism() {
+
+        return heap.equals(isomorphicHeap);
+    }
+}
@@ -0,0 +1,124 @@
+package de.rwth.i2.attestor.benchmarks;
+
+import de.rwth.i2.attestor.grammar.AbstractionOptions;
+import de.rwth.i2.attestor.grammar.Grammar;
+import de.rwth.i2.attestor.grammar.canonicalization.CanonicalizationStrategyBuilder;
+import de.rwth.i2.attestor.grammar.materialization.strategies.MaterializationStrategyBuilder;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.main.scene.SceneObject;
+import de.rwth.i2.attestor.phases.symbolicExecution.stateSpaceGenerationImpl.InternalStateSpace;
+import de.rwth.i2.attestor.phases.symbolicExecution.stateSpaceGenerationImpl.ProgramImpl;
+import de.rwth.i2.attestor.phases.symbolicExecution.utilStrategies.*;
+import de.rwth.i2.attestor.programState.defaultState.DefaultProgramState;
+import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.statements.*;
+import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.values.Field;
+import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.values.Local;
+import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.values.NullConstant;
+import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.values.boolExpr.EqualExpr;
+import de.rwth.i2.attestor.stateSpaceGeneration.SemanticsCommand;
+import de.rwth.i2.attestor.stateSpaceGeneration.StateCanonicalizationStrategy;
+import de.rwth.i2.attestor.stateSpaceGeneration.StateSpace;
+import de.rwth.i2.attestor.stateSpaceGeneration.StateSpaceGenerationAbortedException;
+import de.rwth.i2.attestor.stateSpaceGeneration.StateSpaceGenerator;
+import de.rwth.i2.attestor.types.Type;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a complete state space generation for a program that traverses a data structure
+ * along its traversal selector until it reaches null:
+ * <pre>
+ * 0: cur = x
+ * 1: if (cur == null) goto 4 else goto 2
+ * 2: cur = cur.selector
+ * 3: goto 1
+ * 4: return
+ * </pre>
+ * The initial state contains a concrete data structure of the given size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateSpaceGenerationBenchmark {
+
+    private static final int MAX_STATE_SPACE = 100000;
+
+    @Param({"SLList", "DLList", "BT"})
+    public Workload workload;
+
+    /**
+     * The number of elements of the concrete data structure in the initial state.
+     */
+    @Param({"10", "50"})
+    public int size;
+
+    private Grammar grammar;
+    private ProgramImpl program;
+    private HeapConfiguration initialHeap;
+
+    @Setup
+    public void setup() {
+
+        SceneObject sceneObject = Workload.createSceneObject();
+        grammar = workload.loadGrammar(sceneObject);
+        initialHeap = workload.createHeap(sceneObject, size);
+        program = createTraversal(sceneObject);
+    }
+
+    private ProgramImpl createTraversal(SceneObject sceneObject) {
+
+        Type type = workload.getType(sceneObject);
+        Local x = new Local(type, Workload.VARIABLE);
+        Local cur = new Local(type, "cur");
+        Set<String> live = new HashSet<>(Arrays.asList(Workload.VARIABLE, "cur"));
+
+        List<SemanticsCommand> statements = new ArrayList<>();
+        statements.add(new AssignStmt(sceneObject, cur, x, 1, live));
+        statements.add(new IfStmt(sceneObject, new EqualExpr(cur, new NullConstant()), 4, 2, live));
+        statements.add(new AssignStmt(sceneObject, cur,
+                new Field(type, cur, sceneObject.scene().getSelectorLabel(workload.getTraversalSelector())),
+                3, live));
+        statements.add(new GotoStmt(sceneObject, 1));
+        statements.add(new ReturnVoidStmt(sceneObject));
+        return new ProgramImpl(statements);
+    }
+
+    @Benchmark
+    public StateSpace generate() throws StateSpaceGenerationAbortedException {
+
+        return StateSpaceGenerator.builder()
+                .setProgram(program)
+                .addInitialState(new DefaultProgramState(initialHeap.clone()))
+                .setStateLabelingStrategy(new NoStateLabelingStrategy())
+                .setAbortStrategy(new StateSpaceBoundedAbortStrategy(MAX_STATE_SPACE, MAX_STATE_SPACE))
+                .setCanonizationStrategy(new StateCanonicalizationStrategy(
+                        new CanonicalizationStrategyBuilder()
+                                .setOptions(new AbstractionOptions())
+                                .setGrammar(grammar)
+                                .build()
+                ))
+                .setMaterializationStrategy(new MaterializationStrategyBuilder()
+                        .setGrammar(grammar)
+                        .setIndexedMode(false)
+                        .build()
+                )
+                .setStateRectificationStrategy(new NoRectificationStrategy())
+                .setStateRefinementStrategy(new NoStateRefinementStrategy())
+                .setStateCounter(new NoStateCounter())
+                .setStateExplorationStrategy(new DepthFirstStateExplorationStrategy())
+                .setStateSpaceSupplier(() -> new InternalStateSpace(MAX_STATE_SPACE))
+                .setPostProcessingStrategy(new NoPostProcessingStrategy())
+                .setFinalStateStrategy(new TerminalStatementFinalStateStrategy())
+                .build()
+                .generate();
+    }
+}
@@ -0,0 +1,182 @@
+package de.rwth.i2.attestor.benchmarks;
+
+import de.rwth.i2.attestor.grammar.Grammar;
+import de.rwth.i2.attestor.graph.SelectorLabel;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.graph.heap.HeapConfigurationBuilder;
+import de.rwth.i2.attestor.graph.heap.internal.InternalHeapConfiguration;
+import de.rwth.i2.attestor.io.FileReader;
+import de.rwth.i2.attestor.io.jsonImport.JsonToGrammar;
+import de.rwth.i2.attestor.main.scene.DefaultScene;
+import de.rwth.i2.attestor.main.scene.SceneObject;
+import de.rwth.i2.attestor.phases.communication.InputSettings;
+import de.rwth.i2.attestor.programState.defaultState.DefaultProgramState;
+import de.rwth.i2.attestor.semantics.util.Constants;
+import de.rwth.i2.attestor.types.Type;
+import de.rwth.i2.attestor.types.Types;
+import gnu.trove.list.array.TIntArrayList;
+import org.json.JSONArray;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+/**
+ * The data structures benchmarks are parameterized by. Each data structure corresponds to one of the
+ * predefined grammars and provides concrete heap configurations of arbitrary size that are covered by it.
+ * <p>
+ * All concrete heap configurations contain the usual constants and a variable {@link #VARIABLE} pointing
+ * to the first element of the data structure.
+ */
+public enum Workload {
+
+    /**
+     * Singly-linked lists in which the last element points to null.
+     */
+    SLList("ListNode", "next") {
+        @Override
+        void addSelectors(HeapConfigurationBuilder builder, SelectorLabel[] selectors, TIntArrayList nodes,
+                          int nullNode) {
+
+            SelectorLabel next = selectors[0];
+            for (int i = 0; i < nodes.size(); i++) {
+                builder.addSelector(nodes.get(i), next, nextOrNull(nodes, i + 1, nullNode));
+            }
+        }
+    },
+
+    /**
+     * Doubly-linked lists whose first and last element point to null.
+     */
+    DLList("DLListNode", "next", "prev") {
+        @Override
+        void addSelectors(HeapConfigurationBuilder builder, SelectorLabel[] selectors, TIntArrayList nodes,
+                          int nullNode) {
+
+            SelectorLabel next = selectors[0];
+            SelectorLabel prev = selectors[1];
+            for (int i = 0; i < nodes.size(); i++) {
+                builder.addSelector(nodes.get(i), next, nextOrNull(nodes, i + 1, nullNode))
+                        .addSelector(nodes.get(i), prev, nextOrNull(nodes, i - 1, nullNode));
+            }
+        }
+    },
+
+    /**
+     * Complete binary trees whose leaves point to null.
+     */
+    BT("BTNode", "left", "right") {
+        @Override
+        void addSelectors(HeapConfigurationBuilder builder, SelectorLabel[] selectors, TIntArrayList nodes,
+                          int nullNode) {
+
+            SelectorLabel left = selectors[0];
+            SelectorLabel right = selectors[1];
+            for (int i = 0; i < nodes.size(); i++) {
+                builder.addSelector(nodes.get(i), left, nextOrNull(nodes, 2 * i + 1, nullNode))
+                        .addSelector(nodes.get(i), right, nextOrNull(nodes, 2 * i + 2, nullNode));
+            }
+        }
+    };
+
+    /**
+     * The variable pointing to the first element of each concrete heap configuration.
+     */
+    public static final String VARIABLE = "x";
+
+    private final String typeName;
+    private final String[] selectorNames;
+
+    Workload(String typeName, String... selectorNames) {
+
+        this.typeName = typeName;
+        this.selectorNames = selectorNames;
+    }
+
+    abstract void addSelectors(HeapConfigurationBuilder builder, SelectorLabel[] selectors, TIntArrayList nodes,
+                               int nullNode);
+
+    private static int nextOrNull(TIntArrayList nodes, int index, int nullNode) {
+
+        return index >= 0 && index < nodes.size() ? nodes.get(index) : nullNode;
+    }
+
+    /**
+     * @return A fresh scene object whose scene contains no types, selectors or nonterminals yet.
+     */
+    public static SceneObject createSceneObject() {
+
+        return new SceneObject(new DefaultScene()) {
+        };
+    }
+
+    /**
+     * @return The selector that is followed to traverse the data structure, e.g. next for lists.
+     */
+    public String getTraversalSelector() {
+
+        return selectorNames[0];
+    }
+
+    /**
+     * @return The type of all elements of the data structure.
+     */
+    public Type getType(SceneObject sceneObject) {
+
+        return sceneObject.scene().getType(typeName);
+    }
+
+    /**
+     * Loads the predefined grammar of this data structure.
+     *
+     * @param sceneObject The object providing the scene in which all labels are created.
+     * @return The loaded grammar.
+     */
+    public Grammar loadGrammar(SceneObject sceneObject) {
+
+        URL resource = Workload.class.getClassLoader().getResource("predefinedGrammars/" + name() + ".json");
+        if (resource == null) {
+            throw new IllegalStateException("Could not find predefined grammar " + name() + ".");
+        }
+
+        try (InputStream is = resource.openStream()) {
+            JSONArray array = new JSONArray(FileReader.read(is));
+            JsonToGrammar importer = new JsonToGrammar(sceneObject, new InputSettings());
+            return Grammar.builder()
+                    .addRules(importer.parseForwardGrammar(array))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load predefined grammar " + name() + ".", e);
+        }
+    }
+
+    /**
+     * Creates a concrete instance of this data structure.
+     *
+     * @param sceneObject The object providing the scene in which all labels are created.
+     * @param size        The number of elements of the data structure.
+     * @return A heap configuration containing all constants, the data structure and variable {@link #VARIABLE}.
+     */
+    public HeapConfiguration createHeap(SceneObject sceneObject, int size) {
+
+        Type type = getType(sceneObject);
+        SelectorLabel[] selectors = new SelectorLabel[selectorNames.length];
+        for (int i = 0; i < selectors.length; i++) {
+            selectors[i] = sceneObject.scene().getSelectorLabel(selectorNames[i]);
+            type.addSelectorLabel(selectors[i], Constants.NULL);
+        }
+
+        TIntArrayList nullNode = new TIntArrayList(1);
+        TIntArrayList nodes = new TIntArrayList(size);
+        HeapConfigurationBuilder builder = new InternalHeapConfiguration().builder()
+                .addNodes(Types.NULL, 1, nullNode)
+                .addVariableEdge(Constants.NULL, nullNode.get(0))
+                .addNodes(type, size, nodes);
+        addSelectors(builder, selectors, nodes, nullNode.get(0));
+        builder.addVariableEdge(VARIABLE, nodes.get(0));
+
+        return new DefaultProgramState(builder.build())
+                .prepareHeap()
+                .getHeap();
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ * JMH benchmarks of the hot paths of an analysis, i.e. graph morphisms, the construction of heap configurations,
+ * canonicalization, materialization and complete state space generations.
+ * All benchmarks are parameterized by a {@link de.rwth.i2.attestor.benchmarks.Workload}, which corresponds to one
+ * of the predefined grammars, and the size of the considered data structure.
+ * <p>
+ * Benchmarks are built with profile benchmarks, e.g. {@code mvn -P benchmarks package}, and executed via
+ * {@code java -jar target/benchmarks.jar}. Adding {@code -prof gc} additionally reports the allocation rate
+ * of each benchmark.
+ */
+package de.rwth.i2.attestor.benchmarks;
@@ -0,0 +1,142 @@
+package de.rwth.i2.attestor.graph.heap.internal;
+
+import de.rwth.i2.attestor.graph.Nonterminal;
+import de.rwth.i2.attestor.graph.SelectorLabel;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.graph.heap.HeapConfigurationBuilder;
+import de.rwth.i2.attestor.main.scene.DefaultScene;
+import de.rwth.i2.attestor.types.Type;
+import gnu.trove.iterator.TIntIntIterator;
+import gnu.trove.list.array.TIntArrayList;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures queries on heap configurations that translate private IDs into public IDs, i.e.
+ * neighbourhood queries on nodes and the construction of heap configurations.
+ * <p>
+ * Benchmark {@link #linearPublicIdLookup(Blackhole)} inverts the mapping from public to private IDs
+ * by scanning it for each element and serves as a reference for the previous linear-time lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PublicIdBenchmark {
+
+    /**
+     * The number of nodes of the benchmarked heap configuration.
+     */
+    @Param({"50", "200", "500"})
+    public int size;
+
+    private Type type;
+    private SelectorLabel next;
+    private Nonterminal nonterminal;
+
+    private InternalHeapConfiguration heap;
+
+    @Setup
+    public void setup() {
+
+        DefaultScene scene = new DefaultScene();
+        type = scene.getType("List");
+        next = scene.getSelectorLabel("next");
+        nonterminal = scene.createNonterminal("L", 2, new boolean[]{false, false});
+        heap = buildHeap();
+    }
+
+    /**
+     * Builds a singly-linked list of the given size in which every other node is the source
+     * of a nonterminal edge and every tenth node is referenced by a variable.
+     * Some elements are removed and re-added such that the underlying graph has to be compacted.
+     */
+    private InternalHeapConfiguration buildHeap() {
+
+        TIntArrayList nodes = new TIntArrayList(size);
+        HeapConfigurationBuilder builder = new InternalHeapConfiguration().builder()
+                .addNodes(type, size, nodes);
+
+        for (int i = 0; i + 1 < size; i++) {
+            builder.addSelector(nodes.get(i), next, nodes.get(i + 1));
+        }
+
+        for (int i = 0; i + 2 < size; i += 2) {
+            builder.addNonterminalEdge(nonterminal)
+                    .addTentacle(nodes.get(i))
+                    .addTentacle(nodes.get(i + 2))
+                    .build();
+        }
+
+        for (int i = 0; i < size; i += 10) {
+            builder.addVariableEdge("x" + i, nodes.get(i));
+        }
+
+        HeapConfiguration result = builder.build();
+        result.builder()
+                .removeVariableEdge(result.variableWith("x0"))
+                .addVariableEdge("x0", nodes.get(size - 1))
+                .build();
+        return (InternalHeapConfiguration) result;
+    }
+
+    @Benchmark
+    public void attachedNonterminalEdges(Blackhole blackhole) {
+
+        TIntArrayList nodes = heap.nodes();
+        for (int i = 0; i < nodes.size(); i++) {
+            blackhole.consume(heap.attachedNonterminalEdgesOf(nodes.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void attachedVariables(Blackhole blackhole) {
+
+        TIntArrayList nodes = heap.nodes();
+        for (int i = 0; i < nodes.size(); i++) {
+            blackhole.consume(heap.attachedVariablesOf(nodes.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void successorNodes(Blackhole blackhole) {
+
+        TIntArrayList nodes = heap.nodes();
+        for (int i = 0; i < nodes.size(); i++) {
+            blackhole.consume(heap.successorNodesOf(nodes.get(i)));
+        }
+    }
+
+    @Benchmark
+    public HeapConfiguration build() {
+
+        return buildHeap();
+    }
+
+    @Benchmark
+    public void publicIdLookup(Blackhole blackhole) {
+
+        for (int privateId = 0; privateId < heap.graph.size(); privateId++) {
+            blackhole.consume(heap.getPublicId(privateId));
+        }
+    }
+
+    @Benchmark
+    public void linearPublicIdLookup(Blackhole blackhole) {
+
+        for (int privateId = 0; privateId < heap.graph.size(); privateId++) {
+            TIntIntIterator iter = heap.publicToPrivateIDs.iterator();
+            while (iter.hasNext()) {
+                iter.advance();
+                if (iter.value() == privateId) {
+                    blackhole.consume(iter.key());
+                    break;
+                }
+            }
+        }
+    }
+}
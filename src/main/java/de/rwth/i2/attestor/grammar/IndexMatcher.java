@@ -30,7 +30,7 @@ public class IndexMatcher {
      * @return true if there is a materialization and an instantiation such that the
      * indices of the given nonterminals are equal.
      */
-    public boolean canMatch(IndexedNonterminal materializableNonterminal,
+    public synchronized boolean canMatch(IndexedNonterminal materializableNonterminal,
                             IndexedNonterminal instantiableNonterminal) {
 
         Pair<IndexedNonterminal, IndexedNonterminal> requestPair =
@@ -49,7 +49,7 @@ public class IndexMatcher {
      * @param instantiableNonterminal   the nonterminal representing the lhs of a rule
      * @return true, if the materialization is non-empty
      */
-    public boolean needsMaterialization(IndexedNonterminal materializableNonterminal,
+    public synchronized boolean needsMaterialization(IndexedNonterminal materializableNonterminal,
                                         IndexedNonterminal instantiableNonterminal) {
 
         Pair<IndexedNonterminal, IndexedNonterminal> requestPair =
@@ -85,7 +85,7 @@ public class IndexMatcher {
     }
 
 
-    public Pair<AbstractIndexSymbol, List<IndexSymbol>> getMaterializationRule(IndexedNonterminal materializableNonterminal,
+    public synchronized Pair<AbstractIndexSymbol, List<IndexSymbol>> getMaterializationRule(IndexedNonterminal materializableNonterminal,
                                                                                IndexedNonterminal instantiableNonterminal) {
 
         if (needsMaterialization(materializableNonterminal, instantiableNonterminal)) {
@@ -105,7 +105,7 @@ public class IndexMatcher {
      * @param instantiableNonterminal   the nonterminal representing the lhs of a rule
      * @return true, if the instantiationSequence is non-empty
      */
-    public boolean needsInstantiation(IndexedNonterminal materializableNonterminal,
+    public synchronized boolean needsInstantiation(IndexedNonterminal materializableNonterminal,
                                       IndexedNonterminal instantiableNonterminal) {
 
         Pair<IndexedNonterminal, IndexedNonterminal> requestPair =
@@ -127,7 +127,7 @@ public class IndexMatcher {
      * @return The list of index symbols
      */
 
-    public List<IndexSymbol> getNecessaryInstantiation(IndexedNonterminal materializableNonterminal,
+    public synchronized List<IndexSymbol> getNecessaryInstantiation(IndexedNonterminal materializableNonterminal,
                                                        IndexedNonterminal instantiableNonterminal) {
 
         Pair<IndexedNonterminal, IndexedNonterminal> requestPair =
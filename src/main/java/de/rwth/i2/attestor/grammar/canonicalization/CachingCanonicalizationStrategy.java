@@ -0,0 +1,120 @@
+package de.rwth.i2.attestor.grammar.canonicalization;
+
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.graph.heap.internal.HeapCertificate;
+import de.rwth.i2.attestor.graph.heap.internal.InternalHeapConfiguration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A canonicalization strategy that memoizes the results of another canonicalization strategy.
+ * Results are stored in a bounded cache whose keys are certificates of the heap configurations that
+ * have been canonicalized, see {@link InternalHeapConfiguration#getCertificate()}.
+ * Hence, isomorphic heap configurations are canonicalized only once as long as their result has not been evicted.
+ * If the cache is full, the least recently used result is evicted.
+ * <p>
+ * Heap configurations without a certificate are always passed to the underlying strategy.
+ * This class is thread-safe if the underlying strategy is.
+ */
+public class CachingCanonicalizationStrategy implements CanonicalizationStrategy {
+
+    private final CanonicalizationStrategy strategy;
+
+    private final Map<HeapCertificate, HeapConfiguration> cache;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * @param strategy The canonicalization strategy whose results should be cached.
+     * @param capacity The maximal number of cached results.
+     */
+    public CachingCanonicalizationStrategy(CanonicalizationStrategy strategy, int capacity) {
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity of a canonicalization cache must be positive.");
+        }
+
+        this.strategy = strategy;
+        this.cache = new LinkedHashMap<HeapCertificate, HeapConfiguration>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<HeapCertificate, HeapConfiguration> eldest) {
+
+                if (size() > capacity) {
+                    ++evictions;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public HeapConfiguration canonicalize(HeapConfiguration heapConfiguration) {
+
+        HeapCertificate certificate = certificateOf(heapConfiguration);
+
+        if (certificate != null) {
+            synchronized (this) {
+                HeapConfiguration cached = cache.get(certificate);
+                if (cached != null) {
+                    ++hits;
+                    // cached results are never handed out since callers may modify them
+                    return cached.clone();
+                }
+            }
+        }
+
+        HeapConfiguration result = strategy.canonicalize(heapConfiguration);
+
+        synchronized (this) {
+            ++misses;
+            if (certificate != null) {
+                cache.put(certificate, result.clone());
+            }
+        }
+        return result;
+    }
+
+    private static HeapCertificate certificateOf(HeapConfiguration heapConfiguration) {
+
+        if (heapConfiguration instanceof InternalHeapConfiguration) {
+            return ((InternalHeapConfiguration) heapConfiguration).getCertificate();
+        }
+        return null;
+    }
+
+    /**
+     * @return The number of heap configurations whose canonicalization has been taken from the cache.
+     */
+    public synchronized long getHits() {
+
+        return hits;
+    }
+
+    /**
+     * @return The number of heap configurations that have been passed to the underlying strategy.
+     */
+    public synchronized long getMisses() {
+
+        return misses;
+    }
+
+    /**
+     * @return The number of cached results that have been evicted because the cache was full.
+     */
+    public synchronized long getEvictions() {
+
+        return evictions;
+    }
+
+    /**
+     * @return The number of currently cached results.
+     */
+    public synchronized int size() {
+
+        return cache.size();
+    }
+}
@@ -3,6 +3,7 @@ package de.rwth.i2.attestor.grammar.canonicalization;
 import de.rwth.i2.attestor.grammar.CollapsedHeapConfiguration;
 import de.rwth.i2.attestor.graph.Nonterminal;
 import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import gnu.trove.set.TIntSet;
 
 public interface CanonicalizationHelper {
 
@@ -39,5 +40,78 @@ public interface CanonicalizationHelper {
     HeapConfiguration tryReplaceMatching(HeapConfiguration toAbstract,
                                          CollapsedHeapConfiguration rhs, Nonterminal lhs);
 
+    /**
+     * Like {@link #tryReplaceMatching(HeapConfiguration, HeapConfiguration, Nonterminal)}, but
+     * only embeddings of rhs located within the given nodes of toAbstract have to be considered.
+     * Implementations that cannot restrict the search may ignore the given nodes.
+     *
+     * @param toAbstract the target graph
+     * @param rhs        the pattern graph
+     * @param lhs        the label of the replacing nonterminal edge
+     * @param nodes      the nodes of toAbstract that may belong to an embedding
+     * @return the abstracted graph if an embedding of rhs can be found, null otherwise.
+     */
+    default HeapConfiguration tryReplaceMatching(HeapConfiguration toAbstract,
+                                                 HeapConfiguration rhs, Nonterminal lhs, TIntSet nodes) {
+
+        return tryReplaceMatching(toAbstract, rhs, lhs);
+    }
+
+    /**
+     * Like {@link #tryReplaceMatching(HeapConfiguration, CollapsedHeapConfiguration, Nonterminal)}, but
+     * only embeddings of rhs located within the given nodes of toAbstract have to be considered.
+     * Implementations that cannot restrict the search may ignore the given nodes.
+     *
+     * @param toAbstract the target graph
+     * @param rhs        the pattern graph
+     * @param lhs        the label of the replacing nonterminal edge
+     * @param nodes      the nodes of toAbstract that may belong to an embedding
+     * @return the abstracted graph if an embedding of rhs can be found, null otherwise.
+     */
+    default HeapConfiguration tryReplaceMatching(HeapConfiguration toAbstract,
+                                                 CollapsedHeapConfiguration rhs, Nonterminal lhs, TIntSet nodes) {
+
+        return tryReplaceMatching(toAbstract, rhs, lhs);
+    }
+
+    /**
+     * Like {@link #tryReplaceMatching(HeapConfiguration, HeapConfiguration, Nonterminal, TIntSet)}, but
+     * replaces a maximal set of non-overlapping embeddings of rhs by nonterminal edges labeled with lhs at once.
+     * Implementations that cannot replace more than one embedding at once may replace a single embedding.
+     *
+     * @param toAbstract the target graph
+     * @param rhs        the pattern graph
+     * @param lhs        the label of the replacing nonterminal edges
+     * @param nodes      the nodes of toAbstract that may belong to an embedding or null if all nodes may
+     * @return the abstracted graph if at least one embedding of rhs can be found, null otherwise.
+     */
+    default HeapConfiguration tryReplaceDisjointMatchings(HeapConfiguration toAbstract,
+                                                          HeapConfiguration rhs, Nonterminal lhs, TIntSet nodes) {
+
+        if (nodes == null) {
+            return tryReplaceMatching(toAbstract, rhs, lhs);
+        }
+        return tryReplaceMatching(toAbstract, rhs, lhs, nodes);
+    }
+
+    /**
+     * Like {@link #tryReplaceMatching(HeapConfiguration, CollapsedHeapConfiguration, Nonterminal, TIntSet)}, but
+     * replaces a maximal set of non-overlapping embeddings of rhs by nonterminal edges labeled with lhs at once.
+     * Implementations that cannot replace more than one embedding at once may replace a single embedding.
+     *
+     * @param toAbstract the target graph
+     * @param rhs        the pattern graph
+     * @param lhs        the label of the replacing nonterminal edges
+     * @param nodes      the nodes of toAbstract that may belong to an embedding or null if all nodes may
+     * @return the abstracted graph if at least one embedding of rhs can be found, null otherwise.
+     */
+    default HeapConfiguration tryReplaceDisjointMatchings(HeapConfiguration toAbstract,
+                                                          CollapsedHeapConfiguration rhs, Nonterminal lhs,
+                                                          TIntSet nodes) {
 
-}
\ No newline at end of file
+        if (nodes == null) {
+            return tryReplaceMatching(toAbstract, rhs, lhs);
+        }
+        return tryReplaceMatching(toAbstract, rhs, lhs, nodes);
+    }
+}
@@ -24,6 +24,8 @@ import java.util.Set;
 public class CanonicalizationStrategyBuilder {
 
     private boolean indexedMode = false;
+    private boolean incrementalMode = false;
+    private boolean batchMode = false;
     private Grammar grammar = null;
     private MorphismOptions options;
 
@@ -45,7 +47,7 @@ public class CanonicalizationStrategyBuilder {
         } else {
             canonicalizationHelper = new DefaultCanonicalizationHelper(checkerProvider);
         }
-        return new GeneralCanonicalizationStrategy(grammar, canonicalizationHelper);
+        return new GeneralCanonicalizationStrategy(grammar, canonicalizationHelper, incrementalMode, batchMode);
     }
 
     private CanonicalizationHelper getIndexedCanonicalizationHelper(EmbeddingCheckerProvider checkerProvider) {
@@ -101,6 +103,18 @@ public class CanonicalizationStrategyBuilder {
         return this;
     }
 
+    public CanonicalizationStrategyBuilder setIncrementalMode(boolean enabled) {
+
+        this.incrementalMode = enabled;
+        return this;
+    }
+
+    public CanonicalizationStrategyBuilder setBatchMode(boolean enabled) {
+
+        this.batchMode = enabled;
+        return this;
+    }
+
     public CanonicalizationStrategyBuilder setGrammar(Grammar grammar) {
 
         this.grammar = grammar;
@@ -1,8 +1,13 @@
 package de.rwth.i2.attestor.grammar.canonicalization;
 
 import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.graph.heap.Matching;
 import de.rwth.i2.attestor.graph.heap.matching.AbstractMatchingChecker;
 import de.rwth.i2.attestor.graph.morphism.MorphismOptions;
+import gnu.trove.set.TIntSet;
+
+import java.util.Collections;
+import java.util.List;
 
 /**
  * This class is responsible to select the correct embeddingChecker
@@ -37,4 +42,47 @@ public class EmbeddingCheckerProvider {
         return graph.getEmbeddingsOf(pattern, morphismOptions);
     }
 
+    /**
+     * For the given target and pattern, gets the correct EmbeddingCheckerType that only considers
+     * embeddings located within the given nodes of the target.
+     *
+     * @param graph   the target graph
+     * @param pattern the graph which will be embedded
+     * @param nodes   the nodes of graph that may belong to an embedding
+     * @return the correct EmbeddingChecker
+     */
+    public AbstractMatchingChecker getEmbeddingChecker(HeapConfiguration graph, HeapConfiguration pattern,
+                                                       TIntSet nodes) {
+
+        return graph.getEmbeddingsOf(pattern, morphismOptions, nodes);
+    }
+
+    /**
+     * For the given target and pattern, computes a maximal set of non-overlapping embeddings within a single
+     * search. All of them can be replaced within a single builder transaction of graph.
+     * <p>
+     * If embeddings have to respect a minimal distance to variables, replacing one embedding may
+     * shorten the distance between variables and another embedding. At most one embedding is thus returned
+     * in this case.
+     *
+     * @param graph   the target graph
+     * @param pattern the graph which will be embedded
+     * @param nodes   the nodes of graph that may belong to an embedding or null if all nodes may belong to one
+     * @return the found embeddings
+     */
+    public List<Matching> getDisjointEmbeddings(HeapConfiguration graph, HeapConfiguration pattern,
+                                                TIntSet nodes) {
+
+        AbstractMatchingChecker checker = nodes == null
+                ? getEmbeddingChecker(graph, pattern)
+                : getEmbeddingChecker(graph, pattern, nodes);
+
+        if (morphismOptions.isAdmissibleAbstraction()) {
+            if (checker.hasMatching()) {
+                return Collections.singletonList(checker.getMatching());
+            }
+            return Collections.emptyList();
+        }
+        return checker.getDisjointMatchings();
+    }
 }
@@ -1,50 +1,150 @@
 package de.rwth.i2.attestor.grammar.canonicalization;
 
-import de.rwth.i2.attestor.grammar.CollapsedHeapConfiguration;
 import de.rwth.i2.attestor.grammar.Grammar;
-import de.rwth.i2.attestor.graph.Nonterminal;
 import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import gnu.trove.iterator.TIntIntIterator;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+
+import java.util.List;
 
 
 public class GeneralCanonicalizationStrategy implements CanonicalizationStrategy {
 
-    private final Grammar grammar;
+    private final RuleIndex ruleIndex;
     private final CanonicalizationHelper canonicalizationHelper;
 
+    /**
+     * True if canonicalization should be restricted to the neighbourhood of nodes that changed since
+     * a heap configuration has been canonicalized by this strategy for the last time.
+     */
+    private final boolean incremental;
+
+    /**
+     * True if all non-overlapping embeddings of a rule should be replaced at once instead of
+     * replacing one embedding at a time.
+     */
+    private final boolean batch;
+
     public GeneralCanonicalizationStrategy(Grammar grammar,
                                            CanonicalizationHelper canonicalizationHelper) {
 
-        this.grammar = grammar;
+        this(grammar, canonicalizationHelper, false);
+    }
+
+    public GeneralCanonicalizationStrategy(Grammar grammar,
+                                           CanonicalizationHelper canonicalizationHelper,
+                                           boolean incremental) {
+
+        this(grammar, canonicalizationHelper, incremental, false);
+    }
+
+    /**
+     * @param grammar                The grammar guiding canonicalization.
+     * @param canonicalizationHelper The helper determining and replacing embeddings of right-hand sides.
+     * @param incremental            True if heap configurations derived from results of this strategy should
+     *                               only be searched for embeddings close to the nodes that have been changed since.
+     *                               Since results of this strategy contain no embeddings, each new embedding
+     *                               contains at least one changed node.
+     * @param batch                  True if a maximal set of non-overlapping embeddings of a right-hand side should
+     *                               be replaced within a single builder transaction. For example, a long list
+     *                               is then abstracted by one search instead of one search per list segment.
+     */
+    public GeneralCanonicalizationStrategy(Grammar grammar,
+                                           CanonicalizationHelper canonicalizationHelper,
+                                           boolean incremental,
+                                           boolean batch) {
+
+        this.ruleIndex = new RuleIndex(grammar);
         this.canonicalizationHelper = canonicalizationHelper;
+        this.incremental = incremental;
+        this.batch = batch;
     }
 
     @Override
     public HeapConfiguration canonicalize(HeapConfiguration heapConfiguration) {
 
-        return performCanonicalization(heapConfiguration);
+        HeapConfiguration result = performCanonicalization(heapConfiguration);
+        if (incremental) {
+            result.trackChanges(this);
+        }
+        return result;
     }
 
     private HeapConfiguration performCanonicalization(HeapConfiguration heapConfiguration) {
 
         heapConfiguration = canonicalizationHelper.prepareHeapForCanonicalization(heapConfiguration);
-        for (Nonterminal lhs : grammar.getAllLeftHandSides()) {
-            for (HeapConfiguration rhs : grammar.getRightHandSidesFor(lhs)) {
-                HeapConfiguration abstractedHeap =
-                        canonicalizationHelper.tryReplaceMatching(heapConfiguration, rhs, lhs);
-                if (abstractedHeap != null) {
-                    return performCanonicalization(abstractedHeap);
+        TIntSet changedNodes = incremental ? heapConfiguration.getChangedNodes(this) : null;
+        List<RuleIndex.Rule> rules = ruleIndex.rulesEmbeddableInto(heapConfiguration);
+        TIntIntMap distances = null;
+
+        for (RuleIndex.Rule rule : rules) {
+            HeapConfiguration abstractedHeap;
+            if (changedNodes == null || rule.diameter == HeapNeighbourhood.UNBOUNDED) {
+                abstractedHeap = tryReplaceMatching(heapConfiguration, rule, null);
+            } else {
+                if (distances == null) {
+                    distances = HeapNeighbourhood.distancesFrom(heapConfiguration, changedNodes, maxDiameterOf(rules));
+                }
+                TIntSet region = nodesWithin(distances, rule.diameter);
+                if (region.isEmpty()) {
+                    continue;
                 }
+                abstractedHeap = tryReplaceMatching(heapConfiguration, rule, region);
             }
+            if (abstractedHeap != null) {
+                return performCanonicalization(abstractedHeap);
+            }
+        }
+        return heapConfiguration;
+    }
 
-            for(CollapsedHeapConfiguration rhs : grammar.getCollapsedRightHandSidesFor(lhs)) {
-                        HeapConfiguration abstractedHeap =
-                        canonicalizationHelper.tryReplaceMatching(heapConfiguration, rhs, lhs);
-                if (abstractedHeap != null) {
-                    return performCanonicalization(abstractedHeap);
-                }
+    private HeapConfiguration tryReplaceMatching(HeapConfiguration heapConfiguration, RuleIndex.Rule rule,
+                                                 TIntSet region) {
+
+        if (batch) {
+            if (rule.rhs != null) {
+                return canonicalizationHelper.tryReplaceDisjointMatchings(heapConfiguration, rule.rhs, rule.lhs, region);
             }
+            return canonicalizationHelper.tryReplaceDisjointMatchings(heapConfiguration, rule.collapsedRhs, rule.lhs,
+                    region);
+        }
 
+        if (region == null) {
+            if (rule.rhs != null) {
+                return canonicalizationHelper.tryReplaceMatching(heapConfiguration, rule.rhs, rule.lhs);
+            }
+            return canonicalizationHelper.tryReplaceMatching(heapConfiguration, rule.collapsedRhs, rule.lhs);
         }
-        return heapConfiguration;
+
+        if (rule.rhs != null) {
+            return canonicalizationHelper.tryReplaceMatching(heapConfiguration, rule.rhs, rule.lhs, region);
+        }
+        return canonicalizationHelper.tryReplaceMatching(heapConfiguration, rule.collapsedRhs, rule.lhs, region);
+    }
+
+    private static int maxDiameterOf(List<RuleIndex.Rule> rules) {
+
+        int result = 0;
+        for (RuleIndex.Rule rule : rules) {
+            if (rule.diameter != HeapNeighbourhood.UNBOUNDED) {
+                result = Math.max(result, rule.diameter);
+            }
+        }
+        return result;
+    }
+
+    private static TIntSet nodesWithin(TIntIntMap distances, int maxDistance) {
+
+        TIntSet result = new TIntHashSet(distances.size());
+        TIntIntIterator iter = distances.iterator();
+        while (iter.hasNext()) {
+            iter.advance();
+            if (iter.value() <= maxDistance) {
+                result.add(iter.key());
+            }
+        }
+        return result;
     }
 }
@@ -0,0 +1,96 @@
+package de.rwth.i2.attestor.grammar.canonicalization;
+
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import gnu.trove.iterator.TIntIterator;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+
+/**
+ * Computes distances between nodes of a heap configuration.
+ * Two nodes are adjacent if they are connected by a selector edge or attached to a common nonterminal edge.
+ * Since embeddings preserve adjacency, the nodes of an embedding of a connected pattern are within the
+ * diameter of the pattern from each other.
+ */
+final class HeapNeighbourhood {
+
+    /**
+     * The diameter of heap configurations that are not connected.
+     */
+    static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private HeapNeighbourhood() {
+    }
+
+    /**
+     * Determines the distance of all nodes that are close to the given source nodes.
+     *
+     * @param heapConfiguration The heap configuration whose nodes are considered.
+     * @param sources           The nodes whose neighbourhood is computed.
+     * @param maxDistance       The maximal distance of nodes that should be considered.
+     * @return A map from all nodes whose distance to the source nodes is at most maxDistance to their distance.
+     */
+    static TIntIntMap distancesFrom(HeapConfiguration heapConfiguration, TIntSet sources, int maxDistance) {
+
+        TIntIntMap distances = new TIntIntHashMap();
+        TIntArrayList frontier = new TIntArrayList(sources.size());
+        TIntIterator iter = sources.iterator();
+        while (iter.hasNext()) {
+            int node = iter.next();
+            distances.put(node, 0);
+            frontier.add(node);
+        }
+
+        for (int distance = 1; distance <= maxDistance && !frontier.isEmpty(); distance++) {
+            TIntArrayList nextFrontier = new TIntArrayList();
+            for (int i = 0; i < frontier.size(); i++) {
+                TIntArrayList neighbours = neighboursOf(heapConfiguration, frontier.get(i));
+                for (int j = 0; j < neighbours.size(); j++) {
+                    int neighbour = neighbours.get(j);
+                    if (!distances.containsKey(neighbour)) {
+                        distances.put(neighbour, distance);
+                        nextFrontier.add(neighbour);
+                    }
+                }
+            }
+            frontier = nextFrontier;
+        }
+        return distances;
+    }
+
+    /**
+     * @param heapConfiguration A heap configuration.
+     * @return The maximal distance between two nodes of the heap configuration or {@link #UNBOUNDED}
+     * if the heap configuration is not connected.
+     */
+    static int diameterOf(HeapConfiguration heapConfiguration) {
+
+        TIntArrayList nodes = heapConfiguration.nodes();
+        int diameter = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            TIntSet source = new TIntHashSet();
+            source.add(nodes.get(i));
+            TIntIntMap distances = distancesFrom(heapConfiguration, source, nodes.size());
+            if (distances.size() < nodes.size()) {
+                return UNBOUNDED;
+            }
+            for (int distance : distances.values()) {
+                diameter = Math.max(diameter, distance);
+            }
+        }
+        return diameter;
+    }
+
+    private static TIntArrayList neighboursOf(HeapConfiguration heapConfiguration, int node) {
+
+        TIntArrayList result = new TIntArrayList(heapConfiguration.successorNodesOf(node));
+        result.addAll(heapConfiguration.predecessorNodesOf(node));
+        TIntArrayList ntEdges = heapConfiguration.attachedNonterminalEdgesOf(node);
+        for (int i = 0; i < ntEdges.size(); i++) {
+            result.addAll(heapConfiguration.attachedNodesOf(ntEdges.get(i)));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,191 @@
+package de.rwth.i2.attestor.grammar.canonicalization;
+
+import de.rwth.i2.attestor.grammar.CollapsedHeapConfiguration;
+import de.rwth.i2.attestor.grammar.Grammar;
+import de.rwth.i2.attestor.graph.Nonterminal;
+import de.rwth.i2.attestor.graph.SelectorLabel;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.types.Type;
+import de.rwth.i2.attestor.types.Types;
+import gnu.trove.list.array.TIntArrayList;
+
+import java.util.*;
+
+/**
+ * Stores all rules of a grammar together with cheap invariants of their right-hand sides.
+ * These invariants are necessary conditions for the existence of an embedding of a right-hand side
+ * into a heap configuration. Rules violating them can thus be skipped during canonicalization without
+ * searching for an embedding.
+ * <p>
+ * The considered invariants are the multisets of node types, selector labels and nonterminal labels
+ * as well as the degree profile, i.e. the descending sequence of node degrees.
+ */
+final class RuleIndex {
+
+    /**
+     * A single rule of the grammar. Exactly one of rhs and collapsedRhs is not null.
+     */
+    static final class Rule {
+
+        final Nonterminal lhs;
+        final HeapConfiguration rhs;
+        final CollapsedHeapConfiguration collapsedRhs;
+
+        /**
+         * The diameter of the embedded pattern as determined by {@link HeapNeighbourhood#diameterOf(HeapConfiguration)}.
+         */
+        final int diameter;
+        private final Invariants invariants;
+
+        private Rule(Nonterminal lhs, HeapConfiguration rhs, CollapsedHeapConfiguration collapsedRhs,
+                     HeapConfiguration pattern) {
+
+            this.lhs = lhs;
+            this.rhs = rhs;
+            this.collapsedRhs = collapsedRhs;
+            this.diameter = HeapNeighbourhood.diameterOf(pattern);
+            this.invariants = new Invariants(pattern);
+        }
+    }
+
+    /**
+     * All rules in the order in which they are stored in the grammar.
+     * For each left-hand side, the collapsed right-hand sides succeed the regular ones.
+     */
+    private final List<Rule> rules = new ArrayList<>();
+
+    RuleIndex(Grammar grammar) {
+
+        for (Nonterminal lhs : grammar.getAllLeftHandSides()) {
+            for (HeapConfiguration rhs : grammar.getRightHandSidesFor(lhs)) {
+                rules.add(new Rule(lhs, rhs, null, rhs));
+            }
+            for (CollapsedHeapConfiguration rhs : grammar.getCollapsedRightHandSidesFor(lhs)) {
+                rules.add(new Rule(lhs, null, rhs, rhs.getCollapsed()));
+            }
+        }
+    }
+
+    /**
+     * Determines all rules whose right-hand side may possibly be embedded into the given heap configuration.
+     *
+     * @param heapConfiguration The heap configuration that should be abstracted.
+     * @return All rules satisfying the stored invariants with respect to heapConfiguration in the order of
+     * the underlying grammar.
+     */
+    List<Rule> rulesEmbeddableInto(HeapConfiguration heapConfiguration) {
+
+        Invariants target = new Invariants(heapConfiguration);
+        List<Rule> result = new ArrayList<>(rules.size());
+        for (Rule rule : rules) {
+            if (rule.invariants.mayEmbedInto(target)) {
+                result.add(rule);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Invariants of a heap configuration that are preserved by embeddings, i.e. if a pattern can be
+     * embedded into a target then each invariant of the pattern is covered by the corresponding invariant
+     * of the target.
+     */
+    private static final class Invariants {
+
+        private final int countNodes;
+        private final int countNonterminalEdges;
+        private final Map<Type, Integer> nodeTypes = new HashMap<>();
+        private final Map<SelectorLabel, Integer> selectorLabels = new HashMap<>();
+        private final Map<String, Integer> nonterminalLabels = new HashMap<>();
+
+        /**
+         * The sum of the number of outgoing selectors and attached nonterminal edges of each node
+         * in descending order.
+         */
+        private final int[] degrees;
+
+        private Invariants(HeapConfiguration heapConfiguration) {
+
+            TIntArrayList nodes = heapConfiguration.nodes();
+            countNodes = nodes.size();
+            degrees = new int[countNodes];
+            for (int i = 0; i < countNodes; i++) {
+                int node = nodes.get(i);
+                nodeTypes.merge(heapConfiguration.nodeTypeOf(node), 1, Integer::sum);
+                List<SelectorLabel> selectors = heapConfiguration.selectorLabelsOf(node);
+                for (SelectorLabel sel : selectors) {
+                    selectorLabels.merge(sel, 1, Integer::sum);
+                }
+                degrees[i] = -(selectors.size() + heapConfiguration.attachedNonterminalEdgesOf(node).size());
+            }
+            Arrays.sort(degrees);
+
+            TIntArrayList ntEdges = heapConfiguration.nonterminalEdges();
+            countNonterminalEdges = ntEdges.size();
+            for (int i = 0; i < countNonterminalEdges; i++) {
+                nonterminalLabels.merge(heapConfiguration.labelOf(ntEdges.get(i)).getLabel(), 1, Integer::sum);
+            }
+        }
+
+        private boolean mayEmbedInto(Invariants target) {
+
+            return countNodes <= target.countNodes
+                    && countNonterminalEdges <= target.countNonterminalEdges
+                    && isCoveredBy(selectorLabels, target.selectorLabels)
+                    && isCoveredBy(nonterminalLabels, target.nonterminalLabels)
+                    && areNodeTypesCoveredBy(target)
+                    && areDegreesCoveredBy(target);
+        }
+
+        private static <T> boolean isCoveredBy(Map<T, Integer> pattern, Map<T, Integer> target) {
+
+            for (Map.Entry<T, Integer> entry : pattern.entrySet()) {
+                if (entry.getValue() > target.getOrDefault(entry.getKey(), 0)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Checks whether the node types are covered by the target. Since nodes of a non-constant type may
+         * be mapped to null nodes, null nodes of the target that are not required by null nodes of the
+         * pattern serve as a shared pool for all non-constant types.
+         */
+        private boolean areNodeTypesCoveredBy(Invariants target) {
+
+            int availableNullNodes = target.nodeTypes.getOrDefault(Types.NULL, 0);
+            int missingNullNodes = 0;
+            for (Map.Entry<Type, Integer> entry : nodeTypes.entrySet()) {
+                Type type = entry.getKey();
+                int missing = entry.getValue() - target.nodeTypes.getOrDefault(type, 0);
+                if (type.equals(Types.NULL)) {
+                    availableNullNodes -= entry.getValue();
+                }
+                if (missing > 0) {
+                    if (type.getClass() != Types.NULL.getClass() || Types.isConstantType(type)) {
+                        return false;
+                    }
+                    missingNullNodes += missing;
+                }
+            }
+            return missingNullNodes <= availableNullNodes;
+        }
+
+        /**
+         * Checks whether the i-th largest degree of the pattern is at most the i-th largest degree of the target.
+         * This is necessary, because the i largest nodes of the pattern are mapped to i distinct nodes of the
+         * target having at least the same degree.
+         */
+        private boolean areDegreesCoveredBy(Invariants target) {
+
+            for (int i = 0; i < degrees.length; i++) {
+                // degrees are stored negated to obtain a descending order
+                if (degrees[i] < target.degrees[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
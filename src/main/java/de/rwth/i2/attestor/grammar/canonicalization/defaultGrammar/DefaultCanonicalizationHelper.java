@@ -5,9 +5,13 @@ import de.rwth.i2.attestor.grammar.canonicalization.CanonicalizationHelper;
 import de.rwth.i2.attestor.grammar.canonicalization.EmbeddingCheckerProvider;
 import de.rwth.i2.attestor.graph.Nonterminal;
 import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.graph.heap.HeapConfigurationBuilder;
 import de.rwth.i2.attestor.graph.heap.Matching;
 import de.rwth.i2.attestor.graph.heap.matching.AbstractMatchingChecker;
 import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.set.TIntSet;
+
+import java.util.List;
 
 /**
  * This class provides the methodExecution to canonicalisation which are specific for
@@ -43,6 +47,35 @@ public class DefaultCanonicalizationHelper implements CanonicalizationHelper {
         return null;
     }
 
+    @Override
+    public HeapConfiguration tryReplaceMatching(HeapConfiguration toAbstract,
+                                                HeapConfiguration rhs, Nonterminal lhs, TIntSet nodes) {
+
+        AbstractMatchingChecker checker = provider.getEmbeddingChecker(toAbstract, rhs, nodes);
+
+        if (checker.hasMatching()) {
+            Matching embedding = checker.getMatching();
+            return replaceEmbeddingBy(toAbstract, embedding, lhs);
+        }
+        return null;
+    }
+
+    @Override
+    public HeapConfiguration tryReplaceDisjointMatchings(HeapConfiguration toAbstract,
+                                                         HeapConfiguration rhs, Nonterminal lhs, TIntSet nodes) {
+
+        List<Matching> embeddings = provider.getDisjointEmbeddings(toAbstract, rhs, nodes);
+        if (embeddings.isEmpty()) {
+            return null;
+        }
+
+        HeapConfigurationBuilder builder = toAbstract.clone().builder();
+        for (Matching embedding : embeddings) {
+            builder.replaceMatching(embedding, lhs);
+        }
+        return builder.build();
+    }
+
     /**
      * replaces the embedding in  abstracted by the given nonterminal
      *
@@ -78,6 +111,38 @@ public class DefaultCanonicalizationHelper implements CanonicalizationHelper {
         return null;
     }
 
+    @Override
+    public HeapConfiguration tryReplaceMatching(HeapConfiguration toAbstract,
+                                                CollapsedHeapConfiguration rhs,
+                                                Nonterminal lhs, TIntSet nodes) {
+
+        AbstractMatchingChecker checker = provider.getEmbeddingChecker(toAbstract, rhs.getCollapsed(), nodes);
+
+        if (checker.hasMatching()) {
+
+            Matching embedding = checker.getMatching();
+            return replaceCollapsedEmbeddingBy(toAbstract, embedding, lhs, rhs.getOriginalToCollapsedExternalIndices());
+        }
+        return null;
+    }
+
+    @Override
+    public HeapConfiguration tryReplaceDisjointMatchings(HeapConfiguration toAbstract,
+                                                         CollapsedHeapConfiguration rhs,
+                                                         Nonterminal lhs, TIntSet nodes) {
+
+        List<Matching> embeddings = provider.getDisjointEmbeddings(toAbstract, rhs.getCollapsed(), nodes);
+        if (embeddings.isEmpty()) {
+            return null;
+        }
+
+        HeapConfigurationBuilder builder = toAbstract.clone().builder();
+        for (Matching embedding : embeddings) {
+            builder.replaceMatchingWithCollapsedExternals(embedding, lhs, rhs.getOriginalToCollapsedExternalIndices());
+        }
+        return builder.build();
+    }
+
     private HeapConfiguration replaceCollapsedEmbeddingBy(HeapConfiguration toAbstract,
                                                           Matching embedding,
                                                           Nonterminal nonterminal,
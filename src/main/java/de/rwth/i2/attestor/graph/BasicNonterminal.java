@@ -91,7 +91,7 @@ public final class BasicNonterminal implements Nonterminal {
         private final Map<String, BasicNonterminal>
                 knownNonterminals = new LinkedHashMap<>();
 
-        public BasicNonterminal get(String name) {
+        public synchronized BasicNonterminal get(String name) {
 
             if (!knownNonterminals.containsKey(name)) {
                 throw new IllegalArgumentException("Requested nonterminal does not exist. Requested was "
@@ -110,7 +110,7 @@ public final class BasicNonterminal implements Nonterminal {
          *                            reduction tentacle (value true) or not (value false).
          * @return The requested nonterminal symbol. If this object does not exist, it will be created first.
          */
-        public BasicNonterminal create(String label, int rank, boolean[] isReductionTentacle) {
+        public synchronized BasicNonterminal create(String label, int rank, boolean[] isReductionTentacle) {
 
             BasicNonterminal res;
             if (!knownNonterminals.containsKey(label)) {
@@ -54,13 +54,13 @@ public class BasicSelectorLabel implements SelectorLabel {
 
         private final Map<String, SelectorLabel> knownSelectorLabels = new LinkedHashMap<>();
 
-        public SelectorLabel get(String name) {
+        public synchronized SelectorLabel get(String name) {
 
             SelectorLabel result = knownSelectorLabels.computeIfAbsent(name, BasicSelectorLabel::new);
             return result;
         }
 
-        public Collection<SelectorLabel> getAllAvailableSelectors() {
+        public synchronized Collection<SelectorLabel> getAllAvailableSelectors() {
 
             return knownSelectorLabels.values();
         }
@@ -0,0 +1,260 @@
+package de.rwth.i2.attestor.graph.digraph;
+
+import gnu.trove.list.array.TIntArrayList;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An immutable representation of a packed {@link LabeledDigraph} in compressed sparse row format.
+ * The successors and predecessors of all nodes are stored in a single array each, where the
+ * successors of node i are located between offsets i and i+1.
+ * Edge labels are interned per graph, i.e. each edge stores the index of its label in a table of
+ * all distinct edge labels. Additionally, the global identifier of each label in the {@link SymbolTable}
+ * is stored such that edge labels of different graphs can be compared without calling equals.
+ * <p>
+ * Since a CompactDigraph is never modified, it may be shared between arbitrary many copies of a LabeledDigraph.
+ * The lists returned by {@link #successorsOf(int)} and {@link #predecessorsOf(int)} are created on demand
+ * and cached afterwards. They must not be modified.
+ */
+final class CompactDigraph {
+
+    private final NodeLabel[] nodeLabels;
+
+    private final int[] successorOffsets;
+    private final int[] successors;
+    private final int[] edgeLabelIds;
+    private final Object[] edgeLabelTable;
+    private final int[] edgeLabelSymbols;
+
+    private final int[] predecessorOffsets;
+    private final int[] predecessors;
+
+    private final int[] externalNodes;
+
+    private final AtomicReferenceArray<TIntArrayList> successorLists;
+    private final AtomicReferenceArray<TIntArrayList> predecessorLists;
+
+    /**
+     * Creates a compact representation of the given graph.
+     *
+     * @param graph A packed graph.
+     */
+    CompactDigraph(LabeledDigraph graph) {
+
+        int size = graph.size();
+        nodeLabels = new NodeLabel[size];
+        externalNodes = new int[graph.rank()];
+        for (int i = 0; i < externalNodes.length; i++) {
+            externalNodes[i] = graph.externalNodeAt(i);
+        }
+
+        successorOffsets = new int[size + 1];
+        predecessorOffsets = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            nodeLabels[i] = graph.nodeLabelOf(i);
+            successorOffsets[i + 1] = successorOffsets[i] + graph.successorSizeOf(i);
+            predecessorOffsets[i + 1] = predecessorOffsets[i] + graph.predecessorSizeOf(i);
+        }
+
+        successors = new int[successorOffsets[size]];
+        edgeLabelIds = new int[successorOffsets[size]];
+        predecessors = new int[predecessorOffsets[size]];
+
+        List<Object> labelTable = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int offset = successorOffsets[i];
+            for (int j = 0; j < successorOffsets[i + 1] - offset; j++) {
+                successors[offset + j] = graph.successorAt(i, j);
+                edgeLabelIds[offset + j] = intern(labelTable, graph.edgeLabelAt(i, j));
+            }
+            offset = predecessorOffsets[i];
+            for (int j = 0; j < predecessorOffsets[i + 1] - offset; j++) {
+                predecessors[offset + j] = graph.predecessorAt(i, j);
+            }
+        }
+        edgeLabelTable = labelTable.toArray();
+        edgeLabelSymbols = new int[edgeLabelTable.length];
+        for (int i = 0; i < edgeLabelTable.length; i++) {
+            edgeLabelSymbols[i] = SymbolTable.idOf(edgeLabelTable[i]);
+        }
+
+        successorLists = new AtomicReferenceArray<>(size);
+        predecessorLists = new AtomicReferenceArray<>(size);
+    }
+
+    private static int intern(List<Object> labelTable, Object label) {
+
+        for (int i = 0; i < labelTable.size(); i++) {
+            if (labelTable.get(i).equals(label)) {
+                return i;
+            }
+        }
+        labelTable.add(label);
+        return labelTable.size() - 1;
+    }
+
+    int size() {
+
+        return nodeLabels.length;
+    }
+
+    NodeLabel nodeLabelOf(int node) {
+
+        return nodeLabels[node];
+    }
+
+    int successorSizeOf(int node) {
+
+        return successorOffsets[node + 1] - successorOffsets[node];
+    }
+
+    int predecessorSizeOf(int node) {
+
+        return predecessorOffsets[node + 1] - predecessorOffsets[node];
+    }
+
+    int successorAt(int node, int pos) {
+
+        return successors[successorOffsets[node] + pos];
+    }
+
+    int predecessorAt(int node, int pos) {
+
+        return predecessors[predecessorOffsets[node] + pos];
+    }
+
+    Object edgeLabelAt(int node, int pos) {
+
+        return edgeLabelTable[edgeLabelIds[successorOffsets[node] + pos]];
+    }
+
+    /**
+     * @return The identifier of the label of the given edge in the {@link SymbolTable}.
+     */
+    int edgeLabelSymbolAt(int node, int pos) {
+
+        return edgeLabelSymbols[edgeLabelIds[successorOffsets[node] + pos]];
+    }
+
+    TIntArrayList successorsOf(int node) {
+
+        return rowOf(successorLists, successors, successorOffsets, node);
+    }
+
+    TIntArrayList predecessorsOf(int node) {
+
+        return rowOf(predecessorLists, predecessors, predecessorOffsets, node);
+    }
+
+    private static TIntArrayList rowOf(AtomicReferenceArray<TIntArrayList> lists, int[] values, int[] offsets,
+                                       int node) {
+
+        TIntArrayList result = lists.get(node);
+        if (result == null) {
+            int from = offsets[node];
+            result = new TIntArrayList(offsets[node + 1] - from);
+            result.add(values, from, offsets[node + 1] - from);
+            lists.compareAndSet(node, null, result);
+            result = lists.get(node);
+        }
+        return result;
+    }
+
+    /**
+     * @return An unmodifiable view on the labels of all outgoing edges of the given node.
+     */
+    List<Object> outgoingEdgeLabelsOf(int node) {
+
+        int from = successorOffsets[node];
+        int size = successorOffsets[node + 1] - from;
+        return new AbstractList<Object>() {
+            @Override
+            public Object get(int index) {
+
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+                }
+                return edgeLabelTable[edgeLabelIds[from + index]];
+            }
+
+            @Override
+            public int size() {
+
+                return size;
+            }
+        };
+    }
+
+    int posOfEdgeLabel(int node, Object label) {
+
+        int labelId = LabeledDigraph.INVALID;
+        for (int i = 0; i < edgeLabelTable.length; i++) {
+            if (label.equals(edgeLabelTable[i])) {
+                labelId = i;
+                break;
+            }
+        }
+
+        if (labelId != LabeledDigraph.INVALID) {
+            for (int i = successorOffsets[node]; i < successorOffsets[node + 1]; i++) {
+                if (edgeLabelIds[i] == labelId) {
+                    return i - successorOffsets[node];
+                }
+            }
+        }
+
+        return LabeledDigraph.INVALID;
+    }
+
+    int rank() {
+
+        return externalNodes.length;
+    }
+
+    int externalNodeAt(int pos) {
+
+        return externalNodes[pos];
+    }
+
+    /**
+     * @return A modifiable copy of the successors of the given node.
+     */
+    TIntArrayList copySuccessorsOf(int node) {
+
+        return copyOf(successors, successorOffsets, node);
+    }
+
+    /**
+     * @return A modifiable copy of the predecessors of the given node.
+     */
+    TIntArrayList copyPredecessorsOf(int node) {
+
+        return copyOf(predecessors, predecessorOffsets, node);
+    }
+
+    private static TIntArrayList copyOf(int[] values, int[] offsets, int node) {
+
+        int from = offsets[node];
+        int size = offsets[node + 1] - from;
+        TIntArrayList result = new TIntArrayList(size + 2);
+        result.add(values, from, size);
+        return result;
+    }
+
+    /**
+     * @return A modifiable copy of the labels of all outgoing edges of the given node.
+     */
+    List<Object> copyOutgoingEdgeLabelsOf(int node) {
+
+        int from = successorOffsets[node];
+        int size = successorOffsets[node + 1] - from;
+        List<Object> result = new ArrayList<>(size + 2);
+        for (int i = from; i < from + size; i++) {
+            result.add(edgeLabelTable[edgeLabelIds[i]]);
+        }
+        return result;
+    }
+}
@@ -2,9 +2,12 @@ package de.rwth.i2.attestor.graph.digraph;
 
 import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
 import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 
@@ -14,6 +17,12 @@ import java.util.List;
  * Edges can be labeled with arbitrary objects and are identified by their source node and either
  * their label or their position on the sequence of outgoing edges of a node.
  * Note that multiple edges between two nodes as well as loops are allowed.
+ * <p>
+ * A packed LabeledDigraph can be frozen by {@link #freeze()}. A frozen LabeledDigraph is stored in a compact,
+ * immutable representation that is shared by all of its copies. The first modification of a frozen LabeledDigraph
+ * restores the mutable representation. Restoring is copy-on-write: the successors, predecessors and edge labels
+ * of a node are only copied from the compact representation once they are accessed by a modification or
+ * by one of the methods returning lists.
  *
  * @author Christoph
  */
@@ -27,17 +36,17 @@ public class LabeledDigraph {
     /**
      * The label of each node.
      */
-    private final List<NodeLabel> nodeLabels;
+    private List<NodeLabel> nodeLabels;
 
     /**
      * List of all successor nodes of each node.
      */
-    private final List<TIntArrayList> successors;
+    private List<TIntArrayList> successors;
 
     /**
      * List of all predecessor nodes of each node.
      */
-    private final List<TIntArrayList> predecessors;
+    private List<TIntArrayList> predecessors;
 
     /**
      * A list of edge labels for each node.
@@ -46,12 +55,36 @@ public class LabeledDigraph {
      * refers to the edge labels from the i-th node to its j-th successor node.
      * That is, the node {@code edgeLabels.get(i).get(j)}.
      */
-    private final List<List<Object>> edgeLabels;
+    private List<List<Object>> edgeLabels;
 
     /**
      * A list of all "external" (special marked) nodes.
      */
-    private final TIntArrayList externalNodes;
+    private TIntArrayList externalNodes;
+
+    /**
+     * The compact representation of this LabeledDigraph if it is frozen and null otherwise.
+     * If this LabeledDigraph is frozen, the mutable data structures above are null.
+     */
+    private CompactDigraph compact;
+
+    /**
+     * The compact representation this LabeledDigraph has been restored from if it is not frozen.
+     * A null entry in successors, predecessors or edgeLabels for a valid node means that the corresponding
+     * list has not been copied yet and is still stored in base under the same node.
+     */
+    private CompactDigraph base;
+
+    /**
+     * True if this LabeledDigraph has been modified since it has been restored from base.
+     */
+    private boolean modified;
+
+    /**
+     * The nodes that have been modified since {@link #startRecordingModifications()} has been called
+     * or null if modifications are currently not recorded.
+     */
+    private TIntSet modifiedNodes;
 
     /**
      * Creates a new LabeledDigraph.
@@ -75,10 +108,17 @@ public class LabeledDigraph {
      */
     public LabeledDigraph(LabeledDigraph digraph) {
 
+        if (digraph.compact != null) {
+            compact = digraph.compact;
+            return;
+        }
+
         int size = digraph.nodeLabels.size();
 
         nodeLabels = new ArrayList<>(digraph.nodeLabels);
         externalNodes = new TIntArrayList(digraph.externalNodes);
+        base = digraph.base;
+        modified = digraph.modified;
 
         successors = new ArrayList<>(size);
         predecessors = new ArrayList<>(size);
@@ -86,9 +126,12 @@ public class LabeledDigraph {
 
         for (int i = 0; i < size; i++) {
 
-            successors.add(new TIntArrayList(digraph.successors.get(i)));
-            predecessors.add(new TIntArrayList(digraph.predecessors.get(i)));
-            edgeLabels.add(new ArrayList<>(digraph.edgeLabels.get(i)));
+            TIntArrayList succ = digraph.successors.get(i);
+            TIntArrayList pred = digraph.predecessors.get(i);
+            List<Object> labels = digraph.edgeLabels.get(i);
+            successors.add(succ == null ? null : new TIntArrayList(succ));
+            predecessors.add(pred == null ? null : new TIntArrayList(pred));
+            edgeLabels.add(labels == null ? null : new ArrayList<>(labels));
         }
     }
 
@@ -97,9 +140,163 @@ public class LabeledDigraph {
      */
     public int size() {
 
+        if (compact != null) {
+            return compact.size();
+        }
         return nodeLabels.size();
     }
 
+    /**
+     * Stores this LabeledDigraph in a compact, immutable representation that is shared with all copies
+     * created afterwards. Has no effect if this LabeledDigraph is already frozen.
+     *
+     * @throws IllegalStateException if this LabeledDigraph is not packed.
+     */
+    public void freeze() {
+
+        if (compact != null) {
+            return;
+        }
+
+        if (!isPacked()) {
+            throw new IllegalStateException("Only packed graphs can be frozen.");
+        }
+
+        compact = (base != null && !modified) ? base : new CompactDigraph(this);
+        base = null;
+        nodeLabels = null;
+        successors = null;
+        predecessors = null;
+        edgeLabels = null;
+        externalNodes = null;
+    }
+
+    /**
+     * @return True if and only if this LabeledDigraph is currently stored in its compact, immutable representation.
+     */
+    public boolean isFrozen() {
+
+        return compact != null;
+    }
+
+    /**
+     * Restores the mutable representation of this LabeledDigraph if it is frozen.
+     * This method is invoked implicitly by all methods modifying this LabeledDigraph.
+     * Adjacency lists of nodes are not copied until they are accessed.
+     */
+    public void thaw() {
+
+        if (compact == null) {
+            return;
+        }
+
+        int size = compact.size();
+        nodeLabels = new ArrayList<>(size);
+        externalNodes = new TIntArrayList(compact.rank());
+        for (int i = 0; i < size; i++) {
+            nodeLabels.add(compact.nodeLabelOf(i));
+        }
+        for (int i = 0; i < compact.rank(); i++) {
+            externalNodes.add(compact.externalNodeAt(i));
+        }
+        successors = new ArrayList<>(Collections.nCopies(size, null));
+        predecessors = new ArrayList<>(Collections.nCopies(size, null));
+        edgeLabels = new ArrayList<>(Collections.nCopies(size, null));
+        base = compact;
+        compact = null;
+        modified = false;
+    }
+
+    /**
+     * Restores the mutable representation of this LabeledDigraph if necessary
+     * and records that it is about to be modified.
+     */
+    private void prepareModification() {
+
+        thaw();
+        modified = true;
+    }
+
+    /**
+     * Starts recording all nodes that are modified by subsequent changes of this LabeledDigraph.
+     * A node is modified if its label, its incident edges, or whether it is external changes.
+     * Removing a node modifies all of its neighbours.
+     * Since positions of nodes change if the graph is packed, recording has to be stopped before packing.
+     */
+    public void startRecordingModifications() {
+
+        modifiedNodes = new TIntHashSet();
+    }
+
+    /**
+     * Stops recording modified nodes.
+     *
+     * @return The nodes that have been modified since recording has been started or null if no modifications
+     * have been recorded. Removed nodes are included.
+     */
+    public TIntSet stopRecordingModifications() {
+
+        TIntSet result = modifiedNodes;
+        modifiedNodes = null;
+        return result;
+    }
+
+    private void recordModification(int node) {
+
+        if (modifiedNodes != null) {
+            modifiedNodes.add(node);
+        }
+    }
+
+    private void recordModifications(TIntArrayList nodes) {
+
+        if (modifiedNodes != null) {
+            modifiedNodes.addAll(nodes);
+        }
+    }
+
+    /**
+     * @param node A valid node of this LabeledDigraph, which is not frozen.
+     * @return The modifiable list of successors of node.
+     */
+    private TIntArrayList successorList(int node) {
+
+        TIntArrayList result = successors.get(node);
+        if (result == null) {
+            result = base.copySuccessorsOf(node);
+            successors.set(node, result);
+        }
+        return result;
+    }
+
+    /**
+     * @param node A valid node of this LabeledDigraph, which is not frozen.
+     * @return The modifiable list of predecessors of node.
+     */
+    private TIntArrayList predecessorList(int node) {
+
+        TIntArrayList result = predecessors.get(node);
+        if (result == null) {
+            result = base.copyPredecessorsOf(node);
+            predecessors.set(node, result);
+        }
+        return result;
+    }
+
+    /**
+     * @param node A valid node of this LabeledDigraph, which is not frozen.
+     * @return The modifiable list of labels of outgoing edges of node.
+     */
+    private List<Object> edgeLabelList(int node) {
+
+        List<Object> result = edgeLabels.get(node);
+        if (result == null) {
+            result = base.copyOutgoingEdgeLabelsOf(node);
+            edgeLabels.set(node, result);
+        }
+        return result;
+    }
+
     /**
      * Adds a new node with the provided label.
      *
@@ -111,6 +308,8 @@ public class LabeledDigraph {
      */
     public void addNode(NodeLabel label, int successorCapacity, int predecessorCapacity) {
 
+        prepareModification();
+        recordModification(nodeLabels.size());
         nodeLabels.add(label);
         successors.add(new TIntArrayList(successorCapacity));
         predecessors.add(new TIntArrayList(predecessorCapacity));
@@ -125,6 +324,9 @@ public class LabeledDigraph {
 
         if (containsNode(node)) {
 
+            if (compact != null) {
+                return compact.nodeLabelOf(node);
+            }
             return nodeLabels.get(node);
         } else {
             return null;
@@ -137,6 +339,9 @@ public class LabeledDigraph {
      */
     public boolean containsNode(int value) {
 
+        if (compact != null) {
+            return value >= 0 && value < compact.size();
+        }
         return value >= 0 && value < nodeLabels.size() && nodeLabels.get(value) != null;
     }
 
@@ -148,8 +353,24 @@ public class LabeledDigraph {
 
         if (containsNode(node)) {
 
-            removeOccurrences(successors.get(node), predecessors, node);
-            removeOccurrences(predecessors.get(node), successors, node);
+            prepareModification();
+            recordModification(node);
+
+            TIntArrayList succ = successorList(node);
+            recordModifications(succ);
+            for (int i = 0; i < succ.size(); i++) {
+                TIntArrayList l = predecessorList(succ.get(i));
+                //noinspection StatementWithEmptyBody
+                while (l.remove(node)) ;
+            }
+
+            TIntArrayList pred = predecessorList(node);
+            recordModifications(pred);
+            for (int i = 0; i < pred.size(); i++) {
+                TIntArrayList l = successorList(pred.get(i));
+                //noinspection StatementWithEmptyBody
+                while (l.remove(node)) ;
+            }
 
             nodeLabels.set(node, null);
             successors.set(node, null);
@@ -164,25 +385,6 @@ public class LabeledDigraph {
         return false;
     }
 
-    /**
-     * Removes all occurrences of the given value from every provided list that
-     * is referenced in the list of indices.
-     *
-     * @param listsToConsider The indices of all the lists in listsOfLists in which
-     *                        all occurrences of value should be removed.
-     * @param listOfLists     A list of lists in which value should be removed from some lists.
-     * @param value           The value that should be removed.
-     */
-    private void removeOccurrences(TIntArrayList listsToConsider, List<TIntArrayList> listOfLists, int value) {
-
-        for (int i = 0; i < listsToConsider.size(); i++) {
-
-            TIntArrayList l = listOfLists.get(listsToConsider.get(i));
-            //noinspection StatementWithEmptyBody
-            while (l.remove(value)) ;
-        }
-    }
-
     /**
      * Adds a new edge from node from to node to that is labeled with label
      * provided that the two nodes exists and label is not null.
@@ -195,9 +397,12 @@ public class LabeledDigraph {
 
         if (containsNode(from) && containsNode(to) && label != null) {
 
-            successors.get(from).add(to);
-            predecessors.get(to).add(from);
-            edgeLabels.get(from).add(label);
+            prepareModification();
+            recordModification(from);
+            recordModification(to);
+            successorList(from).add(to);
+            predecessorList(to).add(from);
+            edgeLabelList(from).add(label);
         }
 
     }
@@ -210,7 +415,11 @@ public class LabeledDigraph {
     public int successorSizeOf(int node) {
 
         if (containsNode(node)) {
-            return successors.get(node).size();
+            if (compact != null) {
+                return compact.successorSizeOf(node);
+            }
+            TIntArrayList succ = successors.get(node);
+            return succ == null ? base.successorSizeOf(node) : succ.size();
         } else {
             return 0;
         }
@@ -224,6 +433,10 @@ public class LabeledDigraph {
      */
     public boolean isPacked() {
 
+        if (compact != null) {
+            return true;
+        }
+
         for (Object o : nodeLabels) {
 
             if (o == null) {
@@ -243,7 +456,11 @@ public class LabeledDigraph {
     public int predecessorSizeOf(int node) {
 
         if (containsNode(node)) {
-            return predecessors.get(node).size();
+            if (compact != null) {
+                return compact.predecessorSizeOf(node);
+            }
+            TIntArrayList pred = predecessors.get(node);
+            return pred == null ? base.predecessorSizeOf(node) : pred.size();
         } else {
             return 0;
         }
@@ -258,7 +475,10 @@ public class LabeledDigraph {
     public List<Object> outgoingEdgeLabelsOf(int node) {
 
         if (containsNode(node)) {
-            return edgeLabels.get(node);
+            if (compact != null) {
+                return compact.outgoingEdgeLabelsOf(node);
+            }
+            return edgeLabelList(node);
         }
 
         return null;
@@ -275,7 +495,13 @@ public class LabeledDigraph {
     public Object edgeLabelAt(int node, int pos) {
 
         if (containsNode(node)) {
+            if (compact != null) {
+                return pos >= 0 && pos < compact.successorSizeOf(node) ? compact.edgeLabelAt(node, pos) : null;
+            }
             List<Object> labels = edgeLabels.get(node);
+            if (labels == null) {
+                return pos >= 0 && pos < base.successorSizeOf(node) ? base.edgeLabelAt(node, pos) : null;
+            }
             if (pos < labels.size()) {
                 return labels.get(pos);
             }
@@ -284,6 +510,31 @@ public class LabeledDigraph {
         return null;
     }
 
+    /**
+     * @param node The node whose outgoing edges are considered.
+     * @param pos  Ask for the outgoing edge of node at position pos.
+     * @return The identifier of the label of the edge determined by node and pos in a global table of
+     * interned edge labels. For frozen graphs, the identifier is looked up in the compact representation.
+     * @see #edgeLabelIdOf(Object)
+     */
+    public int edgeLabelIdAt(int node, int pos) {
+
+        if (compact != null) {
+            return compact.edgeLabelSymbolAt(node, pos);
+        }
+        return SymbolTable.idOf(edgeLabelAt(node, pos));
+    }
+
+    /**
+     * @param label An edge label.
+     * @return The identifier of the given label in a global table of interned edge labels.
+     * Two edge labels are equal if and only if their identifiers coincide.
+     */
+    public static int edgeLabelIdOf(Object label) {
+
+        return SymbolTable.idOf(label);
+    }
+
     /**
      * Removes the outgoing edge of node that is at position pos.
      *
@@ -293,14 +544,18 @@ public class LabeledDigraph {
      */
     public boolean removeEdgeAt(int node, int pos) {
 
-        if (containsNode(node) && pos < successors.get(node).size()) {
+        if (containsNode(node) && pos < successorSizeOf(node)) {
 
-            int to = successors.get(node).get(pos);
+            prepareModification();
+            TIntArrayList succ = successorList(node);
+            int to = succ.get(pos);
+            recordModification(node);
+            recordModification(to);
             int toPos = predecessorPosOf(to, node);
-            predecessors.get(to).removeAt(toPos);
+            predecessorList(to).removeAt(toPos);
 
-            successors.get(node).removeAt(pos);
-            edgeLabels.get(node).remove(pos);
+            succ.removeAt(pos);
+            edgeLabelList(node).remove(pos);
 
             return true;
         }
@@ -318,7 +573,7 @@ public class LabeledDigraph {
      */
     private int predecessorPosOf(int to, int from) {
 
-        TIntArrayList pred = predecessors.get(to);
+        TIntArrayList pred = predecessorList(to);
         for (int i = 0; i < pred.size(); i++) {
 
             if (from == pred.get(i)) {
@@ -353,7 +608,14 @@ public class LabeledDigraph {
      */
     public int posOfEdgeLabel(int node, Object label) {
 
+        if (compact != null) {
+            return compact.posOfEdgeLabel(node, label);
+        }
+
         List<Object> l = edgeLabels.get(node);
+        if (l == null) {
+            return base.posOfEdgeLabel(node, label);
+        }
         for (int i = 0; i < l.size(); i++) {
 
             if (label.equals(l.get(i))) {
@@ -373,6 +635,8 @@ public class LabeledDigraph {
 
         if (containsNode(node)) {
 
+            prepareModification();
+            recordModification(node);
             externalNodes.add(node);
         }
 
@@ -383,6 +647,9 @@ public class LabeledDigraph {
      */
     public int rank() {
 
+        if (compact != null) {
+            return compact.rank();
+        }
         return externalNodes.size();
     }
 
@@ -395,8 +662,9 @@ public class LabeledDigraph {
      */
     public int externalPosOf(int node) {
 
-        for (int i = 0; i < externalNodes.size(); i++) {
-            if (externalNodes.get(i) == node) {
+        int rank = rank();
+        for (int i = 0; i < rank; i++) {
+            if (externalNodeAt(i) == node) {
                 return i;
             }
         }
@@ -418,6 +686,8 @@ public class LabeledDigraph {
      */
     public void unsetExternal(int node) {
 
+        prepareModification();
+        recordModification(node);
         //noinspection StatementWithEmptyBody
         while (externalNodes.remove(node)) ;
     }
@@ -432,9 +702,12 @@ public class LabeledDigraph {
      */
     public void replaceEdgeLabel(int node, Object oldLabel, Object newLabel) {
 
-        List<Object> l = edgeLabels.get(node);
+        prepareModification();
+        List<Object> l = edgeLabelList(node);
         for (int i = 0; i < l.size(); i++) {
             if (l.get(i).equals(oldLabel)) {
+                recordModification(node);
+                recordModification(successorList(node).get(i));
                 l.set(i, newLabel);
             }
         }
@@ -458,7 +731,10 @@ public class LabeledDigraph {
     public TIntArrayList predecessorsOf(int node) {
 
         if (containsNode(node)) {
-            return predecessors.get(node);
+            if (compact != null) {
+                return compact.predecessorsOf(node);
+            }
+            return predecessorList(node);
         }
 
         return null;
@@ -471,12 +747,44 @@ public class LabeledDigraph {
     public TIntArrayList successorsOf(int node) {
 
         if (containsNode(node)) {
-            return successors.get(node);
+            if (compact != null) {
+                return compact.successorsOf(node);
+            }
+            return successorList(node);
         }
 
         return null;
     }
 
+    /**
+     * @param node The node whose successor nodes are considered.
+     * @param pos  The position in the sequence of successors of node.
+     * @return The successor of node at position pos. This is the target of the edge
+     * labeled with {@code edgeLabelAt(node, pos)}.
+     */
+    public int successorAt(int node, int pos) {
+
+        if (compact != null) {
+            return compact.successorAt(node, pos);
+        }
+        TIntArrayList succ = successors.get(node);
+        return succ == null ? base.successorAt(node, pos) : succ.get(pos);
+    }
+
+    /**
+     * @param node The node whose predecessor nodes are considered.
+     * @param pos  The position in the sequence of predecessors of node.
+     * @return The predecessor of node at position pos.
+     */
+    public int predecessorAt(int node, int pos) {
+
+        if (compact != null) {
+            return compact.predecessorAt(node, pos);
+        }
+        TIntArrayList pred = predecessors.get(node);
+        return pred == null ? base.predecessorAt(node, pos) : pred.get(pos);
+    }
+
     /**
      * Determines a list of all edge labels with source node 'from' and
      * target node 'to'.
@@ -490,16 +798,54 @@ public class LabeledDigraph {
 
         if (containsNode(from) && containsNode(to)) {
 
-            List<Object> l = edgeLabels.get(from);
-            TIntArrayList succ = successorsOf(from);
+            int size = successorSizeOf(from);
+            List<Object> res = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                if (successorAt(from, i) == to) {
+                    res.add(edgeLabelAt(from, i));
+                }
+            }
+
+            return res;
+        }
+
+        return null;
+    }
+
+    /**
+     * Determines the identifiers of all edge labels with source node 'from' and target node 'to'
+     * in a global table of interned edge labels.
+     * Two edge labels are equal if and only if their identifiers coincide.
+     *
+     * @param from The source node.
+     * @param to   The target node.
+     * @return A sorted array of the identifiers of all edge labels of edges with source 'from' and target 'to'.
+     */
+    public int[] edgeLabelIdsFromTo(int from, int to) {
+
+        if (containsNode(from) && containsNode(to)) {
+
+            int size = successorSizeOf(from);
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (successorAt(from, i) == to) {
+                    ++count;
+                }
+            }
 
-            List<Object> res = new ArrayList<>(l.size());
-            for (int i = 0; i < l.size(); i++) {
-                if (succ.get(i) == to) {
-                    res.add(l.get(i));
+            int[] res = new int[count];
+            count = 0;
+            for (int i = 0; i < size && count < res.length; i++) {
+                if (successorAt(from, i) == to) {
+                    res[count++] = compact != null
+                            ? compact.edgeLabelSymbolAt(from, i)
+                            : SymbolTable.idOf(edgeLabelAt(from, i));
                 }
             }
 
+            if (res.length > 1) {
+                Arrays.sort(res);
+            }
             return res;
         }
 
@@ -518,9 +864,13 @@ public class LabeledDigraph {
      */
     public int[] pack() {
 
-        int[] result = new int[nodeLabels.size()];
+        int[] result = new int[size()];
         Arrays.fill(result, HeapConfiguration.INVALID_ELEMENT);
 
+        if (compact != null) {
+            return result;
+        }
+
         removeNullTail();
 
         for (int i = 0; i < nodeLabels.size() - 1; i++) {
@@ -565,17 +915,20 @@ public class LabeledDigraph {
 
         replaceAll(externalNodes, from, to);
 
-        TIntArrayList predecessorsCopy = new TIntArrayList(predecessors.get(from));
-        for (int i = 0; i < successors.get(from).size(); i++) {
+        // rows stored in base are identified by their original position and thus have to be copied first
+        edgeLabelList(from);
+        TIntArrayList predecessorsCopy = new TIntArrayList(predecessorList(from));
+        TIntArrayList successorsOfFrom = successorList(from);
+        for (int i = 0; i < successorsOfFrom.size(); i++) {
 
-            int s = successors.get(from).get(i);
-            replaceAll(predecessors.get(s), from, to);
+            int s = successorsOfFrom.get(i);
+            replaceAll(predecessorList(s), from, to);
         }
 
         for (int i = 0; i < predecessorsCopy.size(); i++) {
 
             int p = predecessorsCopy.get(i);
-            replaceAll(successors.get(p), from, to);
+            replaceAll(successorList(p), from, to);
         }
 
         nodeLabels.set(to, nodeLabels.get(from));
@@ -614,8 +967,11 @@ public class LabeledDigraph {
 
     public int externalNodeAt(int pos) {
 
-        if (0 <= pos && pos < externalNodes.size()) {
+        if (0 <= pos && pos < rank()) {
 
+            if (compact != null) {
+                return compact.externalNodeAt(pos);
+            }
             return externalNodes.get(pos);
         }
 
@@ -630,6 +986,8 @@ public class LabeledDigraph {
      */
     public void replaceNodeLabel(int node, NodeLabel newLabel) {
 
+        prepareModification();
+        recordModification(node);
         nodeLabels.set(node, newLabel);
     }
 
@@ -639,21 +997,25 @@ public class LabeledDigraph {
     public String toString() {
 
         StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < nodeLabels.size(); i++) {
+        for (int i = 0; i < size(); i++) {
 
             sb.append(i);
             sb.append(" : ");
-            sb.append(nodeLabels.get(i));
+            sb.append(nodeLabelOf(i));
             sb.append("\n\tsuccessors: ");
-            sb.append(successors.get(i));
+            sb.append(successorsOf(i));
             sb.append("\n\tedge labels: ");
-            sb.append(edgeLabels.get(i));
+            sb.append(outgoingEdgeLabelsOf(i));
             sb.append("\n\tpredecessors: ");
-            sb.append(predecessors.get(i));
+            sb.append(predecessorsOf(i));
             sb.append("\n");
         }
         sb.append("external nodes: ");
-        sb.append(externalNodes);
+        TIntArrayList external = new TIntArrayList(rank());
+        for (int i = 0; i < rank(); i++) {
+            external.add(externalNodeAt(i));
+        }
+        sb.append(external);
 
         return sb.toString();
     }
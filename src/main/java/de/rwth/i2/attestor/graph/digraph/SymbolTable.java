@@ -0,0 +1,34 @@
+package de.rwth.i2.attestor.graph.digraph;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A global table that interns edge labels, i.e. assigns the same dense integer identifier to all equal labels.
+ * Comparing identifiers thus coincides with comparing labels using {@link Object#equals(Object)}, but is
+ * significantly cheaper, in particular for labels of different graphs as is required to compute morphisms.
+ * <p>
+ * Identifiers are never released. This is fine for edge labels, which are either selector labels or
+ * tentacle positions of nonterminal edges and thus determined by the analyzed program and grammar.
+ */
+final class SymbolTable {
+
+    private static final ConcurrentHashMap<Object, Integer> symbolIds = new ConcurrentHashMap<>();
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    private SymbolTable() {
+    }
+
+    /**
+     * @param symbol A label.
+     * @return The unique identifier of the given label.
+     */
+    static int idOf(Object symbol) {
+
+        Integer result = symbolIds.get(symbol);
+        if (result == null) {
+            result = symbolIds.computeIfAbsent(symbol, s -> nextId.getAndIncrement());
+        }
+        return result;
+    }
+}
@@ -7,6 +7,7 @@ import de.rwth.i2.attestor.graph.morphism.MorphismOptions;
 import de.rwth.i2.attestor.types.Type;
 import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.map.TIntIntMap;
+import gnu.trove.set.TIntSet;
 
 import java.util.List;
 
@@ -127,6 +128,12 @@ public interface HeapConfiguration {
      */
     int selectorTargetOf(int node, SelectorLabel sel);
 
+    /**
+     * @param sel A {@link SelectorLabel}.
+     * @return A list of all nodes that are the source of a selector edge labeled with the given SelectorLabel.
+     */
+    TIntArrayList nodesWithSelector(SelectorLabel sel);
+
     /**
      * @return The number of external nodes in this HeapConfiguration.
      */
@@ -177,6 +184,12 @@ public interface HeapConfiguration {
      */
     Nonterminal labelOf(int ntEdge);
 
+    /**
+     * @param label A {@link Nonterminal}.
+     * @return A list of all nonterminal edges in this HeapConfiguration that are labeled with the given Nonterminal.
+     */
+    TIntArrayList nonterminalEdgesWith(Nonterminal label);
+
     /**
      * @param ntEdge A nonterminal edge in this HeapConfiguration.
      * @return The list of nodes attached to the given nonterminal edge.
@@ -222,6 +235,18 @@ public interface HeapConfiguration {
      */
     AbstractMatchingChecker getEmbeddingsOf(HeapConfiguration pattern, MorphismOptions options);
 
+    /**
+     * Returns an AbstractMatchingChecker to search for all occurrences of the given pattern HeapConfiguration
+     * in this HeapConfiguration (the target) that are located within the given nodes.
+     * That is, all nodes of an occurrence belong to the given nodes.
+     *
+     * @param pattern The HeapConfiguration to search for.
+     * @param options Options guiding how embeddings are computed.
+     * @param nodes   The nodes of this HeapConfiguration that may belong to an embedding.
+     * @return An AbstractMatchingChecker to iterate through all found embeddings.
+     */
+    AbstractMatchingChecker getEmbeddingsOf(HeapConfiguration pattern, MorphismOptions options, TIntSet nodes);
+
     /**
      * @param variableName The name of the requested variable.
      * @return The unique node attached to a variable edge with the given name or INVALID_ELEMENT if no such
@@ -235,4 +260,32 @@ public interface HeapConfiguration {
      * to node.
      */
     TIntIntMap attachedNonterminalEdgesWithNonReductionTentacle(int node);
+
+    /**
+     * Computes a hash code that is invariant under isomorphisms which may change the order of external nodes.
+     * Hence, HeapConfigurations that are isomorphic up to a reordering of their external nodes, such as
+     * matching preconditions of contracts, have the same value.
+     *
+     * @return A hash code that ignores the order of external nodes.
+     */
+    int externalOrderInsensitiveHashCode();
+
+    /**
+     * Starts tracking the nodes that are changed by subsequent modifications of this HeapConfiguration.
+     * Copies of this HeapConfiguration continue tracking changes with respect to the same origin.
+     * Previously tracked changes are discarded.
+     *
+     * @param origin An object identifying the state of this HeapConfiguration that is used as a reference point,
+     *               for example the strategy that produced it.
+     */
+    void trackChanges(Object origin);
+
+    /**
+     * A node is changed if its type, one of its attached edges, or whether it is external changed.
+     *
+     * @param origin The object that has been passed to {@link #trackChanges(Object)}.
+     * @return The nodes that have been changed since changes with respect to origin are tracked or null
+     * if changes are not tracked with respect to origin.
+     */
+    TIntSet getChangedNodes(Object origin);
 }
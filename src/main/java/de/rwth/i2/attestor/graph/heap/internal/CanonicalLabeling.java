@@ -0,0 +1,161 @@
+package de.rwth.i2.attestor.graph.heap.internal;
+
+import de.rwth.i2.attestor.graph.digraph.LabeledDigraph;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Computes the {@link HeapCertificate} of a compact {@link LabeledDigraph} by individualization and refinement.
+ * <p>
+ * Starting from the stable coloring computed by {@link ColorRefinement}, the search repeatedly picks a cell
+ * of elements sharing the same color, individualizes each element of this cell in turn and refines the
+ * resulting coloring until it is stable again. Once every element has a distinct color, the colors determine
+ * an order of all elements and thus a candidate certificate. Since cells are chosen only based on colors,
+ * the set of candidates is invariant under isomorphism and the least candidate is a canonical form.
+ * <p>
+ * Highly symmetric graphs may lead to a large number of candidates. The search thus gives up after
+ * {@link #MAX_CANDIDATES} candidates, in which case no certificate is computed and isomorphism has to be
+ * checked by other means.
+ */
+final class CanonicalLabeling {
+
+    /**
+     * The maximal number of candidate certificates that are considered before giving up.
+     */
+    static final int MAX_CANDIDATES = 128;
+
+    private static final int INDIVIDUALIZED = 0x27d4eb2f;
+
+    private final LabeledDigraph graph;
+
+    private HeapCertificate best = null;
+    private int remainingCandidates = MAX_CANDIDATES;
+    private boolean failed = false;
+
+    private CanonicalLabeling(LabeledDigraph graph) {
+
+        this.graph = graph;
+    }
+
+    /**
+     * Computes the certificate of the given graph.
+     *
+     * @param graph A compact graph, i.e. a graph without removed elements.
+     * @return The certificate of the graph or null if the search has been given up.
+     */
+    static HeapCertificate certificateOf(LabeledDigraph graph) {
+
+        CanonicalLabeling labeling = new CanonicalLabeling(graph);
+        labeling.search(ColorRefinement.stableColors(graph, true));
+        if (labeling.failed) {
+            return null;
+        }
+        return labeling.best;
+    }
+
+    private void search(int[] colors) {
+
+        int[] cell = selectTargetCell(colors);
+        if (cell == null) {
+            considerCandidate(colors);
+            return;
+        }
+
+        int numberOfColors = ColorRefinement.countColors(colors);
+        for (int element : cell) {
+            if (failed) {
+                return;
+            }
+            int[] individualized = Arrays.copyOf(colors, colors.length);
+            individualized[element] = ColorRefinement.mix(colors[element] ^ INDIVIDUALIZED);
+            int[] refined = ColorRefinement.refineUntilStable(graph, individualized);
+            if (ColorRefinement.countColors(refined) <= numberOfColors) {
+                // only possible due to a hash collision
+                failed = true;
+                return;
+            }
+            search(refined);
+        }
+    }
+
+    /**
+     * Selects the smallest cell containing more than one element. Ties are broken by the color of the cell.
+     *
+     * @param colors The current coloring.
+     * @return The elements of the selected cell or null if all elements have distinct colors.
+     */
+    private static int[] selectTargetCell(int[] colors) {
+
+        TIntIntMap cellSizes = new TIntIntHashMap(colors.length);
+        for (int color : colors) {
+            cellSizes.adjustOrPutValue(color, 1, 1);
+        }
+
+        boolean found = false;
+        int targetColor = 0;
+        int targetSize = Integer.MAX_VALUE;
+        for (int color : cellSizes.keys()) {
+            int size = cellSizes.get(color);
+            if (size > 1 && (size < targetSize || (size == targetSize && color < targetColor))) {
+                found = true;
+                targetColor = color;
+                targetSize = size;
+            }
+        }
+
+        if (!found) {
+            return null;
+        }
+
+        int[] cell = new int[targetSize];
+        int next = 0;
+        for (int element = 0; element < colors.length; element++) {
+            if (colors[element] == targetColor) {
+                cell[next++] = element;
+            }
+        }
+        return cell;
+    }
+
+    private void considerCandidate(int[] colors) {
+
+        if (--remainingCandidates < 0) {
+            failed = true;
+            return;
+        }
+
+        Integer[] sorted = new Integer[colors.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i;
+        }
+        Arrays.sort(sorted, (a, b) -> Integer.compare(colors[a], colors[b]));
+
+        int[] order = new int[colors.length];
+        int[] position = new int[colors.length];
+        for (int pos = 0; pos < order.length; pos++) {
+            order[pos] = sorted[pos];
+            position[sorted[pos]] = pos;
+        }
+
+        HeapCertificate candidate = HeapCertificate.encode(graph, order, position);
+        if (candidate == null) {
+            failed = true;
+            return;
+        }
+
+        if (best == null) {
+            best = candidate;
+            return;
+        }
+
+        int cmp = candidate.compareCodeTo(best);
+        if (cmp < 0) {
+            best = candidate;
+        } else if (cmp == 0 && !candidate.equals(best)) {
+            // distinct labels with identical hash codes; the least candidate is not uniquely determined
+            failed = true;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package de.rwth.i2.attestor.graph.heap.internal;
+
+import de.rwth.i2.attestor.graph.digraph.LabeledDigraph;
+import de.rwth.i2.attestor.graph.digraph.NodeLabel;
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+
+/**
+ * Computes isomorphism-invariant colors for the elements of the {@link LabeledDigraph} underlying an
+ * {@link InternalHeapConfiguration} by means of color refinement (also known as the one-dimensional
+ * Weisfeiler-Lehman algorithm).
+ * <p>
+ * Initially, each element is colored by its label, its number of incoming and outgoing edges and
+ * its position in the sequence of external nodes.
+ * In each round, the color of an element is then combined with the multiset of colors of its neighbours
+ * together with the labels of the connecting edges, i.e. selector labels and tentacle positions.
+ * Refinement stops as soon as the number of distinct colors does not increase anymore.
+ * <p>
+ * Since colors are only computed from labels and the graph structure, isomorphic heap configurations
+ * always receive the same colors for corresponding elements and thus the same hash value.
+ */
+final class ColorRefinement {
+
+    /**
+     * Position used instead of an external index for all external nodes if the order
+     * of external nodes should be ignored.
+     */
+    private static final int ANY_EXTERNAL_POSITION = Integer.MAX_VALUE;
+
+    private static final int OUTGOING = 0x5bd1e995;
+    private static final int INCOMING = 0x1b873593;
+
+    private ColorRefinement() {
+    }
+
+    /**
+     * Computes a hash value of the given graph that is invariant under isomorphism.
+     *
+     * @param graph                The graph whose hash value should be computed.
+     * @param respectExternalOrder True if the position of external nodes should be taken into account.
+     *                             Otherwise, only whether a node is external or not is considered.
+     * @return The computed hash value.
+     */
+    static int hash(LabeledDigraph graph, boolean respectExternalOrder) {
+
+        int[] colors = stableColors(graph, respectExternalOrder);
+
+        // the sum is independent of the order of elements
+        int colorSum = 0;
+        for (int color : colors) {
+            colorSum += mix(color);
+        }
+        return mix(graph.rank() ^ colorSum);
+    }
+
+    /**
+     * Computes colors for all elements of the given graph until the induced partition is stable.
+     *
+     * @param graph                The graph whose elements should be colored.
+     * @param respectExternalOrder True if the position of external nodes should be taken into account.
+     * @return An array containing the color of each element, indexed by the private ids of the elements.
+     * Invalid elements, i.e. elements that have been removed from a mutable graph, are colored by 0.
+     */
+    static int[] stableColors(LabeledDigraph graph, boolean respectExternalOrder) {
+
+        return refineUntilStable(graph, initialColors(graph, respectExternalOrder));
+    }
+
+    /**
+     * Refines the given coloring until the induced partition is stable.
+     *
+     * @param graph  The graph whose elements are colored.
+     * @param colors The initial color of each element, indexed by private ids.
+     * @return The refined colors.
+     */
+    static int[] refineUntilStable(LabeledDigraph graph, int[] colors) {
+
+        int numberOfColors = countColors(colors);
+
+        for (int round = 0; round < colors.length; round++) {
+            int[] refinedColors = refine(graph, colors);
+            int refinedNumberOfColors = countColors(refinedColors);
+            colors = refinedColors;
+            if (refinedNumberOfColors <= numberOfColors) {
+                break;
+            }
+            numberOfColors = refinedNumberOfColors;
+        }
+
+        return colors;
+    }
+
+    private static int[] initialColors(LabeledDigraph graph, boolean respectExternalOrder) {
+
+        int[] colors = new int[graph.size()];
+        for (int i = 0; i < colors.length; i++) {
+            NodeLabel label = graph.nodeLabelOf(i);
+            if (label == null) {
+                continue;
+            }
+            int externalPos = graph.externalPosOf(i);
+            if (!respectExternalOrder && externalPos != LabeledDigraph.INVALID) {
+                externalPos = ANY_EXTERNAL_POSITION;
+            }
+            int color = label.hashCode();
+            color = 31 * color + externalPos;
+            color = 31 * color + graph.successorSizeOf(i);
+            color = 31 * color + graph.predecessorSizeOf(i);
+            colors[i] = mix(color);
+        }
+        return colors;
+    }
+
+    private static int[] refine(LabeledDigraph graph, int[] colors) {
+
+        int[] outgoing = new int[colors.length];
+        int[] incoming = new int[colors.length];
+
+        for (int from = 0; from < colors.length; from++) {
+            if (graph.nodeLabelOf(from) == null) {
+                continue;
+            }
+            int size = graph.successorSizeOf(from);
+            for (int i = 0; i < size; i++) {
+                int to = graph.successorAt(from, i);
+                int edgeLabel = graph.edgeLabelAt(from, i).hashCode();
+                // sums are used to combine multisets of neighbouring colors independently of their order
+                outgoing[from] += mix(colors[to] ^ mix(edgeLabel ^ OUTGOING));
+                incoming[to] += mix(colors[from] ^ mix(edgeLabel ^ INCOMING));
+            }
+        }
+
+        int[] result = new int[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            if (graph.nodeLabelOf(i) == null) {
+                continue;
+            }
+            int color = colors[i];
+            color = 31 * color + outgoing[i];
+            color = 31 * color + incoming[i];
+            result[i] = mix(color);
+        }
+        return result;
+    }
+
+    static int countColors(int[] colors) {
+
+        TIntSet distinctColors = new TIntHashSet(colors.length);
+        for (int color : colors) {
+            distinctColors.add(color);
+        }
+        return distinctColors.size();
+    }
+
+    /**
+     * Finalization step of MurmurHash3 to spread the bits of combined hash values.
+     */
+    static int mix(int h) {
+
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,181 @@
+package de.rwth.i2.attestor.graph.heap.internal;
+
+import de.rwth.i2.attestor.graph.digraph.LabeledDigraph;
+import de.rwth.i2.attestor.graph.digraph.NodeLabel;
+import gnu.trove.list.array.TIntArrayList;
+
+import java.util.Arrays;
+
+/**
+ * A certificate of an {@link InternalHeapConfiguration}, i.e. an encoding of its underlying
+ * {@link LabeledDigraph} in a canonical order of its elements.
+ * Two heap configurations have equal certificates if and only if they are isomorphic.
+ * Hence, certificates can be used as keys in hash-based data structures to detect isomorphic
+ * heap configurations without computing graph morphisms.
+ * <p>
+ * Certificates are obtained via {@link InternalHeapConfiguration#getCertificate()}.
+ */
+public final class HeapCertificate {
+
+    /**
+     * The labels of all elements in canonical order.
+     */
+    private final NodeLabel[] nodeLabels;
+
+    /**
+     * The labels of all edges ordered by the canonical positions of their source and target.
+     */
+    private final Object[] edgeLabels;
+
+    /**
+     * An integer encoding of the certificate consisting of the hash codes of all node labels, the canonical
+     * positions of all external nodes and, for each edge, the canonical positions of its source and target
+     * together with the hash code of its label.
+     */
+    private final int[] code;
+
+    private final int hashCode;
+
+    private HeapCertificate(NodeLabel[] nodeLabels, Object[] edgeLabels, int[] code) {
+
+        this.nodeLabels = nodeLabels;
+        this.edgeLabels = edgeLabels;
+        this.code = code;
+        this.hashCode = Arrays.hashCode(code);
+    }
+
+    /**
+     * @return A fresh certificate that is not obtained by encoding a graph. It can be used to mark that no
+     * certificate exists, but must only be compared by identity.
+     */
+    static HeapCertificate createSentinel() {
+
+        return new HeapCertificate(new NodeLabel[0], new Object[0], new int[0]);
+    }
+
+    /**
+     * Encodes a graph with respect to a given order of its elements.
+     *
+     * @param graph    The graph that should be encoded.
+     * @param order    The private ids of all elements of the graph in the order in which they should be encoded.
+     * @param position The inverse of order, i.e. the position of each private id.
+     * @return The resulting certificate or null if the encoding is not uniquely determined by the given order.
+     * This is only the case if two parallel edges carry distinct labels with identical hash codes.
+     */
+    static HeapCertificate encode(LabeledDigraph graph, int[] order, int[] position) {
+
+        int size = order.length;
+        NodeLabel[] nodeLabels = new NodeLabel[size];
+        TIntArrayList edges = new TIntArrayList();
+        Object[] labelsOfEdges = new Object[0];
+        int numberOfEdges = 0;
+
+        for (int pos = 0; pos < size; pos++) {
+            int node = order[pos];
+            nodeLabels[pos] = graph.nodeLabelOf(node);
+            int successorSize = graph.successorSizeOf(node);
+            if (labelsOfEdges.length < numberOfEdges + successorSize) {
+                labelsOfEdges = Arrays.copyOf(labelsOfEdges, 2 * (numberOfEdges + successorSize));
+            }
+            for (int i = 0; i < successorSize; i++) {
+                Object label = graph.edgeLabelAt(node, i);
+                edges.add(pos);
+                edges.add(position[graph.successorAt(node, i)]);
+                edges.add(label.hashCode());
+                labelsOfEdges[numberOfEdges++] = label;
+            }
+        }
+
+        Integer[] edgeOrder = new Integer[numberOfEdges];
+        for (int i = 0; i < numberOfEdges; i++) {
+            edgeOrder[i] = i;
+        }
+        Arrays.sort(edgeOrder, (a, b) -> {
+            for (int k = 0; k < 3; k++) {
+                int cmp = Integer.compare(edges.get(3 * a + k), edges.get(3 * b + k));
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return 0;
+        });
+
+        int rank = graph.rank();
+        int[] code = new int[size + rank + 3 * numberOfEdges];
+        for (int pos = 0; pos < size; pos++) {
+            code[pos] = nodeLabels[pos].hashCode();
+        }
+        for (int i = 0; i < rank; i++) {
+            code[size + i] = position[graph.externalNodeAt(i)];
+        }
+
+        Object[] edgeLabels = new Object[numberOfEdges];
+        int offset = size + rank;
+        for (int i = 0; i < numberOfEdges; i++) {
+            int edge = edgeOrder[i];
+            for (int k = 0; k < 3; k++) {
+                code[offset + 3 * i + k] = edges.get(3 * edge + k);
+            }
+            edgeLabels[i] = labelsOfEdges[edge];
+            if (i > 0 && compare(code, offset + 3 * (i - 1), offset + 3 * i, 3) == 0
+                    && !edgeLabels[i - 1].equals(edgeLabels[i])) {
+                return null;
+            }
+        }
+
+        return new HeapCertificate(nodeLabels, edgeLabels, code);
+    }
+
+    /**
+     * Compares the integer encodings of two certificates of the same graph lexicographically.
+     */
+    int compareCodeTo(HeapCertificate other) {
+
+        int cmp = Integer.compare(code.length, other.code.length);
+        if (cmp != 0) {
+            return cmp;
+        }
+        for (int i = 0; i < code.length; i++) {
+            cmp = Integer.compare(code[i], other.code[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    private static int compare(int[] array, int first, int second, int length) {
+
+        for (int i = 0; i < length; i++) {
+            int cmp = Integer.compare(array[first + i], array[second + i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public boolean equals(Object otherObject) {
+
+        if (otherObject == this) {
+            return true;
+        }
+
+        if (otherObject == null || otherObject.getClass() != HeapCertificate.class) {
+            return false;
+        }
+
+        HeapCertificate other = (HeapCertificate) otherObject;
+        return hashCode == other.hashCode
+                && Arrays.equals(code, other.code)
+                && Arrays.equals(nodeLabels, other.nodeLabels)
+                && Arrays.equals(edgeLabels, other.edgeLabels);
+    }
+
+    @Override
+    public int hashCode() {
+
+        return hashCode;
+    }
+}
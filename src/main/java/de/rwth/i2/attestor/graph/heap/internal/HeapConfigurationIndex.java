@@ -0,0 +1,112 @@
+package de.rwth.i2.attestor.graph.heap.internal;
+
+import de.rwth.i2.attestor.graph.Nonterminal;
+import de.rwth.i2.attestor.graph.SelectorLabel;
+import de.rwth.i2.attestor.graph.digraph.LabeledDigraph;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import gnu.trove.list.array.TIntArrayList;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Secondary indexes of an immutable {@link InternalHeapConfiguration} that map variable names,
+ * nonterminal labels, and selector labels to the public IDs of the elements carrying them.
+ * Since public IDs are stable, an index remains valid until the InternalHeapConfiguration is changed again.
+ * <p>
+ * All fields are final such that an index can safely be shared by threads that read the same
+ * InternalHeapConfiguration.
+ */
+final class HeapConfigurationIndex {
+
+    /**
+     * Maps each variable name to the public ID of the variable edge with that name.
+     */
+    private final Map<String, Integer> variables;
+
+    /**
+     * Maps each nonterminal to the public IDs of all nonterminal edges labeled with it.
+     */
+    private final Map<Nonterminal, TIntArrayList> nonterminalEdges;
+
+    /**
+     * Maps each selector label to the public IDs of all nodes with an outgoing selector edge labeled with it.
+     */
+    private final Map<SelectorLabel, TIntArrayList> selectorSources;
+
+    /**
+     * Computes the indexes of the given InternalHeapConfiguration in a single pass over its elements.
+     *
+     * @param heapConf An InternalHeapConfiguration that is currently immutable.
+     */
+    HeapConfigurationIndex(InternalHeapConfiguration heapConf) {
+
+        LabeledDigraph graph = heapConf.graph;
+
+        variables = new HashMap<>(heapConf.countVariableEdges * 2);
+        nonterminalEdges = new HashMap<>();
+        selectorSources = new HashMap<>();
+
+        for (int i = 0; i < graph.size(); i++) {
+
+            if (heapConf.isNode(i)) {
+                int publicId = heapConf.getPublicId(i);
+                for (int j = 0; j < graph.successorSizeOf(i); j++) {
+                    Object label = graph.edgeLabelAt(i, j);
+                    if (label instanceof SelectorLabel && heapConf.isNode(graph.successorAt(i, j))) {
+                        TIntArrayList sources = selectorSources.computeIfAbsent((SelectorLabel) label,
+                                k -> new TIntArrayList());
+                        if (sources.isEmpty() || sources.get(sources.size() - 1) != publicId) {
+                            sources.add(publicId);
+                        }
+                    }
+                }
+            } else if (heapConf.isVariable(i)) {
+                // keep the first variable edge in case a name occurs more than once
+                variables.putIfAbsent(graph.nodeLabelOf(i).toString(), heapConf.getPublicId(i));
+            } else if (heapConf.isNonterminalEdge(i)) {
+                nonterminalEdges.computeIfAbsent((Nonterminal) graph.nodeLabelOf(i), k -> new TIntArrayList())
+                        .add(heapConf.getPublicId(i));
+            }
+        }
+    }
+
+    /**
+     * @param name The name of a variable.
+     * @return The public ID of the variable edge with the given name or {@link HeapConfiguration#INVALID_ELEMENT}.
+     */
+    int variableWith(String name) {
+
+        Integer result = variables.get(name);
+        if (result == null) {
+            return HeapConfiguration.INVALID_ELEMENT;
+        }
+        return result;
+    }
+
+    /**
+     * @param label A nonterminal.
+     * @return A fresh list of the public IDs of all nonterminal edges labeled with the given nonterminal.
+     */
+    TIntArrayList nonterminalEdgesWith(Nonterminal label) {
+
+        TIntArrayList result = nonterminalEdges.get(label);
+        if (result == null) {
+            return new TIntArrayList(0);
+        }
+        return new TIntArrayList(result);
+    }
+
+    /**
+     * @param sel A selector label.
+     * @return A fresh list of the public IDs of all nodes with an outgoing selector edge labeled with sel.
+     */
+    TIntArrayList nodesWithSelector(SelectorLabel sel) {
+
+        TIntArrayList result = selectorSources.get(sel);
+        if (result == null) {
+            return new TIntArrayList(0);
+        }
+        return new TIntArrayList(result);
+    }
+}
@@ -14,9 +14,7 @@ import de.rwth.i2.attestor.graph.heap.matching.MinDistanceEmbeddingChecker;
 import de.rwth.i2.attestor.graph.morphism.Graph;
 import de.rwth.i2.attestor.graph.morphism.MorphismOptions;
 import de.rwth.i2.attestor.markingGeneration.Markings;
-import de.rwth.i2.attestor.types.GeneralType;
 import de.rwth.i2.attestor.types.Type;
-import gnu.trove.iterator.TIntIntIterator;
 import gnu.trove.iterator.TIntIterator;
 import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.map.TIntIntMap;
@@ -108,6 +106,13 @@ public class InternalHeapConfiguration implements HeapConfiguration, Graph {
      * to "private IDs" that are mutable and only used within this package.
      */
     final TIntIntMap publicToPrivateIDs;
+    /**
+     * The inverse of publicToPrivateIDs, i.e. the public ID of each private ID or
+     * {@link HeapConfiguration#INVALID_ELEMENT} if the private ID belongs to a deleted element.
+     * It is kept in sync with publicToPrivateIDs by {@link InternalHeapConfigurationBuilder} such
+     * that public IDs can be determined in constant time.
+     */
+    final TIntArrayList privateToPublicIDs;
     /**
      * Stores the unique builder if the object is currently mutable.
      * If the object is immutable, builder is set to null.
@@ -126,7 +131,53 @@ public class InternalHeapConfiguration implements HeapConfiguration, Graph {
      */
     int countNonterminalEdges;
 
-    TIntSet markedNodes;
+    /**
+     * Caches the nodes attached to marking variables. The set is never modified after it has been assigned,
+     * and the field is volatile such that its contents are visible to all threads sharing this heap.
+     */
+    private volatile TIntSet markedNodes;
+
+    /**
+     * Caches the isomorphism-invariant hash code of this InternalHeapConfiguration while it is immutable.
+     * A value of 0 denotes that the hash code has not been computed yet.
+     */
+    private int cachedHashCode = 0;
+
+    /**
+     * Caches the hash code that ignores the order of external nodes.
+     * A value of 0 denotes that the hash code has not been computed yet.
+     */
+    private int cachedExternalOrderInsensitiveHashCode = 0;
+
+    /**
+     * Marks that the certificate of this InternalHeapConfiguration has been computed, but does not exist.
+     */
+    private static final HeapCertificate NO_CERTIFICATE = HeapCertificate.createSentinel();
+
+    /**
+     * Caches the certificate of this InternalHeapConfiguration while it is immutable.
+     * A value of null denotes that the certificate has not been computed yet and NO_CERTIFICATE denotes
+     * that it could not be computed.
+     * Since certificates of states are computed concurrently during parallel state space generation,
+     * the certificate is published through this single volatile field.
+     */
+    private volatile HeapCertificate cachedCertificate = null;
+
+    /**
+     * Caches the indexes of variables, nonterminal edges, and selectors while this InternalHeapConfiguration
+     * is immutable. A value of null denotes that the indexes have not been computed yet.
+     */
+    private HeapConfigurationIndex cachedIndex = null;
+
+    /**
+     * The object passed to {@link #trackChanges(Object)} or null if changes are not tracked.
+     */
+    private Object changeOrigin = null;
+
+    /**
+     * The public IDs of all nodes that have been changed since changes with respect to changeOrigin are tracked.
+     */
+    private TIntSet changedNodes = null;
 
     /**
      * Sets up an empty InternalHeapConfiguration.
@@ -140,6 +191,7 @@ public class InternalHeapConfiguration implements HeapConfiguration, Graph {
         countNonterminalEdges = 0;
         publicToPrivateIDs = new TIntIntHashMap(200, 0.5f,
                 HeapConfiguration.INVALID_ELEMENT, HeapConfiguration.INVALID_ELEMENT);
+        privateToPublicIDs = new TIntArrayList(10);
     }
 
     /**
@@ -156,6 +208,21 @@ public class InternalHeapConfiguration implements HeapConfiguration, Graph {
         graph = new LabeledDigraph(hc.graph);
 
         publicToPrivateIDs = new TIntIntHashMap(hc.publicToPrivateIDs);
+        privateToPublicIDs = new TIntArrayList(hc.privateToPublicIDs);
+
+        if (hc.builder == null) {
+            cachedHashCode = hc.cachedHashCode;
+            cachedExternalOrderInsensitiveHashCode = hc.cachedExternalOrderInsensitiveHashCode;
+            cachedCertificate = hc.cachedCertificate;
+            // public IDs are preserved by copying, hence the immutable indexes can be shared
+            cachedIndex = hc.cachedIndex;
+
+            // changes made while a builder is open are only known once the builder is closed
+            if (hc.changeOrigin != null) {
+                changeOrigin = hc.changeOrigin;
+                changedNodes = new TIntHashSet(hc.changedNodes);
+            }
+        }
     }
 
     @SuppressWarnings("MethodDoesntCallSuperMethod")
@@ -174,7 +241,15 @@ public class InternalHeapConfiguration implements HeapConfiguration, Graph {
     public HeapConfigurationBuilder builder() {
 
         if (builder == null) {
+            graph.thaw();
+            if (changeOrigin != null) {
+                graph.startRecordingModifications();
+            }
             builder = new InternalHeapConfigurationBuilder(this);
+            cachedHashCode = 0;
+            cachedExternalOrderInsensitiveHashCode = 0;
+            cachedCertificate = null;
+            cachedIndex = null;
         }
 
         return builder;
@@ -339,19 +414,53 @@ public class InternalHeapConfiguration implements HeapConfiguration, Graph {
         throw new IllegalArgumentException("HeapConfiguration does not contain an element with ID: " + publicId);
     }
 
+    @Override
+    public TIntArrayList nodesWithSelector(SelectorLabel sel) {
+
+        HeapConfigurationIndex index = getIndex();
+        if (index != null) {
+            return index.nodesWithSelector(sel);
+        }
+
+        return filterElements(countNodes, i -> isNode(i) && selectorTargetOf(getPublicId(i), sel) != INVALID_ELEMENT);
+    }
+
+    /**
+     * @return The indexes of this InternalHeapConfiguration or null if it is currently mutable.
+     */
+    private HeapConfigurationIndex getIndex() {
+
+        if (builder != null) {
+            return null;
+        }
+
+        HeapConfigurationIndex index = cachedIndex;
+        if (index == null) {
+            index = new HeapConfigurationIndex(this);
+            cachedIndex = index;
+        }
+        return index;
+    }
+
     @Override
     public int selectorTargetOf(int node, SelectorLabel sel) {
 
         int privateId = checkNodeAndGetPrivateId(node);
-        TIntArrayList succ = graph.successorsOf(privateId);
+        int size = graph.successorSizeOf(privateId);
 
-        for (int i = 0; i < succ.size(); i++) {
+        // frozen graphs store interned label ids such that equals is only called once to determine the id of sel
+        boolean compareIds = size > 0 && graph.isFrozen();
+        int selId = compareIds ? LabeledDigraph.edgeLabelIdOf(sel) : LabeledDigraph.INVALID;
+
+        for (int i = 0; i < size; i++) {
 
-            int to = succ.get(i);
+            int to = graph.successorAt(privateId, i);
             if (isNode(to)) {
 
-                Object label = graph.edgeLabelAt(privateId, i);
-                if (sel.equals(label)) {
+                boolean matches = compareIds
+                        ? graph.edgeLabelIdAt(privateId, i) == selId
+                        : sel.equals(graph.edgeLabelAt(privateId, i));
+                if (matches) {
 
                     return getPublicId(to);
                 }
@@ -388,11 +497,10 @@ public class InternalHeapConfiguration implements HeapConfiguration, Graph {
      */
     int getPublicId(int privateId) {
 
-        TIntIntIterator iter = publicToPrivateIDs.iterator();
-        while (iter.hasNext()) {
-            iter.advance();
-            if (iter.value() == privateId) {
-                return iter.key();
+        if (privateId >= 0 && privateId < privateToPublicIDs.size()) {
+            int publicId = privateToPublicIDs.get(privateId);
+            if (publicId != HeapConfiguration.INVALID_ELEMENT) {
+                return publicId;
             }
         }
 
@@ -481,6 +589,18 @@ public class InternalHeapConfiguration implements HeapConfiguration, Graph {
         return (Nonterminal) graph.nodeLabelOf(privateId);
     }
 
+    @Override
+    public TIntArrayList nonterminalEdgesWith(Nonterminal label) {
+
+        HeapConfigurationIndex index = getIndex();
+        if (index != null) {
+            return index.nonterminalEdgesWith(label);
+        }
+
+        return filterElements(countNonterminalEdges,
+                i -> isNonterminalEdge(i) && graph.nodeLabelOf(i).equals(label));
+    }
+
     @Override
     public TIntArrayList attachedNodesOf(int ntEdge) {
 
@@ -512,6 +632,11 @@ public class InternalHeapConfiguration implements HeapConfiguration, Graph {
     @Override
     public int variableWith(String name) {
 
+        HeapConfigurationIndex index = getIndex();
+        if (index != null) {
+            return index.variableWith(name);
+        }
+
         for (int i = 0; i < graph.size(); i++) {
 
             if (isVariable(i) && graph.nodeLabelOf(i).toString().equals(name)) {
@@ -582,6 +707,106 @@ public class InternalHeapConfiguration implements HeapConfiguration, Graph {
         }
     }
 
+    @Override
+    public AbstractMatchingChecker getEmbeddingsOf(HeapConfiguration pattern, MorphismOptions morphismOptions,
+                                                   TIntSet nodes) {
+
+        boolean[] admissibleTargets = admissibleTargetsOf(nodes);
+        if (morphismOptions.isAdmissibleAbstraction()) {
+            return new MinDistanceEmbeddingChecker(pattern, this, morphismOptions, admissibleTargets);
+        } else {
+            return new EmbeddingChecker(pattern, this, admissibleTargets);
+        }
+    }
+
+    /**
+     * Determines all elements of the underlying graph that are located within the given nodes, i.e.
+     * the given nodes themselves and all nonterminal and variable edges that are only attached to them.
+     *
+     * @param nodes A set of public IDs of nodes.
+     * @return An array storing for each private ID whether the corresponding element is located within nodes.
+     */
+    private boolean[] admissibleTargetsOf(TIntSet nodes) {
+
+        boolean[] result = new boolean[graph.size()];
+        TIntArrayList privateNodes = new TIntArrayList(nodes.size());
+        TIntIterator iter = nodes.iterator();
+        while (iter.hasNext()) {
+            int privateId = publicToPrivateIDs.get(iter.next());
+            if (privateId != HeapConfiguration.INVALID_ELEMENT && isNode(privateId)) {
+                result[privateId] = true;
+                privateNodes.add(privateId);
+            }
+        }
+
+        for (int k = 0; k < privateNodes.size(); k++) {
+            int node = privateNodes.get(k);
+            for (int i = 0; i < graph.predecessorSizeOf(node); i++) {
+                int edge = graph.predecessorAt(node, i);
+                if (!isNode(edge) && !result[edge]) {
+                    boolean attachedWithin = true;
+                    for (int j = 0; j < graph.successorSizeOf(edge) && attachedWithin; j++) {
+                        attachedWithin = result[graph.successorAt(edge, j)];
+                    }
+                    result[edge] = attachedWithin;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void trackChanges(Object origin) {
+
+        changeOrigin = origin;
+        changedNodes = new TIntHashSet();
+    }
+
+    @Override
+    public TIntSet getChangedNodes(Object origin) {
+
+        if (origin == null || origin != changeOrigin) {
+            return null;
+        }
+        return new TIntHashSet(changedNodes);
+    }
+
+    /**
+     * Adds all nodes that have been modified since the current builder has been created to the tracked changes.
+     * Must be called before the underlying graph is packed.
+     */
+    void collectChangedNodes() {
+
+        TIntSet modified = graph.stopRecordingModifications();
+        if (modified == null || changeOrigin == null) {
+            return;
+        }
+
+        TIntIterator iter = modified.iterator();
+        while (iter.hasNext()) {
+            int privateId = iter.next();
+            if (!graph.containsNode(privateId)) {
+                continue;
+            }
+            if (isNode(privateId)) {
+                changedNodes.add(getPublicId(privateId));
+            } else {
+                // a relabeled nonterminal edge changes all attached nodes
+                for (int i = 0; i < graph.successorSizeOf(privateId); i++) {
+                    changedNodes.add(getPublicId(graph.successorAt(privateId, i)));
+                }
+            }
+        }
+
+        iter = changedNodes.iterator();
+        while (iter.hasNext()) {
+            int privateId = publicToPrivateIDs.get(iter.next());
+            if (privateId == HeapConfiguration.INVALID_ELEMENT || !isNode(privateId)) {
+                iter.remove();
+            }
+        }
+    }
+
     @Override
     public int variableTargetOf(String variableName) {
 
@@ -634,36 +859,68 @@ public class InternalHeapConfiguration implements HeapConfiguration, Graph {
         return isoChecker.hasMatching();
     }
 
+    /**
+     * Computes a hash code that is invariant under isomorphism, i.e. isomorphic HeapConfigurations
+     * have the same hash code. The hash code takes labels of nodes and edges, selector labels,
+     * tentacle positions, variable names and the positions of external nodes into account.
+     * It is computed once and cached as long as this HeapConfiguration is immutable.
+     */
     @Override
     public int hashCode() {
 
-        int hash = countNodes();
-        hash = (hash << 1) ^ countExternalNodes();
-        hash = (hash << 1) ^ countVariableEdges();
-        hash = (hash << 1) ^ countNonterminalEdges();
+        if (builder != null) {
+            return ColorRefinement.hash(graph, true);
+        }
 
-        int variableHash = 0;
-        int ntHash = 0;
-        int nodeHash = 0;
-        for (int i = 0; i < graph.size(); i++) {
-            Object label = graph.nodeLabelOf(i);
-            int labelHash = label.hashCode();
-            if (label.getClass() == Variable.class) {
-                variableHash ^= labelHash;
-            } else if (label.getClass() == GeneralType.class) {
-                ntHash ^= labelHash;
-            } else {
-                nodeHash ^= labelHash;
-            }
+        int hash = cachedHashCode;
+        if (hash == 0) {
+            hash = ColorRefinement.hash(graph, true);
+            cachedHashCode = hash;
         }
+        return hash;
+    }
 
-        hash = (hash << 1) ^ nodeHash;
-        hash = (hash << 1) ^ variableHash;
-        hash = (hash << 1) ^ ntHash;
+    @Override
+    public int externalOrderInsensitiveHashCode() {
+
+        if (builder != null) {
+            return ColorRefinement.hash(graph, false);
+        }
 
+        int hash = cachedExternalOrderInsensitiveHashCode;
+        if (hash == 0) {
+            hash = ColorRefinement.hash(graph, false);
+            cachedExternalOrderInsensitiveHashCode = hash;
+        }
         return hash;
     }
 
+    /**
+     * Computes a certificate of this InternalHeapConfiguration, i.e. a canonical form such that two
+     * InternalHeapConfigurations are isomorphic if and only if their certificates are equal.
+     * The certificate is computed once and cached as long as this InternalHeapConfiguration is immutable.
+     *
+     * @return The certificate or null if this InternalHeapConfiguration is currently modified or
+     * it is too symmetric to compute a certificate efficiently. In the latter case, isomorphism has to be
+     * checked using {@link #equals(Object)}.
+     */
+    public HeapCertificate getCertificate() {
+
+        if (builder != null) {
+            return null;
+        }
+
+        HeapCertificate certificate = cachedCertificate;
+        if (certificate == null) {
+            certificate = graph.isPacked() ? CanonicalLabeling.certificateOf(graph) : null;
+            if (certificate == null) {
+                certificate = NO_CERTIFICATE;
+            }
+            cachedCertificate = certificate;
+        }
+        return certificate == NO_CERTIFICATE ? null : certificate;
+    }
+
     @Override
     public String toString() {
 
@@ -786,6 +1043,19 @@ public class InternalHeapConfiguration implements HeapConfiguration, Graph {
     }
 
 
+    /**
+     * This method directly access the {@link de.rwth.i2.attestor.graph.digraph.LabeledDigraph}
+     * underlying an InternalHeapConfiguration through private IDs.
+     * It should thus only be used if it can be guaranteed that a HeapConfiguration is immutable.
+     * That is, {@link HeapConfiguration#builder()} is {@code null}.
+     */
+    @Override
+    public int[] getEdgeLabelIds(int privateIdFrom, int privateIdTo) {
+
+        return graph.edgeLabelIdsFromTo(privateIdFrom, privateIdTo);
+    }
+
+
     /**
      * This method directly access the {@link de.rwth.i2.attestor.graph.digraph.LabeledDigraph}
      * underlying an InternalHeapConfiguration through private IDs.
@@ -805,27 +1075,31 @@ public class InternalHeapConfiguration implements HeapConfiguration, Graph {
             return false;
         }
 
-        if(markedNodes == null) {
-            updateMarkedNodes();
+        TIntSet marked = markedNodes;
+        if(marked == null) {
+            marked = updateMarkedNodes();
         }
 
         int fromNode = getPublicId(from);
         int toNode = getPublicId(to);
 
-        return markedNodes.contains(fromNode)
-                && markedNodes.contains(toNode);
+        return marked.contains(fromNode)
+                && marked.contains(toNode);
     }
 
-    private void updateMarkedNodes() {
+    private TIntSet updateMarkedNodes() {
 
-        markedNodes = new TIntHashSet();
+        // the set is assigned only after it is complete, the volatile write then publishes its contents
+        TIntSet marked = new TIntHashSet();
         TIntIterator varIterator = variableEdges().iterator();
         while (varIterator.hasNext()) {
             int var = varIterator.next();
             if(Markings.isMarking(nameOf(var))) {
-                markedNodes.add(targetOf(var));
+                marked.add(targetOf(var));
             }
         }
+        markedNodes = marked;
+        return marked;
     }
 
 
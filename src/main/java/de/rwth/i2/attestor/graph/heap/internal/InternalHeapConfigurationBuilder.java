@@ -44,7 +44,9 @@ public class InternalHeapConfigurationBuilder implements HeapConfigurationBuilde
     @Override
     public HeapConfiguration build() {
 
+        heapConf.collectChangedNodes();
         cleanupGraphAndIDs();
+        heapConf.graph.freeze();
 
         // invalidate this builder
         heapConf.builder = null;
@@ -74,6 +76,15 @@ public class InternalHeapConfigurationBuilder implements HeapConfigurationBuilde
                 return value;
             }
         });
+
+        // Rebuild the inverse mapping for the now compact range of private IDs.
+        TIntArrayList privateToPublicIDs = heapConf.privateToPublicIDs;
+        privateToPublicIDs.resetQuick();
+        privateToPublicIDs.fill(0, heapConf.graph.size(), HeapConfiguration.INVALID_ELEMENT);
+        heapConf.publicToPrivateIDs.forEachEntry((publicId, privateId) -> {
+            privateToPublicIDs.set(privateId, publicId);
+            return true;
+        });
     }
 
     @Override
@@ -121,9 +132,26 @@ public class InternalHeapConfigurationBuilder implements HeapConfigurationBuilde
         int privateId = getNextPrivateId();
         int publicId = getNextPublicId();
         heapConf.publicToPrivateIDs.put(publicId, privateId);
+        setPublicIdOf(privateId, publicId);
         return publicId;
     }
 
+    /**
+     * Updates the public ID stored for a private ID in the inverse mapping of public to private IDs.
+     *
+     * @param privateId The private ID.
+     * @param publicId  The public ID corresponding to privateId or
+     *                  {@link HeapConfiguration#INVALID_ELEMENT} if the element has been deleted.
+     */
+    private void setPublicIdOf(int privateId, int publicId) {
+
+        TIntArrayList privateToPublicIDs = heapConf.privateToPublicIDs;
+        if (privateId >= privateToPublicIDs.size()) {
+            privateToPublicIDs.fill(privateToPublicIDs.size(), privateId + 1, HeapConfiguration.INVALID_ELEMENT);
+        }
+        privateToPublicIDs.set(privateId, publicId);
+    }
+
     /**
      * @return The next private ID available in the graph.
      */
@@ -233,6 +261,7 @@ public class InternalHeapConfigurationBuilder implements HeapConfigurationBuilde
     private boolean removeElement(int publicId, int privateId) {
 
         heapConf.publicToPrivateIDs.remove(publicId);
+        setPublicIdOf(privateId, HeapConfiguration.INVALID_ELEMENT);
         return heapConf.graph.removeNodeAt(privateId);
     }
 
@@ -868,6 +897,7 @@ public class InternalHeapConfigurationBuilder implements HeapConfigurationBuilde
                 }
 
                 heapConf.graph.removeNodeAt(match);
+                setPublicIdOf(match, HeapConfiguration.INVALID_ELEMENT);
             }
         }
 
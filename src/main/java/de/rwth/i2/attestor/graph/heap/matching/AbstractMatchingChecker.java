@@ -4,7 +4,13 @@ import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
 import de.rwth.i2.attestor.graph.heap.Matching;
 import de.rwth.i2.attestor.graph.heap.internal.InternalMatching;
 import de.rwth.i2.attestor.graph.morphism.Graph;
+import de.rwth.i2.attestor.graph.morphism.Morphism;
 import de.rwth.i2.attestor.graph.morphism.MorphismChecker;
+import gnu.trove.list.array.TIntArrayList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * A general abstract wrapper to compute a {@link Matching} between two HeapConfigurations.
@@ -15,6 +21,21 @@ import de.rwth.i2.attestor.graph.morphism.MorphismChecker;
  */
 public abstract class AbstractMatchingChecker {
 
+    /**
+     * Usage of an element of the target graph that does not belong to any chosen matching.
+     */
+    private static final byte UNUSED = 0;
+
+    /**
+     * Usage of an element of the target graph that is only matched by external nodes of chosen matchings.
+     */
+    private static final byte SHARED = 1;
+
+    /**
+     * Usage of an element of the target graph that is matched by a non-external element of a chosen matching.
+     */
+    private static final byte EXCLUSIVE = 2;
+
     /**
      * The pattern HeapConfiguration that should be embedded in a target HeapConfiguration
      */
@@ -95,4 +116,89 @@ public abstract class AbstractMatchingChecker {
 
         return new InternalMatching(pattern, checker.getMorphism(), target);
     }
+
+    /**
+     * Enumerates all matchings within a single search.
+     * Since every automorphism of the pattern yields another matching, the same set of elements
+     * of the target may be covered by more than one of the returned matchings.
+     *
+     * @return All matchings in the order in which they have been found.
+     */
+    public List<Matching> getAllMatchings() {
+
+        if (!hasMatching()) {
+            return Collections.emptyList();
+        }
+
+        List<Matching> result = new ArrayList<>();
+        checker.runAll((Graph) pattern, (Graph) target, morphism -> {
+            result.add(new InternalMatching(pattern, morphism, target));
+            return true;
+        });
+        return result;
+    }
+
+    /**
+     * Enumerates a maximal set of non-overlapping matchings within a single search.
+     * Matchings are chosen greedily in the order in which they are found; the first one thus coincides with
+     * {@link #getMatching()}.
+     * Two matchings are non-overlapping if they only share elements of the target that are matched by external
+     * nodes of the pattern in both matchings and no edge between such shared elements corresponds to an edge
+     * of the pattern. Hence, all returned matchings can be replaced one after another within a single
+     * {@link de.rwth.i2.attestor.graph.heap.HeapConfigurationBuilder}.
+     *
+     * @return A maximal set of non-overlapping matchings in the order in which they have been found.
+     */
+    public List<Matching> getDisjointMatchings() {
+
+        if (!hasMatching()) {
+            return Collections.emptyList();
+        }
+
+        Graph patternGraph = (Graph) pattern;
+        Graph targetGraph = (Graph) target;
+        byte[] usage = new byte[targetGraph.size()];
+        List<Matching> result = new ArrayList<>();
+
+        checker.runAll(patternGraph, targetGraph, morphism -> {
+            if (isDisjoint(patternGraph, morphism, usage)) {
+                claim(patternGraph, morphism, usage);
+                result.add(new InternalMatching(pattern, morphism, target));
+            }
+            return true;
+        });
+        return result;
+    }
+
+    private static boolean isDisjoint(Graph patternGraph, Morphism morphism, byte[] usage) {
+
+        for (int p = 0; p < patternGraph.size(); p++) {
+
+            int t = morphism.match(p);
+            if (!patternGraph.isExternal(p)) {
+                if (usage[t] != UNUSED) {
+                    return false;
+                }
+            } else if (usage[t] == EXCLUSIVE) {
+                return false;
+            } else if (usage[t] == SHARED) {
+                TIntArrayList successors = patternGraph.getSuccessorsOf(p);
+                for (int i = 0; i < successors.size(); i++) {
+                    int succ = successors.get(i);
+                    if (patternGraph.isExternal(succ) && usage[morphism.match(succ)] == SHARED) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void claim(Graph patternGraph, Morphism morphism, byte[] usage) {
+
+        for (int p = 0; p < patternGraph.size(); p++) {
+            int t = morphism.match(p);
+            usage[t] = patternGraph.isExternal(p) ? SHARED : EXCLUSIVE;
+        }
+    }
 }
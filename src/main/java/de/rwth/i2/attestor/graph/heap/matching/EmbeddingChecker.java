@@ -22,4 +22,17 @@ public class EmbeddingChecker extends AbstractMatchingChecker {
         super(pattern, target, new VF2EmbeddingChecker());
     }
 
+    /**
+     * Initializes an EmbeddingChecker that only considers embeddings into a subset of the elements of the target.
+     *
+     * @param pattern           The HeapConfiguration that should be embedded in the HeapConfiguration target.
+     * @param target            The HeapConfiguration in which an embedding should be searched for.
+     * @param admissibleTargets Determines for each element of the graph underlying target whether it may
+     *                          belong to an embedding.
+     */
+    public EmbeddingChecker(HeapConfiguration pattern, HeapConfiguration target, boolean[] admissibleTargets) {
+
+        super(pattern, target, new VF2EmbeddingChecker(admissibleTargets));
+    }
+
 }
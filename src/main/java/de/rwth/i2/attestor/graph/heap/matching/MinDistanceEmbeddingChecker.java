@@ -26,4 +26,20 @@ public class MinDistanceEmbeddingChecker extends AbstractMatchingChecker {
 
         super(pattern, target, new VF2MinDistanceEmbeddingChecker(options));
     }
+
+    /**
+     * Initializes an EmbeddingChecker with a minimal distance between variables and found embeddings
+     * that only considers embeddings into a subset of the elements of the target.
+     *
+     * @param pattern           The HeapConfiguration that should be embedded in the pattern HeapConfiguration.
+     * @param target            The HeapConfiguration in which embeddings should be searched for.
+     * @param options           Options guiding how embeddings are computed.
+     * @param admissibleTargets Determines for each element of the graph underlying target whether it may
+     *                          belong to an embedding.
+     */
+    public MinDistanceEmbeddingChecker(HeapConfiguration pattern, HeapConfiguration target, MorphismOptions options,
+                                       boolean[] admissibleTargets) {
+
+        super(pattern, target, new VF2MinDistanceEmbeddingChecker(options, admissibleTargets));
+    }
 }
@@ -2,6 +2,8 @@ package de.rwth.i2.attestor.graph.morphism;
 
 import gnu.trove.list.array.TIntArrayList;
 
+import java.util.Arrays;
+
 
 /**
  * Collects all data required by {@link VF2Algorithm} during the search for a suitable matching for
@@ -20,28 +22,23 @@ public abstract class AbstractVF2GraphData {
     /**
      * The {@link Graph} underlying the data stored in this object.
      */
-    private final Graph graph;
+    private Graph graph;
     /**
      * For each node this stores the height of the search tree at which the node
      * was for the first time not in the matching, but reachable via an incoming edge from the matching.
      */
-    private final int[] in;
+    private int[] in;
     /**
      * For each node this stores the height of the search tree at which the node
      * was for the first time not in the matching, but reachable via an outgoing edge from the matching.
      */
-    private final int[] out;
+    private int[] out;
     /**
      * The length of the currently stored partial matching.
      * This value coincides with the current height of the
      * search tree constructed so far.
      */
     private int matchLength;
-    /**
-     * The identifier of the last node that has been matched.
-     * This value is used for backtracking.
-     */
-    private int lastMatchedNode;
     /**
      * The number of nodes that have not been matched yet, but are reachable
      * via an incoming edge from an already matched node.
@@ -52,6 +49,21 @@ public abstract class AbstractVF2GraphData {
      * via an outgoing edge from an already matched node.
      */
     private int terminalOutLength;
+    /**
+     * For each height of the search tree, the node that has been matched at this height.
+     * This is used for backtracking.
+     */
+    private int[] matchedNodes;
+    /**
+     * For each height of the search tree, the value of terminalInLength before the node at this height
+     * has been matched. This is used for backtracking.
+     */
+    private int[] terminalInLengths;
+    /**
+     * For each height of the search tree, the value of terminalOutLength before the node at this height
+     * has been matched. This is used for backtracking.
+     */
+    private int[] terminalOutLengths;
 
     /**
      * Initializes an empty AbstractVF2GraphData object.
@@ -60,41 +72,61 @@ public abstract class AbstractVF2GraphData {
      */
     public AbstractVF2GraphData(Graph graph) {
 
+        resetData(graph);
+    }
+
+    /**
+     * Initializes an AbstractVF2GraphData object that has to be reset before it is used.
+     */
+    AbstractVF2GraphData() {
+
+        in = new int[0];
+        out = new int[0];
+        matchedNodes = new int[0];
+        terminalInLengths = new int[0];
+        terminalOutLengths = new int[0];
+    }
+
+    /**
+     * Resets this object to an empty partial matching for the given graph.
+     * Previously allocated arrays are reused if they are sufficiently large.
+     *
+     * @param graph The graph represented by this object.
+     */
+    void reset(Graph graph) {
+
+        resetData(graph);
+    }
+
+    private void resetData(Graph graph) {
+
         this.graph = graph;
 
         int noNodes = graph.size();
 
         matchLength = 0;
-        lastMatchedNode = NULL_NODE;
         terminalInLength = 0;
         terminalOutLength = 0;
 
-
-        in = new int[noNodes];
-        out = new int[noNodes];
-
-        for (int i = 0; i < noNodes; i++) {
-            in[i] = NULL_NODE;
-            out[i] = NULL_NODE;
+        if (in == null || in.length < noNodes) {
+            in = new int[noNodes];
+            out = new int[noNodes];
+            matchedNodes = new int[noNodes];
+            terminalInLengths = new int[noNodes];
+            terminalOutLengths = new int[noNodes];
         }
 
+        Arrays.fill(in, 0, noNodes, NULL_NODE);
+        Arrays.fill(out, 0, noNodes, NULL_NODE);
     }
 
     /**
-     * Creates a shallow copy of the given AbstractVF2GraphData object.
-     *
-     * @param data The AbstractVF2GraphData object that should be copied.
+     * Removes the reference to the underlying graph such that it is not retained
+     * while this object is not in use.
      */
-    public AbstractVF2GraphData(AbstractVF2GraphData data) {
+    void release() {
 
-        graph = data.graph;
-        matchLength = data.matchLength;
-        lastMatchedNode = data.lastMatchedNode;
-        terminalInLength = data.terminalInLength;
-        terminalOutLength = data.terminalOutLength;
-
-        in = data.in;
-        out = data.out;
+        graph = null;
     }
 
     protected abstract void matchNode(int matchFrom, int matchTo);
@@ -184,8 +216,10 @@ public abstract class AbstractVF2GraphData {
     void setMatch(int matchFrom, int matchTo) {
 
         matchNode(matchFrom, matchTo);
+        matchedNodes[matchLength] = matchFrom;
+        terminalInLengths[matchLength] = terminalInLength;
+        terminalOutLengths[matchLength] = terminalOutLength;
         ++matchLength;
-        lastMatchedNode = matchFrom;
 
         updateTerminalSets(matchFrom);
     }
@@ -240,25 +274,21 @@ public abstract class AbstractVF2GraphData {
      * For the last node that has been matched, an inverse update
      * is applied to its terminal sets.
      * The last matching pair is removed.
-     * Note that the last matched node has to be set afterwards again by determining
-     * the next candidate pair.
      */
     void backtrack() {
 
-        if (lastMatchedNode == NULL_NODE) {
+        if (matchLength == 0) {
             return;
         }
 
+        int lastMatchedNode = matchedNodes[matchLength - 1];
+
         TIntArrayList succsOf = graph.getSuccessorsOf(lastMatchedNode);
         for (int i = 0; i < succsOf.size(); i++) {
 
             int succ = succsOf.get(i);
             if (out[succ] == matchLength) {
                 out[succ] = NULL_NODE;
-
-                if (!containsMatch(succ)) {
-                    --terminalOutLength;
-                }
             }
         }
 
@@ -268,16 +298,13 @@ public abstract class AbstractVF2GraphData {
             int pred = predsOf.get(i);
             if (in[pred] == matchLength) {
                 in[pred] = NULL_NODE;
-
-                if (!containsMatch(pred)) {
-                    --terminalInLength;
-                }
             }
         }
 
         unmatchNode(lastMatchedNode);
         --matchLength;
-        lastMatchedNode = NULL_NODE; // has to be set by set match again
+        terminalInLength = terminalInLengths[matchLength];
+        terminalOutLength = terminalOutLengths[matchLength];
     }
 
     /**
@@ -51,6 +51,15 @@ public interface Graph {
      */
     List<Object> getEdgeLabel(int from, int to);
 
+    /**
+     * @param from The source node.
+     * @param to   The target node.
+     * @return A sorted array containing for each edge whose source node is from and whose target node
+     * is to an integer that uniquely identifies its label. Equal labels are identified by the same integer
+     * in all graphs such that two multisets of edge labels coincide if and only if the arrays are equal.
+     */
+    int[] getEdgeLabelIds(int from, int to);
+
     /**
      * @param node The node that should be checked.
      * @return True if and only if the given node is external.
@@ -27,6 +27,17 @@ public class Morphism {
         this.mapping = Arrays.copyOf(mapping, mapping.length);
     }
 
+    /**
+     * Initializes the morphism from a prefix of a possibly larger array.
+     *
+     * @param mapping The mapping between node identifiers of a pattern graph and a target graph.
+     * @param length  The number of nodes of the pattern graph.
+     */
+    Morphism(int[] mapping, int length) {
+
+        this.mapping = Arrays.copyOf(mapping, length);
+    }
+
     /**
      * Provides the target node corresponding to a given pattern node.
      *
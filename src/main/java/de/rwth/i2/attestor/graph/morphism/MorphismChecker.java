@@ -1,5 +1,7 @@
 package de.rwth.i2.attestor.graph.morphism;
 
+import java.util.function.Predicate;
+
 /**
  * A MorphismChecker takes two graphs, called pattern and target, and computes
  * all graph morphisms from the pattern graph into the target graph.
@@ -18,6 +20,17 @@ public interface MorphismChecker {
      */
     void run(Graph pattern, Graph target);
 
+    /**
+     * Enumerates the graph morphisms from the pattern graph into the target graph within a single search.
+     * In contrast to {@link #run(Graph, Graph)}, the results of previous calls to run() are not changed.
+     *
+     * @param pattern  The pattern graph.
+     * @param target   The target graph.
+     * @param consumer Is applied to every found Morphism and returns true if and only if the search should
+     *                 continue with the next Morphism.
+     */
+    void runAll(Graph pattern, Graph target, Predicate<Morphism> consumer);
+
     /**
      * @return True if and only if at least one Morphism has been found after calling run().
      */
@@ -0,0 +1,28 @@
+package de.rwth.i2.attestor.graph.morphism;
+
+import de.rwth.i2.attestor.graph.digraph.NodeLabel;
+
+/**
+ * A {@link FeasibilityFunction} whose result only depends on the labels of the nodes in a candidate pair.
+ * If a {@link VF2Algorithm} employs such a function, it only generates candidate pairs with compatible labels
+ * instead of evaluating the function for every generated candidate pair.
+ */
+public interface NodeLabelFeasibilityFunction extends FeasibilityFunction {
+
+    /**
+     * @param patternLabel The label of a pattern node.
+     * @param targetLabel  The label of a target node.
+     * @return True if and only if a pattern node labeled with patternLabel may be matched with a target node
+     * labeled with targetLabel.
+     */
+    boolean isCompatible(NodeLabel patternLabel, NodeLabel targetLabel);
+
+    @Override
+    default boolean eval(VF2State state, int p, int t) {
+
+        return isCompatible(
+                state.getPattern().getGraph().getNodeLabel(p),
+                state.getTarget().getGraph().getNodeLabel(t)
+        );
+    }
+}
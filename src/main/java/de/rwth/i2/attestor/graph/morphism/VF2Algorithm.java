@@ -3,7 +3,7 @@ package de.rwth.i2.attestor.graph.morphism;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.Stack;
+import java.util.function.Predicate;
 
 /**
  * This class implements the VF2 (sub)graph searching algorithm in order to find graph morphisms
@@ -15,6 +15,8 @@ import java.util.Stack;
  * Each element of the search space is represented by a {@link VF2State}, which represents a partial morphism together
  * with additional data that allow efficient backtracking.
  * The search tree is constructed in a way such that no copies of the partial morphism are required.
+ * In fact, a single VF2State is modified and backtracked throughout the whole search. It is pooled per thread
+ * such that its arrays are reused by subsequent searches.
  * VF2Algorithm depends on a list of {@link FeasibilityFunction}s that determine possible pairs
  * of pattern-target nodes that are matched onto each other.
  * The FeasibilityFunctions thus determine the type of Morphism that is actually computed.
@@ -36,6 +38,12 @@ public class VF2Algorithm {
     public static final boolean DEBUG = false;
     private static final Logger logger = LogManager.getLogger("VF2Algorithm");
 
+    /**
+     * A VF2State for each thread that is reused by subsequent searches of that thread.
+     * Holds null while the state is in use, e.g. if a FeasibilityFunction starts another search.
+     */
+    private static final ThreadLocal<VF2State> pooledStates = ThreadLocal.withInitial(VF2State::new);
+
     /**
      * The FeasibilityFunctions that are evaluated to determine whether a candidate pair
      * represents a pair of pattern-target nodes that can be added to the current state without invalidating
@@ -43,6 +51,12 @@ public class VF2Algorithm {
      */
     FeasibilityFunction[] feasibilityChecks;
 
+    /**
+     * A FeasibilityFunction that only depends on node labels. It is not evaluated for each candidate pair, but
+     * restricts the generated candidate pairs to nodes with compatible labels. May be null.
+     */
+    NodeLabelFeasibilityFunction labelCompatibilityCheck;
+
     /**
      * A function that determines whether we found a complete Morphism and can thus successfully terminate.
      */
@@ -78,29 +92,86 @@ public class VF2Algorithm {
      */
     public boolean match(Graph pattern, Graph target) {
 
-        VF2State initialState = new VF2State(pattern, target);
-        return match(initialState);
+        foundMorphism = findMorphism(pattern, target);
+        return foundMorphism != null;
     }
 
     /**
-     * Executes the next step of the algorithm for a given state.
+     * Executes the algorithm to find a Morphism from pattern into target.
+     * In contrast to {@link VF2Algorithm#match(Graph, Graph)}, this method does not store
+     * the found morphism and may thus be called concurrently on a shared VF2Algorithm.
      *
-     * @param state The VF2State that determines the current position of the algorithm in its search tree.
-     * @return true if and only if at least one Morphism exists.
+     * @param pattern The Graph that should be searched for.
+     * @param target  The Graph we search in.
+     * @return The found Morphism or null if no Morphism exists.
+     */
+    public Morphism findMorphism(Graph pattern, Graph target) {
+
+        return search(pattern, target, morphism -> false);
+    }
+
+    /**
+     * Executes the algorithm to enumerate all Morphisms from pattern into target within a single search.
+     * Every found Morphism is passed to the given consumer, which determines whether the search continues.
+     * Like {@link #findMorphism(Graph, Graph)}, this method may be called concurrently on a shared VF2Algorithm.
+     *
+     * @param pattern  The Graph that should be searched for.
+     * @param target   The Graph we search in.
+     * @param consumer Is applied to every found Morphism and returns true if and only if the search should
+     *                 continue with the next Morphism.
      */
-    private boolean match(VF2State state) {
+    public void findAllMorphisms(Graph pattern, Graph target, Predicate<Morphism> consumer) {
 
-        Stack<VF2State> stateStack = new Stack<>();
-        stateStack.push(state);
+        search(pattern, target, consumer);
+    }
 
-        mainLoop:
-        while (!stateStack.isEmpty()) {
+    /**
+     * Searches for Morphisms from pattern into target using the VF2State pooled for the current thread.
+     *
+     * @param pattern  The Graph that should be searched for.
+     * @param target   The Graph we search in.
+     * @param consumer Is applied to every found Morphism and returns true if and only if the search should continue.
+     * @return The Morphism that stopped the search or null if the search space has been exhausted.
+     */
+    private Morphism search(Graph pattern, Graph target, Predicate<Morphism> consumer) {
 
-            state = stateStack.peek();
+        VF2State state = pooledStates.get();
+        if (state == null) {
+            state = new VF2State();
+        } else {
+            pooledStates.set(null);
+        }
+
+        try {
+            state.reset(pattern, target, labelCompatibilityCheck);
+            return match(state, consumer);
+        } finally {
+            state.release();
+            pooledStates.set(state);
+        }
+    }
+
+    /**
+     * Executes the algorithm starting at a given initial state.
+     *
+     * @param state    The VF2State that determines the current position of the algorithm in its search tree.
+     *                 It is modified during the search.
+     * @param consumer Is applied to every found Morphism and returns true if and only if the search should continue.
+     * @return The Morphism that stopped the search or null if the search space has been exhausted.
+     */
+    private Morphism match(VF2State state, Predicate<Morphism> consumer) {
+
+        mainLoop:
+        while (true) {
 
             if (morphismFoundCheck.eval(state)) {
-                storeMorphism(state);
-                return true;
+                VF2GraphData pattern = state.getPattern();
+                Morphism morphism = new Morphism(pattern.getMatching(), pattern.getGraph().size());
+                if (!consumer.test(morphism)) {
+                    return morphism;
+                }
+                /* The matching is complete, hence there are no further candidate pairs
+                   and we continue with backtracking. */
             }
 
 			/* Since it is possible that some Morphism exists, we continue
@@ -115,27 +186,26 @@ public class VF2Algorithm {
                     if (DEBUG) {
                         logger.error("found feasible candidate (" + p + "," + t + ")");
                     }
-					
-					/* A shallow copy only copies data required for backtracking
-				       such as the last candidate. After that we move further
-				       down in the search tree. */
-                    VF2State nextState = state.shallowCopy();
-                    nextState.addCandidate(p, t);
-                    stateStack.push(nextState);
-                    continue mainLoop; // simulate recursion by adjusting stack and jumping to the outer loop.
+
+					/* The state remembers the last considered candidate pair at each height of
+				       the search tree. Hence, we can move further down in the search tree
+				       without copying anything. */
+                    state.addCandidate(p, t);
+                    continue mainLoop; // simulate recursion by jumping to the outer loop.
                 }
             }
 
+            if (state.getPattern().getMatchingSize() == 0) {
+                return null;
+            }
+
             if (DEBUG) {
                 logger.error("Backtracking...");
             }
-			/* We stored all morphisms found so far and finished going through all search trees
-		   	   after adding all available candidate pairs to the current state.
+			/* We went through all candidate pairs of the current state.
                Hence, we backtrack and remove the last pair added to the current state before. */
             state.backtrack();
-            stateStack.pop();
         }
-        return false;
     }
 
     /**
@@ -161,16 +231,6 @@ public class VF2Algorithm {
         return true;
     }
 
-    /**
-     * Stores the morphism contained in the provided state in the list of all morphisms found so far.
-     *
-     * @param state A state representing a found morphism.
-     */
-    private void storeMorphism(VF2State state) {
-
-        foundMorphism = new Morphism(state.getPattern().getMatching());
-    }
-
     /**
      * @return The morphism that has been found. Null otherwise.
      */
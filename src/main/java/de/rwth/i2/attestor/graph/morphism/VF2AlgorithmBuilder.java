@@ -31,6 +31,15 @@ public final class VF2AlgorithmBuilder {
 
         assert (algorithm.morphismFoundCheck != null);
 
+        // the first function that only depends on node labels is used to generate candidate pairs
+        for (FeasibilityFunction function : feasibilityFunctions) {
+            if (function instanceof NodeLabelFeasibilityFunction) {
+                algorithm.labelCompatibilityCheck = (NodeLabelFeasibilityFunction) function;
+                feasibilityFunctions.remove(function);
+                break;
+            }
+        }
+
         algorithm.feasibilityChecks = feasibilityFunctions.toArray(new FeasibilityFunction[feasibilityFunctions.size()]);
 
         return algorithm;
@@ -1,38 +1,46 @@
 package de.rwth.i2.attestor.graph.morphism;
 
+import java.util.Arrays;
+
 public class VF2GraphData extends AbstractVF2GraphData {
 
     /**
      * The current (partial) mapping from graph to the other considered graph.
      */
-    private final int[] match;
-
-    /**
-     * A fixed order of nodes.
-     * nodeOrder[i] is the position in the fixed order.
-     */
-    private final int[] nodeOrder;
+    private int[] match;
 
     public VF2GraphData(Graph graph) {
 
         super(graph);
+        match = new int[graph.size()];
+        Arrays.fill(match, NULL_NODE);
+    }
 
-        int noNodes = graph.size();
-        match = new int[noNodes];
-        nodeOrder = new int[noNodes];
-
+    /**
+     * Creates a VF2GraphData object that has to be reset before it is used.
+     */
+    VF2GraphData() {
 
-        for (int i = 0; i < noNodes; i++) {
-            match[i] = NULL_NODE;
-            nodeOrder[i] = i;
-        }
+        super();
+        match = new int[0];
     }
 
-    public VF2GraphData(VF2GraphData data) {
+    /**
+     * Resets this object to an empty matching for the given graph.
+     * Previously allocated arrays are reused if they are sufficiently large.
+     *
+     * @param graph The graph represented by this object.
+     */
+    @Override
+    void reset(Graph graph) {
+
+        super.reset(graph);
 
-        super(data);
-        match = data.match;
-        nodeOrder = data.nodeOrder;
+        int noNodes = graph.size();
+        if (match == null || match.length < noNodes) {
+            match = new int[noNodes];
+        }
+        Arrays.fill(match, 0, noNodes, NULL_NODE);
     }
 
     @Override
@@ -66,21 +74,9 @@ public class VF2GraphData extends AbstractVF2GraphData {
         return match[node];
     }
 
-    /**
-     * Checks whether one node has precedence over another according to the internally stored node order.
-     *
-     * @param node1 A node belonging to the underlying graph.
-     * @param node2 Another node belonging to the underlying graph.
-     * @return true if and only if the first node has precedence over the second node.
-     */
-    boolean isLessThan(int node1, int node2) {
-
-        // NULL_NODE is considered to be the largest possible element of the order
-        return node1 != NULL_NODE && (node2 == NULL_NODE || nodeOrder[node1] < nodeOrder[node2]);
-    }
-
     /**
      * @return An array determining the currently stored matching from the underlying graph into the other graph.
+     * Only the first {@code getGraph().size()} entries of the array are relevant.
      */
     public int[] getMatching() {
 
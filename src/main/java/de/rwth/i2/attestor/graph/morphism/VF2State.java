@@ -1,12 +1,20 @@
 package de.rwth.i2.attestor.graph.morphism;
 
+import de.rwth.i2.attestor.graph.digraph.NodeLabel;
+import gnu.trove.list.array.TIntArrayList;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Arrays;
+
 /**
  * Captures a current, possibly incomplete, candidate for a graph morphism that is constructed step by step
  * by a {@link VF2Algorithm}. In particular, VF2State supports method {@link #backtrack()} to reset it to
  * its previous state.
+ * <p>
+ * A single VF2State is modified throughout the whole search: all information required for backtracking is
+ * stored in arrays indexed by the height of the search tree. These arrays are reused if the state is reset
+ * for another search.
  *
  * @author Christoph
  */
@@ -18,6 +26,11 @@ public class VF2State {
     @SuppressWarnings("unused")
     private static final Logger logger = LogManager.getLogger("VF2State");
 
+    /**
+     * Placeholder value representing that no candidate pair has been computed yet.
+     */
+    private static final int NULL_CANDIDATE = -1;
+
     /**
      * The currently found partial mapping from pattern to target together
      * with additional data to prune the search space.
@@ -29,11 +42,43 @@ public class VF2State {
      * with additional data to prune the search space.
      */
     private final VF2GraphData target;
-    private final int countPatternNodes;
-    private final int countTargetNodes;
+
+    private int countPatternNodes;
+
+    /**
+     * The pattern nodes in the order in which they are considered as candidates.
+     */
+    private int[] patternOrder = new int[0];
+
+    /**
+     * The target candidates of all pattern nodes. The candidates of pattern node p are stored in ascending order
+     * between candidatesBegin[p] (inclusive) and candidatesEnd[p] (exclusive).
+     * Pattern nodes with equal labels share their candidates.
+     */
+    private int[] candidates = new int[0];
+    private int[] candidatesBegin = new int[0];
+    private int[] candidatesEnd = new int[0];
+
+    /**
+     * For each height of the search tree, the position in patternOrder of the pattern node that is matched
+     * at this height or NULL_CANDIDATE if it has not been chosen yet.
+     */
+    private int[] patternPositions = new int[1];
+
+    /**
+     * For each height of the search tree, the position in candidates of the last considered target candidate.
+     */
+    private int[] candidatePositions = new int[1];
+
+    /**
+     * Scratch arrays to compute the order of pattern nodes.
+     */
+    private boolean[] ordered = new boolean[0];
+    private int[] orderedNeighbours = new int[0];
+    private int[] degrees = new int[0];
+
     private int patternCandidate;
     private int targetCandidate;
-    private int patternMin;
 
     /**
      * Computes a new initial state from two graphs
@@ -43,39 +88,178 @@ public class VF2State {
      */
     public VF2State(Graph patternGraph, Graph targetGraph) {
 
-        pattern = new VF2GraphData(patternGraph);
-        target = new VF2GraphData(targetGraph);
-        countPatternNodes = pattern.getGraph().size();
-        countTargetNodes = target.getGraph().size();
-        patternCandidate = 0;
-        targetCandidate = -1;
-        patternMin = AbstractVF2GraphData.NULL_NODE;
+        this(patternGraph, targetGraph, null);
     }
 
     /**
-     * Creates a copy of a given state.
-     * Note that apart from a few constants, a shallow copy is created.
-     * In particular, the underlying partial matching is shared between the state and its copy.
+     * Computes a new initial state from two graphs in which candidate pairs are restricted to nodes
+     * with compatible labels.
+     * <p>
+     * Pattern nodes are considered in an order similar to VF2++: Nodes with many neighbours that have already
+     * been ordered come first such that the partial matching remains connected. Ties are broken in favor of
+     * nodes with few target candidates and then nodes with a high degree such that dead ends are detected early.
      *
-     * @param state The state to be copied.
+     * @param patternGraph    The pattern graph that should be mapped into the target graph.
+     * @param targetGraph     The target graph.
+     * @param labelCompatible A function determining which node labels may be matched with each other or null
+     *                        if all pairs of nodes are candidate pairs.
      */
-    private VF2State(VF2State state) {
+    public VF2State(Graph patternGraph, Graph targetGraph, NodeLabelFeasibilityFunction labelCompatible) {
 
-        pattern = new VF2GraphData(state.pattern);
-        target = new VF2GraphData(state.target);
-        countPatternNodes = state.countPatternNodes;
-        countTargetNodes = state.countTargetNodes;
-        patternCandidate = 0;
-        targetCandidate = -1;
-        patternMin = AbstractVF2GraphData.NULL_NODE;
+        this();
+        reset(patternGraph, targetGraph, labelCompatible);
     }
 
     /**
-     * @return A shallow copy of this state.
+     * Creates a state that has to be reset before it is used.
      */
-    public VF2State shallowCopy() {
+    VF2State() {
 
-        return new VF2State(this);
+        pattern = new VF2GraphData();
+        target = new VF2GraphData();
+    }
+
+    /**
+     * Resets this state to the initial state for the given graphs.
+     * All arrays allocated for previous searches are reused if they are sufficiently large.
+     *
+     * @param patternGraph    The pattern graph that should be mapped into the target graph.
+     * @param targetGraph     The target graph.
+     * @param labelCompatible A function determining which node labels may be matched with each other or null
+     *                        if all pairs of nodes are candidate pairs.
+     */
+    void reset(Graph patternGraph, Graph targetGraph, NodeLabelFeasibilityFunction labelCompatible) {
+
+        countPatternNodes = patternGraph.size();
+        pattern.reset(patternGraph);
+        target.reset(targetGraph);
+
+        if (patternOrder.length < countPatternNodes) {
+            int capacity = Math.max(countPatternNodes, 2 * patternOrder.length);
+            patternOrder = new int[capacity];
+            candidatesBegin = new int[capacity];
+            candidatesEnd = new int[capacity];
+            patternPositions = new int[capacity + 1];
+            candidatePositions = new int[capacity + 1];
+            ordered = new boolean[capacity];
+            orderedNeighbours = new int[capacity];
+            degrees = new int[capacity];
+        }
+
+        computeCandidates(patternGraph, targetGraph, labelCompatible);
+        computePatternOrder(patternGraph);
+
+        patternPositions[0] = NULL_CANDIDATE;
+        patternCandidate = NULL_CANDIDATE;
+        targetCandidate = NULL_CANDIDATE;
+    }
+
+    /**
+     * Removes all references to the graphs of the last search such that they are not retained
+     * while this state is not in use.
+     */
+    void release() {
+
+        pattern.release();
+        target.release();
+    }
+
+    /**
+     * Determines for each pattern node the target nodes with a compatible label.
+     */
+    private void computeCandidates(Graph patternGraph, Graph targetGraph,
+                                   NodeLabelFeasibilityFunction labelCompatible) {
+
+        int countTargetNodes = targetGraph.size();
+
+        if (labelCompatible == null) {
+            ensureCandidatesCapacity(countTargetNodes);
+            for (int t = 0; t < countTargetNodes; t++) {
+                candidates[t] = t;
+            }
+            Arrays.fill(candidatesBegin, 0, countPatternNodes, 0);
+            Arrays.fill(candidatesEnd, 0, countPatternNodes, countTargetNodes);
+            return;
+        }
+
+        int size = 0;
+        for (int p = 0; p < countPatternNodes; p++) {
+
+            NodeLabel patternLabel = patternGraph.getNodeLabel(p);
+            int sameLabel = NULL_CANDIDATE;
+            for (int q = 0; q < p && sameLabel == NULL_CANDIDATE; q++) {
+                if (patternLabel.equals(patternGraph.getNodeLabel(q))) {
+                    sameLabel = q;
+                }
+            }
+
+            if (sameLabel != NULL_CANDIDATE) {
+                candidatesBegin[p] = candidatesBegin[sameLabel];
+                candidatesEnd[p] = candidatesEnd[sameLabel];
+                continue;
+            }
+
+            ensureCandidatesCapacity(size + countTargetNodes);
+            candidatesBegin[p] = size;
+            for (int t = 0; t < countTargetNodes; t++) {
+                if (labelCompatible.isCompatible(patternLabel, targetGraph.getNodeLabel(t))) {
+                    candidates[size++] = t;
+                }
+            }
+            candidatesEnd[p] = size;
+        }
+    }
+
+    private void ensureCandidatesCapacity(int capacity) {
+
+        if (candidates.length < capacity) {
+            candidates = Arrays.copyOf(candidates, Math.max(capacity, 2 * candidates.length));
+        }
+    }
+
+    /**
+     * Determines the order in which pattern nodes are considered as candidates.
+     */
+    private void computePatternOrder(Graph patternGraph) {
+
+        for (int p = 0; p < countPatternNodes; p++) {
+            ordered[p] = false;
+            orderedNeighbours[p] = 0;
+            degrees[p] = patternGraph.getSuccessorsOf(p).size() + patternGraph.getPredecessorsOf(p).size();
+        }
+
+        for (int i = 0; i < countPatternNodes; i++) {
+            int next = AbstractVF2GraphData.NULL_NODE;
+            for (int p = 0; p < countPatternNodes; p++) {
+                if (!ordered[p] && (next == AbstractVF2GraphData.NULL_NODE || precedes(p, next))) {
+                    next = p;
+                }
+            }
+
+            patternOrder[i] = next;
+            ordered[next] = true;
+            TIntArrayList succs = patternGraph.getSuccessorsOf(next);
+            for (int j = 0; j < succs.size(); j++) {
+                ++orderedNeighbours[succs.get(j)];
+            }
+            TIntArrayList preds = patternGraph.getPredecessorsOf(next);
+            for (int j = 0; j < preds.size(); j++) {
+                ++orderedNeighbours[preds.get(j)];
+            }
+        }
+    }
+
+    private boolean precedes(int p, int q) {
+
+        if (orderedNeighbours[p] != orderedNeighbours[q]) {
+            return orderedNeighbours[p] > orderedNeighbours[q];
+        }
+        int candidatesOfP = candidatesEnd[p] - candidatesBegin[p];
+        int candidatesOfQ = candidatesEnd[q] - candidatesBegin[q];
+        if (candidatesOfP != candidatesOfQ) {
+            return candidatesOfP < candidatesOfQ;
+        }
+        return degrees[p] > degrees[q];
     }
 
     /**
@@ -95,7 +279,8 @@ public class VF2State {
     }
 
     /**
-     * Undoes the last change to the state.
+     * Undoes the last candidate pair added to the state.
+     * The search then continues with the next candidate pair after the removed one.
      */
     public void backtrack() {
 
@@ -113,103 +298,69 @@ public class VF2State {
 
         pattern.setMatch(p, t);
         target.setMatch(t, p);
+        patternPositions[pattern.getMatchingSize()] = NULL_CANDIDATE;
     }
 
     /**
      * Computes the next candidate pair to be considered.
      * This pair is accessible through the methodExecution {@link #getPatternCandidate()} and {@link #getTargetCandidate()}.
+     * <p>
+     * Candidate pairs are computed based on nodes reachable via outgoing edges from nodes that already have been
+     * matched. If there are no such nodes, nodes reachable via ingoing edges and then all unmatched nodes are
+     * considered.
+     * All candidate pairs for the current partial matching share the same pattern node: every morphism has to
+     * match this node, hence there are no further candidate pairs once its target candidates are exhausted.
      *
      * @return True if and only if another candidate pair has been found.
      */
     public boolean nextCandidate() {
 
-        if (!pattern.isOutgoingEmpty() && !target.isOutgoingEmpty()) {
-            return computeOutgoingCandidates();
-        } else if (!pattern.isIngoingEmpty() && !target.isIngoingEmpty()) {
-            return computeIngoingCandidates();
-        } else {
-            return computeAllCandidates();
-        }
-    }
-
-    /**
-     * Computes possible candidate pairs based on nodes reachable via outgoing edges from nodes that already have
-     * been matched.
-     */
-    private boolean computeOutgoingCandidates() {
-
-        int start = targetCandidate + 1;
-
-        for (int p = patternCandidate; p < countPatternNodes; p++) {
-
-            if (pattern.containsOutgoingUnmatched(p) && !pattern.isLessThan(patternMin, p)) {
-
-                for (int t = start; t < countTargetNodes; t++) {
+        boolean outgoing = !pattern.isOutgoingEmpty() && !target.isOutgoingEmpty();
+        boolean ingoing = !outgoing && !pattern.isIngoingEmpty() && !target.isIngoingEmpty();
 
-                    if (target.containsOutgoing(t) && !target.containsMatch(t)) {
-                        patternCandidate = p;
-                        targetCandidate = t;
-                        patternMin = p;
-                        return true;
-                    }
-                }
-                start = 0;
+        int depth = pattern.getMatchingSize();
+        if (patternPositions[depth] == NULL_CANDIDATE) {
+            int position = choosePatternPosition(outgoing, ingoing);
+            if (position == NULL_CANDIDATE) {
+                return false;
             }
+            patternPositions[depth] = position;
+            candidatePositions[depth] = candidatesBegin[patternOrder[position]] - 1;
         }
-        return false;
-    }
 
-
-    /**
-     * Computes possible candidate pairs based on nodes reachable via ingoing edges from nodes that already have
-     * been matched.
-     */
-    private boolean computeIngoingCandidates() {
-
-        int start = targetCandidate + 1;
-        for (int p = patternCandidate; p < countPatternNodes; p++) {
-
-
-            if (pattern.containsIngoingUnmatched(p) && !pattern.isLessThan(patternMin, p)) {
-
-                for (int t = start; t < countTargetNodes; t++) {
-
-                    if (target.containsIngoing(t) && !target.containsMatch(t)) {
-                        patternCandidate = p;
-                        targetCandidate = t;
-                        patternMin = p;
-                        return true;
-                    }
-                }
+        int p = patternOrder[patternPositions[depth]];
+        int end = candidatesEnd[p];
+        for (int j = candidatePositions[depth] + 1; j < end; j++) {
+
+            int t = candidates[j];
+            if (!target.containsMatch(t)
+                    && (outgoing ? target.containsOutgoing(t) : !ingoing || target.containsIngoing(t))) {
+                candidatePositions[depth] = j;
+                patternCandidate = p;
+                targetCandidate = t;
+                return true;
             }
         }
+
+        candidatePositions[depth] = end;
         return false;
     }
 
     /**
-     * Computes all possible candidate pairs based on nodes that have not been matched yet.
+     * @return The position in patternOrder of the first pattern node that is reachable via an outgoing edge
+     * (or via an ingoing edge or not matched at all) or NULL_CANDIDATE if no such node exists.
      */
-    private boolean computeAllCandidates() {
-
-        int start = targetCandidate + 1;
-
-        for (int p = patternCandidate; p < countPatternNodes; p++) {
+    private int choosePatternPosition(boolean outgoing, boolean ingoing) {
 
-            if (!pattern.containsMatch(p) && !pattern.isLessThan(patternMin, p)) {
+        for (int i = 0; i < countPatternNodes; i++) {
 
-                for (int t = start; t < countTargetNodes; t++) {
-
-                    if (!target.containsMatch(t)) {
-                        patternCandidate = p;
-                        targetCandidate = t;
-                        patternMin = p;
-                        return true;
-                    }
-                }
-                start = 0;
+            int p = patternOrder[i];
+            if (outgoing ? pattern.containsOutgoingUnmatched(p)
+                    : ingoing ? pattern.containsIngoingUnmatched(p) : !pattern.containsMatch(p)) {
+                return i;
             }
         }
-        return false;
+        return NULL_CANDIDATE;
     }
 
     public int getPatternCandidate() {
@@ -34,5 +34,28 @@ public class VF2EmbeddingChecker extends AbstractVF2MorphismChecker {
         super(matchingAlgorithm);
     }
 
+    /**
+     * Initializes this checker such that only embeddings into the given target nodes are determined.
+     *
+     * @param admissibleTargets Determines for each node of the target graph whether it may belong to an embedding.
+     */
+    public VF2EmbeddingChecker(boolean[] admissibleTargets) {
+
+        super(
+                VF2Algorithm.builder()
+                        .setMatchingCondition(new MorphismFound())
+                        .addFeasibilityCondition(new RestrictedTargetNodes(admissibleTargets))
+                        .addFeasibilityCondition(new CompatibleNodeTypes())
+                        .addFeasibilityCondition(new CompatiblePredecessors(false))
+                        .addFeasibilityCondition(new CompatibleSuccessors(false))
+                        .addFeasibilityCondition(new OneStepLookaheadIn(false))
+                        .addFeasibilityCondition(new OneStepLookaheadOut(false))
+                        .addFeasibilityCondition(new TwoStepLookahead(false))
+                        .addFeasibilityCondition(new EmbeddingExternalNodes())
+                        .addFeasibilityCondition(new EmbeddingEdgeLabels())
+                        .build()
+        );
+    }
+
 
 }
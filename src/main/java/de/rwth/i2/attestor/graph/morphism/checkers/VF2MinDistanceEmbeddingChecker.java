@@ -88,5 +88,31 @@ public class VF2MinDistanceEmbeddingChecker extends AbstractVF2MorphismChecker {
         );
     }
 
+    /**
+     * Initializes this checker for a given minimal distance such that only embeddings into the given
+     * target nodes are determined.
+     *
+     * @param options           Options guiding how embeddings are computed
+     * @param admissibleTargets Determines for each node of the target graph whether it may belong to an embedding.
+     */
+    public VF2MinDistanceEmbeddingChecker(MorphismOptions options, boolean[] admissibleTargets) {
+
+        super(
+                VF2Algorithm.builder()
+                        .setMatchingCondition(matchingCondition)
+                        .addFeasibilityCondition(new RestrictedTargetNodes(admissibleTargets))
+                        .addFeasibilityCondition(compatibleNodeTypes)
+                        .addFeasibilityCondition(compatiblePredecessors)
+                        .addFeasibilityCondition(compatibleSuccessors)
+                        .addFeasibilityCondition(oneStepLookaheadIn)
+                        .addFeasibilityCondition(oneStepLookaheadOut)
+                        .addFeasibilityCondition(twoStepLookahead)
+                        .addFeasibilityCondition(embeddingExternalNodes)
+                        .addFeasibilityCondition(embeddingEdgeLabels)
+                        .addFeasibilityCondition(new AdmissibleAbstraction(options))
+                        .build()
+        );
+    }
+
 
 }
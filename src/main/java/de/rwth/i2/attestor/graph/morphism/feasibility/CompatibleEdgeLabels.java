@@ -32,8 +32,8 @@ public class CompatibleEdgeLabels implements FeasibilityFunction {
                 int match = pattern.getMatch(succ);
 
                 if (!ListUtil.isEqualAsMultiset(
-                        patternGraph.getEdgeLabel(p, succ),
-                        targetGraph.getEdgeLabel(t, match))
+                        patternGraph.getEdgeLabelIds(p, succ),
+                        targetGraph.getEdgeLabelIds(t, match))
                         ) {
                     return false;
                 }
@@ -48,8 +48,8 @@ public class CompatibleEdgeLabels implements FeasibilityFunction {
                 int match = pattern.getMatch(pred);
 
                 if (!ListUtil.isEqualAsMultiset(
-                        patternGraph.getEdgeLabel(pred, p),
-                        targetGraph.getEdgeLabel(match, t))
+                        patternGraph.getEdgeLabelIds(pred, p),
+                        targetGraph.getEdgeLabelIds(match, t))
                         ) {
                     return false;
                 }
@@ -1,9 +1,7 @@
 package de.rwth.i2.attestor.graph.morphism.feasibility;
 
 import de.rwth.i2.attestor.graph.digraph.NodeLabel;
-import de.rwth.i2.attestor.graph.morphism.FeasibilityFunction;
-import de.rwth.i2.attestor.graph.morphism.Graph;
-import de.rwth.i2.attestor.graph.morphism.VF2State;
+import de.rwth.i2.attestor.graph.morphism.NodeLabelFeasibilityFunction;
 import de.rwth.i2.attestor.types.Type;
 import de.rwth.i2.attestor.types.Types;
 
@@ -12,18 +10,12 @@ import de.rwth.i2.attestor.types.Types;
  *
  * @author Christoph
  */
-public class CompatibleNodeTypes implements FeasibilityFunction {
+public class CompatibleNodeTypes implements NodeLabelFeasibilityFunction {
 
     private static final Type nullType = Types.NULL;
 
     @Override
-    public boolean eval(VF2State state, int p, int t) {
-
-        Graph patternGraph = state.getPattern().getGraph();
-        Graph targetGraph = state.getTarget().getGraph();
-
-        NodeLabel patternLabel = patternGraph.getNodeLabel(p);
-        NodeLabel targetLabel = targetGraph.getNodeLabel(t);
+    public boolean isCompatible(NodeLabel patternLabel, NodeLabel targetLabel) {
 
         if (patternLabel.getClass() == nullType.getClass() && targetLabel.getClass() == nullType.getClass()) {
             Type patternType = (Type) patternLabel;
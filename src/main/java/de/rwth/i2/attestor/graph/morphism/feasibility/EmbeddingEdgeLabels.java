@@ -54,16 +54,16 @@ public class EmbeddingEdgeLabels implements FeasibilityFunction {
                 if (patternGraph.isExternal(p) && patternGraph.isExternal(succ)) {
 
                     if (!ListUtil.isSubsetAsMultiset(
-                            patternGraph.getEdgeLabel(p, succ),
-                            targetGraph.getEdgeLabel(t, match))
+                            patternGraph.getEdgeLabelIds(p, succ),
+                            targetGraph.getEdgeLabelIds(t, match))
                             ) {
                         return false;
                     }
                 } else {
 
                     if (!ListUtil.isEqualAsMultiset(
-                            patternGraph.getEdgeLabel(p, succ),
-                            targetGraph.getEdgeLabel(t, match))
+                            patternGraph.getEdgeLabelIds(p, succ),
+                            targetGraph.getEdgeLabelIds(t, match))
                             ) {
                         return false;
                     }
@@ -81,16 +81,16 @@ public class EmbeddingEdgeLabels implements FeasibilityFunction {
                 if (patternGraph.isExternal(p) && patternGraph.isExternal(pred)) {
 
                     if (!ListUtil.isSubsetAsMultiset(
-                            patternGraph.getEdgeLabel(pred, p),
-                            targetGraph.getEdgeLabel(match, t))
+                            patternGraph.getEdgeLabelIds(pred, p),
+                            targetGraph.getEdgeLabelIds(match, t))
                             ) {
                         return false;
                     }
                 } else {
 
                     if (!ListUtil.isEqualAsMultiset(
-                            patternGraph.getEdgeLabel(pred, p),
-                            targetGraph.getEdgeLabel(match, t))
+                            patternGraph.getEdgeLabelIds(pred, p),
+                            targetGraph.getEdgeLabelIds(match, t))
                             ) {
                         return false;
                     }
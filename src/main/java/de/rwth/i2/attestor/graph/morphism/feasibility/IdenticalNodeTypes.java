@@ -1,8 +1,7 @@
 package de.rwth.i2.attestor.graph.morphism.feasibility;
 
-import de.rwth.i2.attestor.graph.morphism.FeasibilityFunction;
-import de.rwth.i2.attestor.graph.morphism.Graph;
-import de.rwth.i2.attestor.graph.morphism.VF2State;
+import de.rwth.i2.attestor.graph.digraph.NodeLabel;
+import de.rwth.i2.attestor.graph.morphism.NodeLabelFeasibilityFunction;
 import de.rwth.i2.attestor.types.GeneralType;
 
 /**
@@ -10,22 +9,16 @@ import de.rwth.i2.attestor.types.GeneralType;
  *
  * @author Christoph
  */
-public class IdenticalNodeTypes implements FeasibilityFunction {
+public class IdenticalNodeTypes implements NodeLabelFeasibilityFunction {
 
     @Override
-    public boolean eval(VF2State state, int p, int t) {
+    public boolean isCompatible(NodeLabel patternLabel, NodeLabel targetLabel) {
 
-        Graph patternGraph = state.getPattern().getGraph();
-        Graph targetGraph = state.getTarget().getGraph();
-
-        if (patternGraph.getNodeLabel(p).getClass() == GeneralType.class) {
-            GeneralType nodeType = (GeneralType) patternGraph.getNodeLabel(p);
-            return nodeType.typeEquals(targetGraph.getNodeLabel(t));
+        if (patternLabel.getClass() == GeneralType.class) {
+            GeneralType nodeType = (GeneralType) patternLabel;
+            return nodeType.typeEquals(targetLabel);
         } else {
-            return patternGraph.getNodeLabel(p)
-                    .equals(
-                            targetGraph.getNodeLabel(t)
-                    );
+            return patternLabel.equals(targetLabel);
         }
     }
 
@@ -0,0 +1,27 @@
+package de.rwth.i2.attestor.graph.morphism.feasibility;
+
+import de.rwth.i2.attestor.graph.morphism.FeasibilityFunction;
+import de.rwth.i2.attestor.graph.morphism.VF2State;
+
+/**
+ * Restricts the considered morphisms to ones that only map into a given subset of the nodes of the target graph.
+ */
+public class RestrictedTargetNodes implements FeasibilityFunction {
+
+    private final boolean[] admissibleTargets;
+
+    /**
+     * @param admissibleTargets Determines for each node of the target graph whether it may be the image
+     *                          of a pattern node.
+     */
+    public RestrictedTargetNodes(boolean[] admissibleTargets) {
+
+        this.admissibleTargets = admissibleTargets;
+    }
+
+    @Override
+    public boolean eval(VF2State state, int p, int t) {
+
+        return admissibleTargets[t];
+    }
+}
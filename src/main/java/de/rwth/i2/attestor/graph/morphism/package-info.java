@@ -22,6 +22,9 @@
  * morphism, such as isomorphism, embedding, and so on, is computed.
  * A collection of already implemented feasibility functions is found in
  * {@link de.rwth.i2.attestor.graph.morphism.feasibility}.
+ * Feasibility functions that only depend on node labels, i.e. instances of
+ * {@link de.rwth.i2.attestor.graph.morphism.NodeLabelFeasibilityFunction}, are not evaluated for every candidate
+ * pair, but restrict the candidate pairs that are generated in the first place.
  * Apart from that the termination criterion used by the algorithm is configurable through a TerminationFunction.
  * Existing implementations of these functions are found in
  * {@link de.rwth.i2.attestor.graph.morphism.terminationFunctions}.
@@ -0,0 +1,59 @@
+package de.rwth.i2.attestor.io.binaryFormat;
+
+/**
+ * Constants of the compact binary format written by {@link BinaryWriter} and read by {@link BinaryReader}.
+ * <p>
+ * A file starts with the bytes {@code ATTB}, a format version and a byte of flags.
+ * If {@link #FLAG_COMPRESSED} is set, the remainder of the file is compressed with deflate.
+ * The remainder is a sequence of records, each starting with a tag, and terminated by {@link #TAG_END}.
+ * <p>
+ * All integers are stored as unsigned variable length integers, i.e. seven bits per byte where the highest bit
+ * indicates that another byte follows. Strings are interned: the first occurrence of a string is stored
+ * as {@link #STRING_NEW} followed by its UTF-8 encoding and every further occurrence is stored as its position
+ * in the table of previously stored strings shifted by {@link #STRING_OFFSET}.
+ * Nodes, states and strings are hence referenced by small integers, which mostly fit into a single byte.
+ */
+final class BinaryFormat {
+
+    static final byte[] MAGIC = {'A', 'T', 'T', 'B'};
+    static final int VERSION = 1;
+
+    static final int FLAG_COMPRESSED = 1;
+
+    static final int TAG_END = 0;
+    static final int TAG_HEAP_CONFIGURATION = 1;
+    static final int TAG_CONTRACTS = 2;
+    static final int TAG_STATE_SPACE = 3;
+
+    static final int STRING_NULL = 0;
+    static final int STRING_NEW = 1;
+    static final int STRING_OFFSET = 2;
+
+    static final int STATE_INITIAL = 1;
+    static final int STATE_FINAL = 2;
+
+    static final int INDEX_VARIABLE = 0;
+    static final int INDEX_ABSTRACT = 1;
+    static final int INDEX_CONCRETE = 2;
+    static final int INDEX_BOTTOM = 3;
+
+    private BinaryFormat() {
+
+    }
+
+    static String tagName(int tag) {
+
+        switch (tag) {
+            case TAG_END:
+                return "end of stream";
+            case TAG_HEAP_CONFIGURATION:
+                return "heap configuration";
+            case TAG_CONTRACTS:
+                return "contracts";
+            case TAG_STATE_SPACE:
+                return "state space";
+            default:
+                return "unknown record " + tag;
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package de.rwth.i2.attestor.io.binaryFormat;
+
+import de.rwth.i2.attestor.graph.Nonterminal;
+import de.rwth.i2.attestor.graph.SelectorLabel;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.graph.heap.HeapConfigurationBuilder;
+import de.rwth.i2.attestor.main.scene.SceneObject;
+import de.rwth.i2.attestor.phases.symbolicExecution.procedureImpl.InternalContract;
+import de.rwth.i2.attestor.phases.symbolicExecution.stateSpaceGenerationImpl.InternalStateSpace;
+import de.rwth.i2.attestor.procedures.Contract;
+import de.rwth.i2.attestor.programState.AtomicPropositions;
+import de.rwth.i2.attestor.programState.defaultState.DefaultProgramState;
+import de.rwth.i2.attestor.programState.indexedState.AnnotatedSelectorLabel;
+import de.rwth.i2.attestor.programState.indexedState.IndexedNonterminalImpl;
+import de.rwth.i2.attestor.programState.indexedState.IndexedState;
+import de.rwth.i2.attestor.programState.indexedState.index.AbstractIndexSymbol;
+import de.rwth.i2.attestor.programState.indexedState.index.ConcreteIndexSymbol;
+import de.rwth.i2.attestor.programState.indexedState.index.IndexSymbol;
+import de.rwth.i2.attestor.programState.indexedState.index.IndexVariable;
+import de.rwth.i2.attestor.stateSpaceGeneration.ProgramState;
+import de.rwth.i2.attestor.stateSpaceGeneration.StateSpace;
+import de.rwth.i2.attestor.types.Type;
+import de.rwth.i2.attestor.util.Pair;
+import gnu.trove.list.array.TIntArrayList;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads heap configurations, contracts and state spaces written by {@link BinaryWriter}.
+ * Records are read one at a time in the order in which they have been written.
+ * Every read method returns null once the end of the stream has been reached and throws an
+ * {@link IOException} if the next record is of a different kind.
+ * Since files may be truncated or corrupted, all lengths and references to previously read elements
+ * are validated such that malformed input also results in an {@link IOException}.
+ * <p>
+ * Types, selector labels and nonterminals are resolved in the scene of the reader.
+ * All read selector labels are marked as used.
+ */
+public class BinaryReader extends SceneObject implements Closeable {
+
+    /**
+     * Lengths read from a stream may be corrupted. Hence, at most this many elements are allocated upfront.
+     */
+    private static final int MAX_PREALLOCATION = 8192;
+
+    private final InputStream in;
+    private final List<String> strings = new ArrayList<>();
+    private int pendingTag = -1;
+
+    /**
+     * @param sceneObject The scene in which types, selector labels and nonterminals are resolved.
+     * @param in          The stream to read from.
+     * @throws IOException if the stream does not start with a supported header.
+     */
+    public BinaryReader(SceneObject sceneObject, InputStream in) throws IOException {
+
+        super(sceneObject);
+        InputStream buffered = new BufferedInputStream(in);
+
+        byte[] magic = new byte[BinaryFormat.MAGIC.length];
+        readFully(buffered, magic);
+        if (!Arrays.equals(magic, BinaryFormat.MAGIC)) {
+            throw new IOException("Not a binary attestor file.");
+        }
+        int version = readInt(buffered);
+        if (version != BinaryFormat.VERSION) {
+            throw new IOException("Unsupported version of the binary format: " + version);
+        }
+        int flags = buffered.read();
+        if (flags < 0) {
+            throw new EOFException();
+        }
+        this.in = (flags & BinaryFormat.FLAG_COMPRESSED) != 0 ? new InflaterInputStream(buffered) : buffered;
+    }
+
+    /**
+     * @return The next heap configuration or null if the end of the stream has been reached.
+     * @throws IOException if reading fails or the next record is not a heap configuration.
+     */
+    public HeapConfiguration readHeapConfiguration() throws IOException {
+
+        if (!nextRecordIs(BinaryFormat.TAG_HEAP_CONFIGURATION)) {
+            return null;
+        }
+        return readHeap();
+    }
+
+    /**
+     * @return The signature of a method together with all of its contracts or null if the end of
+     * the stream has been reached.
+     * @throws IOException if reading fails or the next record does not consist of contracts.
+     */
+    public Pair<String, List<Contract>> readContracts() throws IOException {
+
+        if (!nextRecordIs(BinaryFormat.TAG_CONTRACTS)) {
+            return null;
+        }
+
+        String signature = readName();
+        int count = readLength();
+        List<Contract> contracts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            HeapConfiguration precondition = readHeap();
+            int postconditionCount = readLength();
+            List<HeapConfiguration> postconditions = new ArrayList<>();
+            for (int p = 0; p < postconditionCount; p++) {
+                postconditions.add(readHeap());
+            }
+            contracts.add(new InternalContract(precondition, postconditions));
+        }
+        return new Pair<>(signature, contracts);
+    }
+
+    /**
+     * @return The next state space or null if the end of the stream has been reached.
+     * @throws IOException if reading fails or the next record is not a state space.
+     */
+    public StateSpace readStateSpace() throws IOException {
+
+        if (!nextRecordIs(BinaryFormat.TAG_STATE_SPACE)) {
+            return null;
+        }
+
+        boolean isIndexedMode = scene().options().isIndexedMode();
+        int count = readLength();
+        StateSpace stateSpace = new InternalStateSpace(Math.min(count, MAX_PREALLOCATION));
+        List<ProgramState> states = new ArrayList<>();
+        TIntArrayList flags = new TIntArrayList();
+        for (int i = 0; i < count; i++) {
+            flags.add(readInt());
+            int programCounter = readInt();
+            List<String> propositions = new ArrayList<>();
+            int propositionCount = readLength();
+            for (int p = 0; p < propositionCount; p++) {
+                propositions.add(readName());
+            }
+
+            // states are not created via the scene, because preparing their heap would alter it
+            HeapConfiguration heap = readHeap();
+            ProgramState state = isIndexedMode ? new IndexedState(heap) : new DefaultProgramState(heap);
+            state.setProgramCounter(programCounter);
+            for (String proposition : propositions) {
+                state.addAP(proposition);
+            }
+            if ((flags.get(i) & BinaryFormat.STATE_INITIAL) != 0) {
+                stateSpace.addInitialState(state);
+            } else {
+                stateSpace.addState(state);
+            }
+            if (propositions.contains(AtomicPropositions.ABORTED)) {
+                stateSpace.setAborted(state);
+            }
+            states.add(state);
+        }
+
+        for (int i = 0; i < count; i++) {
+            ProgramState state = states.get(i);
+            if ((flags.get(i) & BinaryFormat.STATE_FINAL) != 0) {
+                stateSpace.setFinal(state);
+            }
+            for (ProgramState successor : readSuccessors(states)) {
+                stateSpace.addControlFlowTransition(state, successor);
+            }
+            for (ProgramState successor : readSuccessors(states)) {
+                stateSpace.addMaterializationTransition(state, successor);
+            }
+            // artificial transitions are always self-loops of final states
+            if (!readSuccessors(states).isEmpty()) {
+                stateSpace.addArtificialInfPathsTransition(state);
+            }
+        }
+        return stateSpace;
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        in.close();
+    }
+
+    private boolean nextRecordIs(int expectedTag) throws IOException {
+
+        if (pendingTag < 0) {
+            pendingTag = readInt();
+        }
+        if (pendingTag == BinaryFormat.TAG_END) {
+            return false;
+        }
+        if (pendingTag != expectedTag) {
+            throw new IOException("Expected " + BinaryFormat.tagName(expectedTag)
+                    + " but found " + BinaryFormat.tagName(pendingTag) + ".");
+        }
+        pendingTag = -1;
+        return true;
+    }
+
+    private List<ProgramState> readSuccessors(List<ProgramState> states) throws IOException {
+
+        int count = readLength();
+        List<ProgramState> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            result.add(states.get(readPosition(states.size(), "state")));
+        }
+        return result;
+    }
+
+    private HeapConfiguration readHeap() throws IOException {
+
+        try {
+            return readHeapElements();
+        } catch (IllegalArgumentException e) {
+            // the builder rejects elements that are inconsistent with the elements read before
+            throw new IOException("Malformed heap configuration: " + e.getMessage(), e);
+        }
+    }
+
+    private HeapConfiguration readHeapElements() throws IOException {
+
+        HeapConfiguration heapConfiguration = scene().createHeapConfiguration();
+        HeapConfigurationBuilder builder = heapConfiguration.builder();
+
+        TIntArrayList nodes = new TIntArrayList();
+        int runs = readLength();
+        for (int i = 0; i < runs; i++) {
+            Type type = scene().getType(readName());
+            builder.addNodes(type, readLength(), nodes);
+        }
+
+        int externals = readLength();
+        for (int i = 0; i < externals; i++) {
+            builder.setExternal(readNode(nodes));
+        }
+
+        int variables = readLength();
+        for (int i = 0; i < variables; i++) {
+            String name = readName();
+            builder.addVariableEdge(name, readNode(nodes));
+        }
+
+        boolean isIndexedMode = scene().options().isIndexedMode();
+        for (int i = 0; i < nodes.size(); i++) {
+            int selectors = readLength();
+            for (int s = 0; s < selectors; s++) {
+                String name = readName();
+                String annotation = readString();
+                int target = readNode(nodes);
+
+                scene().labels().addUsedSelectorLabel(name);
+                SelectorLabel label = scene().getSelectorLabel(name);
+                if (isIndexedMode) {
+                    label = new AnnotatedSelectorLabel(label, annotation == null ? "" : annotation);
+                }
+                builder.addSelector(nodes.get(i), label, target);
+            }
+        }
+
+        int nonterminalEdges = readLength();
+        for (int i = 0; i < nonterminalEdges; i++) {
+            Nonterminal label = scene().getNonterminal(readName());
+            List<IndexSymbol> index = readIndex();
+            if (index != null && isIndexedMode) {
+                label = new IndexedNonterminalImpl(label, index);
+            }
+            int rank = readLength();
+            TIntArrayList tentacles = new TIntArrayList();
+            for (int t = 0; t < rank; t++) {
+                tentacles.add(readNode(nodes));
+            }
+            builder.addNonterminalEdge(label, tentacles);
+        }
+
+        return builder.build();
+    }
+
+    private List<IndexSymbol> readIndex() throws IOException {
+
+        int length = readInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+
+        List<IndexSymbol> index = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            int kind = readInt();
+            switch (kind) {
+                case BinaryFormat.INDEX_VARIABLE:
+                    index.add(IndexVariable.getIndexVariable());
+                    break;
+                case BinaryFormat.INDEX_ABSTRACT:
+                    index.add(AbstractIndexSymbol.get(readName()));
+                    break;
+                case BinaryFormat.INDEX_CONCRETE:
+                    index.add(ConcreteIndexSymbol.getIndexSymbol(readName(), false));
+                    break;
+                case BinaryFormat.INDEX_BOTTOM:
+                    index.add(ConcreteIndexSymbol.getIndexSymbol(readName(), true));
+                    break;
+                default:
+                    throw new IOException("Unknown kind of index symbol: " + kind);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return The next string, which must not be null.
+     * @throws IOException if the next string is null.
+     */
+    private String readName() throws IOException {
+
+        String result = readString();
+        if (result == null) {
+            throw new IOException("Missing name.");
+        }
+        return result;
+    }
+
+    private String readString() throws IOException {
+
+        int code = readInt();
+        if (code == BinaryFormat.STRING_NULL) {
+            return null;
+        }
+        if (code == BinaryFormat.STRING_NEW) {
+            String result = new String(readBytes(readLength()), StandardCharsets.UTF_8);
+            strings.add(result);
+            return result;
+        }
+
+        return strings.get(readPosition(code - BinaryFormat.STRING_OFFSET, strings.size(), "string"));
+    }
+
+    private byte[] readBytes(int length) throws IOException {
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream(Math.min(length, MAX_PREALLOCATION));
+        byte[] chunk = new byte[Math.min(length, MAX_PREALLOCATION)];
+        int remaining = length;
+        while (remaining > 0) {
+            int read = in.read(chunk, 0, Math.min(remaining, chunk.length));
+            if (read < 0) {
+                throw new EOFException();
+            }
+            result.write(chunk, 0, read);
+            remaining -= read;
+        }
+        return result.toByteArray();
+    }
+
+    /**
+     * @return The id of the node at the position read from the stream.
+     * @throws IOException if there is no node at the read position.
+     */
+    private int readNode(TIntArrayList nodes) throws IOException {
+
+        return nodes.get(readPosition(nodes.size(), "node"));
+    }
+
+    private int readPosition(int size, String kind) throws IOException {
+
+        return readPosition(readInt(), size, kind);
+    }
+
+    private static int readPosition(int position, int size, String kind) throws IOException {
+
+        if (position < 0 || position >= size) {
+            throw new IOException("Reference to unknown " + kind + " " + position + ".");
+        }
+        return position;
+    }
+
+    /**
+     * @return A non-negative number of elements read from the stream.
+     * @throws IOException if the read number is negative.
+     */
+    private int readLength() throws IOException {
+
+        int length = readInt();
+        if (length < 0) {
+            throw new IOException("Negative length " + length + ".");
+        }
+        return length;
+    }
+
+    private int readInt() throws IOException {
+
+        return readInt(in);
+    }
+
+    private static int readInt(InputStream in) throws IOException {
+
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed variable length integer.");
+    }
+
+    private static void readFully(InputStream in, byte[] buffer) throws IOException {
+
+        int offset = 0;
+        while (offset < buffer.length) {
+            int read = in.read(buffer, offset, buffer.length - offset);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            offset += read;
+        }
+    }
+}
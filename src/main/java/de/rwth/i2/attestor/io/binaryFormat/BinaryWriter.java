@@ -0,0 +1,313 @@
+package de.rwth.i2.attestor.io.binaryFormat;
+
+import de.rwth.i2.attestor.graph.Nonterminal;
+import de.rwth.i2.attestor.graph.SelectorLabel;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.programState.indexedState.AnnotatedSelectorLabel;
+import de.rwth.i2.attestor.programState.indexedState.IndexedNonterminal;
+import de.rwth.i2.attestor.programState.indexedState.index.AbstractIndexSymbol;
+import de.rwth.i2.attestor.programState.indexedState.index.Index;
+import de.rwth.i2.attestor.programState.indexedState.index.IndexSymbol;
+import de.rwth.i2.attestor.programState.indexedState.index.IndexVariable;
+import de.rwth.i2.attestor.procedures.Contract;
+import de.rwth.i2.attestor.stateSpaceGeneration.ProgramState;
+import de.rwth.i2.attestor.stateSpaceGeneration.StateSpace;
+import de.rwth.i2.attestor.types.Type;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes heap configurations, contracts and state spaces in the compact binary format
+ * described in {@link BinaryFormat}.
+ * Every record is written as soon as the corresponding write method is called. Hence, arbitrarily many records
+ * may be written to a single stream without keeping them in memory.
+ * The stream is terminated and closed by {@link #close()}.
+ */
+public class BinaryWriter implements Closeable {
+
+    private final OutputStream out;
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    /**
+     * @param out      The stream to write to.
+     * @param compress True if and only if all records should be compressed.
+     * @throws IOException if writing the header fails.
+     */
+    public BinaryWriter(OutputStream out, boolean compress) throws IOException {
+
+        OutputStream buffered = new BufferedOutputStream(out);
+        buffered.write(BinaryFormat.MAGIC);
+        writeInt(buffered, BinaryFormat.VERSION);
+        buffered.write(compress ? BinaryFormat.FLAG_COMPRESSED : 0);
+        this.out = compress ? new DeflaterOutputStream(buffered) : buffered;
+    }
+
+    /**
+     * Writes a single heap configuration.
+     *
+     * @param heapConfiguration The heap configuration to write.
+     * @throws IOException if writing fails.
+     */
+    public void writeHeapConfiguration(HeapConfiguration heapConfiguration) throws IOException {
+
+        writeInt(BinaryFormat.TAG_HEAP_CONFIGURATION);
+        writeHeap(heapConfiguration);
+    }
+
+    /**
+     * Writes all contracts of a single method.
+     *
+     * @param signature The signature of the method.
+     * @param contracts The contracts of the method.
+     * @throws IOException if writing fails.
+     */
+    public void writeContracts(String signature, Collection<Contract> contracts) throws IOException {
+
+        writeInt(BinaryFormat.TAG_CONTRACTS);
+        writeString(signature);
+        writeInt(contracts.size());
+        for (Contract contract : contracts) {
+            writeHeap(contract.getPrecondition());
+            Collection<HeapConfiguration> postconditions = contract.getPostconditions();
+            writeInt(postconditions.size());
+            for (HeapConfiguration postcondition : postconditions) {
+                writeHeap(postcondition);
+            }
+        }
+    }
+
+    /**
+     * Writes a state space including the heap configuration, program counter and atomic propositions of
+     * every state. States are renumbered consecutively in the order in which they are written.
+     *
+     * @param stateSpace The state space to write.
+     * @throws IOException if writing fails.
+     */
+    public void writeStateSpace(StateSpace stateSpace) throws IOException {
+
+        // the set of states is a view that cannot be copied via toArray
+        List<ProgramState> states = new ArrayList<>(stateSpace.size());
+        for (ProgramState state : stateSpace.getStates()) {
+            states.add(state);
+        }
+        TIntIntMap idMapping = new TIntIntHashMap(states.size(), 0.5f, -1, -1);
+        for (int i = 0; i < states.size(); i++) {
+            idMapping.put(states.get(i).getStateSpaceId(), i);
+        }
+
+        writeInt(BinaryFormat.TAG_STATE_SPACE);
+        writeInt(states.size());
+        for (ProgramState state : states) {
+            int id = state.getStateSpaceId();
+            int flags = 0;
+            if (stateSpace.getInitialStateIds().contains(id)) {
+                flags |= BinaryFormat.STATE_INITIAL;
+            }
+            if (stateSpace.getFinalStateIds().contains(id)) {
+                flags |= BinaryFormat.STATE_FINAL;
+            }
+            writeInt(flags);
+            writeInt(state.getProgramCounter());
+            Set<String> propositions = state.getAPs();
+            writeInt(propositions.size());
+            for (String proposition : propositions) {
+                writeString(proposition);
+            }
+            writeHeap(state.getHeap());
+        }
+
+        for (ProgramState state : states) {
+            int id = state.getStateSpaceId();
+            writeSuccessors(stateSpace.getControlFlowSuccessorsIdsOf(id), idMapping);
+            writeSuccessors(stateSpace.getMaterializationSuccessorsIdsOf(id), idMapping);
+            writeSuccessors(stateSpace.getArtificialInfPathsSuccessorsIdsOf(id), idMapping);
+        }
+    }
+
+    /**
+     * Terminates the stream and closes it.
+     *
+     * @throws IOException if writing fails.
+     */
+    @Override
+    public void close() throws IOException {
+
+        writeInt(BinaryFormat.TAG_END);
+        out.close();
+    }
+
+    private void writeSuccessors(TIntArrayList successors, TIntIntMap idMapping) throws IOException {
+
+        TIntArrayList mapped = new TIntArrayList();
+        if (successors != null) {
+            for (int i = 0; i < successors.size(); i++) {
+                int successor = idMapping.get(successors.get(i));
+                // successors that are no longer part of the state space are dropped
+                if (successor >= 0) {
+                    mapped.add(successor);
+                }
+            }
+        }
+        writeInt(mapped.size());
+        for (int i = 0; i < mapped.size(); i++) {
+            writeInt(mapped.get(i));
+        }
+    }
+
+    private void writeHeap(HeapConfiguration hc) throws IOException {
+
+        TIntArrayList nodes = hc.nodes();
+        TIntIntMap idMapping = new TIntIntHashMap(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            idMapping.put(nodes.get(i), i);
+        }
+
+        writeNodeTypes(hc, nodes);
+
+        int externals = hc.countExternalNodes();
+        writeInt(externals);
+        for (int i = 0; i < externals; i++) {
+            writeInt(idMapping.get(hc.externalNodeAt(i)));
+        }
+
+        TIntArrayList variables = hc.variableEdges();
+        writeInt(variables.size());
+        for (int i = 0; i < variables.size(); i++) {
+            int variable = variables.get(i);
+            writeString(hc.nameOf(variable));
+            writeInt(idMapping.get(hc.targetOf(variable)));
+        }
+
+        for (int i = 0; i < nodes.size(); i++) {
+            int node = nodes.get(i);
+            List<SelectorLabel> selectors = hc.selectorLabelsOf(node);
+            writeInt(selectors.size());
+            for (int s = 0; s < selectors.size(); s++) {
+                SelectorLabel selector = selectors.get(s);
+                writeString(selector.getLabel());
+                if (selector instanceof AnnotatedSelectorLabel) {
+                    writeString(((AnnotatedSelectorLabel) selector).getAnnotation());
+                } else {
+                    writeString(null);
+                }
+                // successorNodesOf is free of repetitions, hence targets are looked up for each selector
+                writeInt(idMapping.get(hc.selectorTargetOf(node, selector)));
+            }
+        }
+
+        TIntArrayList nonterminalEdges = hc.nonterminalEdges();
+        writeInt(nonterminalEdges.size());
+        for (int i = 0; i < nonterminalEdges.size(); i++) {
+            int edge = nonterminalEdges.get(i);
+            Nonterminal label = hc.labelOf(edge);
+            writeString(label.getLabel());
+            writeIndex(label);
+            TIntArrayList tentacles = hc.attachedNodesOf(edge);
+            writeInt(tentacles.size());
+            for (int t = 0; t < tentacles.size(); t++) {
+                writeInt(idMapping.get(tentacles.get(t)));
+            }
+        }
+    }
+
+    /**
+     * Writes the types of all nodes as a sequence of runs consisting of a type and the number of
+     * consecutive nodes of this type.
+     */
+    private void writeNodeTypes(HeapConfiguration hc, TIntArrayList nodes) throws IOException {
+
+        List<Type> runTypes = new ArrayList<>();
+        TIntArrayList runLengths = new TIntArrayList();
+        for (int i = 0; i < nodes.size(); i++) {
+            Type type = hc.nodeTypeOf(nodes.get(i));
+            int last = runTypes.size() - 1;
+            if (last >= 0 && runTypes.get(last).equals(type)) {
+                runLengths.set(last, runLengths.get(last) + 1);
+            } else {
+                runTypes.add(type);
+                runLengths.add(1);
+            }
+        }
+
+        writeInt(runTypes.size());
+        for (int i = 0; i < runTypes.size(); i++) {
+            writeString(runTypes.get(i).toString());
+            writeInt(runLengths.get(i));
+        }
+    }
+
+    /**
+     * Writes the index of an indexed nonterminal as its length shifted by one followed by its symbols
+     * or zero if the nonterminal is not indexed.
+     */
+    private void writeIndex(Nonterminal label) throws IOException {
+
+        if (!(label instanceof IndexedNonterminal)) {
+            writeInt(0);
+            return;
+        }
+
+        Index index = ((IndexedNonterminal) label).getIndex();
+        writeInt(index.size() + 1);
+        for (int i = 0; i < index.size(); i++) {
+            IndexSymbol symbol = index.get(i);
+            if (symbol instanceof IndexVariable) {
+                writeInt(BinaryFormat.INDEX_VARIABLE);
+            } else {
+                if (symbol instanceof AbstractIndexSymbol) {
+                    writeInt(BinaryFormat.INDEX_ABSTRACT);
+                } else if (symbol.isBottom()) {
+                    writeInt(BinaryFormat.INDEX_BOTTOM);
+                } else {
+                    writeInt(BinaryFormat.INDEX_CONCRETE);
+                }
+                writeString(symbol.toString());
+            }
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+
+        if (value == null) {
+            writeInt(BinaryFormat.STRING_NULL);
+            return;
+        }
+
+        Integer position = strings.get(value);
+        if (position != null) {
+            writeInt(position + BinaryFormat.STRING_OFFSET);
+        } else {
+            strings.put(value, strings.size());
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(BinaryFormat.STRING_NEW);
+            writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private void writeInt(int value) throws IOException {
+
+        writeInt(out, value);
+    }
+
+    private static void writeInt(OutputStream out, int value) throws IOException {
+
+        assert value >= 0 : "only non-negative integers are supported";
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
@@ -0,0 +1,193 @@
+package de.rwth.i2.attestor.io.jsonExport.cytoscapeFormat;
+
+import de.rwth.i2.attestor.graph.heap.HeapConfigurationExporter;
+import de.rwth.i2.attestor.stateSpaceGeneration.Program;
+import de.rwth.i2.attestor.stateSpaceGeneration.ProgramState;
+import de.rwth.i2.attestor.stateSpaceGeneration.StateSpace;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exports a state space to a single file containing one JSON object per line (NDJSON).
+ * In contrast to {@link JsonStateSpaceExporter} together with one {@link JsonHeapConfigurationExporter}
+ * per state, every state is written exactly once and immediately. Hence, the memory required for exporting
+ * does not grow with the size of the state space and only two files are created.
+ * <p>
+ * Each line describes a single state, i.e. its id, its type as in {@link JsonStateSpaceExporter},
+ * its atomic propositions, its statement, the ids of its control flow and materialization successors
+ * and its heap configuration in the format of {@link JsonHeapConfigurationExporter#exportForReport}.
+ * <p>
+ * Additionally, an index file is written that contains one entry per state consisting of the id of the
+ * state (4 bytes) followed by the byte offset of the corresponding line in the state file (8 bytes).
+ * All numbers are stored in big-endian byte order. The index allows viewers to load single states
+ * without parsing the whole file.
+ */
+public class StreamingStateSpaceExporter {
+
+    private static final int DATA_BUFFER_SIZE = 1 << 20;
+    private static final int INDEX_BUFFER_SIZE = 1 << 16;
+
+    private final Path dataFile;
+    private final Path indexFile;
+    private final HeapConfigurationExporter heapExporter = new JsonHeapConfigurationExporter();
+
+    /**
+     * @param dataFile  The file that stores one line per state.
+     * @param indexFile The file that stores the position of every state within dataFile.
+     */
+    public StreamingStateSpaceExporter(Path dataFile, Path indexFile) {
+
+        this.dataFile = dataFile;
+        this.indexFile = indexFile;
+    }
+
+    /**
+     * Exports the given state space.
+     *
+     * @param stateSpace The state space to export.
+     * @param program    The program used to generate the state space.
+     * @return The number of exported states.
+     * @throws IOException if writing fails.
+     */
+    public int export(StateSpace stateSpace, Program program) throws IOException {
+
+        TIntIntMap incomingEdges = countIncomingEdges(stateSpace);
+
+        try (FileChannel data = open(dataFile);
+             FileChannel index = open(indexFile)) {
+
+            ByteBuffer dataBuffer = ByteBuffer.allocateDirect(DATA_BUFFER_SIZE);
+            ByteBuffer indexBuffer = ByteBuffer.allocateDirect(INDEX_BUFFER_SIZE);
+            StringBuilder line = new StringBuilder();
+            long offset = 0;
+            int exportedStates = 0;
+
+            for (ProgramState state : stateSpace.getStates()) {
+                line.setLength(0);
+                appendState(line, state, stateSpace, program, incomingEdges);
+                line.append('\n');
+                byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+
+                if (indexBuffer.remaining() < Integer.BYTES + Long.BYTES) {
+                    flush(index, indexBuffer);
+                }
+                indexBuffer.putInt(state.getStateSpaceId()).putLong(offset);
+
+                write(data, dataBuffer, bytes);
+                offset += bytes.length;
+                ++exportedStates;
+            }
+
+            flush(data, dataBuffer);
+            flush(index, indexBuffer);
+            return exportedStates;
+        }
+    }
+
+    private void appendState(StringBuilder line, ProgramState state, StateSpace stateSpace,
+                             Program program, TIntIntMap incomingEdges) {
+
+        int id = state.getStateSpaceId();
+        line.append("{\"id\":").append(id)
+                .append(",\"type\":").append(JSONObject.quote(typeOf(id, stateSpace, incomingEdges)))
+                .append(",\"propositions\":[");
+        boolean first = true;
+        for (String ap : state.getAPs()) {
+            if (!first) {
+                line.append(',');
+            }
+            line.append(JSONObject.quote(ap));
+            first = false;
+        }
+        line.append("],\"statement\":")
+                .append(JSONObject.quote(program.getStatement(state.getProgramCounter()).toString()))
+                .append(",\"successors\":");
+        appendIds(line, stateSpace.getControlFlowSuccessorsIdsOf(id));
+        line.append(",\"materializationSuccessors\":");
+        appendIds(line, stateSpace.getMaterializationSuccessorsIdsOf(id));
+        line.append(",\"heap\":")
+                .append(heapExporter.exportForReport(state.getHeap()))
+                .append('}');
+    }
+
+    private static String typeOf(int id, StateSpace stateSpace, TIntIntMap incomingEdges) {
+
+        if (stateSpace.getInitialStateIds().contains(id)) {
+            return "initialState";
+        } else if (stateSpace.getFinalStateIds().contains(id)) {
+            return "finalState";
+        } else if (incomingEdges.get(id) > 1) {
+            return "mergeState";
+        }
+        return "state";
+    }
+
+    private static void appendIds(StringBuilder line, TIntArrayList ids) {
+
+        line.append('[');
+        for (int i = 0; i < ids.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append(ids.get(i));
+        }
+        line.append(']');
+    }
+
+    private static TIntIntMap countIncomingEdges(StateSpace stateSpace) {
+
+        TIntIntMap result = new TIntIntHashMap(stateSpace.size());
+        for (ProgramState state : stateSpace.getStates()) {
+            int id = state.getStateSpaceId();
+            TIntArrayList successors = stateSpace.getControlFlowSuccessorsIdsOf(id);
+            for (int i = 0; i < successors.size(); i++) {
+                result.adjustOrPutValue(successors.get(i), 1, 1);
+            }
+            successors = stateSpace.getMaterializationSuccessorsIdsOf(id);
+            for (int i = 0; i < successors.size(); i++) {
+                result.adjustOrPutValue(successors.get(i), 1, 1);
+            }
+        }
+        return result;
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer, byte[] bytes) throws IOException {
+
+        if (buffer.remaining() < bytes.length) {
+            flush(channel, buffer);
+        }
+        if (buffer.remaining() < bytes.length) {
+            // a single line exceeds the buffer
+            ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+            while (wrapped.hasRemaining()) {
+                channel.write(wrapped);
+            }
+        } else {
+            buffer.put(bytes);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -115,7 +115,7 @@ public class DefaultScene implements Scene {
     }
 
     @Override
-    public Method getOrCreateMethod(String signature) {
+    public synchronized Method getOrCreateMethod(String signature) {
 
         if(methods.containsKey(signature)) {
             return methods.get(signature);
@@ -142,13 +142,13 @@ public class DefaultScene implements Scene {
     }
 
     @Override
-    public void addNumberOfGeneratedStates(int states) {
+    public synchronized void addNumberOfGeneratedStates(int states) {
 
         totalNumberOfStates += states;
     }
 
     @Override
-    public long getNumberOfGeneratedStates() {
+    public synchronized long getNumberOfGeneratedStates() {
 
         return totalNumberOfStates;
     }
@@ -54,6 +54,55 @@ public class Options {
 
     private int maxHeap = 50;
 
+    /**
+     * The number of threads used to explore states during state space generation.
+     * A value of 1 corresponds to the sequential exploration of states.
+     */
+    private int stateSpaceGenerationThreads = 1;
+
+    /**
+     * Enabling this option leads to detecting isomorphic program states by comparing certificates, i.e. canonical
+     * forms, of their heap configurations instead of checking for graph isomorphism.
+     */
+    private boolean certificateMergingEnabled = false;
+
+    /**
+     * Enabling this option restricts canonicalization of heap configurations derived from previously canonicalized
+     * ones to the neighbourhood of nodes that have been changed since.
+     */
+    private boolean incrementalCanonicalizationEnabled = false;
+
+    /**
+     * Enabling this option replaces all non-overlapping embeddings of a grammar rule within a single step
+     * of canonicalization.
+     */
+    private boolean batchCanonicalizationEnabled = false;
+
+    /**
+     * The maximal number of canonicalization results that are cached for reuse.
+     * A value of 0 disables caching.
+     */
+    private int canonicalizationCacheSize = 0;
+
+    /**
+     * The number of threads used to execute procedure calls and to continue partial state spaces
+     * while computing the fixpoint of the interprocedural analysis.
+     * A value of 1 corresponds to the sequential fixpoint iteration.
+     */
+    private int procedureThreads = 1;
+
+    /**
+     * The number of threads used to check LTL formulae.
+     * A value of 1 corresponds to checking all formulae one after another.
+     */
+    private int modelCheckingThreads = 1;
+
+    /**
+     * The directory in which contracts are cached across several analyses.
+     * A value of null disables caching of contracts.
+     */
+    private String contractCachePath = null;
+
     // -----------------------------------------------------------------------------------
 
     public void setPostProcessingEnabled(boolean enabled) {
@@ -120,6 +169,10 @@ public class Options {
         this.maxHeap = maxHeap;
     }
 
+    public void setStateSpaceGenerationThreads(int stateSpaceGenerationThreads) {
+        this.stateSpaceGenerationThreads = stateSpaceGenerationThreads;
+    }
+
 
     public int getMaxStateSpace() {
         return maxStateSpace;
@@ -129,6 +182,80 @@ public class Options {
         return maxHeap;
     }
 
+    public int getStateSpaceGenerationThreads() {
+        return stateSpaceGenerationThreads;
+    }
+
+    public boolean isCertificateMergingEnabled() {
+
+        return certificateMergingEnabled;
+    }
+
+    public void setCertificateMergingEnabled(boolean certificateMergingEnabled) {
+
+        this.certificateMergingEnabled = certificateMergingEnabled;
+    }
+
+    public boolean isIncrementalCanonicalizationEnabled() {
+
+        return incrementalCanonicalizationEnabled;
+    }
+
+    public void setIncrementalCanonicalizationEnabled(boolean incrementalCanonicalizationEnabled) {
+
+        this.incrementalCanonicalizationEnabled = incrementalCanonicalizationEnabled;
+    }
+
+    public boolean isBatchCanonicalizationEnabled() {
+
+        return batchCanonicalizationEnabled;
+    }
+
+    public void setBatchCanonicalizationEnabled(boolean batchCanonicalizationEnabled) {
+
+        this.batchCanonicalizationEnabled = batchCanonicalizationEnabled;
+    }
+
+    public int getCanonicalizationCacheSize() {
+
+        return canonicalizationCacheSize;
+    }
+
+    public void setCanonicalizationCacheSize(int canonicalizationCacheSize) {
+
+        this.canonicalizationCacheSize = canonicalizationCacheSize;
+    }
+
+    public int getProcedureThreads() {
+
+        return procedureThreads;
+    }
+
+    public void setProcedureThreads(int procedureThreads) {
+
+        this.procedureThreads = procedureThreads;
+    }
+
+    public int getModelCheckingThreads() {
+
+        return modelCheckingThreads;
+    }
+
+    public void setModelCheckingThreads(int modelCheckingThreads) {
+
+        this.modelCheckingThreads = modelCheckingThreads;
+    }
+
+    public String getContractCachePath() {
+
+        return contractCachePath;
+    }
+
+    public void setContractCachePath(String contractCachePath) {
+
+        this.contractCachePath = contractCachePath;
+    }
+
     public boolean isRemoveDeadVariables() {
 
         return removeDeadVariables;
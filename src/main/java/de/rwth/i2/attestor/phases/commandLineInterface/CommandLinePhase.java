@@ -151,6 +151,12 @@ public class CommandLinePhase extends AbstractPhase
             case "model-checking":
                 modelChecking(option);
                 break;
+            case "on-the-fly":
+                onTheFly();
+                break;
+            case "model-checking-threads":
+                modelCheckingThreads(option);
+                break;
             case "no-garbage-collector":
                 noGarbageCollector();
                 break;
@@ -160,9 +166,33 @@ public class CommandLinePhase extends AbstractPhase
             case "max-heap":
                 maxHeap(option);
                 break;
+            case "threads":
+                threads(option);
+                break;
+            case "certificates":
+                certificates();
+                break;
+            case "incremental-canonicalization":
+                incrementalCanonicalization();
+                break;
+            case "batch-canonicalization":
+                batchCanonicalization();
+                break;
+            case "canonicalization-cache":
+                canonicalizationCache(option);
+                break;
+            case "procedure-threads":
+                procedureThreads(option);
+                break;
+            case "contract-cache":
+                contractCache(option);
+                break;
             case "export":
                 export(option);
                 break;
+            case "export-stream":
+                exportStream(option);
+                break;
             case "export-grammar":
                 exportGrammar(option);
                 break;
@@ -363,6 +393,22 @@ public class CommandLinePhase extends AbstractPhase
         }
     }
 
+    private void onTheFly() {
+
+        logger.info("enabled on-the-fly model checking");
+        modelCheckingSettings.setOnTheFlyEnabled(true);
+    }
+
+    private void modelCheckingThreads(Option option) {
+
+        int threads = Integer.valueOf(option.getValue());
+        if (threads < 1) {
+            throw new IllegalArgumentException("Option --model-checking-threads requires a positive number of threads.");
+        }
+        logger.info("threads used for model checking: " + threads);
+        scene().options().setModelCheckingThreads(threads);
+    }
+
     private void noGarbageCollector() {
 
         logger.info("disabled garbage collector");
@@ -383,6 +429,61 @@ public class CommandLinePhase extends AbstractPhase
         scene().options().setMaxHeap(size);
     }
 
+    private void threads(Option option) {
+
+        int threads = Integer.valueOf(option.getValue());
+        if (threads < 1) {
+            throw new IllegalArgumentException("Option --threads requires a positive number of threads.");
+        }
+        logger.info("threads used for state space generation: " + threads);
+        scene().options().setStateSpaceGenerationThreads(threads);
+    }
+
+    private void certificates() {
+
+        logger.info("enabled certificate-based detection of isomorphic program states");
+        scene().options().setCertificateMergingEnabled(true);
+    }
+
+    private void incrementalCanonicalization() {
+
+        logger.info("enabled incremental canonicalization");
+        scene().options().setIncrementalCanonicalizationEnabled(true);
+    }
+
+    private void batchCanonicalization() {
+
+        logger.info("enabled batch canonicalization");
+        scene().options().setBatchCanonicalizationEnabled(true);
+    }
+
+    private void canonicalizationCache(Option option) {
+
+        int size = Integer.valueOf(option.getValue());
+        if (size < 0) {
+            throw new IllegalArgumentException("Option --canonicalization-cache requires a non-negative size.");
+        }
+        logger.info("maximal number of cached canonicalization results: " + size);
+        scene().options().setCanonicalizationCacheSize(size);
+    }
+
+    private void procedureThreads(Option option) {
+
+        int threads = Integer.valueOf(option.getValue());
+        if (threads < 1) {
+            throw new IllegalArgumentException("Option --procedure-threads requires a positive number of threads.");
+        }
+        logger.info("threads used for the interprocedural analysis: " + threads);
+        scene().options().setProcedureThreads(threads);
+    }
+
+    private void contractCache(Option option) {
+
+        String path = inputSettings.getRootPath() + option.getValue();
+        logger.info("contracts will be cached in " + path);
+        scene().options().setContractCachePath(path);
+    }
+
     private void export(Option option) {
 
         String exportPath = option.getValue();
@@ -390,6 +491,13 @@ public class CommandLinePhase extends AbstractPhase
         outputSettings.setExportPath(exportPath);
     }
 
+    private void exportStream(Option option) {
+
+        String exportPath = option.getValue();
+        logger.info("state space will be streamed to " + exportPath);
+        outputSettings.setExportStreamPath(exportPath);
+    }
+
     private void exportGrammar(Option option) {
 
         String exportPath = option.getValue();
@@ -410,6 +410,28 @@ public class CommandLineReader {
                         .build()
         );
 
+        commandLineOptions.addOption(
+                Option.builder()
+                        .longOpt("on-the-fly")
+                        .desc("Checks all specifications supplied by --model-checking while the state space " +
+                                "is generated. The state space generation is aborted as soon as a specification " +
+                                "is violated. Specifications that have not been violated until then are checked " +
+                                "for the partially generated state space and are thus reported as unknown " +
+                                "unless they are violated as well.")
+                        .build()
+        );
+
+        commandLineOptions.addOption(
+                Option.builder()
+                        .longOpt("model-checking-threads")
+                        .hasArg()
+                        .argName("integer")
+                        .type(Integer.class)
+                        .desc("Determines the number of threads used to check the specifications supplied by " +
+                                "--model-checking concurrently. By default, a single thread is used.")
+                        .build()
+        );
+
         commandLineOptions.addOption(
                 Option.builder("ngc")
                         .longOpt("no-garbage-collector")
@@ -442,6 +464,83 @@ public class CommandLineReader {
                         .build()
         );
 
+        commandLineOptions.addOption(
+                Option.builder()
+                        .longOpt("threads")
+                        .hasArg()
+                        .argName("integer")
+                        .type(Integer.class)
+                        .desc("Determines the number of threads used to explore program states during state space " +
+                                "generation. Fully explored state spaces are the same up to the numbering of states; " +
+                                "state spaces whose generation has been aborted may differ. " +
+                                "By default, a single thread is used.")
+                        .build()
+        );
+
+        commandLineOptions.addOption(
+                Option.builder()
+                        .longOpt("certificates")
+                        .desc("Detects isomorphic program states by comparing canonical forms of their heap " +
+                                "configurations instead of checking for graph isomorphism. " +
+                                "Heap configurations that are too symmetric to compute a canonical form efficiently " +
+                                "are still checked for graph isomorphism.")
+                        .build()
+        );
+
+        commandLineOptions.addOption(
+                Option.builder()
+                        .longOpt("incremental-canonicalization")
+                        .desc("Restricts the search for embeddings during canonicalization to the neighbourhood " +
+                                "of nodes that have been changed since the last canonicalization.")
+                        .build()
+        );
+
+        commandLineOptions.addOption(
+                Option.builder()
+                        .longOpt("batch-canonicalization")
+                        .desc("Replaces all non-overlapping embeddings of a grammar rule at once during " +
+                                "canonicalization instead of searching for embeddings again after each replacement.")
+                        .build()
+        );
+
+        commandLineOptions.addOption(
+                Option.builder()
+                        .longOpt("canonicalization-cache")
+                        .hasArg()
+                        .argName("integer")
+                        .type(Integer.class)
+                        .desc("Determines the maximal number of canonicalization results that are cached such that " +
+                                "isomorphic heap configurations are abstracted only once. " +
+                                "The least recently used results are evicted first. " +
+                                "By default, the cache is disabled.")
+                        .build()
+        );
+
+        commandLineOptions.addOption(
+                Option.builder()
+                        .longOpt("procedure-threads")
+                        .hasArg()
+                        .argName("integer")
+                        .type(Integer.class)
+                        .desc("Determines the number of threads used to analyze independent procedure calls " +
+                                "while computing contracts of recursive procedures. " +
+                                "By default, a single thread is used.")
+                        .build()
+        );
+
+        commandLineOptions.addOption(
+                Option.builder()
+                        .longOpt("contract-cache")
+                        .hasArg()
+                        .argName("path")
+                        .desc("Caches all generated contracts in the directory ROOT_PATH/<path>, " +
+                                "where ROOT_PATH is the path determined by --root-path. " +
+                                "Cached contracts are reused by subsequent analyses as long as neither the " +
+                                "analyzed method, nor any method it invokes, nor the grammar, the supplied contracts " +
+                                "and the options affecting the abstract semantics have changed.")
+                        .build()
+        );
+
     }
 
     private void setupExportOptions() {
@@ -457,6 +556,19 @@ public class CommandLineReader {
                         .build()
         );
 
+        commandLineOptions.addOption(
+                Option.builder()
+                        .longOpt("export-stream")
+                        .hasArg()
+                        .argName("path")
+                        .desc("Exports the generated state space and all counterexamples without writing one file " +
+                                "per state. Every state space is streamed to a single file with one JSON object per " +
+                                "line and an index of the position of every state within this file. " +
+                                "The files are written to a directory ROOT_PATH/<path>, where ROOT_PATH is " +
+                                "the path determined by --root-path.")
+                        .build()
+        );
+
         commandLineOptions.addOption(
                 Option.builder()
                         .longOpt("export-grammar")
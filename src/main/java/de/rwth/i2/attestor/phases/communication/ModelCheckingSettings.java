@@ -19,6 +19,8 @@ public class ModelCheckingSettings {
     private final Set<LTLFormula> formulae;
     // Indicates whether model checking is conducted.
     private boolean modelCheckingEnabled = false;
+    // Indicates whether formulae are checked while the state space is generated.
+    private boolean onTheFlyEnabled = false;
 
     public ModelCheckingSettings() {
 
@@ -35,6 +37,16 @@ public class ModelCheckingSettings {
         this.modelCheckingEnabled = enabled;
     }
 
+    public boolean isOnTheFlyEnabled() {
+
+        return this.onTheFlyEnabled;
+    }
+
+    public void setOnTheFlyEnabled(boolean enabled) {
+
+        this.onTheFlyEnabled = enabled;
+    }
+
     public Set<LTLFormula> getFormulae() {
 
         return this.formulae;
@@ -14,6 +14,8 @@ public class OutputSettings {
 
     private String exportPath = null;
 
+    private String exportStreamPath = null;
+
     private String exportGrammarPath = null;
 
     private String exportLargeStatesPath = null;
@@ -45,6 +47,19 @@ public class OutputSettings {
     }
 
 
+    public void setExportStreamPath(String exportStreamPath) {
+
+        this.exportStreamPath = exportStreamPath;
+    }
+
+    public String getExportStreamPath() {
+
+        if(exportStreamPath == null) {
+            return null;
+        }
+        return getRootPath() + exportStreamPath;
+    }
+
     public void setExportLargeStatesPath(String exportLargeStatesPath) {
 
         this.exportLargeStatesPath = exportLargeStatesPath;
@@ -13,6 +13,7 @@ import de.rwth.i2.attestor.types.Type;
 import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.map.TIntIntMap;
 import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.set.TIntSet;
 
 import java.util.List;
 
@@ -135,6 +136,12 @@ public final class HeapConfigurationPair implements HeapConfiguration, Graph {
         return actual.selectorTargetOf(node, sel);
     }
 
+    @Override
+    public TIntArrayList nodesWithSelector(SelectorLabel sel) {
+
+        return actual.nodesWithSelector(sel);
+    }
+
     @Override
     public int countExternalNodes() {
 
@@ -177,6 +184,12 @@ public final class HeapConfigurationPair implements HeapConfiguration, Graph {
         return actual.nonterminalEdges();
     }
 
+    @Override
+    public TIntArrayList nonterminalEdgesWith(Nonterminal label) {
+
+        return actual.nonterminalEdgesWith(label);
+    }
+
     @Override
     public int rankOf(int ntEdge) {
 
@@ -231,6 +244,12 @@ public final class HeapConfigurationPair implements HeapConfiguration, Graph {
         return actual.getEmbeddingsOf(pattern, options);
     }
 
+    @Override
+    public AbstractMatchingChecker getEmbeddingsOf(HeapConfiguration pattern, MorphismOptions options, TIntSet nodes) {
+
+        return actual.getEmbeddingsOf(pattern, options, nodes);
+    }
+
     @Override
     public int variableTargetOf(String variableName) {
 
@@ -262,6 +281,24 @@ public final class HeapConfigurationPair implements HeapConfiguration, Graph {
         return actual.hashCode();
     }
 
+    @Override
+    public int externalOrderInsensitiveHashCode() {
+
+        return actual.externalOrderInsensitiveHashCode();
+    }
+
+    @Override
+    public void trackChanges(Object origin) {
+
+        // changes of heap configuration pairs are not tracked
+    }
+
+    @Override
+    public TIntSet getChangedNodes(Object origin) {
+
+        return null;
+    }
+
     @Override
     public int size() {
 
@@ -298,6 +335,12 @@ public final class HeapConfigurationPair implements HeapConfiguration, Graph {
         return ((Graph) actual).getEdgeLabel(from, to);
     }
 
+    @Override
+    public int[] getEdgeLabelIds(int from, int to) {
+
+        return ((Graph) actual).getEdgeLabelIds(from, to);
+    }
+
     @Override
     public boolean isExternal(int node) {
 
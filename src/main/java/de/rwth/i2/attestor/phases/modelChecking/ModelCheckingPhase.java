@@ -7,16 +7,25 @@ import de.rwth.i2.attestor.phases.communication.ModelCheckingSettings;
 import de.rwth.i2.attestor.phases.modelChecking.modelChecker.FailureTrace;
 import de.rwth.i2.attestor.phases.modelChecking.modelChecker.ModelCheckingResult;
 import de.rwth.i2.attestor.phases.modelChecking.modelChecker.ModelCheckingTrace;
+import de.rwth.i2.attestor.phases.modelChecking.modelChecker.OnTheFlyModelChecker;
 import de.rwth.i2.attestor.phases.modelChecking.modelChecker.ProofStructure;
+import de.rwth.i2.attestor.phases.modelChecking.modelChecker.SuccessorIndex;
 import de.rwth.i2.attestor.phases.transformers.MCSettingsTransformer;
 import de.rwth.i2.attestor.phases.transformers.ModelCheckingResultsTransformer;
+import de.rwth.i2.attestor.phases.transformers.OnTheFlyModelCheckingTransformer;
 import de.rwth.i2.attestor.phases.transformers.StateSpaceTransformer;
 import de.rwth.i2.attestor.stateSpaceGeneration.StateSpace;
 import org.apache.logging.log4j.Level;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class ModelCheckingPhase extends AbstractPhase implements ModelCheckingResultsTransformer {
 
@@ -48,22 +57,40 @@ public class ModelCheckingPhase extends AbstractPhase implements ModelCheckingRe
         }
 
         StateSpace stateSpace = getPhase(StateSpaceTransformer.class).getStateSpace();
+        OnTheFlyModelChecker onTheFlyModelChecker = null;
+        if (mcSettings.isOnTheFlyEnabled()) {
+            onTheFlyModelChecker = getPhase(OnTheFlyModelCheckingTransformer.class).getOnTheFlyModelChecker();
+        }
+
+        List<LTLFormula> uncheckedFormulae = new ArrayList<>(formulae.size());
+        for (LTLFormula formula : formulae) {
+            if (onTheFlyModelChecker == null || !onTheFlyModelChecker.isViolated(formula)) {
+                uncheckedFormulae.add(formula);
+            }
+        }
+        Map<LTLFormula, FailureTrace> failureTraces = checkFormulae(stateSpace, uncheckedFormulae);
 
         for (LTLFormula formula : formulae) {
 
             String formulaString = formula.getFormulaString();
-            logger.info("Checking formula: " + formulaString + "...");
-            ProofStructure proofStructure = new ProofStructure();
-            proofStructure.build(stateSpace, formula);
-            if (proofStructure.isSuccessful()) {
+            if (onTheFlyModelChecker != null && onTheFlyModelChecker.isViolated(formula)) {
+                logger.info("Formula has been violated during state space generation: " + formulaString);
+                allSatisfied = false;
+                formulaResults.put(formula, ModelCheckingResult.UNSATISFIED);
+                addFailureTrace(formula, onTheFlyModelChecker.getFailureTrace(formula));
+                continue;
+            }
+
+            FailureTrace failureTrace = failureTraces.get(formula);
+            if (failureTrace == null) {
 
                 if(stateSpace.containsAbortedStates()) {
                     allSatisfied = false;
                     formulaResults.put(formula, ModelCheckingResult.UNKNOWN);
-                    logger.info("done. It is unknown whether the formula is satisfied.");
+                    logger.info("It is unknown whether the formula is satisfied: " + formulaString);
                 } else {
                     formulaResults.put(formula, ModelCheckingResult.SATISFIED);
-                    logger.info("done. Formula is satisfied.");
+                    logger.info("Formula is satisfied: " + formulaString);
                     numberSatFormulae++;
                 }
 
@@ -72,13 +99,69 @@ public class ModelCheckingPhase extends AbstractPhase implements ModelCheckingRe
                 allSatisfied = false;
                 formulaResults.put(formula, ModelCheckingResult.UNSATISFIED);
 
-                if (scene().options().isIndexedMode()) {
-                    logger.warn("Counterexample generation for indexed grammars is not supported yet.");
-                } else {
-                    FailureTrace failureTrace = proofStructure.getFailureTrace();
-                    traces.put(formula, failureTrace);
-                }
+                addFailureTrace(formula, failureTrace);
+            }
+        }
+    }
+
+    /**
+     * Checks the given formulae for the given state space. If more than one thread is used for model checking,
+     * the formulae are checked concurrently. The successors of all states are then computed only once.
+     *
+     * @param stateSpace The state space to check.
+     * @param formulae   The formulae to check.
+     * @return A map from every given formula to a counterexample or to null if the formula is satisfied.
+     */
+    private Map<LTLFormula, FailureTrace> checkFormulae(StateSpace stateSpace, List<LTLFormula> formulae) {
+
+        Map<LTLFormula, FailureTrace> result = new LinkedHashMap<>();
+        int threads = Math.min(scene().options().getModelCheckingThreads(), formulae.size());
+        if (threads <= 1) {
+            for (LTLFormula formula : formulae) {
+                result.put(formula, checkFormula(stateSpace, formula, null));
             }
+            return result;
+        }
+
+        SuccessorIndex successorIndex = new SuccessorIndex(stateSpace);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Map<LTLFormula, Future<FailureTrace>> pendingChecks = new LinkedHashMap<>();
+            for (LTLFormula formula : formulae) {
+                pendingChecks.put(formula, executor.submit(() -> checkFormula(stateSpace, formula, successorIndex)));
+            }
+            for (Map.Entry<LTLFormula, Future<FailureTrace>> check : pendingChecks.entrySet()) {
+                result.put(check.getKey(), check.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Model checking has been interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Model checking failed.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
+    private FailureTrace checkFormula(StateSpace stateSpace, LTLFormula formula, SuccessorIndex successorIndex) {
+
+        logger.info("Checking formula: " + formula.getFormulaString() + "...");
+        ProofStructure proofStructure = new ProofStructure();
+        if (successorIndex == null) {
+            proofStructure.build(stateSpace, formula);
+        } else {
+            proofStructure.build(stateSpace, formula, successorIndex);
+        }
+        return proofStructure.getFailureTrace();
+    }
+
+    private void addFailureTrace(LTLFormula formula, FailureTrace failureTrace) {
+
+        if (scene().options().isIndexedMode()) {
+            logger.warn("Counterexample generation for indexed grammars is not supported yet.");
+        } else {
+            traces.put(formula, failureTrace);
         }
     }
 
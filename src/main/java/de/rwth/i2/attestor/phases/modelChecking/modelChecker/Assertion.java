@@ -31,6 +31,13 @@ public class Assertion {
      */
     boolean isContainedInTrace;
 
+    // The bookkeeping of Tarjan's algorithm while the proof structure is constructed:
+    // the position in the depth-first search (or -1 if not visited yet), the smallest position of a vertex
+    // known to be reachable from this assertion and still on the stack, and whether it is still on the stack
+    int dfsIndex = -1;
+    int lowLink = -1;
+    boolean isOnSccStack = false;
+
     public Assertion(int progState, Assertion parent) {
 
         this.progState = progState;
@@ -14,17 +14,12 @@ public class FailureTrace implements ModelCheckingTrace {
     private final LinkedList<ProgramState> stateTrace = new LinkedList<>();
     private Iterator<ProgramState> iterator;
 
-    FailureTrace(Assertion failureAssertion, StateSpace stateSpace) {
+    FailureTrace(List<Integer> stateIds, StateSpace stateSpace) {
 
-        Assertion current = failureAssertion;
-
-        do {
-            int stateId = current.getProgramState();
-            stateIdTrace.addFirst(stateId);
-            ProgramState state = stateSpace.getState(stateId);
-            stateTrace.addFirst(state);
-            current = current.getParent();
-        } while (current != null);
+        for (int stateId : stateIds) {
+            stateIdTrace.addLast(stateId);
+            stateTrace.addLast(stateSpace.getState(stateId));
+        }
 
         iterator = stateTrace.iterator();
     }
@@ -79,19 +74,20 @@ public class FailureTrace implements ModelCheckingTrace {
             return stateSpace;
         }
 
+        // states are copied, because adding them to another state space changes their ids
         Iterator<ProgramState> iterator = stateTrace.iterator();
 
-        ProgramState current = iterator.next();
+        ProgramState current = iterator.next().shallowCopy();
         stateSpace.addInitialState(current);
 
         while(iterator.hasNext()) {
-            ProgramState next = iterator.next();
+            ProgramState next = iterator.next().shallowCopy();
             stateSpace.addState(next);
             stateSpace.addControlFlowTransition(current, next);
             current = next;
         }
 
-        stateSpace.setFinal(stateTrace.getLast());
+        stateSpace.setFinal(current);
         return stateSpace;
     }
 }
@@ -0,0 +1,100 @@
+package de.rwth.i2.attestor.phases.modelChecking.modelChecker;
+
+import de.rwth.i2.attestor.LTLFormula;
+import de.rwth.i2.attestor.stateSpaceGeneration.ProgramState;
+import de.rwth.i2.attestor.stateSpaceGeneration.StateExplorationListener;
+import de.rwth.i2.attestor.stateSpaceGeneration.StateSpace;
+import de.rwth.i2.attestor.stateSpaceGeneration.StateSpaceGenerationAbortedException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Checks LTL formulae while the state space is generated by building one {@link ProofStructure} per formula
+ * on the fly. As soon as some formula is violated, the state space generation is aborted.
+ * <p>
+ * Only violations are detected this way: whether the remaining formulae are satisfied has to be determined
+ * on the complete state space, e.g. because procedure calls may add further successors to already explored
+ * states during the interprocedural analysis.
+ */
+public class OnTheFlyModelChecker implements StateExplorationListener {
+
+    private static final Logger logger = LogManager.getLogger("OnTheFlyModelChecker");
+
+    private final Map<LTLFormula, ProofStructure> proofStructures = new LinkedHashMap<>();
+    private final Map<LTLFormula, FailureTrace> violatedFormulae = new LinkedHashMap<>();
+    private StateSpace stateSpace = null;
+
+    /**
+     * @param formulae The formulae that should be checked.
+     */
+    public OnTheFlyModelChecker(Collection<LTLFormula> formulae) {
+
+        for (LTLFormula formula : formulae) {
+            proofStructures.put(formula, new ProofStructure());
+        }
+    }
+
+    @Override
+    public void stateExplored(StateSpace stateSpace, ProgramState state) throws StateSpaceGenerationAbortedException {
+
+        if (this.stateSpace == null) {
+            this.stateSpace = stateSpace;
+            for (Map.Entry<LTLFormula, ProofStructure> entry : proofStructures.entrySet()) {
+                entry.getValue().buildOnTheFly(stateSpace, entry.getKey());
+            }
+        } else if (this.stateSpace != stateSpace) {
+            throw new IllegalStateException("On-the-fly model checking is restricted to a single state space.");
+        }
+
+        boolean violationFound = false;
+        Iterator<Map.Entry<LTLFormula, ProofStructure>> iterator = proofStructures.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<LTLFormula, ProofStructure> entry = iterator.next();
+            ProofStructure proofStructure = entry.getValue();
+            proofStructure.stateExplored(state.getStateSpaceId());
+            if (!proofStructure.isSuccessful()) {
+                logger.info("Formula is violated: " + entry.getKey().getFormulaString()
+                        + " (detected after exploring " + stateSpace.size() + " states)");
+                // the proof structure is not needed anymore once the counterexample is known
+                violatedFormulae.put(entry.getKey(), proofStructure.getFailureTrace());
+                iterator.remove();
+                violationFound = true;
+            }
+        }
+
+        if (violationFound) {
+            throw new StateSpaceGenerationAbortedException();
+        }
+    }
+
+    /**
+     * @param formula A formula passed to the constructor.
+     * @return True if and only if the formula has been shown to be violated during state space generation.
+     */
+    public boolean isViolated(LTLFormula formula) {
+
+        return violatedFormulae.containsKey(formula);
+    }
+
+    /**
+     * @param formula A formula passed to the constructor.
+     * @return A counterexample for the given formula or null if no violation has been detected.
+     */
+    public FailureTrace getFailureTrace(LTLFormula formula) {
+
+        return violatedFormulae.get(formula);
+    }
+
+    /**
+     * @return The number of formulae that have been shown to be violated during state space generation.
+     */
+    public int getNumberOfViolatedFormulae() {
+
+        return violatedFormulae.size();
+    }
+}
@@ -8,7 +8,6 @@ import de.rwth.i2.attestor.generated.node.Start;
 import de.rwth.i2.attestor.stateSpaceGeneration.StateSpace;
 import gnu.trove.iterator.TIntIterator;
 import gnu.trove.iterator.TIntObjectIterator;
-import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.map.TIntObjectMap;
 import gnu.trove.map.hash.TIntObjectHashMap;
 import gnu.trove.set.TIntSet;
@@ -38,6 +37,23 @@ public class ProofStructure {
     boolean buildFullStructure = false;
     private StateSpace stateSpace;
 
+    // The roots of the proof structure, i.e. the assertions of all initial states
+    private final List<Assertion> initialVertices = new ArrayList<>();
+    // The position of the next root the depth-first search starts from
+    private int nextInitialVertex = 0;
+    // The path of the depth-first search that is currently constructing the proof structure
+    private final Deque<DfsFrame> dfsStack = new ArrayDeque<>();
+    // The vertices whose strongly connected component has not been completed yet (see Tarjan's algorithm)
+    private final Deque<Assertion> sccStack = new ArrayDeque<>();
+    private int nextDfsIndex = 0;
+    private TableauRulesSwitch rulesSwitch;
+    // The successors of all states or null if they are computed whenever they are needed
+    private SuccessorIndex successorIndex = null;
+
+    // Only used if the proof structure is built on the fly, i.e. while the state space is generated:
+    // the states explored so far
+    private TIntSet exploredStates = null;
+
     public ProofStructure() {
 
         this.stateIdToVertices = new TIntObjectHashMap<>();
@@ -66,21 +82,78 @@ public class ProofStructure {
      * This method builds the proof structure according to the tableau method (as depicted in
      * Jonathan's PhD thesis).
      * It sets the successful variable to false, if a failing leaf or cycle is detected.
+     * <p>
+     * The proof structure is constructed by a depth-first search that determines its strongly connected
+     * components on the fly (Tarjan's algorithm). Hence, every cycle is detected when it is closed by an edge
+     * to a vertex on the stack of Tarjan's algorithm without searching the proof structure again.
+     * As before, a cycle is unharmful if and only if the vertex at which it is closed contains a release
+     * operator.
      *
      * @param statespace, the (labelled) state space we want to check the formula for
      * @param formula,    the ltl formula to check
      */
     public void build(StateSpace statespace, LTLFormula formula) {
 
+        initialise(statespace, formula);
+        process();
+    }
+
+    /**
+     * Builds the proof structure as {@link #build(StateSpace, LTLFormula)}, but looks up the successors of states
+     * in the given index instead of computing them from the state space.
+     *
+     * @param statespace,     the (labelled) state space we want to check the formula for
+     * @param formula,        the ltl formula to check
+     * @param successorIndex, the successors of all states in statespace
+     */
+    public void build(StateSpace statespace, LTLFormula formula, SuccessorIndex successorIndex) {
+
+        this.successorIndex = successorIndex;
+        build(statespace, formula);
+    }
+
+    /**
+     * Starts building the proof structure while the given state space is still being generated.
+     * In contrast to {@link #build(StateSpace, LTLFormula)}, a vertex is only processed once its
+     * program state and all materialization successors of this state have been explored, i.e. once
+     * its atomic propositions and successors are known.
+     * The construction proceeds whenever a state is reported via {@link #stateExplored(int)}.
+     * <p>
+     * Since exploring further states only adds vertices to the proof structure, a failing leaf or cycle
+     * detected this way is also present in the proof structure of the complete state space.
+     * However, a successful proof structure is meaningless until the state space generation terminated.
+     *
+     * @param statespace, the state space under construction
+     * @param formula,    the ltl formula to check
+     */
+    public void buildOnTheFly(StateSpace statespace, LTLFormula formula) {
+
+        exploredStates = new TIntHashSet();
+        initialise(statespace, formula);
+    }
+
+    /**
+     * Continues the construction of a proof structure started by {@link #buildOnTheFly(StateSpace, LTLFormula)}
+     * after a state of the underlying state space has been explored.
+     *
+     * @param stateId The id of the explored state.
+     */
+    public void stateExplored(int stateId) {
+
+        assert exploredStates != null : "proof structure is not built on the fly";
+
+        exploredStates.add(stateId);
+        process();
+    }
+
+    private void initialise(StateSpace statespace, LTLFormula formula) {
+
         this.stateSpace = statespace;
 
         logger.trace("Building proof structure for formula " + formula.toString());
 
-        // The queue holding the vertices that have still to be processed
-        LinkedList<Assertion> vertexQueue = new LinkedList<>();
-
         // Initialise the switch
-        TableauRulesSwitch rulesSwitch = new TableauRulesSwitch(statespace);
+        rulesSwitch = new TableauRulesSwitch(statespace);
 
         TIntIterator initialStatesIterator = statespace.getInitialStateIds().iterator();
         while (initialStatesIterator.hasNext()) {
@@ -90,182 +163,232 @@ public class ProofStructure {
             this.stateIdToVertices.putIfAbsent(stateId, new LinkedHashSet<>());
 
             addAssertion(initialAssertion);
-            vertexQueue.add(initialAssertion);
+            initialVertices.add(initialAssertion);
         }
+    }
 
-        // Process vertices until no unprocessed ones remain
-        while (!vertexQueue.isEmpty()) {
+    /**
+     * Continues the depth-first construction of the proof structure until it is complete, a failure has been
+     * detected (unless the full structure is built) or, if the proof structure is built on the fly,
+     * a vertex refers to a state that has not been explored yet.
+     */
+    private void process() {
 
-            Assertion currentVertex = vertexQueue.poll();
+        while (successful || buildFullStructure) {
 
-            // Do a tableau step
-            if (!currentVertex.getFormulae().isEmpty()) {
-                Node currentSubformula = currentVertex.getFirstFormula();
+            if (dfsStack.isEmpty()) {
+                if (nextInitialVertex >= initialVertices.size()) {
+                    return;
+                }
+                Assertion root = initialVertices.get(nextInitialVertex++);
+                if (root.dfsIndex < 0) {
+                    visit(root);
+                }
+                continue;
+            }
 
-                if (isNextForm(currentSubformula)) {
-                    // Apply next tableau rule to all remaining formula in the current vertice's formula set
-                    // Note that due to the insertion order we know that all contained formulae are next formulae
+            DfsFrame frame = dfsStack.peek();
+            Assertion currentVertex = frame.vertex;
 
-                    // First collect the successor formula of each contained next formula
-                    HashSet<Node> nextSuccessors = new LinkedHashSet<>();
-                    for (Node nextFormula : currentVertex.getFormulae()) {
-                        nextFormula.apply(rulesSwitch);
+            if (frame.successors == null) {
+                if (getUnexploredStateRequiredBy(currentVertex) >= 0) {
+                    // resumed by stateExplored
+                    return;
+                }
+                frame.successors = expand(currentVertex);
+            } else if (frame.nextSuccessor < frame.successors.size()) {
+                Assertion successor = frame.successors.get(frame.nextSuccessor++);
+                if (successor.dfsIndex < 0) {
+                    visit(successor);
+                } else if (successor.isOnSccStack) {
+                    // the edge closes a cycle through successor
+                    currentVertex.lowLink = Math.min(currentVertex.lowLink, successor.dfsIndex);
+                    checkCycle(successor);
+                }
+            } else {
+                dfsStack.pop();
+                if (currentVertex.lowLink == currentVertex.dfsIndex) {
+                    // currentVertex is the root of a strongly connected component, which is now complete
+                    Assertion member;
+                    do {
+                        member = sccStack.pop();
+                        member.isOnSccStack = false;
+                    } while (member != currentVertex);
+                }
+                DfsFrame parentFrame = dfsStack.peek();
+                if (parentFrame != null) {
+                    parentFrame.vertex.lowLink = Math.min(parentFrame.vertex.lowLink, currentVertex.lowLink);
+                }
+            }
+        }
+    }
 
-                        assert (rulesSwitch.getOut(nextFormula) instanceof Node);
-                        Node successorNode = (Node) rulesSwitch.getOut(nextFormula);
-                        nextSuccessors.add(successorNode);
-                    }
+    private void visit(Assertion vertex) {
 
-                    // Generate an assertion for each successor state of the current state in the state space
-                    // with formula set equal to the next successor formulae generated before
-                    int currentState = currentVertex.getProgramState();
-                    TIntSet successors = new TIntHashSet(100);
-                    // Collect the "real" successor states (i.e. skipping materialisation steps)
-                    TIntArrayList materializationSuccessorIds = statespace.getMaterializationSuccessorsIdsOf(currentState);
-                    if (!materializationSuccessorIds.isEmpty()) {
-                        TIntIterator matStateIterator = materializationSuccessorIds.iterator();
-                        while (matStateIterator.hasNext()) {
-                            //for(ProgramState matState : statespace.getMaterializationSuccessorsIdsOf(currentState)){
-                            // Every materialisation state is followed by a control flow state
-                            int matState = matStateIterator.next();
-                            TIntArrayList controlFlowSuccessorIds = statespace.getControlFlowSuccessorsIdsOf(matState);
-                            assert (!controlFlowSuccessorIds.isEmpty());
-                            successors.addAll(controlFlowSuccessorIds);
-                        }
-                    } else {
-                        successors.addAll(statespace.getControlFlowSuccessorsIdsOf(currentState));
-                        // In case the state is final
-                        successors.addAll(statespace.getArtificialInfPathsSuccessorsIdsOf(currentState));
-                    }
-                    TIntIterator successorIterator = successors.iterator();
-                    while (successorIterator.hasNext()) {
-                        int succState = successorIterator.next();
-                        Assertion newAssertion = new Assertion(succState, currentVertex, true);
+        vertex.dfsIndex = nextDfsIndex;
+        vertex.lowLink = nextDfsIndex;
+        ++nextDfsIndex;
+        sccStack.push(vertex);
+        vertex.isOnSccStack = true;
+        dfsStack.push(new DfsFrame(vertex));
+    }
 
-                        for (Node succFormula : nextSuccessors) {
-                            newAssertion.addFormula(succFormula);
-                        }
+    /**
+     * Checks whether a cycle closed at the given vertex is harmful, i.e. whether the vertex contains
+     * no release operator.
+     *
+     * @param vertex The vertex at which a cycle has been closed.
+     */
+    private void checkCycle(Assertion vertex) {
 
-                        // Check if we have already seen an equal assertion before
-                        boolean formulaePresent = true;
-                        Set<Assertion> presentAssertions = getVerticesForState(newAssertion.getProgramState());
-                        // Note that formulaePresent is finally true, iff we found an equal assertion
-                        if (presentAssertions.isEmpty()) {
-                            formulaePresent = false;
-                        } else {
-                            for (Assertion presentAssertion : presentAssertions) {
-                                // Initialise for current iteration
-                                formulaePresent = true;
-                                if (newAssertion.getFormulae().size() == presentAssertion.getFormulae().size()) {
-                                    for (Node ASTnode : newAssertion.getFormulae()) {
-                                        if (!presentAssertion.getFormulae().contains(ASTnode)) {
-                                            formulaePresent = false;
-                                            break;
-                                        }
-                                    }
-                                } else {
-                                    formulaePresent = false;
-                                }
-                                if (formulaePresent) {
-                                    newAssertion = presentAssertion;
-                                    break;
-                                }
-                            }
-                        }
+        for (Node current : vertex.getFormulae()) {
+            if (current instanceof AReleaseLtlform) {
+                return;
+            }
+        }
+        fail(vertex);
+    }
 
-                        this.addEdge(currentVertex, new SuccState(newAssertion, currentSubformula));
-
-                        addAssertion(newAssertion);
-                        // Process the assertion further only in case it is not one, that was already processed
-                        if (!formulaePresent) {
-                            vertexQueue.add(newAssertion);
-                        } else {
-                            // we detected a potential cycle, check if it is a real and in that case an unharmful one (containing a release
-                            // operator)
-
-                            // Real cycle?
-                            boolean isReal = false;
-                            // First collect all successors
-                            HashSet<Assertion> seen = new LinkedHashSet<>();
-                            LinkedList<Assertion> queue = new LinkedList<>();
-                            queue.add(newAssertion);
-                            seen.add(newAssertion);
-                            while (!queue.isEmpty() && !isReal) {
-                                Assertion curAssertion = queue.pop();
-                                for (Assertion succAssertion : this.getSuccessors(curAssertion)) {
-                                    if (succAssertion.equals(newAssertion)) {
-                                        isReal = true;
-                                        break;
-                                    }
+    private void fail(Assertion vertex) {
 
-                                    if (!seen.contains(succAssertion)) {
-                                        queue.add(succAssertion);
-                                    }
-                                    seen.add(succAssertion);
-                                }
+        this.successful = false;
+        if (this.originOfFailure == null) {
+            this.originOfFailure = vertex;
+        }
+    }
 
-                            }
+    /**
+     * Applies a tableau step to the given vertex and adds the resulting edges to the proof structure.
+     *
+     * @param currentVertex The vertex to expand.
+     * @return The successors of the given vertex.
+     */
+    private List<Assertion> expand(Assertion currentVertex) {
 
-                            if (isReal) {
-                                // Contains a release operator?
-                                boolean containsReleaseOp = false;
-                                for (Node current : newAssertion.getFormulae()) {
-                                    if (current instanceof AReleaseLtlform) {
-                                        containsReleaseOp = true;
-                                    }
-                                }
-                                if (!containsReleaseOp) {
-                                    this.successful = false;
+        List<Assertion> result = new ArrayList<>();
 
-                                    if (this.originOfFailure == null) {
-                                        this.originOfFailure = newAssertion;
-                                    }
-                                    // Optimisation: abort proof structure generation, as we already know that it is not successful!
-                                    if (!buildFullStructure) {
-                                        return;
+        // Do a tableau step
+        if (!currentVertex.getFormulae().isEmpty()) {
+            Node currentSubformula = currentVertex.getFirstFormula();
+
+            if (isNextForm(currentSubformula)) {
+                // Apply next tableau rule to all remaining formula in the current vertice's formula set
+                // Note that due to the insertion order we know that all contained formulae are next formulae
+
+                // First collect the successor formula of each contained next formula
+                HashSet<Node> nextSuccessors = new LinkedHashSet<>();
+                for (Node nextFormula : currentVertex.getFormulae()) {
+                    nextFormula.apply(rulesSwitch);
+
+                    assert (rulesSwitch.getOut(nextFormula) instanceof Node);
+                    Node successorNode = (Node) rulesSwitch.getOut(nextFormula);
+                    nextSuccessors.add(successorNode);
+                }
+
+                // Generate an assertion for each successor state of the current state in the state space
+                // with formula set equal to the next successor formulae generated before
+                int currentState = currentVertex.getProgramState();
+                int[] successors = successorIndex != null
+                        ? successorIndex.getSuccessorsOf(currentState)
+                        : SuccessorIndex.computeSuccessorsOf(stateSpace, currentState);
+                for (int succState : successors) {
+                    Assertion newAssertion = new Assertion(succState, currentVertex, true);
+
+                    for (Node succFormula : nextSuccessors) {
+                        newAssertion.addFormula(succFormula);
+                    }
+
+                    // Check if we have already seen an equal assertion before
+                    boolean formulaePresent = true;
+                    Set<Assertion> presentAssertions = getVerticesForState(newAssertion.getProgramState());
+                    // Note that formulaePresent is finally true, iff we found an equal assertion
+                    if (presentAssertions.isEmpty()) {
+                        formulaePresent = false;
+                    } else {
+                        for (Assertion presentAssertion : presentAssertions) {
+                            // Initialise for current iteration
+                            formulaePresent = true;
+                            if (newAssertion.getFormulae().size() == presentAssertion.getFormulae().size()) {
+                                for (Node ASTnode : newAssertion.getFormulae()) {
+                                    if (!presentAssertion.getFormulae().contains(ASTnode)) {
+                                        formulaePresent = false;
+                                        break;
                                     }
                                 }
+                            } else {
+                                formulaePresent = false;
+                            }
+                            if (formulaePresent) {
+                                newAssertion = presentAssertion;
+                                break;
                             }
                         }
                     }
-                } else {
-                    rulesSwitch.setIn(currentSubformula, currentVertex);
-                    currentSubformula.apply(rulesSwitch);
-
-                    // Retrieve the generated assertions
-                    @SuppressWarnings("unchecked") Set<Assertion> successors = (Set<Assertion>) rulesSwitch.getOut(currentSubformula);
-                    // This means that the current vertex is not (yet) successful
-                    if (successors != null) {
-                        HashSet<SuccState> successorStates = new LinkedHashSet<>();
-                        for (Assertion assertion : successors) {
-                            successorStates.add(new SuccState(assertion, currentSubformula));
-                        }
 
-                        for (Assertion succ : successors) {
-                            addAssertion(succ);
-                        }
-                        vertexQueue.addAll(successors);
-
-                        this.addEdges(currentVertex, successorStates);
+                    this.addEdge(currentVertex, new SuccState(newAssertion, currentSubformula));
 
+                    addAssertion(newAssertion);
+                    result.add(newAssertion);
+                }
+            } else {
+                rulesSwitch.setIn(currentSubformula, currentVertex);
+                currentSubformula.apply(rulesSwitch);
+
+                // Retrieve the generated assertions
+                @SuppressWarnings("unchecked") Set<Assertion> successors = (Set<Assertion>) rulesSwitch.getOut(currentSubformula);
+                // This means that the current vertex is not (yet) successful
+                if (successors != null) {
+                    HashSet<SuccState> successorStates = new LinkedHashSet<>();
+                    for (Assertion assertion : successors) {
+                        successorStates.add(new SuccState(assertion, currentSubformula));
+                    }
 
+                    for (Assertion succ : successors) {
+                        addAssertion(succ);
                     }
+                    result.addAll(successors);
+
+                    this.addEdges(currentVertex, successorStates);
 
 
                 }
-            } else {
-                this.successful = false;
-                if (this.originOfFailure == null) {
-                    this.originOfFailure = currentVertex;
-                }
-                // Optimisation: abort proof structure generation, as we already know that it is not successful!
-                if (!buildFullStructure) {
-                    return;
-                }
+
+
             }
+        } else {
+            fail(currentVertex);
+        }
 
+        return result;
+    }
 
+    /**
+     * Determines whether the given vertex can be processed on the state space generated so far.
+     *
+     * @param vertex The vertex that should be processed.
+     * @return The id of a state that has to be explored before the vertex can be processed or -1
+     * if the vertex can be processed immediately.
+     */
+    private int getUnexploredStateRequiredBy(Assertion vertex) {
+
+        if (exploredStates == null) {
+            return -1;
+        }
+
+        int stateId = vertex.getProgramState();
+        if (!exploredStates.contains(stateId)) {
+            return stateId;
+        }
+
+        // the successors relevant for next formulae are determined by the materialized states
+        TIntIterator iterator = stateSpace.getMaterializationSuccessorsIdsOf(stateId).iterator();
+        while (iterator.hasNext()) {
+            int materializedState = iterator.next();
+            if (!exploredStates.contains(materializedState)) {
+                return materializedState;
+            }
         }
+        return -1;
     }
 
     /**
@@ -383,7 +506,72 @@ public class ProofStructure {
 
         assert (this.originOfFailure != null);
 
-        return new FailureTrace(this.originOfFailure, stateSpace);
+        return new FailureTrace(computeShortestTraceTo(this.originOfFailure), stateSpace);
+    }
+
+    /**
+     * Determines the ids of the states along a shortest path in the proof structure from a root to the given vertex.
+     * Since the proof structure is constructed depth-first, the parent of an assertion is the vertex it has been
+     * discovered from, which is not necessarily on a shortest path. Hence, a breadth-first search over the
+     * vertices constructed so far is performed instead.
+     *
+     * @param target The vertex the path should end in.
+     * @return The ids of the states of the root and of all vertices reached by a next step along the path.
+     */
+    private List<Integer> computeShortestTraceTo(Assertion target) {
+
+        Map<Assertion, Assertion> predecessors = new HashMap<>();
+        Set<Assertion> nextStepSuccessors = new HashSet<>();
+        Deque<Assertion> queue = new ArrayDeque<>();
+        for (Assertion root : initialVertices) {
+            predecessors.put(root, null);
+            queue.add(root);
+        }
+
+        while (!queue.isEmpty() && !predecessors.containsKey(target)) {
+            Assertion current = queue.poll();
+            HashSet<SuccState> successors = edges.get(current);
+            if (successors == null) {
+                continue;
+            }
+            for (SuccState successor : successors) {
+                if (!predecessors.containsKey(successor.assertion)) {
+                    predecessors.put(successor.assertion, current);
+                    if (isNextForm(successor.type)) {
+                        nextStepSuccessors.add(successor.assertion);
+                    }
+                    queue.add(successor.assertion);
+                }
+            }
+        }
+
+        LinkedList<Integer> trace = new LinkedList<>();
+        Assertion current = target;
+        while (current != null) {
+            Assertion predecessor = predecessors.get(current);
+            // all other vertices refer to the same state as their predecessor
+            if (predecessor == null || nextStepSuccessors.contains(current)) {
+                trace.addFirst(current.getProgramState());
+            }
+            current = predecessor;
+        }
+        return trace;
+    }
+
+    /**
+     * A vertex on the path of the depth-first search together with its successors that remain to be visited.
+     */
+    private static final class DfsFrame {
+
+        final Assertion vertex;
+        // null as long as the tableau step has not been applied to the vertex
+        List<Assertion> successors = null;
+        int nextSuccessor = 0;
+
+        DfsFrame(Assertion vertex) {
+
+            this.vertex = vertex;
+        }
     }
 
     /**
@@ -0,0 +1,77 @@
+package de.rwth.i2.attestor.phases.modelChecking.modelChecker;
+
+import de.rwth.i2.attestor.stateSpaceGeneration.ProgramState;
+import de.rwth.i2.attestor.stateSpaceGeneration.StateSpace;
+import gnu.trove.iterator.TIntIterator;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+
+/**
+ * Stores for every state of a state space its successors with respect to the next operator, i.e. materialization
+ * steps are skipped and final states are their own successors.
+ * The index is computed once and is never modified afterwards. Hence, it can be shared by several proof structures
+ * that are built concurrently for the same state space.
+ */
+public final class SuccessorIndex {
+
+    private static final int[] NO_SUCCESSORS = new int[0];
+
+    private final TIntObjectMap<int[]> successors;
+
+    /**
+     * @param stateSpace The completely generated state space.
+     */
+    public SuccessorIndex(StateSpace stateSpace) {
+
+        successors = new TIntObjectHashMap<>(stateSpace.size());
+        for (ProgramState state : stateSpace.getStates()) {
+            int stateId = state.getStateSpaceId();
+            successors.put(stateId, computeSuccessorsOf(stateSpace, stateId));
+        }
+    }
+
+    /**
+     * @param stateId The id of a state in the indexed state space.
+     * @return The ids of all successors of the given state. The returned array must not be modified.
+     */
+    public int[] getSuccessorsOf(int stateId) {
+
+        int[] result = successors.get(stateId);
+        if (result == null) {
+            return NO_SUCCESSORS;
+        }
+        return result;
+    }
+
+    /**
+     * Computes the successors of a single state with respect to the next operator.
+     *
+     * @param stateSpace The state space containing the state.
+     * @param stateId    The id of the state.
+     * @return The ids of all successors of the given state.
+     */
+    static int[] computeSuccessorsOf(StateSpace stateSpace, int stateId) {
+
+        TIntSet result = new TIntHashSet();
+        // Collect the "real" successor states (i.e. skipping materialisation steps)
+        TIntArrayList materializationSuccessorIds = stateSpace.getMaterializationSuccessorsIdsOf(stateId);
+        if (!materializationSuccessorIds.isEmpty()) {
+            TIntIterator matStateIterator = materializationSuccessorIds.iterator();
+            while (matStateIterator.hasNext()) {
+                // Every materialisation state is followed by a control flow state
+                int matState = matStateIterator.next();
+                TIntArrayList controlFlowSuccessorIds = stateSpace.getControlFlowSuccessorsIdsOf(matState);
+                assert (!controlFlowSuccessorIds.isEmpty());
+                result.addAll(controlFlowSuccessorIds);
+            }
+        } else {
+            result.addAll(stateSpace.getControlFlowSuccessorsIdsOf(stateId));
+            // In case the state is final
+            result.addAll(stateSpace.getArtificialInfPathsSuccessorsIdsOf(stateId));
+        }
+        return result.toArray();
+    }
+}
@@ -2,6 +2,7 @@ package de.rwth.i2.attestor.phases.preprocessing;
 
 import de.rwth.i2.attestor.grammar.AbstractionOptions;
 import de.rwth.i2.attestor.grammar.Grammar;
+import de.rwth.i2.attestor.grammar.canonicalization.CachingCanonicalizationStrategy;
 import de.rwth.i2.attestor.grammar.canonicalization.CanonicalizationStrategy;
 import de.rwth.i2.attestor.grammar.canonicalization.CanonicalizationStrategyBuilder;
 import de.rwth.i2.attestor.grammar.materialization.strategies.MaterializationStrategy;
@@ -26,6 +27,12 @@ public class AbstractionPreprocessingPhase extends AbstractPhase {
 
     private Grammar grammar;
 
+    /**
+     * The caches in front of the canonicalization strategies or null if caching is disabled.
+     */
+    private CachingCanonicalizationStrategy canonicalizationCache;
+    private CachingCanonicalizationStrategy aggressiveCanonicalizationCache;
+
     public AbstractionPreprocessingPhase(Scene scene) {
 
         super(scene);
@@ -53,7 +60,23 @@ public class AbstractionPreprocessingPhase extends AbstractPhase {
 
     @Override
     public void logSummary() {
-        // nothing to report
+
+        if (canonicalizationCache == null) {
+            return;
+        }
+
+        logSum("+-------------------------+----------+----------+-----------+");
+        logHighlight("| Canonicalization cache  |     Hits |   Misses | Evictions |");
+        logSum("+-------------------------+----------+----------+-----------+");
+        logCacheSummary("default", canonicalizationCache);
+        logCacheSummary("aggressive", aggressiveCanonicalizationCache);
+        logSum("+-------------------------+----------+----------+-----------+");
+    }
+
+    private void logCacheSummary(String name, CachingCanonicalizationStrategy cache) {
+
+        logSum(String.format("| %-23s | %8d | %8d | %9d |",
+                name, cache.getHits(), cache.getMisses(), cache.getEvictions()));
     }
 
     @Override
@@ -106,6 +129,8 @@ public class AbstractionPreprocessingPhase extends AbstractPhase {
     private void setupAbstractDomain() {
 
         final boolean indexedMode = scene().options().isIndexedMode();
+        final boolean incrementalMode = scene().options().isIncrementalCanonicalizationEnabled();
+        final boolean batchMode = scene().options().isBatchCanonicalizationEnabled();
 
         AbstractionOptions abstractionOptions = new AbstractionOptions()
                 .setAdmissibleAbstraction(scene().options().isAdmissibleAbstractionEnabled())
@@ -116,9 +141,17 @@ public class AbstractionPreprocessingPhase extends AbstractPhase {
                 new CanonicalizationStrategyBuilder()
                         .setOptions(abstractionOptions)
                         .setIndexedMode(indexedMode)
+                        .setIncrementalMode(incrementalMode)
+                        .setBatchMode(batchMode)
                         .setGrammar(grammar)
                         .build();
 
+        final int cacheSize = scene().options().getCanonicalizationCacheSize();
+        if (cacheSize > 0) {
+            canonicalizationCache = new CachingCanonicalizationStrategy(canonicalizationStrategy, cacheSize);
+            canonicalizationStrategy = canonicalizationCache;
+        }
+
         scene().strategies()
                 .setCanonicalizationStrategy(canonicalizationStrategy);
 
@@ -129,9 +162,17 @@ public class AbstractionPreprocessingPhase extends AbstractPhase {
                 new CanonicalizationStrategyBuilder()
                         .setOptions(aggressiveOptions)
                         .setIndexedMode(indexedMode)
+                        .setIncrementalMode(incrementalMode)
+                        .setBatchMode(batchMode)
                         .setGrammar(grammar)
                         .build();
 
+        if (cacheSize > 0) {
+            aggressiveCanonicalizationCache =
+                    new CachingCanonicalizationStrategy(aggressiveCanonicalizationStrategy, cacheSize);
+            aggressiveCanonicalizationStrategy = aggressiveCanonicalizationCache;
+        }
+
         scene().strategies()
                 .setAggressiveCanonicalizationStrategy(
                         aggressiveCanonicalizationStrategy
@@ -0,0 +1,134 @@
+package de.rwth.i2.attestor.phases.report;
+
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.graph.heap.HeapConfigurationExporter;
+import de.rwth.i2.attestor.io.jsonExport.cytoscapeFormat.JsonHeapConfigurationExporter;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Exports heap configurations to JSON files using a bounded number of threads.
+ * <p>
+ * Heap configurations are serialized at most once: if the same heap configuration object is exported
+ * again, e.g. because a counterexample shares its states with the state space it has been extracted from,
+ * the previously written file is copied instead.
+ * Since the file name of every export is determined when the export is requested, the naming of files does
+ * not depend on the order in which exports are completed.
+ */
+public class ParallelHeapConfigurationExporter {
+
+    /**
+     * The number of pending exports per thread. If more exports are pending, further exports are executed
+     * by the requesting thread. This bounds the memory occupied by pending exports.
+     */
+    private static final int QUEUE_SIZE_PER_THREAD = 64;
+
+    private final ExecutorService executor;
+    private final List<Future<?>> pendingExports = new ArrayList<>();
+    private final Map<HeapConfiguration, File> exportedFiles = new IdentityHashMap<>();
+    private final List<File[]> pendingCopies = new ArrayList<>();
+
+    private int serializedHeaps = 0;
+    private int copiedHeaps = 0;
+
+    /**
+     * @param threads The maximal number of threads used to serialize heap configurations.
+     */
+    public ParallelHeapConfigurationExporter(int threads) {
+
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required to export heap configurations.");
+        }
+
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUE_SIZE_PER_THREAD),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Requests to export a heap configuration. The export is completed at the latest when
+     * {@link #awaitTermination()} returns.
+     *
+     * @param heapConfiguration The heap configuration to export.
+     * @param file              The file to which the heap configuration is written.
+     */
+    public void export(HeapConfiguration heapConfiguration, File file) {
+
+        File exportedFile = exportedFiles.get(heapConfiguration);
+        if (exportedFile != null) {
+            pendingCopies.add(new File[]{exportedFile, file});
+            ++copiedHeaps;
+            return;
+        }
+
+        exportedFiles.put(heapConfiguration, file);
+        ++serializedHeaps;
+        pendingExports.add(executor.submit(() -> {
+            write(heapConfiguration, file);
+            return null;
+        }));
+    }
+
+    /**
+     * Waits until all requested exports have been completed and releases all threads.
+     *
+     * @throws IOException if some heap configuration could not be written.
+     */
+    public void awaitTermination() throws IOException {
+
+        executor.shutdown();
+        try {
+            for (Future<?> export : pendingExports) {
+                export.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while exporting heap configurations.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (File[] copy : pendingCopies) {
+            Files.copy(copy[0].toPath(), copy[1].toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        pendingExports.clear();
+        pendingCopies.clear();
+    }
+
+    /**
+     * @return The number of heap configurations that have been serialized.
+     */
+    public int getSerializedHeaps() {
+
+        return serializedHeaps;
+    }
+
+    /**
+     * @return The number of exports that have been realized by copying a previously exported file.
+     */
+    public int getCopiedHeaps() {
+
+        return copiedHeaps;
+    }
+
+    private static void write(HeapConfiguration heapConfiguration, File file) throws IOException {
+
+        try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+            HeapConfigurationExporter exporter = new JsonHeapConfigurationExporter(writer);
+            exporter.export(heapConfiguration);
+        }
+    }
+}
@@ -2,8 +2,6 @@ package de.rwth.i2.attestor.phases.report;
 
 import de.rwth.i2.attestor.LTLFormula;
 import de.rwth.i2.attestor.grammar.GrammarExporter;
-import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
-import de.rwth.i2.attestor.graph.heap.HeapConfigurationExporter;
 import de.rwth.i2.attestor.io.FileUtils;
 import de.rwth.i2.attestor.io.jsonExport.cytoscapeFormat.*;
 import de.rwth.i2.attestor.io.jsonExport.inputFormat.ContractToInputFormatExporter;
@@ -23,6 +21,7 @@ import de.rwth.i2.attestor.stateSpaceGeneration.StateSpaceExporter;
 import de.rwth.i2.attestor.util.ZipUtils;
 
 import java.io.*;
+import java.nio.file.Paths;
 import java.util.*;
 
 public class ReportGenerationPhase extends AbstractPhase {
@@ -53,6 +52,7 @@ public class ReportGenerationPhase extends AbstractPhase {
 
         try {
             exportReport();
+            exportStream();
             exportGrammar();
             exportLargeStates();
             exportContracts();
@@ -73,8 +73,13 @@ public class ReportGenerationPhase extends AbstractPhase {
         logger.info("Exporting report...");
 
         StateSpace stateSpace = getPhase(StateSpaceTransformer.class).getStateSpace();
-        exportStateSpace(stateSpace, location, "data");
-        exportCounterexamples(location);
+        ParallelHeapConfigurationExporter heapExporter = createHeapExporter();
+        try {
+            exportStateSpace(stateSpace, location, "data", heapExporter);
+            exportCounterexamples(location, heapExporter);
+        } finally {
+            awaitHeapExports(heapExporter);
+        }
 
         InputStream zis = getClass().getClassLoader().getResourceAsStream("viewer.zip");
         File targetDirectory = new File(location + File.separator);
@@ -87,7 +92,8 @@ public class ReportGenerationPhase extends AbstractPhase {
         summaryMessages.add(summary);
     }
 
-    private void exportStateSpace(StateSpace stateSpace, String location, String directory) throws IOException {
+    private void exportStateSpace(StateSpace stateSpace, String location, String directory,
+                                  ParallelHeapConfigurationExporter heapExporter) throws IOException {
 
         logger.info("Exporting state space...");
 
@@ -100,14 +106,25 @@ public class ReportGenerationPhase extends AbstractPhase {
         Set<ProgramState> states = stateSpace.getStates();
         for (ProgramState state : states) {
             int i = state.getStateSpaceId();
-            exportHeapConfiguration(
-                    location + File.separator + directory,
-                    "hc_" + i + ".json",
-                    state.getHeap()
+            heapExporter.export(
+                    state.getHeap(),
+                    new File(location + File.separator + directory, "hc_" + i + ".json")
             );
         }
     }
 
+    private ParallelHeapConfigurationExporter createHeapExporter() {
+
+        return new ParallelHeapConfigurationExporter(Runtime.getRuntime().availableProcessors());
+    }
+
+    private void awaitHeapExports(ParallelHeapConfigurationExporter heapExporter) throws IOException {
+
+        heapExporter.awaitTermination();
+        logger.info("Exported " + heapExporter.getSerializedHeaps() + " heap configurations and copied "
+                + heapExporter.getCopiedHeaps() + " shared heap configurations.");
+    }
+
     private void exportStateSpace(String directory, StateSpace stateSpace, Program program)
             throws IOException {
 
@@ -120,28 +137,60 @@ public class ReportGenerationPhase extends AbstractPhase {
         writer.close();
     }
 
-    private void exportHeapConfiguration(String directory, String filename, HeapConfiguration hc)
+    private void exportCounterexamples(String location, ParallelHeapConfigurationExporter heapExporter)
             throws IOException {
 
-        FileUtils.createDirectories(directory);
-        FileWriter writer = new FileWriter(directory + File.separator + filename);
-        HeapConfigurationExporter exporter = new JsonHeapConfigurationExporter(writer);
-        exporter.export(hc);
-        writer.close();
+        int counter = 0;
+        for (StateSpace stateSpace : getCounterexampleStateSpaces()) {
+            exportStateSpace(stateSpace, location, "cex_" + String.valueOf(counter), heapExporter);
+            ++counter;
+        }
     }
 
-    private void exportCounterexamples(String location) throws IOException {
+    private List<StateSpace> getCounterexampleStateSpaces() {
 
         ModelCheckingResultsTransformer transformer = getPhase(ModelCheckingResultsTransformer.class);
-        int counter = 0;
+        List<StateSpace> result = new ArrayList<>();
         for(Map.Entry<LTLFormula, ModelCheckingResult> entry : transformer.getLTLResults().entrySet()) {
             if(entry.getValue() == ModelCheckingResult.UNSATISFIED) {
                 LTLFormula formula = entry.getKey();
-                StateSpace stateSpace = transformer.getTraceOf(formula).getStateSpace();
-                exportStateSpace(stateSpace, location, "cex_" + String.valueOf(counter));
-                ++counter;
+                result.add(transformer.getTraceOf(formula).getStateSpace());
             }
         }
+        return result;
+    }
+
+    private void exportStream() throws IOException {
+
+        String location = outputSettings.getExportStreamPath();
+        if(location == null) {
+            return;
+        }
+
+        logger.info("Streaming state space...");
+        FileUtils.createDirectories(location);
+
+        StateSpace stateSpace = getPhase(StateSpaceTransformer.class).getStateSpace();
+        int exportedStates = streamStateSpace(stateSpace, location, "statespace");
+
+        int counter = 0;
+        for (StateSpace counterexample : getCounterexampleStateSpaces()) {
+            exportedStates += streamStateSpace(counterexample, location, "cex_" + String.valueOf(counter));
+            ++counter;
+        }
+
+        String summary = "State space streamed to " + location + " (" + exportedStates + " states)";
+        logger.info(summary);
+        summaryMessages.add(summary);
+    }
+
+    private int streamStateSpace(StateSpace stateSpace, String location, String name) throws IOException {
+
+        StreamingStateSpaceExporter exporter = new StreamingStateSpaceExporter(
+                Paths.get(location, name + ".ndjson"),
+                Paths.get(location, name + ".idx")
+        );
+        return exporter.export(stateSpace, program);
     }
 
     private void exportOverview(String location) throws IOException {
@@ -202,7 +251,12 @@ public class ReportGenerationPhase extends AbstractPhase {
             }
         }
 
-        exportStateSpace(largeStatesSpace, location, "data");
+        ParallelHeapConfigurationExporter heapExporter = createHeapExporter();
+        try {
+            exportStateSpace(largeStatesSpace, location, "data", heapExporter);
+        } finally {
+            awaitHeapExports(heapExporter);
+        }
 
         InputStream zis = getClass().getClassLoader().getResourceAsStream("viewer.zip");
         File targetDirectory = new File(location + File.separator);
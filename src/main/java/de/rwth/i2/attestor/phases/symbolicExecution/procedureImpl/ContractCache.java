@@ -0,0 +1,307 @@
+package de.rwth.i2.attestor.phases.symbolicExecution.procedureImpl;
+
+import de.rwth.i2.attestor.grammar.Grammar;
+import de.rwth.i2.attestor.graph.Nonterminal;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.io.FileReader;
+import de.rwth.i2.attestor.io.FileUtils;
+import de.rwth.i2.attestor.io.binaryFormat.BinaryReader;
+import de.rwth.i2.attestor.io.binaryFormat.BinaryWriter;
+import de.rwth.i2.attestor.main.scene.Options;
+import de.rwth.i2.attestor.main.scene.SceneObject;
+import de.rwth.i2.attestor.procedures.Contract;
+import de.rwth.i2.attestor.procedures.Method;
+import de.rwth.i2.attestor.semantics.TerminalStatement;
+import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.statements.AssignInvoke;
+import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.statements.InvokeStmt;
+import de.rwth.i2.attestor.stateSpaceGeneration.Program;
+import de.rwth.i2.attestor.stateSpaceGeneration.SemanticsCommand;
+import de.rwth.i2.attestor.util.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * A persistent cache of the contracts computed for methods across several runs of an analysis.
+ * <p>
+ * The contracts of a method are stored in a file of the cache directory whose name is a fingerprint of
+ * <ul>
+ * <li>the signature of the method,</li>
+ * <li>the bodies of the method and all methods it invokes directly or indirectly, and</li>
+ * <li>the configuration of the analysis, i.e. the grammar, the contracts supplied by the user
+ * and all options affecting the abstract semantics.</li>
+ * </ul>
+ * Hence, cached contracts are only reused if neither the method, nor any of its callees, nor the configuration
+ * of the analysis has changed. Contracts are stored in the compact binary format of
+ * {@link BinaryWriter}.
+ */
+public class ContractCache extends SceneObject {
+
+    private static final Logger logger = LogManager.getLogger("ContractCache");
+
+    private final String directory;
+    private final String configurationFingerprint;
+
+    private int loadedContracts = 0;
+    private int storedContracts = 0;
+
+    /**
+     * @param sceneObject   The scene in which contracts are loaded.
+     * @param directory     The directory containing the cached contracts.
+     * @param grammar       The grammar used for abstraction.
+     * @param contractFiles The files containing contracts supplied by the user.
+     */
+    public ContractCache(SceneObject sceneObject, String directory, Grammar grammar,
+                         Collection<String> contractFiles) {
+
+        super(sceneObject);
+        this.directory = directory;
+        this.configurationFingerprint = fingerprint(describeConfiguration(grammar, contractFiles));
+    }
+
+    /**
+     * Adds all cached contracts of the given method to the method.
+     * Cache files that cannot be read are deleted such that they are replaced by the next call of
+     * {@link #store(Method)}.
+     *
+     * @param method The method whose contracts should be loaded.
+     * @return The number of loaded contracts.
+     */
+    public int load(Method method) {
+
+        File file = fileOf(method);
+        if (!file.exists()) {
+            return 0;
+        }
+
+        Pair<String, List<Contract>> contracts;
+        try (BinaryReader reader = new BinaryReader(this, new FileInputStream(file))) {
+            contracts = reader.readContracts();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Discarding corrupted cached contracts of method " + method.getSignature()
+                    + ": " + e.getMessage());
+            if (!file.delete()) {
+                logger.warn("Could not delete " + file.getPath());
+            }
+            return 0;
+        }
+        if (contracts == null) {
+            return 0;
+        }
+
+        for (Contract contract : contracts.second()) {
+            method.addContract(contract);
+        }
+        loadedContracts += contracts.second().size();
+        return contracts.second().size();
+    }
+
+    /**
+     * Stores all contracts of the given method in the cache.
+     * Methods without a body or without contracts are not stored.
+     *
+     * @param method The method whose contracts should be stored.
+     * @throws IOException if writing the contracts fails.
+     */
+    public void store(Method method) throws IOException {
+
+        Collection<Contract> contracts = method.getContractsForExport();
+        if (method.getBody() == null || contracts.isEmpty()) {
+            return;
+        }
+
+        FileUtils.createDirectories(directory);
+        File file = fileOf(method);
+        // write to a temporary file first such that concurrent analyses never read incomplete contracts
+        File temporaryFile = File.createTempFile(file.getName(), ".tmp", new File(directory));
+        try {
+            try (BinaryWriter writer = new BinaryWriter(new FileOutputStream(temporaryFile), true)) {
+                writer.writeContracts(method.getSignature(), contracts);
+            }
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            // the temporary file only remains if writing or moving it failed
+            Files.deleteIfExists(temporaryFile.toPath());
+        }
+
+        storedContracts += contracts.size();
+    }
+
+    /**
+     * @return The number of contracts loaded from the cache so far.
+     */
+    public int getLoadedContracts() {
+
+        return loadedContracts;
+    }
+
+    /**
+     * @return The number of contracts stored in the cache so far.
+     */
+    public int getStoredContracts() {
+
+        return storedContracts;
+    }
+
+    File fileOf(Method method) {
+
+        return new File(directory, fingerprintOf(method) + ".contracts");
+    }
+
+    /**
+     * @param method A method.
+     * @return The fingerprint identifying the contracts of the given method in the cache.
+     */
+    String fingerprintOf(Method method) {
+
+        StringBuilder builder = new StringBuilder();
+        builder.append(method.getSignature()).append('\n')
+                .append(configurationFingerprint).append('\n');
+
+        for (Method reachable : collectReachableMethods(method).values()) {
+            describeBody(reachable, builder);
+        }
+        return fingerprint(builder.toString());
+    }
+
+    /**
+     * @return All methods invoked directly or indirectly by the given method including the method itself
+     *         ordered by their signature.
+     */
+    private static SortedMap<String, Method> collectReachableMethods(Method method) {
+
+        SortedMap<String, Method> result = new TreeMap<>();
+        Deque<Method> worklist = new ArrayDeque<>();
+        worklist.push(method);
+        while (!worklist.isEmpty()) {
+            Method current = worklist.pop();
+            if (result.containsKey(current.getSignature())) {
+                continue;
+            }
+            result.put(current.getSignature(), current);
+            Program body = current.getBody();
+            if (body == null) {
+                continue;
+            }
+            for (SemanticsCommand statement : statementsOf(body)) {
+                if (statement instanceof InvokeStmt) {
+                    worklist.push(((InvokeStmt) statement).getMethod());
+                } else if (statement instanceof AssignInvoke) {
+                    worklist.push(((AssignInvoke) statement).getMethod());
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void describeBody(Method method, StringBuilder builder) {
+
+        builder.append(method.getSignature()).append(":\n");
+        Program body = method.getBody();
+        if (body == null) {
+            builder.append("no body\n");
+            return;
+        }
+        int programCounter = 0;
+        for (SemanticsCommand statement : statementsOf(body)) {
+            builder.append(programCounter++).append(' ')
+                    .append(statement).append(' ')
+                    .append(new TreeSet<>(statement.getSuccessorPCs()))
+                    .append('\n');
+        }
+    }
+
+    private static List<SemanticsCommand> statementsOf(Program body) {
+
+        List<SemanticsCommand> result = new ArrayList<>();
+        SemanticsCommand statement = body.getStatement(0);
+        while (!(statement instanceof TerminalStatement)) {
+            result.add(statement);
+            statement = body.getStatement(result.size());
+        }
+        return result;
+    }
+
+    private String describeConfiguration(Grammar grammar, Collection<String> contractFiles) {
+
+        StringBuilder builder = new StringBuilder();
+        describeOptions(scene().options(), builder);
+
+        List<String> rules = new ArrayList<>();
+        for (Nonterminal nonterminal : grammar.getAllLeftHandSides()) {
+            for (HeapConfiguration rightHandSide : grammar.getRightHandSidesFor(nonterminal)) {
+                rules.add(nonterminal + " -> " + fingerprint(rightHandSide));
+            }
+        }
+        // rules are sorted, because the order of right-hand sides may differ between runs
+        Collections.sort(rules);
+        for (String rule : rules) {
+            builder.append(rule).append('\n');
+        }
+
+        for (String contractFile : contractFiles) {
+            builder.append(contractFile).append('\n');
+            try {
+                builder.append(FileReader.read(contractFile)).append('\n');
+            } catch (FileNotFoundException e) {
+                builder.append("missing\n");
+            }
+        }
+        return builder.toString();
+    }
+
+    private static void describeOptions(Options options, StringBuilder builder) {
+
+        builder.append("removeDeadVariables=").append(options.isRemoveDeadVariables()).append('\n')
+                .append("grammarRefinement=").append(options.isGrammarRefinementEnabled()).append('\n')
+                .append("garbageCollection=").append(options.isGarbageCollectionEnabled()).append('\n')
+                .append("postProcessing=").append(options.isPostprocessingEnabled()).append('\n')
+                .append("ruleCollapsing=").append(options.isRuleCollapsingEnabled()).append('\n')
+                .append("admissibleAbstraction=").append(options.isAdmissibleAbstractionEnabled()).append('\n')
+                .append("admissibleConstants=").append(options.isAdmissibleConstantsEnabled()).append('\n')
+                .append("admissibleMarkings=").append(options.isAdmissibleMarkingsEnabled()).append('\n')
+                .append("admissibleFull=").append(options.isAdmissibleFullEnabled()).append('\n')
+                .append("chainAbstraction=").append(options.isChainAbstractionEnabled()).append('\n')
+                .append("indexedMode=").append(options.isIndexedMode()).append('\n')
+                .append("canonical=").append(options.isCanonicalEnabled()).append('\n');
+    }
+
+    private static String fingerprint(HeapConfiguration heapConfiguration) {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BinaryWriter writer = new BinaryWriter(bytes, false)) {
+            writer.writeHeapConfiguration(heapConfiguration);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize heap configuration.", e);
+        }
+        return fingerprint(bytes.toByteArray());
+    }
+
+    private static String fingerprint(String content) {
+
+        return fingerprint(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String fingerprint(byte[] content) {
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(content);
+            StringBuilder result = new StringBuilder(2 * hash.length);
+            for (byte b : hash) {
+                result.append(String.format("%02x", b));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported.", e);
+        }
+    }
+}
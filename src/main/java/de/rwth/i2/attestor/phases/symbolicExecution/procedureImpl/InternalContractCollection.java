@@ -2,66 +2,195 @@ package de.rwth.i2.attestor.phases.symbolicExecution.procedureImpl;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.graph.heap.internal.HeapCertificate;
+import de.rwth.i2.attestor.graph.heap.internal.InternalHeapConfiguration;
 import de.rwth.i2.attestor.procedures.*;
 
+/**
+ * A thread-safe collection of contracts.
+ * Contracts may be matched concurrently, whereas adding a contract requires exclusive access.
+ * Since contracts of recursive procedures grow while they are used, every match refers to a snapshot of
+ * the postconditions at the time of matching.
+ * <p>
+ * Contracts are additionally indexed by the certificates of their preconditions, see
+ * {@link InternalHeapConfiguration#getCertificate()}. Hence, a precondition that is isomorphic to the
+ * precondition of a contract, including the order of external nodes, is matched without computing
+ * a graph morphism.
+ */
 public class InternalContractCollection implements ContractCollection {
 
     private final PreconditionMatchingStrategy preconditionMatchingStrategy;
 
+    /**
+     * Contracts grouped by an isomorphism-invariant hash code of their preconditions.
+     * Since preconditions are matched up to a reordering of external nodes, the hash code
+     * ignores the order of external nodes.
+     */
     private final Map<Integer, Collection<Contract>> contracts;
 
+    /**
+     * Contracts whose preconditions have a certificate indexed by this certificate.
+     */
+    private final Map<HeapCertificate, Contract> contractsByCertificate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong morphismChecks = new AtomicLong();
+
     public InternalContractCollection(PreconditionMatchingStrategy preconditionMatchingStrategy) {
 
         this.preconditionMatchingStrategy = preconditionMatchingStrategy;
         this.contracts = new HashMap<>();
+        this.contractsByCertificate = new HashMap<>();
     }
 
     @Override
     public void addContract(Contract contract) {
 
-        int preconditionHash = contract.getPrecondition().hashCode();
-        if(!contracts.containsKey(preconditionHash)) {
-            Collection<Contract> value = new ArrayList<>();
-            value.add(contract);
-            contracts.put(preconditionHash, value);
-        } else {
-            Collection<Contract> hashedContracts = contracts.get(preconditionHash);
-            for (Contract c : hashedContracts) {
-                ContractMatch match = preconditionMatchingStrategy.match(c, contract.getPrecondition());
-                if (match.hasMatch()) {
-                    c.addPostconditions(contract.getPostconditions());
-                    return;
+        HeapConfiguration precondition = contract.getPrecondition();
+        int preconditionHash = precondition.externalOrderInsensitiveHashCode();
+        HeapCertificate certificate = certificateOf(precondition);
+        lock.writeLock().lock();
+        try {
+            Contract existingContract = certificate == null ? null : contractsByCertificate.get(certificate);
+            if(existingContract == null) {
+                for (Contract c : contracts.getOrDefault(preconditionHash, Collections.emptyList())) {
+                    if (haveEqualSizes(c.getPrecondition(), precondition)
+                            && preconditionMatchingStrategy.match(c, precondition).hasMatch()) {
+                        existingContract = c;
+                        break;
+                    }
                 }
             }
-            hashedContracts.add(contract);
+
+            if(existingContract != null) {
+                existingContract.addPostconditions(contract.getPostconditions());
+                return;
+            }
+
+            contracts.computeIfAbsent(preconditionHash, hash -> new ArrayList<>()).add(contract);
+            if(certificate != null) {
+                contractsByCertificate.put(certificate, contract);
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
     @Override
     public ContractMatch matchContract(HeapConfiguration precondition) {
 
-        int preconditionHash = precondition.hashCode();
-        if(!contracts.containsKey(preconditionHash)) {
-            contracts.put(preconditionHash, new ArrayList<>());
-        }
-        for(Contract contract : contracts.get(preconditionHash)) {
-            ContractMatch match = preconditionMatchingStrategy.match(contract, precondition);
-            if(match.hasMatch()) {
-                return match;
+        int preconditionHash = precondition.externalOrderInsensitiveHashCode();
+        HeapCertificate certificate = certificateOf(precondition);
+        lock.readLock().lock();
+        try {
+            Contract contract = certificate == null ? null : contractsByCertificate.get(certificate);
+            if(contract != null) {
+                // isomorphic preconditions with equal certificates preserve the order of external nodes
+                hits.incrementAndGet();
+                return new InternalContractMatch(
+                        identityReordering(precondition.countExternalNodes()),
+                        contract.getPrecondition(),
+                        new ArrayList<>(contract.getPostconditions())
+                );
             }
+
+            for(Contract c : contracts.getOrDefault(preconditionHash, Collections.emptyList())) {
+                if(!haveEqualSizes(c.getPrecondition(), precondition)) {
+                    continue;
+                }
+                morphismChecks.incrementAndGet();
+                ContractMatch match = preconditionMatchingStrategy.match(c, precondition);
+                if(match.hasMatch()) {
+                    hits.incrementAndGet();
+                    return new InternalContractMatch(
+                            match.getExternalReordering(),
+                            match.getPrecondition(),
+                            new ArrayList<>(match.getPostconditions())
+                    );
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
         }
 
+        misses.incrementAndGet();
         return ContractMatch.NO_CONTRACT_MATCH;
     }
 
 	@Override
 	public Collection<Contract> getContractsForExport() {
 		Collection<Contract> contractsForExport = new ArrayList<>();
-		for( Entry<Integer, Collection<Contract>> entry : contracts.entrySet() ){
-			contractsForExport.addAll(entry.getValue());
+		lock.readLock().lock();
+		try {
+			for( Entry<Integer, Collection<Contract>> entry : contracts.entrySet() ){
+				contractsForExport.addAll(entry.getValue());
+			}
+		} finally {
+			lock.readLock().unlock();
 		}
 		return contractsForExport;
 	}
+
+    /**
+     * @return The number of calls to {@link #matchContract(HeapConfiguration)} that found a contract.
+     */
+    public long getHits() {
+
+        return hits.get();
+    }
+
+    /**
+     * @return The number of calls to {@link #matchContract(HeapConfiguration)} that found no contract.
+     */
+    public long getMisses() {
+
+        return misses.get();
+    }
+
+    /**
+     * @return The number of graph morphisms computed by {@link #matchContract(HeapConfiguration)}, i.e.
+     *         the number of preconditions that could be neither matched by their certificate nor rejected
+     *         by their size.
+     */
+    public long getMorphismChecks() {
+
+        return morphismChecks.get();
+    }
+
+    /**
+     * Cheap necessary condition for two preconditions to match, which is checked before
+     * computing a graph morphism.
+     */
+    private static boolean haveEqualSizes(HeapConfiguration precondition, HeapConfiguration otherPrecondition) {
+
+        return precondition.countNodes() == otherPrecondition.countNodes()
+                && precondition.countExternalNodes() == otherPrecondition.countExternalNodes()
+                && precondition.countVariableEdges() == otherPrecondition.countVariableEdges()
+                && precondition.countNonterminalEdges() == otherPrecondition.countNonterminalEdges();
+    }
+
+    private static HeapCertificate certificateOf(HeapConfiguration heapConfiguration) {
+
+        if(heapConfiguration instanceof InternalHeapConfiguration) {
+            return ((InternalHeapConfiguration) heapConfiguration).getCertificate();
+        }
+        return null;
+    }
+
+    private static int[] identityReordering(int size) {
+
+        int[] result = new int[size];
+        for(int i = 0; i < size; i++) {
+            result[i] = i;
+        }
+        return result;
+    }
 }
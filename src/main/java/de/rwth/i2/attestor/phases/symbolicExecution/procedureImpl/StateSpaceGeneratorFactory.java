@@ -4,6 +4,7 @@ import de.rwth.i2.attestor.grammar.canonicalization.CanonicalizationStrategy;
 import de.rwth.i2.attestor.main.scene.Scene;
 import de.rwth.i2.attestor.main.scene.SceneObject;
 import de.rwth.i2.attestor.main.scene.Strategies;
+import de.rwth.i2.attestor.phases.symbolicExecution.stateSpaceGenerationImpl.ConcurrentInternalStateSpace;
 import de.rwth.i2.attestor.phases.symbolicExecution.stateSpaceGenerationImpl.InternalStateSpace;
 import de.rwth.i2.attestor.phases.symbolicExecution.utilStrategies.*;
 import de.rwth.i2.attestor.stateSpaceGeneration.*;
@@ -32,6 +33,16 @@ public class StateSpaceGeneratorFactory extends SceneObject{
                 .build();
     }
 
+    public StateSpaceGenerator create(Program program, List<ProgramState> initialStates,
+                                      StateExplorationListener stateExplorationListener) {
+
+        return createBuilder()
+                .addInitialStates(initialStates)
+                .setProgram(program)
+                .setStateExplorationListener(stateExplorationListener)
+                .build();
+    }
+
     protected StateSpaceGeneratorBuilder createBuilder() {
 
         Strategies strategies = scene().strategies();
@@ -63,12 +74,25 @@ public class StateSpaceGeneratorFactory extends SceneObject{
                         scene()::addNumberOfGeneratedStates
                 )
                 .setStateExplorationStrategy(new DepthFirstStateExplorationStrategy())
-                .setStateSpaceSupplier(() -> new InternalStateSpace(scene().options().getMaxStateSpace()))
+                .setParallelism(scene().options().getStateSpaceGenerationThreads())
+                .setStateSpaceSupplier(getStateSpaceSupplier())
                 .setPostProcessingStrategy(getPostProcessingStrategy())
                 .setFinalStateStrategy(new TerminalStatementFinalStateStrategy())
                 ;
     }
 
+    private StateSpaceSupplier getStateSpaceSupplier() {
+
+        int capacity = scene().options().getMaxStateSpace();
+        boolean certificateMerging = scene().options().isCertificateMergingEnabled();
+
+        if (scene().options().getStateSpaceGenerationThreads() > 1) {
+            return () -> new ConcurrentInternalStateSpace(capacity, certificateMerging);
+        }
+
+        return () -> new InternalStateSpace(capacity, certificateMerging);
+    }
+
     private PostProcessingStrategy getPostProcessingStrategy() {
 
         CanonicalizationStrategy aggressiveStrategy = scene().strategies().getAggressiveCanonicalizationStrategy();
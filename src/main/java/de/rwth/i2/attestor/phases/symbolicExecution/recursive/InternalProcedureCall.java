@@ -5,6 +5,8 @@ import java.util.List;
 import java.util.Objects;
 
 import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.graph.heap.internal.HeapCertificate;
+import de.rwth.i2.attestor.graph.heap.internal.InternalHeapConfiguration;
 import de.rwth.i2.attestor.main.scene.SceneObject;
 import de.rwth.i2.attestor.phases.symbolicExecution.procedureImpl.InternalContract;
 import de.rwth.i2.attestor.phases.symbolicExecution.procedureImpl.StateSpaceGeneratorFactory;
@@ -95,7 +97,35 @@ public class InternalProcedureCall extends SceneObject implements ProcedureCall
         }
         InternalProcedureCall call = (InternalProcedureCall) otherOject;
         return method.equals(call.method) &&
-                preconditionState.equals(call.preconditionState);
+                hasIsomorphicPrecondition(call);
+    }
+
+    /**
+     * Compares the precondition of this call with the precondition of another call.
+     * Preconditions are first compared by their isomorphism-invariant hash codes and, if available,
+     * their certificates. Graph isomorphism is only checked if no certificate is available.
+     */
+    private boolean hasIsomorphicPrecondition(InternalProcedureCall call) {
+
+        HeapConfiguration precondition = preconditionState.getHeap();
+        HeapConfiguration otherPrecondition = call.preconditionState.getHeap();
+        if(precondition.hashCode() != otherPrecondition.hashCode()) {
+            return false;
+        }
+
+        if(precondition instanceof InternalHeapConfiguration
+                && otherPrecondition instanceof InternalHeapConfiguration
+                && preconditionState.getClass() == call.preconditionState.getClass()
+                && preconditionState.getProgramCounter() == call.preconditionState.getProgramCounter()) {
+
+            HeapCertificate certificate = ((InternalHeapConfiguration) precondition).getCertificate();
+            HeapCertificate otherCertificate = ((InternalHeapConfiguration) otherPrecondition).getCertificate();
+            if(certificate != null && otherCertificate != null) {
+                return certificate.equals(otherCertificate);
+            }
+        }
+
+        return preconditionState.equals(call.preconditionState);
     }
     
     @Override
@@ -1,13 +1,18 @@
 package de.rwth.i2.attestor.phases.symbolicExecution.recursive;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
 import de.rwth.i2.attestor.main.AbstractPhase;
 import de.rwth.i2.attestor.main.scene.ElementNotPresentException;
 import de.rwth.i2.attestor.main.scene.Scene;
 import de.rwth.i2.attestor.phases.communication.InputSettings;
+import de.rwth.i2.attestor.phases.communication.ModelCheckingSettings;
+import de.rwth.i2.attestor.phases.modelChecking.modelChecker.OnTheFlyModelChecker;
 import de.rwth.i2.attestor.phases.symbolicExecution.procedureImpl.*;
 import de.rwth.i2.attestor.phases.symbolicExecution.procedureImpl.scopes.DefaultScopeExtractor;
 import de.rwth.i2.attestor.phases.symbolicExecution.recursive.interproceduralAnalysis.*;
@@ -16,7 +21,8 @@ import de.rwth.i2.attestor.procedures.*;
 import de.rwth.i2.attestor.stateSpaceGeneration.*;
 
 
-public class RecursiveStateSpaceGenerationPhase extends AbstractPhase implements StateSpaceTransformer {
+public class RecursiveStateSpaceGenerationPhase extends AbstractPhase
+        implements StateSpaceTransformer, OnTheFlyModelCheckingTransformer {
 
     private final StateSpaceGeneratorFactory stateSpaceGeneratorFactory;
 
@@ -24,6 +30,9 @@ public class RecursiveStateSpaceGenerationPhase extends AbstractPhase implements
     private List<ProgramState> initialStates;
     private Method mainMethod;
     private StateSpace mainStateSpace = null;
+    private final Map<Method, InternalContractCollection> contractCollections = new LinkedHashMap<>();
+    private ContractCache contractCache = null;
+    private OnTheFlyModelChecker onTheFlyModelChecker = null;
 
     public RecursiveStateSpaceGenerationPhase(Scene scene) {
 
@@ -40,13 +49,15 @@ public class RecursiveStateSpaceGenerationPhase extends AbstractPhase implements
     @Override
     public void executePhase() {
 
-        interproceduralAnalysis = new InterproceduralAnalysis();
+        interproceduralAnalysis = new InterproceduralAnalysis(scene().options().getProcedureThreads());
         loadInitialStates();
         loadMainMethod();
         initializeMethodExecutors();
+        loadCachedContracts();
         startPartialStateSpaceGeneration();
         registerMainProcedureCalls();
         interproceduralAnalysis.run();
+        storeCachedContracts();
 
         if(mainStateSpace.getFinalStateIds().isEmpty()) {
             logger.error("Computed state space contains no final states.");
@@ -99,7 +110,8 @@ public class RecursiveStateSpaceGenerationPhase extends AbstractPhase implements
 
         for(Method method : scene ().getRegisteredMethods()) {
             MethodExecutor executor;
-            ContractCollection contractCollection = new InternalContractCollection(preconditionMatchingStrategy);
+            InternalContractCollection contractCollection = new InternalContractCollection(preconditionMatchingStrategy);
+            contractCollections.put(method, contractCollection);
             if(method.isRecursive()) {
                 executor = new RecursiveMethodExecutor(
                         method,
@@ -119,10 +131,60 @@ public class RecursiveStateSpaceGenerationPhase extends AbstractPhase implements
         }
     }
 
+    private void loadCachedContracts() {
+
+        String contractCachePath = scene().options().getContractCachePath();
+        if(contractCachePath == null) {
+            return;
+        }
+
+        contractCache = new ContractCache(
+                this,
+                contractCachePath,
+                getPhase(GrammarTransformer.class).getGrammar(),
+                getPhase(InputSettingsTransformer.class).getInputSettings().getContractFileNames()
+        );
+        for(Method method : scene().getRegisteredMethods()) {
+            int loadedContracts = contractCache.load(method);
+            if(loadedContracts > 0) {
+                logger.info("Reused " + loadedContracts + " cached contracts of method " + method.getName());
+            }
+        }
+    }
+
+    private void storeCachedContracts() {
+
+        if(contractCache == null) {
+            return;
+        }
+
+        // contracts computed before aborting state space generation might be incomplete
+        if(mainStateSpace.containsAbortedStates()) {
+            logger.warn("State space generation has been aborted. Contracts are not cached.");
+            return;
+        }
+
+        try {
+            for(Method method : scene().getRegisteredMethods()) {
+                contractCache.store(method);
+            }
+        } catch (IOException e) {
+            logger.error("Could not cache contracts: " + e.getMessage());
+        }
+    }
+
     private void startPartialStateSpaceGeneration() {
 
+        ModelCheckingSettings mcSettings = getPhase(MCSettingsTransformer.class).getMcSettings();
         try {
-            mainStateSpace = stateSpaceGeneratorFactory.create(mainMethod.getBody(), initialStates).generate();
+            if(mcSettings.isOnTheFlyEnabled() && !mcSettings.getFormulae().isEmpty()) {
+                onTheFlyModelChecker = new OnTheFlyModelChecker(mcSettings.getFormulae());
+                mainStateSpace = stateSpaceGeneratorFactory
+                        .create(mainMethod.getBody(), initialStates, onTheFlyModelChecker)
+                        .generate();
+            } else {
+                mainStateSpace = stateSpaceGeneratorFactory.create(mainMethod.getBody(), initialStates).generate();
+            }
         } catch (StateSpaceGenerationAbortedException e) {
             e.printStackTrace();
         }
@@ -150,6 +212,34 @@ public class RecursiveStateSpaceGenerationPhase extends AbstractPhase implements
         logSum(String.format("| final states            | %16d |",
                 mainStateSpace.getFinalStateIds().size()));
         logSum("+-------------------------+------------------+");
+        logHighlight("| Procedure calls         | Number of calls  |");
+        logSum("+-------------------------+------------------+");
+        logSum(String.format("| enqueued                | %16d |",
+                interproceduralAnalysis.getNumberOfEnqueuedProcedureCalls()));
+        logSum(String.format("| duplicates              | %16d |",
+                interproceduralAnalysis.getNumberOfDuplicateProcedureCalls()));
+        logSum("+-------------------------+------------------+");
+        logContractLookups();
+        if(contractCache != null) {
+            logSum(String.format("Contract cache: %d contracts reused, %d contracts stored",
+                    contractCache.getLoadedContracts(), contractCache.getStoredContracts()));
+        }
+    }
+
+    private void logContractLookups() {
+
+        logSum("+-------------------------+----------+----------+-----------+");
+        logHighlight("| Contract lookups        |     Hits |   Misses | Morphisms |");
+        logSum("+-------------------------+----------+----------+-----------+");
+        for(Map.Entry<Method, InternalContractCollection> entry : contractCollections.entrySet()) {
+            InternalContractCollection contractCollection = entry.getValue();
+            if(contractCollection.getHits() + contractCollection.getMisses() > 0) {
+                logSum(String.format("| %-23.23s | %8d | %8d | %9d |",
+                        entry.getKey().getName(), contractCollection.getHits(),
+                        contractCollection.getMisses(), contractCollection.getMorphismChecks()));
+            }
+        }
+        logSum("+-------------------------+----------+----------+-----------+");
     }
 
     @Override
@@ -163,4 +253,10 @@ public class RecursiveStateSpaceGenerationPhase extends AbstractPhase implements
 
         return mainStateSpace;
     }
+
+    @Override
+    public OnTheFlyModelChecker getOnTheFlyModelChecker() {
+
+        return onTheFlyModelChecker;
+    }
 }
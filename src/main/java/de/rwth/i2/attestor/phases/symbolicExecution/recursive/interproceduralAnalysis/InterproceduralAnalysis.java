@@ -4,6 +4,8 @@ package de.rwth.i2.attestor.phases.symbolicExecution.recursive.interproceduralAn
 import de.rwth.i2.attestor.stateSpaceGeneration.StateSpace;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * This class is responsible of computing the fixpoint of the interprocedural analysis
@@ -12,6 +14,10 @@ import java.util.*;
  * Furthermore it stores the dependencies between partialStateSpaces and procedureCalls so that
  * it can continue those stateSpaces whenever it has found new contracts for a procedureCall.
  * 
+ * If more than one thread is used, procedure calls and partial state spaces are analysed concurrently
+ * as long as they are independent, i.e. no two tasks continue the same state space at the same time.
+ * Whenever a contract grows, the partial state spaces depending on it are enqueued again.
+ * 
  * see {@link ProcedureRegistry} for the interaction between the semantics and this class.
  * @author Hannah
  *
@@ -21,17 +27,63 @@ public class InterproceduralAnalysis {
 	Deque<ProcedureCall> remainingProcedureCalls = new ArrayDeque<>();
 	Deque<PartialStateSpace> remainingPartialStateSpaces = new ArrayDeque<>();
 
+	/**
+	 * The elements of remainingProcedureCalls and remainingPartialStateSpaces. Since procedure calls and
+	 * partial state spaces are hashed by isomorphism-invariant hash codes of their heaps, checking whether
+	 * an element is already pending requires an isomorphism check only in case of a hash collision.
+	 */
+	private final Set<ProcedureCall> pendingProcedureCalls = new HashSet<>();
+	private final Set<PartialStateSpace> pendingPartialStateSpaces = new HashSet<>();
+
+	private int enqueuedProcedureCalls = 0;
+	private int duplicateProcedureCalls = 0;
+
 	Map<ProcedureCall, Set<PartialStateSpace>> callingDependencies = new LinkedHashMap<>();
 	Map<StateSpace, ProcedureCall> stateSpaceToAnalyzedCall = new LinkedHashMap<>();
 
+	private final int parallelism;
+
+	/**
+	 * The tasks that are currently executed if more than one thread is used.
+	 */
+	private final Set<Task> runningTasks = new LinkedHashSet<>();
+	private final Set<ProcedureCall> runningProcedureCalls = new HashSet<>();
+	private final Set<StateSpace> busyStateSpaces = new HashSet<>();
+
+	/**
+	 * Counts the contract changes so far. For each procedure call, we additionally store the value of this
+	 * counter at its latest contract change. This is required to detect dependencies that are registered
+	 * by tasks that matched a contract before it changed.
+	 */
+	private long contractChanges = 0;
+	private final Map<ProcedureCall, Long> lastContractChange = new HashMap<>();
+
+	private Throwable failure = null;
+
+	public InterproceduralAnalysis() {
+
+		this(1);
+	}
 
-	public void registerStateSpace( ProcedureCall call, StateSpace stateSpace) {
+	/**
+	 * @param parallelism The number of threads used to execute procedure calls and
+	 *                    to continue partial state spaces.
+	 */
+	public InterproceduralAnalysis(int parallelism) {
+
+		if(parallelism < 1) {
+			throw new IllegalArgumentException("The number of threads must be positive.");
+		}
+		this.parallelism = parallelism;
+	}
+
+	public synchronized void registerStateSpace( ProcedureCall call, StateSpace stateSpace) {
 
 		stateSpaceToAnalyzedCall.put(stateSpace, call);
 	}
 
 
-	public void registerDependency(ProcedureCall procedureCall, PartialStateSpace dependentPartialStateSpace) {
+	public synchronized void registerDependency(ProcedureCall procedureCall, PartialStateSpace dependentPartialStateSpace) {
 
 		if(!callingDependencies.containsKey(procedureCall)) {
 			Set<PartialStateSpace> dependencies = new LinkedHashSet<>();
@@ -40,13 +92,39 @@ public class InterproceduralAnalysis {
 		} else {
 			callingDependencies.get(procedureCall).add(dependentPartialStateSpace);
 		}
+
+		// the contract may have changed after the registering task has matched it
+		Long lastChange = lastContractChange.get(procedureCall);
+		if(lastChange != null && lastChange > earliestRunningTask()) {
+			enqueue(dependentPartialStateSpace);
+		}
 	}
 
-	public void registerProcedureCall(ProcedureCall procedureCall) {
+	public synchronized void registerProcedureCall(ProcedureCall procedureCall) {
 
-		if(!remainingProcedureCalls.contains(procedureCall)) {
-			remainingProcedureCalls.push(procedureCall);
+		if(runningProcedureCalls.contains(procedureCall) || !pendingProcedureCalls.add(procedureCall)) {
+			duplicateProcedureCalls++;
+			return;
 		}
+		remainingProcedureCalls.push(procedureCall);
+		enqueuedProcedureCalls++;
+	}
+
+	/**
+	 * @return The number of procedure calls that have been enqueued for analysis so far.
+	 */
+	public synchronized int getNumberOfEnqueuedProcedureCalls() {
+
+		return enqueuedProcedureCalls;
+	}
+
+	/**
+	 * @return The number of registered procedure calls that have been discarded, because an
+	 *         isomorphic procedure call of the same method was already pending or running.
+	 */
+	public synchronized int getNumberOfDuplicateProcedureCalls() {
+
+		return duplicateProcedureCalls;
 	}
 
 	/**
@@ -56,15 +134,22 @@ public class InterproceduralAnalysis {
 	 */
 	public void run() {
 
+		if(parallelism > 1) {
+			runConcurrently();
+			return;
+		}
+
 		while(!remainingProcedureCalls.isEmpty() || !remainingPartialStateSpaces.isEmpty()) {
 			ProcedureCall call;
 			boolean contractChanged;
 			if(!remainingProcedureCalls.isEmpty()) {
 				call = remainingProcedureCalls.pop();
+				pendingProcedureCalls.remove(call);
 				StateSpace stateSpace = call.execute();
 				contractChanged = stateSpace.getFinalStateIds().size() > 0;
 			} else {
 				PartialStateSpace partialStateSpace = remainingPartialStateSpaces.pop();
+				pendingPartialStateSpaces.remove(partialStateSpace);
 				int currentNumberOfFinalStates = partialStateSpace.unfinishedStateSpace().getFinalStateIds().size();
 				call = stateSpaceToAnalyzedCall.get( partialStateSpace.unfinishedStateSpace() );
 				partialStateSpace.continueExecution(call);
@@ -77,16 +162,170 @@ public class InterproceduralAnalysis {
 		}
 	}
 
+	/**
+	 * The fixpoint iteration if more than one thread is used.
+	 * Tasks are scheduled until no task is left and all running tasks have terminated.
+	 */
+	private void runConcurrently() {
+
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+		try {
+			synchronized (this) {
+				while(true) {
+					if(failure != null) {
+						rethrowFailure();
+					}
+					Task task = runningTasks.size() < parallelism ? nextTask() : null;
+					if(task != null) {
+						runningTasks.add(task);
+						executor.execute(task);
+					} else if(runningTasks.isEmpty()) {
+						return;
+					} else {
+						wait();
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interprocedural analysis has been interrupted.", e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Determines the next task that can be executed independently of all running tasks.
+	 * Procedure calls are preferred over partial state spaces. A partial state space can only be continued
+	 * if its state space has been completely generated and is not continued by another task.
+	 * @return The next task or null if no such task exists.
+	 */
+	private Task nextTask() {
+
+		if(!remainingProcedureCalls.isEmpty()) {
+			ProcedureCall call = remainingProcedureCalls.pop();
+			pendingProcedureCalls.remove(call);
+			runningProcedureCalls.add(call);
+			return new Task(call, null, null);
+		}
+
+		Iterator<PartialStateSpace> iterator = remainingPartialStateSpaces.iterator();
+		while(iterator.hasNext()) {
+			PartialStateSpace partialStateSpace = iterator.next();
+			StateSpace stateSpace = partialStateSpace.unfinishedStateSpace();
+			if(busyStateSpaces.contains(stateSpace)) {
+				continue;
+			}
+			ProcedureCall call = stateSpaceToAnalyzedCall.get(stateSpace);
+			if(call != null || runningTasks.isEmpty()) {
+				iterator.remove();
+				pendingPartialStateSpaces.remove(partialStateSpace);
+				busyStateSpaces.add(stateSpace);
+				return new Task(call, partialStateSpace, stateSpace);
+			}
+		}
+		return null;
+	}
+
+	private synchronized void finished(Task task, boolean contractChanged, Throwable error) {
+
+		runningTasks.remove(task);
+		if(task.partialStateSpace == null) {
+			runningProcedureCalls.remove(task.call);
+		} else {
+			busyStateSpaces.remove(task.stateSpace);
+		}
+
+		if(error != null) {
+			if(failure == null) {
+				failure = error;
+			}
+		} else if(contractChanged) {
+			notifyDependencies(task.call);
+		}
+		notifyAll();
+	}
+
+	private void rethrowFailure() {
+
+		if(failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		}
+		if(failure instanceof Error) {
+			throw (Error) failure;
+		}
+		throw new IllegalStateException("Interprocedural analysis failed.", failure);
+	}
+
+	private long earliestRunningTask() {
+
+		long result = Long.MAX_VALUE;
+		for(Task task : runningTasks) {
+			result = Math.min(result, task.start);
+		}
+		return result;
+	}
+
 	/**
 	 * enqueues the partial stateSpace depending on the given call for continued analysis.
 	 * @param call the procedure call for which the contract has changed
 	 * (i.e. for which more postconditions have been discovered)
 	 */ 
-	void notifyDependencies(ProcedureCall call) {
+	synchronized void notifyDependencies(ProcedureCall call) {
 
+		lastContractChange.put(call, ++contractChanges);
 		Set<PartialStateSpace> dependencies = callingDependencies.getOrDefault(call, Collections.emptySet());
-		remainingPartialStateSpaces.addAll(dependencies);
+		for(PartialStateSpace partialStateSpace : dependencies) {
+			enqueue(partialStateSpace);
+		}
 	}
 
+	private void enqueue(PartialStateSpace partialStateSpace) {
 
+		if(pendingPartialStateSpaces.add(partialStateSpace)) {
+			remainingPartialStateSpaces.add(partialStateSpace);
+		}
+	}
+
+	/**
+	 * Either the execution of a procedure call or the continuation of a partial state space.
+	 */
+	private final class Task implements Runnable {
+
+		private final ProcedureCall call;
+		private final PartialStateSpace partialStateSpace;
+		private final StateSpace stateSpace;
+
+		/**
+		 * The number of contract changes when the task has been scheduled.
+		 */
+		private final long start = contractChanges;
+
+		private Task(ProcedureCall call, PartialStateSpace partialStateSpace, StateSpace stateSpace) {
+
+			this.call = call;
+			this.partialStateSpace = partialStateSpace;
+			this.stateSpace = stateSpace;
+		}
+
+		@Override
+		public void run() {
+
+			boolean contractChanged = false;
+			Throwable error = null;
+			try {
+				if(partialStateSpace == null) {
+					contractChanged = call.execute().getFinalStateIds().size() > 0;
+				} else {
+					int currentNumberOfFinalStates = stateSpace.getFinalStateIds().size();
+					partialStateSpace.continueExecution(call);
+					int newNumberOfFinalsStates = partialStateSpace.unfinishedStateSpace().getFinalStateIds().size();
+					contractChanged = newNumberOfFinalsStates > currentNumberOfFinalStates;
+				}
+			} catch (Throwable e) {
+				error = e;
+			}
+			finished(this, contractChanged, error);
+		}
+	}
 }
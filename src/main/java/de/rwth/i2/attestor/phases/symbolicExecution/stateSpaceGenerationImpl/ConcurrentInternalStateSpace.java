@@ -0,0 +1,184 @@
+package de.rwth.i2.attestor.phases.symbolicExecution.stateSpaceGenerationImpl;
+
+import de.rwth.i2.attestor.stateSpaceGeneration.ProgramState;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.set.TIntSet;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A thread-safe variant of {@link InternalStateSpace} that is used for parallel state space generation.
+ * All accesses are synchronized on the state space itself. In particular, adding a state and checking
+ * whether an isomorphic state already exists is a single atomic operation.
+ * <p>
+ * In contrast to {@link InternalStateSpace#getStates()}, {@link #getStates()} returns a snapshot of all states
+ * that may be iterated while the state space is modified concurrently. The returned collections of state ids
+ * still provide views on the underlying data structures and must not be iterated during concurrent modifications.
+ */
+public class ConcurrentInternalStateSpace extends InternalStateSpace {
+
+    public ConcurrentInternalStateSpace(int capacity) {
+
+        super(capacity);
+    }
+
+    public ConcurrentInternalStateSpace(int capacity, boolean certificateMerging) {
+
+        super(capacity, certificateMerging);
+    }
+
+    @Override
+    public synchronized Set<ProgramState> getInitialStates() {
+
+        return super.getInitialStates();
+    }
+
+    @Override
+    public synchronized TIntSet getInitialStateIds() {
+
+        return super.getInitialStateIds();
+    }
+
+    @Override
+    public synchronized Set<ProgramState> getFinalStates() {
+
+        return super.getFinalStates();
+    }
+
+    @Override
+    public synchronized TIntSet getFinalStateIds() {
+
+        return super.getFinalStateIds();
+    }
+
+    @Override
+    public synchronized int size() {
+
+        return super.size();
+    }
+
+    @Override
+    public synchronized Set<ProgramState> getControlFlowSuccessorsOf(ProgramState state) {
+
+        return super.getControlFlowSuccessorsOf(state);
+    }
+
+    @Override
+    public synchronized Set<ProgramState> getMaterializationSuccessorsOf(ProgramState state) {
+
+        return super.getMaterializationSuccessorsOf(state);
+    }
+
+    @Override
+    public synchronized Set<ProgramState> getArtificialInfPathsSuccessorsOf(ProgramState state) {
+
+        return super.getArtificialInfPathsSuccessorsOf(state);
+    }
+
+    @Override
+    public synchronized TIntArrayList getControlFlowSuccessorsIdsOf(int stateSpaceId) {
+
+        return super.getControlFlowSuccessorsIdsOf(stateSpaceId);
+    }
+
+    @Override
+    public synchronized TIntArrayList getMaterializationSuccessorsIdsOf(int stateSpaceId) {
+
+        return super.getMaterializationSuccessorsIdsOf(stateSpaceId);
+    }
+
+    @Override
+    public synchronized TIntArrayList getArtificialInfPathsSuccessorsIdsOf(int stateSpaceId) {
+
+        return super.getArtificialInfPathsSuccessorsIdsOf(stateSpaceId);
+    }
+
+    @Override
+    public synchronized boolean addState(ProgramState state) {
+
+        return super.addState(state);
+    }
+
+    @Override
+    public synchronized boolean addStateIfAbsent(ProgramState state) {
+
+        return super.addStateIfAbsent(state);
+    }
+
+    @Override
+    public synchronized void addInitialState(ProgramState state) {
+
+        super.addInitialState(state);
+    }
+
+    @Override
+    public synchronized void setFinal(ProgramState state) {
+
+        super.setFinal(state);
+    }
+
+    @Override
+    public synchronized void setAborted(ProgramState state) {
+
+        super.setAborted(state);
+    }
+
+    @Override
+    public synchronized boolean containsAbortedStates() {
+
+        return super.containsAbortedStates();
+    }
+
+    @Override
+    public synchronized void updateFinalStates(Set<ProgramState> newFinalStates, Map<Integer, Integer> idMapping) {
+
+        super.updateFinalStates(newFinalStates, idMapping);
+    }
+
+    @Override
+    public synchronized void addMaterializationTransition(ProgramState from, ProgramState to) {
+
+        super.addMaterializationTransition(from, to);
+    }
+
+    @Override
+    public synchronized void addControlFlowTransition(ProgramState from, ProgramState to) {
+
+        super.addControlFlowTransition(from, to);
+    }
+
+    @Override
+    public synchronized void addArtificialInfPathsTransition(ProgramState cur) {
+
+        super.addArtificialInfPathsTransition(cur);
+    }
+
+    @Override
+    public synchronized ProgramState getState(int id) {
+
+        return super.getState(id);
+    }
+
+    @Override
+    public synchronized int getMaximalStateSize() {
+
+        return super.getMaximalStateSize();
+    }
+
+    @Override
+    public synchronized boolean satisfiesAP(int stateId, String expectedAP) {
+
+        return super.satisfiesAP(stateId, expectedAP);
+    }
+
+    /**
+     * @return A copy of all states of this state space taken atomically.
+     */
+    @Override
+    public synchronized Set<ProgramState> getStates() {
+
+        return new LinkedHashSet<>(super.getStates());
+    }
+}
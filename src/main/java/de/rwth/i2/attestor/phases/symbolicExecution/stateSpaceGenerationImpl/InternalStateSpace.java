@@ -1,5 +1,8 @@
 package de.rwth.i2.attestor.phases.symbolicExecution.stateSpaceGenerationImpl;
 
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.graph.heap.internal.HeapCertificate;
+import de.rwth.i2.attestor.graph.heap.internal.InternalHeapConfiguration;
 import de.rwth.i2.attestor.programState.AtomicPropositions;
 import de.rwth.i2.attestor.stateSpaceGeneration.ProgramState;
 import de.rwth.i2.attestor.stateSpaceGeneration.StateSpace;
@@ -16,7 +19,16 @@ import java.util.*;
 
 public class InternalStateSpace implements StateSpace {
 
-    private final Map<ProgramState, ProgramState> potentialMergeStates;
+    /**
+     * States that are checked for isomorphism when new states are added.
+     * Each state is stored with the key obtained from {@link #mergeKeyOf(Object)}.
+     */
+    private final Map<Object, ProgramState> potentialMergeStates;
+    /**
+     * True if isomorphic states are detected by comparing certificates of their heap configurations
+     * instead of checking for graph isomorphism.
+     */
+    private final boolean certificateMerging;
     private final List<ProgramState> otherStates; // states that are never checked for isomorphism
     private final TIntSet initialStateIds;
     private final TIntSet finalStateIds;
@@ -32,6 +44,19 @@ public class InternalStateSpace implements StateSpace {
 
     public InternalStateSpace(int capacity) {
 
+        this(capacity, false);
+    }
+
+    /**
+     * @param capacity           The expected number of states.
+     * @param certificateMerging True if isomorphic states should be detected by comparing certificates of
+     *                           their heap configurations, see {@link InternalHeapConfiguration#getCertificate()}.
+     *                           States whose heap configuration has no certificate are still compared
+     *                           by checking for graph isomorphism.
+     */
+    public InternalStateSpace(int capacity, boolean certificateMerging) {
+
+        this.certificateMerging = certificateMerging;
         capacity = 2 * capacity;
         potentialMergeStates = new LinkedHashMap<>(capacity, 0.8f);
         otherStates = new ArrayList<>(capacity);
@@ -72,8 +97,8 @@ public class InternalStateSpace implements StateSpace {
 
     private void initLookupTable() {
 
-        if (stateIdLookupTable == null || stateIdLookupTable.size() < getStates().size() ) {
-            stateIdLookupTable = new TIntObjectHashMap<>(getStates().size());
+        if (stateIdLookupTable == null || stateIdLookupTable.size() < size() ) {
+            stateIdLookupTable = new TIntObjectHashMap<>(size());
             for (ProgramState state : getStates()) {
                 stateIdLookupTable.put(state.getStateSpaceId(), state);
             }
@@ -174,7 +199,7 @@ public class InternalStateSpace implements StateSpace {
     @Override
     public boolean addStateIfAbsent(ProgramState state) {
 
-        ProgramState old = potentialMergeStates.putIfAbsent(state, state);
+        ProgramState old = potentialMergeStates.putIfAbsent(mergeKeyOf(state), state);
         if (old == null) {
             updateAddedState(state);
             return true;
@@ -184,6 +209,32 @@ public class InternalStateSpace implements StateSpace {
         return false;
     }
 
+    /**
+     * Determines the key under which a state is stored in potentialMergeStates.
+     *
+     * @param o The state whose key should be determined.
+     * @return A key consisting of the class, the program counter and the heap certificate of the state
+     * if certificate merging is enabled and a certificate exists. Otherwise, the state itself.
+     */
+    private Object mergeKeyOf(Object o) {
+
+        if (!certificateMerging || !(o instanceof ProgramState)) {
+            return o;
+        }
+
+        ProgramState state = (ProgramState) o;
+        HeapConfiguration heap = state.getHeap();
+        if (!(heap instanceof InternalHeapConfiguration)) {
+            return state;
+        }
+
+        HeapCertificate certificate = ((InternalHeapConfiguration) heap).getCertificate();
+        if (certificate == null) {
+            return state;
+        }
+        return new CertifiedState(state.getClass(), state.getProgramCounter(), certificate);
+    }
+
     private void updateAddedState(ProgramState state) {
 
         state.setStateSpaceId(nextStateId);
@@ -232,7 +283,7 @@ public class InternalStateSpace implements StateSpace {
         while (idIterator.hasNext()) {
             int id = idIterator.next();
             ProgramState state = stateIdLookupTable.get(id);
-            potentialMergeStates.remove(state);
+            potentialMergeStates.remove(mergeKeyOf(state));
             otherStates.remove(state);
             stateIdLookupTable.remove(id);
             artificialInfPathsSuccessors.remove(id);
@@ -241,7 +292,7 @@ public class InternalStateSpace implements StateSpace {
         finalStateIds.clear();
         for (ProgramState s : newFinalStates) {
             finalStateIds.add(s.getStateSpaceId());
-            potentialMergeStates.put(s, s);
+            potentialMergeStates.put(mergeKeyOf(s), s);
             stateIdLookupTable.put(s.getStateSpaceId(), s);
 
             TIntArrayList tIntArrayList = new TIntArrayList();
@@ -327,14 +378,14 @@ public class InternalStateSpace implements StateSpace {
             @Override
             public boolean contains(Object o) {
 
-                return potentialMergeStates.containsKey(o)
+                return potentialMergeStates.containsKey(mergeKeyOf(o))
                         || otherStates.contains(o);
             }
 
             @Override
             public Iterator<ProgramState> iterator() {
 
-                Iterator<ProgramState> mergerIter = potentialMergeStates.keySet().iterator();
+                Iterator<ProgramState> mergerIter = potentialMergeStates.values().iterator();
                 Iterator<ProgramState> otherIter = otherStates.iterator();
 
                 return new Iterator<ProgramState>() {
@@ -419,4 +470,44 @@ public class InternalStateSpace implements StateSpace {
         };
     }
 
+    /**
+     * Key of a state whose heap configuration has a certificate.
+     * Two keys are equal if and only if the corresponding states are equal.
+     */
+    private static final class CertifiedState {
+
+        private final Class<?> stateClass;
+        private final int programCounter;
+        private final HeapCertificate certificate;
+
+        private CertifiedState(Class<?> stateClass, int programCounter, HeapCertificate certificate) {
+
+            this.stateClass = stateClass;
+            this.programCounter = programCounter;
+            this.certificate = certificate;
+        }
+
+        @Override
+        public boolean equals(Object otherObject) {
+
+            if (otherObject == this) {
+                return true;
+            }
+
+            if (otherObject == null || otherObject.getClass() != CertifiedState.class) {
+                return false;
+            }
+
+            CertifiedState other = (CertifiedState) otherObject;
+            return stateClass == other.stateClass
+                    && programCounter == other.programCounter
+                    && certificate.equals(other.certificate);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return 31 * programCounter + certificate.hashCode();
+        }
+    }
 }
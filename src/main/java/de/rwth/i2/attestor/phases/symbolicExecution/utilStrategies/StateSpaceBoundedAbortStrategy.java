@@ -57,7 +57,7 @@ public class StateSpaceBoundedAbortStrategy implements AbortStrategy {
             throw new StateSpaceGenerationAbortedException();
         }
 
-        if (maxStateSpaceSize != NO_MAXIMUM && stateSpace.getStates().size() > maxStateSpaceSize) {
+        if (maxStateSpaceSize != NO_MAXIMUM && stateSpace.size() > maxStateSpaceSize) {
 
             logger.warn("A state space exceeded "
                     + maxStateSpaceSize + " states. State space generation for this procedure call is aborted.");
@@ -0,0 +1,12 @@
+package de.rwth.i2.attestor.phases.transformers;
+
+import de.rwth.i2.attestor.phases.modelChecking.modelChecker.OnTheFlyModelChecker;
+
+public interface OnTheFlyModelCheckingTransformer {
+
+    /**
+     * @return The model checker that has been applied during state space generation or null
+     * if on-the-fly model checking is disabled.
+     */
+    OnTheFlyModelChecker getOnTheFlyModelChecker();
+}
@@ -97,14 +97,16 @@ public abstract class GeneralProgramState implements ProgramState {
     }
 
     /**
+     * The hash code combines the program counter with the isomorphism-invariant hash code of the heap,
+     * which is cached by immutable heap configurations. Hence, states with non-isomorphic heaps rarely
+     * collide when they are stored in hash-based collections.
+     *
      * @return A hash code corresponding to this state.
      */
     @Override
     public int hashCode() {
 
-        int hash = programCounter;
-        hash = (hash << 1) ^ heap.hashCode();
-        return hash;
+        return 31 * programCounter + heap.hashCode();
     }
 
     /**
@@ -15,7 +15,7 @@ public class ConcreteIndexSymbol implements IndexSymbol {
         this.isBottom = isBottom;
     }
 
-    public static ConcreteIndexSymbol getIndexSymbol(String label, boolean isBottom) {
+    public static synchronized ConcreteIndexSymbol getIndexSymbol(String label, boolean isBottom) {
 
         if (!existingIndexSymbols.containsKey(label)) {
             existingIndexSymbols.put(label, new ConcreteIndexSymbol(label, isBottom));
@@ -112,6 +112,14 @@ public class AssignInvoke extends Statement implements InvokeCleanup {
         return invokePrepare.needsMaterialization(programState);
     }
 
+    /**
+     * @return The invoked method.
+     */
+    public Method getMethod() {
+
+        return method;
+    }
+
     public String toString() {
 
         String res = lhs.toString() + " = ";
@@ -75,6 +75,14 @@ public class InvokeStmt extends Statement implements InvokeCleanup {
         return invokePrepare.needsMaterialization(programState);
     }
 
+    /**
+     * @return The invoked method.
+     */
+    public Method getMethod() {
+
+        return method;
+    }
+
 
     public String toString() {
 
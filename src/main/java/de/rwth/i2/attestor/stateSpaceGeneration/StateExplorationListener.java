@@ -0,0 +1,17 @@
+package de.rwth.i2.attestor.stateSpaceGeneration;
+
+/**
+ * A listener that is notified whenever the state space generation has completely explored a state,
+ * i.e. all of its materialized states or successors have been added to the state space.
+ */
+@FunctionalInterface
+public interface StateExplorationListener {
+
+    /**
+     * @param stateSpace The StateSpace that has been generated so far.
+     * @param state      The state that has been explored.
+     * @throws StateSpaceGenerationAbortedException if the state space generation should be aborted.
+     *                                              All remaining unexplored states are then marked as aborted.
+     */
+    void stateExplored(StateSpace stateSpace, ProgramState state) throws StateSpaceGenerationAbortedException;
+}
@@ -1,7 +1,14 @@
 package de.rwth.i2.attestor.stateSpaceGeneration;
 
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * A StateSpaceGenerator takes an analysis and generates a
@@ -22,6 +29,13 @@ public class StateSpaceGenerator {
         void addStates(int states);
     }
 
+    /**
+     * Fork-join pools used for parallel state space generation, one for each degree of parallelism.
+     * The pools are shared by all generators, including those started for procedure calls from within
+     * a worker thread, to avoid creating further threads for nested state space generations.
+     */
+    private static final ConcurrentMap<Integer, ForkJoinPool> explorationPools = new ConcurrentHashMap<>();
+
     /**
      * Stores the state space generated upon instantiation of
      * this generator.
@@ -81,9 +95,20 @@ public class StateSpaceGenerator {
      * Functional interface to check whether a state has to be marked as final
      */
     FinalStateStrategy finalStateStrategy;
+    /**
+     * Listener that is notified whenever a state has been explored completely
+     */
+    StateExplorationListener stateExplorationListener = (stateSpace, state) -> {};
 
     boolean alwaysCanonicalize = false;
 
+    /**
+     * The number of threads used to explore states.
+     * If greater than one, all unexplored states are expanded concurrently and the
+     * resulting successors are merged into the state space in a deterministic order.
+     */
+    int parallelism = 1;
+
     protected StateSpaceGenerator() {
     }
 
@@ -110,6 +135,7 @@ public class StateSpaceGenerator {
                 .setStateCounter(stateSpaceGenerator.getTotalStatesCounter())
                 .setFinalStateStrategy(stateSpaceGenerator.getFinalStateStrategy())
                 .setAlwaysCanonicalize(stateSpaceGenerator.isAlwaysCanonicalize())
+                .setParallelism(stateSpaceGenerator.getParallelism())
                 .setPostProcessingStrategy(stateSpaceGenerator.getPostProcessingStrategy());
     }
 
@@ -117,6 +143,13 @@ public class StateSpaceGenerator {
         return alwaysCanonicalize;
     }
 
+    /**
+     * @return The number of threads used to explore states.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
     /**
      * @return The strategy determining when state space generation is aborted.
      */
@@ -194,6 +227,10 @@ public class StateSpaceGenerator {
         return finalStateStrategy;
     }
 
+    public StateExplorationListener getStateExplorationListener() {
+        return stateExplorationListener;
+    }
+
     /**
      * Attempts to generate a StateSpace according to the
      * underlying analysis.
@@ -202,6 +239,10 @@ public class StateSpaceGenerator {
      */
     public StateSpace generate() throws StateSpaceGenerationAbortedException {
 
+        if (parallelism > 1) {
+            return generateInParallel();
+        }
+
         while (stateExplorationStrategy.hasUnexploredStates()) {
 
             ProgramState state = stateExplorationStrategy.getNextUnexploredState();
@@ -226,6 +267,69 @@ public class StateSpaceGenerator {
                     }
                 }
             }
+
+            if(!notifyStateExplored(state, Collections.emptyList())) {
+                totalStatesCounter.addStates(stateSpace.size());
+                return stateSpace;
+            }
+        }
+
+        postProcessingStrategy.process(stateSpace);
+        totalStatesCounter.addStates(stateSpace.size());
+        return stateSpace;
+    }
+
+    /**
+     * Generates the state space by repeatedly expanding batches of at most parallelism unexplored states
+     * in parallel.
+     * Materialization, symbolic execution, refinement, canonicalization and rectification of
+     * each state are performed concurrently. Afterwards, the computed successors are added to the state
+     * space sequentially and in the order in which the expanded states have been taken from the
+     * exploration strategy. The abort criteria are checked before a batch is expanded and before the
+     * successors of each state are added.
+     * <p>
+     * If the state space is fully explored, it is equal to the one generated sequentially up to the numbering
+     * of states, because every reachable state is canonicalized and merged in the same way.
+     * Since all states of a batch are taken from the exploration strategy before any of their successors,
+     * the order of exploration may differ from the sequential case. Hence, if the generation is aborted,
+     * the partial state space and its aborted states may differ from the sequential case.
+     *
+     * @return The generated StateSpace.
+     */
+    private StateSpace generateInParallel() throws StateSpaceGenerationAbortedException {
+
+        List<ProgramState> batch = new ArrayList<>(parallelism);
+
+        while (stateExplorationStrategy.hasUnexploredStates()) {
+
+            batch.clear();
+            while (batch.size() < parallelism && stateExplorationStrategy.hasUnexploredStates()) {
+                ProgramState state = stateExplorationStrategy.getNextUnexploredState();
+                state.setContainingStateSpace( this.stateSpace );
+                batch.add(state);
+            }
+
+            if (!checkAbortCriteria(batch.get(0), batch.subList(1, batch.size()))) {
+                totalStatesCounter.addStates(stateSpace.size());
+                return stateSpace;
+            }
+
+            List<StateExpansion> expansions = expandAll(batch);
+
+            for (int i = 0; i < expansions.size(); i++) {
+                StateExpansion expansion = expansions.get(i);
+                List<ProgramState> pendingStates = batch.subList(i + 1, batch.size());
+                // the criteria for the first state have been checked before expanding the batch
+                if (i > 0 && !checkAbortCriteria(expansion.state, pendingStates)) {
+                    totalStatesCounter.addStates(stateSpace.size());
+                    return stateSpace;
+                }
+                mergeExpansion(expansion);
+                if (!notifyStateExplored(expansion.state, pendingStates)) {
+                    totalStatesCounter.addStates(stateSpace.size());
+                    return stateSpace;
+                }
+            }
         }
 
         postProcessingStrategy.process(stateSpace);
@@ -233,22 +337,158 @@ public class StateSpaceGenerator {
         return stateSpace;
     }
 
+    private List<StateExpansion> expandAll(List<ProgramState> states) {
+
+        List<ForkJoinTask<StateExpansion>> tasks = new ArrayList<>(states.size());
+        for (ProgramState state : states) {
+            tasks.add(ForkJoinTask.adapt(() -> expand(state)));
+        }
+
+        if (ForkJoinTask.inForkJoinPool()) {
+            // nested state space generation, e.g. for a procedure call, within a worker thread
+            ForkJoinTask.invokeAll(tasks);
+        } else {
+            ForkJoinPool pool = explorationPools.computeIfAbsent(parallelism, ForkJoinPool::new);
+            pool.invoke(ForkJoinTask.adapt(() -> {
+                ForkJoinTask.invokeAll(tasks);
+            }));
+        }
+
+        List<StateExpansion> result = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<StateExpansion> task : tasks) {
+            result.add(task.join());
+        }
+        return result;
+    }
+
+    /**
+     * Computes all successors of the given state without modifying the state space.
+     * This method may be executed concurrently for different states.
+     *
+     * @param state The state that should be expanded.
+     * @return The materialized states or the successors of the given state.
+     */
+    private StateExpansion expand(ProgramState state) {
+
+        StateExpansion expansion = new StateExpansion(state);
+        SemanticsCommand stateSemanticsCommand = semanticsOf(state);
+
+        expansion.materializedStates = materializationStrategy.materialize(
+                state,
+                stateSemanticsCommand.getPotentialViolationPoints()
+        );
+
+        if (expansion.materializedStates.isEmpty()) {
+            Collection<ProgramState> successorStates = stateSemanticsCommand.computeSuccessors(state);
+            if (finalStateStrategy.isFinalState(state, successorStates, stateSemanticsCommand)) {
+                expansion.isFinal = true;
+            } else {
+                for (ProgramState nextState : successorStates) {
+                    expandSuccessorState(state, nextState, expansion);
+                }
+            }
+        }
+        return expansion;
+    }
+
+    private void expandSuccessorState(ProgramState state, ProgramState nextState, StateExpansion expansion) {
+
+        SemanticsCommand semanticsCommand = semanticsOf(nextState);
+        nextState = stateRefinementStrategy.refine(semanticsCommand, nextState);
+
+        if (needsCanonicalization(semanticsCommand, nextState)) {
+            ProgramState abstractedState = canonicalizationStrategy.canonicalize(nextState);
+            expansion.mergeableSuccessors.addAll(stateRectificationStrategy.rectify(abstractedState));
+        } else if (state.isContinueState()) {
+            expansion.mergeableSuccessors.addAll(stateRectificationStrategy.rectify(nextState));
+        } else {
+            expansion.successors.addAll(stateRectificationStrategy.rectify(nextState));
+        }
+    }
+
+    /**
+     * Adds the results of expanding a single state to the state space.
+     * Merging takes place sequentially, just like in the sequential state space generation.
+     *
+     * @param expansion The expanded state together with its materialized states or successors.
+     */
+    private void mergeExpansion(StateExpansion expansion) {
+
+        ProgramState state = expansion.state;
+
+        for (ProgramState m : expansion.materializedStates) {
+            stateSpace.addState(m);
+            stateExplorationStrategy.addUnexploredState(m, true);
+            stateSpace.addMaterializationTransition(state, m);
+        }
+
+        if (expansion.isFinal) {
+            stateSpace.setFinal(state);
+            stateSpace.addArtificialInfPathsTransition(state);
+        }
+
+        for (ProgramState nextState : expansion.mergeableSuccessors) {
+            addOrMergeState(state, nextState);
+        }
+
+        for (ProgramState nextState : expansion.successors) {
+            addState(state, nextState);
+        }
+    }
+
     private boolean checkAbortCriteria(ProgramState state) throws StateSpaceGenerationAbortedException {
 
+        return checkAbortCriteria(state, Collections.emptyList());
+    }
+
+    private boolean checkAbortCriteria(ProgramState state, Collection<ProgramState> pendingStates)
+            throws StateSpaceGenerationAbortedException {
+
         try {
             abortStrategy.checkAbort(stateSpace);
         } catch (StateSpaceGenerationAbortedException e) {
 
             stateSpace.setAborted(state);
-            abortRemainingStates();
-            if (!state.isFromTopLevelStateSpace()) {
-                throw e;
-            }
+            abortRemainingStates(state, pendingStates, e);
             return false;
         }
         return true;
     }
 
+    /**
+     * Notifies the state exploration listener that the given state has been explored.
+     *
+     * @param state         The explored state.
+     * @param pendingStates States that have already been taken from the exploration strategy but whose
+     *                      successors have not been added to the state space yet.
+     * @return True if and only if the state space generation continues.
+     */
+    private boolean notifyStateExplored(ProgramState state, Collection<ProgramState> pendingStates)
+            throws StateSpaceGenerationAbortedException {
+
+        try {
+            stateExplorationListener.stateExplored(stateSpace, state);
+        } catch (StateSpaceGenerationAbortedException e) {
+
+            abortRemainingStates(state, pendingStates, e);
+            return false;
+        }
+        return true;
+    }
+
+    private void abortRemainingStates(ProgramState state, Collection<ProgramState> pendingStates,
+                                      StateSpaceGenerationAbortedException cause)
+            throws StateSpaceGenerationAbortedException {
+
+        for (ProgramState pendingState : pendingStates) {
+            stateSpace.setAborted(pendingState);
+        }
+        abortRemainingStates();
+        if (!state.isFromTopLevelStateSpace()) {
+            throw cause;
+        }
+    }
+
     private void abortRemainingStates() {
 
         while (stateExplorationStrategy.hasUnexploredStates()) {
@@ -356,6 +596,27 @@ public class StateSpaceGenerator {
         stateSpace.addControlFlowTransition(predecessorState, state);
     }
 
-
+    /**
+     * The result of expanding a single state during parallel state space generation.
+     */
+    private static final class StateExpansion {
+
+        final ProgramState state;
+        Collection<ProgramState> materializedStates = Collections.emptyList();
+        boolean isFinal = false;
+        /**
+         * Successors that are merged with isomorphic states in the state space.
+         */
+        final List<ProgramState> mergeableSuccessors = new ArrayList<>();
+        /**
+         * Successors that are added to the state space without checking for isomorphic states.
+         */
+        final List<ProgramState> successors = new ArrayList<>();
+
+        StateExpansion(ProgramState state) {
+
+            this.state = state;
+        }
+    }
 
 }
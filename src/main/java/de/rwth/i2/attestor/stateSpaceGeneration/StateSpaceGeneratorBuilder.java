@@ -269,10 +269,37 @@ public class StateSpaceGeneratorBuilder {
         return this;
     }
 
+    /**
+     * Optional method to observe the state space generation.
+     * @param stateExplorationListener A listener that is notified whenever a state has been explored completely.
+     *                                 The listener may abort the state space generation.
+     * @return The builder.
+     */
+    public StateSpaceGeneratorBuilder setStateExplorationListener(StateExplorationListener stateExplorationListener) {
+
+        generator.stateExplorationListener = stateExplorationListener;
+        return this;
+    }
+
     public StateSpaceGeneratorBuilder setAlwaysCanonicalize(boolean alwaysCanonicalize) {
 
         generator.alwaysCanonicalize = alwaysCanonicalize;
         return this;
     }
 
+    /**
+     * @param parallelism The number of threads used to explore states. If greater than one, the state space
+     *                    is generated in parallel and the state space supplier has to provide state spaces
+     *                    that can be accessed concurrently.
+     * @return The builder.
+     */
+    public StateSpaceGeneratorBuilder setParallelism(int parallelism) {
+
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("StateSpaceGenerator: parallelism must be positive.");
+        }
+        generator.parallelism = parallelism;
+        return this;
+    }
+
 }
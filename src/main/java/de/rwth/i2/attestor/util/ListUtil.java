@@ -1,5 +1,6 @@
 package de.rwth.i2.attestor.util;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -53,4 +54,42 @@ public class ListUtil {
 
         return true;
     }
+
+    /**
+     * Checks whether two sorted arrays that are interpreted as multi-sets contain the same elements.
+     *
+     * @param left  A sorted array.
+     * @param right Another sorted array.
+     * @return True if and only if both arrays contain equal elements including repetitions.
+     */
+    public static boolean isEqualAsMultiset(int[] left, int[] right) {
+
+        return Arrays.equals(left, right);
+    }
+
+    /**
+     * Checks whether all elements of a sorted array are contained in another sorted array if both arrays are
+     * interpreted as multi-sets.
+     *
+     * @param left  A sorted array.
+     * @param right Another sorted array.
+     * @return True if and only if all elements of left, including repetitions, are equal to an element of right.
+     */
+    public static boolean isSubsetAsMultiset(int[] left, int[] right) {
+
+        int j = 0;
+        for (int e : left) {
+
+            while (j < right.length && right[j] < e) {
+                j++;
+            }
+
+            if (j == right.length || right[j] != e) {
+                return false;
+            }
+            j++;
+        }
+
+        return true;
+    }
 }
@@ -0,0 +1,112 @@
+package de.rwth.i2.attestor.grammar.canonicalization;
+
+import de.rwth.i2.attestor.MockupSceneObject;
+import de.rwth.i2.attestor.grammar.AbstractionOptions;
+import de.rwth.i2.attestor.grammar.Grammar;
+import de.rwth.i2.attestor.graph.Nonterminal;
+import de.rwth.i2.attestor.graph.SelectorLabel;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.graph.heap.Matching;
+import de.rwth.i2.attestor.graph.heap.internal.ExampleHcImplFactory;
+import de.rwth.i2.attestor.graph.heap.internal.InternalHeapConfiguration;
+import de.rwth.i2.attestor.main.scene.SceneObject;
+import de.rwth.i2.attestor.types.Type;
+import gnu.trove.list.array.TIntArrayList;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatchCanonicalizationTest {
+
+    private final SceneObject sceneObject = new MockupSceneObject();
+    private final Type TYPE = sceneObject.scene().getType("List");
+    private final SelectorLabel NEXT = sceneObject.scene().getSelectorLabel("next");
+
+    private CanonicalizationStrategy batchStrategy;
+    private CanonicalizationStrategy sequentialStrategy;
+
+    @Before
+    public void setUp() {
+
+        ExampleHcImplFactory hcFactory = new ExampleHcImplFactory(sceneObject);
+        Nonterminal nt = sceneObject.scene().createNonterminal("List", 2, new boolean[]{false, true});
+        Grammar grammar = Grammar.builder()
+                .addRule(nt, hcFactory.getListRule1())
+                .addRule(nt, hcFactory.getListRule2())
+                .addRule(nt, hcFactory.getListRule3())
+                .build();
+
+        batchStrategy = new CanonicalizationStrategyBuilder()
+                .setOptions(new AbstractionOptions())
+                .setGrammar(grammar)
+                .setBatchMode(true)
+                .build();
+
+        sequentialStrategy = new CanonicalizationStrategyBuilder()
+                .setOptions(new AbstractionOptions())
+                .setGrammar(grammar)
+                .build();
+    }
+
+    @Test
+    public void testSameResultAsSequentialCanonicalization() {
+
+        for (int length = 2; length <= 12; length++) {
+            assertEquals("list of length " + length,
+                    sequentialStrategy.canonicalize(getList(length)),
+                    batchStrategy.canonicalize(getList(length)));
+        }
+    }
+
+    @Test
+    public void testDisjointEmbeddingsShareOnlyExternalNodes() {
+
+        EmbeddingCheckerProvider provider = new EmbeddingCheckerProvider(new AbstractionOptions());
+
+        HeapConfiguration target = getChain(7);
+        List<Matching> embeddings = provider.getDisjointEmbeddings(target, getChain(3), null);
+        assertEquals(3, embeddings.size());
+
+        TIntArrayList coveredInnerNodes = new TIntArrayList();
+        for (Matching embedding : embeddings) {
+            coveredInnerNodes.add(embedding.match(embedding.pattern().nodes().get(1)));
+        }
+        coveredInnerNodes.sort();
+        TIntArrayList nodes = target.nodes();
+        assertEquals(new TIntArrayList(new int[]{nodes.get(1), nodes.get(3), nodes.get(5)}), coveredInnerNodes);
+    }
+
+    private HeapConfiguration getList(int length) {
+
+        TIntArrayList nodes = new TIntArrayList();
+        HeapConfiguration result = new InternalHeapConfiguration().builder()
+                .addNodes(TYPE, length, nodes)
+                .addVariableEdge("x", nodes.get(0))
+                .setExternal(nodes.get(length - 1))
+                .build();
+
+        for (int i = 0; i < length - 1; i++) {
+            result = result.builder().addSelector(nodes.get(i), NEXT, nodes.get(i + 1)).build();
+        }
+        return result;
+    }
+
+    /**
+     * @return A list of the given length whose first and last node are external.
+     */
+    private HeapConfiguration getChain(int length) {
+
+        TIntArrayList nodes = new TIntArrayList();
+        HeapConfiguration result = new InternalHeapConfiguration();
+        result.builder().addNodes(TYPE, length, nodes)
+                .setExternal(nodes.get(0))
+                .setExternal(nodes.get(length - 1));
+        for (int i = 0; i < length - 1; i++) {
+            result.builder().addSelector(nodes.get(i), NEXT, nodes.get(i + 1));
+        }
+        return result.builder().build();
+    }
+}
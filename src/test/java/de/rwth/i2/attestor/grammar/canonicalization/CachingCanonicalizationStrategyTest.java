@@ -0,0 +1,101 @@
+package de.rwth.i2.attestor.grammar.canonicalization;
+
+import de.rwth.i2.attestor.MockupSceneObject;
+import de.rwth.i2.attestor.graph.SelectorLabel;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.graph.heap.internal.InternalHeapConfiguration;
+import de.rwth.i2.attestor.main.scene.SceneObject;
+import de.rwth.i2.attestor.types.Type;
+import gnu.trove.list.array.TIntArrayList;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+public class CachingCanonicalizationStrategyTest {
+
+    private final SceneObject sceneObject = new MockupSceneObject();
+    private final Type TYPE = sceneObject.scene().getType("List");
+    private final SelectorLabel NEXT = sceneObject.scene().getSelectorLabel("next");
+
+    private int calls;
+    private CachingCanonicalizationStrategy strategy;
+
+    @Before
+    public void setUp() {
+
+        calls = 0;
+        strategy = new CachingCanonicalizationStrategy(heapConfiguration -> {
+            ++calls;
+            return heapConfiguration.clone();
+        }, 1);
+    }
+
+    @Test
+    public void testIsomorphicHeapIsCached() {
+
+        HeapConfiguration first = strategy.canonicalize(getList(3, false));
+        HeapConfiguration second = strategy.canonicalize(getList(3, true));
+
+        assertEquals(1, calls);
+        assertEquals(first, second);
+        assertNotSame(first, second);
+        assertEquals(1, strategy.getHits());
+        assertEquals(1, strategy.getMisses());
+        assertEquals(0, strategy.getEvictions());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+
+        strategy.canonicalize(getList(3, false));
+        strategy.canonicalize(getList(4, false));
+        strategy.canonicalize(getList(3, false));
+
+        assertEquals(3, calls);
+        assertEquals(0, strategy.getHits());
+        assertEquals(3, strategy.getMisses());
+        assertEquals(2, strategy.getEvictions());
+        assertEquals(1, strategy.size());
+    }
+
+    @Test
+    public void testModifiedHeapIsNotCached() {
+
+        HeapConfiguration heap = getList(3, false);
+        heap.builder();
+
+        strategy.canonicalize(heap);
+        strategy.canonicalize(heap);
+
+        assertEquals(2, calls);
+        assertEquals(0, strategy.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+
+        new CachingCanonicalizationStrategy(heapConfiguration -> heapConfiguration, 0);
+    }
+
+    /**
+     * @param reversed True if nodes should be created in reverse order, i.e. the resulting list is isomorphic
+     *                 but not identical to the one with the same length that is not reversed.
+     */
+    private HeapConfiguration getList(int length, boolean reversed) {
+
+        TIntArrayList nodes = new TIntArrayList();
+        HeapConfiguration result = new InternalHeapConfiguration();
+        result.builder().addNodes(TYPE, length, nodes);
+        if (reversed) {
+            nodes.reverse();
+        }
+        for (int i = 0; i < length - 1; i++) {
+            result.builder().addSelector(nodes.get(i), NEXT, nodes.get(i + 1));
+        }
+        return result.builder()
+                .addVariableEdge("x", nodes.get(0))
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+package de.rwth.i2.attestor.grammar.canonicalization;
+
+import de.rwth.i2.attestor.MockupSceneObject;
+import de.rwth.i2.attestor.grammar.AbstractionOptions;
+import de.rwth.i2.attestor.grammar.Grammar;
+import de.rwth.i2.attestor.graph.Nonterminal;
+import de.rwth.i2.attestor.graph.SelectorLabel;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.graph.heap.internal.ExampleHcImplFactory;
+import de.rwth.i2.attestor.graph.heap.internal.InternalHeapConfiguration;
+import de.rwth.i2.attestor.main.scene.SceneObject;
+import de.rwth.i2.attestor.types.Type;
+import gnu.trove.list.array.TIntArrayList;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class IncrementalCanonicalizationTest {
+
+    private final SceneObject sceneObject = new MockupSceneObject();
+    private final Type TYPE = sceneObject.scene().getType("List");
+    private final SelectorLabel NEXT = sceneObject.scene().getSelectorLabel("next");
+
+    private CanonicalizationStrategy incrementalStrategy;
+    private CanonicalizationStrategy fullStrategy;
+
+    @Before
+    public void setUp() {
+
+        ExampleHcImplFactory hcFactory = new ExampleHcImplFactory(sceneObject);
+        Nonterminal nt = sceneObject.scene().createNonterminal("List", 2, new boolean[]{false, true});
+        Grammar grammar = Grammar.builder()
+                .addRule(nt, hcFactory.getListRule1())
+                .addRule(nt, hcFactory.getListRule2())
+                .addRule(nt, hcFactory.getListRule3())
+                .build();
+
+        incrementalStrategy = new CanonicalizationStrategyBuilder()
+                .setOptions(new AbstractionOptions())
+                .setGrammar(grammar)
+                .setIncrementalMode(true)
+                .build();
+
+        fullStrategy = new CanonicalizationStrategyBuilder()
+                .setOptions(new AbstractionOptions())
+                .setGrammar(grammar)
+                .build();
+    }
+
+    @Test
+    public void testUnchangedHeap() {
+
+        HeapConfiguration canonical = incrementalStrategy.canonicalize(getList(6));
+        assertEquals(fullStrategy.canonicalize(getList(6)), canonical);
+
+        HeapConfiguration copy = canonical.clone();
+        assertEquals(0, copy.getChangedNodes(incrementalStrategy).size());
+        assertEquals(canonical, incrementalStrategy.canonicalize(copy));
+    }
+
+    @Test
+    public void testPrependedNodes() {
+
+        HeapConfiguration canonical = incrementalStrategy.canonicalize(getList(6));
+
+        HeapConfiguration incrementalInput = prependNodes(canonical.clone(), 3);
+        HeapConfiguration fullInput = prependNodes(canonical.clone(), 3);
+
+        assertEquals(fullStrategy.canonicalize(fullInput), incrementalStrategy.canonicalize(incrementalInput));
+    }
+
+    @Test
+    public void testChangesOfOtherStrategyAreIgnored() {
+
+        HeapConfiguration canonical = fullStrategy.canonicalize(getList(6));
+        assertNull(canonical.getChangedNodes(incrementalStrategy));
+        assertNull(prependNodes(canonical.clone(), 1).getChangedNodes(incrementalStrategy));
+    }
+
+    private HeapConfiguration getList(int length) {
+
+        TIntArrayList nodes = new TIntArrayList();
+        HeapConfiguration result = new InternalHeapConfiguration().builder()
+                .addNodes(TYPE, length, nodes)
+                .addVariableEdge("x", nodes.get(0))
+                .setExternal(nodes.get(length - 1))
+                .build();
+
+        for (int i = 0; i < length - 1; i++) {
+            result = result.builder().addSelector(nodes.get(i), NEXT, nodes.get(i + 1)).build();
+        }
+        return result;
+    }
+
+    private HeapConfiguration prependNodes(HeapConfiguration heap, int count) {
+
+        for (int i = 0; i < count; i++) {
+            int var = heap.variableWith("x");
+            int head = heap.targetOf(var);
+            TIntArrayList nodes = new TIntArrayList();
+            heap = heap.builder()
+                    .addNodes(TYPE, 1, nodes)
+                    .addSelector(nodes.get(0), NEXT, head)
+                    .removeVariableEdge(var)
+                    .addVariableEdge("x", nodes.get(0))
+                    .build();
+        }
+        return heap;
+    }
+}
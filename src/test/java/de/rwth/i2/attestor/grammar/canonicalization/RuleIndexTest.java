@@ -0,0 +1,99 @@
+package de.rwth.i2.attestor.grammar.canonicalization;
+
+import de.rwth.i2.attestor.MockupSceneObject;
+import de.rwth.i2.attestor.grammar.Grammar;
+import de.rwth.i2.attestor.graph.Nonterminal;
+import de.rwth.i2.attestor.graph.SelectorLabel;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.graph.heap.internal.InternalHeapConfiguration;
+import de.rwth.i2.attestor.main.scene.SceneObject;
+import de.rwth.i2.attestor.types.Type;
+import de.rwth.i2.attestor.types.Types;
+import gnu.trove.list.array.TIntArrayList;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RuleIndexTest {
+
+    private final SceneObject sceneObject = new MockupSceneObject();
+    private final Type TYPE = sceneObject.scene().getType("type");
+    private final SelectorLabel NEXT = sceneObject.scene().getSelectorLabel("next");
+    private final SelectorLabel PREV = sceneObject.scene().getSelectorLabel("prev");
+
+    private Nonterminal lhs;
+    private HeapConfiguration rhs;
+    private RuleIndex ruleIndex;
+
+    @Before
+    public void setUp() {
+
+        lhs = sceneObject.scene().createNonterminal("RuleIndexTest", 2, new boolean[]{false, false});
+        TIntArrayList nodes = new TIntArrayList();
+        rhs = new InternalHeapConfiguration().builder()
+                .addNodes(TYPE, 2, nodes)
+                .addSelector(nodes.get(0), NEXT, nodes.get(1))
+                .setExternal(nodes.get(0))
+                .setExternal(nodes.get(1))
+                .build();
+        ruleIndex = new RuleIndex(Grammar.builder().addRule(lhs, rhs).build());
+    }
+
+    @Test
+    public void testEmbeddableRule() {
+
+        TIntArrayList nodes = new TIntArrayList();
+        HeapConfiguration heap = new InternalHeapConfiguration().builder()
+                .addNodes(TYPE, 3, nodes)
+                .addSelector(nodes.get(0), NEXT, nodes.get(1))
+                .addSelector(nodes.get(1), PREV, nodes.get(0))
+                .build();
+
+        List<RuleIndex.Rule> rules = ruleIndex.rulesEmbeddableInto(heap);
+        assertEquals(1, rules.size());
+        assertSame(lhs, rules.get(0).lhs);
+        assertSame(rhs, rules.get(0).rhs);
+    }
+
+    @Test
+    public void testMissingSelector() {
+
+        TIntArrayList nodes = new TIntArrayList();
+        HeapConfiguration heap = new InternalHeapConfiguration().builder()
+                .addNodes(TYPE, 3, nodes)
+                .addSelector(nodes.get(0), PREV, nodes.get(1))
+                .build();
+
+        assertTrue(ruleIndex.rulesEmbeddableInto(heap).isEmpty());
+    }
+
+    @Test
+    public void testTooFewNodes() {
+
+        TIntArrayList nodes = new TIntArrayList();
+        HeapConfiguration heap = new InternalHeapConfiguration().builder()
+                .addNodes(TYPE, 1, nodes)
+                .addSelector(nodes.get(0), NEXT, nodes.get(0))
+                .build();
+
+        assertTrue(ruleIndex.rulesEmbeddableInto(heap).isEmpty());
+    }
+
+    @Test
+    public void testNullNodesCoverNonConstantTypes() {
+
+        TIntArrayList nodes = new TIntArrayList();
+        HeapConfiguration heap = new InternalHeapConfiguration().builder()
+                .addNodes(TYPE, 1, nodes)
+                .addNodes(Types.NULL, 1, nodes)
+                .addSelector(nodes.get(0), NEXT, nodes.get(1))
+                .build();
+
+        assertEquals(1, ruleIndex.rulesEmbeddableInto(heap).size());
+    }
+}
@@ -2,6 +2,7 @@ package de.rwth.i2.attestor.graph.digraph;
 
 import de.rwth.i2.attestor.graph.heap.Variable;
 import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.set.hash.TIntHashSet;
 import org.junit.Test;
 
 import java.util.List;
@@ -372,6 +373,38 @@ public class LabeledDigraphTest {
         assertNull(digraph.edgeLabelsFromTo(17, 23));
     }
 
+    @Test
+    public void edgeLabelIdsFromToTest() {
+
+        LabeledDigraph digraph = new LabeledDigraph(3);
+        addNodeWithVariableLabel(digraph, "x", 1, 1);
+        addNodeWithVariableLabel(digraph, "y", 1, 1);
+        addNodeWithVariableLabel(digraph, "z", 1, 1);
+        digraph.addEdge(1, "e2", 0);
+        digraph.addEdge(1, "ex", 0);
+        digraph.addEdge(1, "ex", 2);
+        digraph.addEdge(2, "e2", 0);
+
+        LabeledDigraph other = new LabeledDigraph(2);
+        addNodeWithVariableLabel(other, "x", 1, 1);
+        addNodeWithVariableLabel(other, "y", 1, 1);
+        other.addEdge(0, new String("ex"), 1);
+        other.addEdge(0, new String("e2"), 1);
+
+        int[] ids = digraph.edgeLabelIdsFromTo(1, 0);
+        assertEquals(2, ids.length);
+        assertTrue(ids[0] < ids[1]);
+        assertArrayEquals(ids, other.edgeLabelIdsFromTo(0, 1));
+        assertArrayEquals(new int[]{SymbolTable.idOf("ex")}, digraph.edgeLabelIdsFromTo(1, 2));
+        assertEquals(0, digraph.edgeLabelIdsFromTo(0, 1).length);
+
+        digraph.freeze();
+        assertArrayEquals(ids, digraph.edgeLabelIdsFromTo(1, 0));
+        assertArrayEquals(new int[]{SymbolTable.idOf("e2")}, digraph.edgeLabelIdsFromTo(2, 0));
+
+        assertNull(digraph.edgeLabelIdsFromTo(17, 23));
+    }
+
     @Test
     public void packTest() {
 
@@ -435,4 +468,113 @@ public class LabeledDigraphTest {
         assertEquals(LabeledDigraph.INVALID, digraph.externalNodeAt(3));
     }
 
+    @Test
+    public void freezeTest() {
+
+        LabeledDigraph digraph = new LabeledDigraph(7);
+        addNodeWithVariableLabel(digraph, "x", 3, 3);
+        addNodeWithVariableLabel(digraph, "y", 3, 3);
+        addNodeWithVariableLabel(digraph, "z", 3, 3);
+        digraph.addEdge(0, "e1", 1);
+        digraph.addEdge(0, "e2", 2);
+        digraph.addEdge(1, "e1", 2);
+        digraph.addEdge(2, "e1", 1);
+        digraph.setExternal(2);
+        String expected = digraph.toString();
+
+        digraph.freeze();
+        assertTrue(digraph.isFrozen());
+        assertEquals(expected, digraph.toString());
+        assertEquals(3, digraph.size());
+        assertEquals("e2", digraph.edgeLabelAt(0, 1));
+        assertEquals(2, digraph.successorAt(0, 1));
+        assertEquals(1, digraph.predecessorsOf(2).get(1));
+        assertEquals(1, digraph.posOfEdgeLabel(0, "e2"));
+        assertEquals(LabeledDigraph.INVALID, digraph.posOfEdgeLabel(1, "e2"));
+        assertEquals(0, digraph.externalPosOf(2));
+        assertEquals(2, digraph.edgeLabelsFromTo(0, 1).size() + digraph.edgeLabelsFromTo(0, 2).size());
+
+        LabeledDigraph copy = new LabeledDigraph(digraph);
+        assertTrue(copy.isFrozen());
+
+        copy.removeEdgeAt(0, 0);
+        assertFalse(copy.isFrozen());
+        assertEquals(1, copy.successorSizeOf(0));
+        assertEquals(2, digraph.successorSizeOf(0));
+        assertEquals(expected, digraph.toString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void freezeUnpackedTest() {
+
+        LabeledDigraph digraph = new LabeledDigraph(7);
+        addNodeWithVariableLabel(digraph, "x", 3, 3);
+        addNodeWithVariableLabel(digraph, "y", 3, 3);
+        digraph.removeNodeAt(0);
+        digraph.freeze();
+    }
+
+    @Test
+    public void copyOnWriteTest() {
+
+        LabeledDigraph digraph = new LabeledDigraph(7);
+        addNodeWithVariableLabel(digraph, "x", 3, 3);
+        addNodeWithVariableLabel(digraph, "y", 3, 3);
+        addNodeWithVariableLabel(digraph, "z", 3, 3);
+        digraph.addEdge(0, "e1", 1);
+        digraph.addEdge(1, "e1", 2);
+        digraph.addEdge(2, "e1", 0);
+        digraph.setExternal(0);
+        digraph.freeze();
+        String expected = digraph.toString();
+
+        LabeledDigraph copy = new LabeledDigraph(digraph);
+        copy.thaw();
+        copy.replaceEdgeLabel(1, "e1", "e2");
+        assertEquals("e2", copy.edgeLabelAt(1, 0));
+        assertEquals("e1", copy.edgeLabelAt(2, 0));
+        assertEquals(0, copy.successorAt(2, 0));
+
+        LabeledDigraph copyOfCopy = new LabeledDigraph(copy);
+        copyOfCopy.removeNodeAt(2);
+        copyOfCopy.pack();
+        copyOfCopy.freeze();
+        assertEquals(2, copyOfCopy.size());
+        assertEquals(0, copyOfCopy.successorSizeOf(1));
+        assertEquals(0, copyOfCopy.predecessorSizeOf(0));
+        assertEquals(3, copy.size());
+
+        copy.pack();
+        copy.freeze();
+        assertEquals(0, copy.posOfEdgeLabel(0, "e1"));
+        assertEquals(0, copy.posOfEdgeLabel(1, "e2"));
+        assertEquals(expected, digraph.toString());
+    }
+
+    @Test
+    public void recordModificationsTest() {
+
+        LabeledDigraph digraph = new LabeledDigraph(5);
+        for (String name : new String[]{"a", "b", "c", "d", "e"}) {
+            addNodeWithVariableLabel(digraph, name, 3, 3);
+        }
+        digraph.addEdge(0, "e1", 1);
+        digraph.addEdge(1, "e1", 2);
+        digraph.addEdge(3, "e1", 4);
+        digraph.freeze();
+
+        assertNull(digraph.stopRecordingModifications());
+
+        digraph.startRecordingModifications();
+        digraph.removeEdgeLabelAt(0, "e1");
+        digraph.setExternal(4);
+        assertEquals(new TIntHashSet(new int[]{0, 1, 4}), digraph.stopRecordingModifications());
+
+        digraph.startRecordingModifications();
+        digraph.removeNodeAt(2);
+        assertEquals(new TIntHashSet(new int[]{1, 2}), digraph.stopRecordingModifications());
+
+        digraph.replaceNodeLabel(3, new Variable("f"));
+        assertNull(digraph.stopRecordingModifications());
+    }
 }
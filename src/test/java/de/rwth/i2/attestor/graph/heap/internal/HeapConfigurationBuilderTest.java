@@ -8,6 +8,7 @@ import de.rwth.i2.attestor.graph.heap.Matching;
 import de.rwth.i2.attestor.graph.morphism.Morphism;
 import de.rwth.i2.attestor.types.Type;
 import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.set.TIntSet;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -1148,4 +1149,88 @@ public class HeapConfigurationBuilderTest {
         assertEquals(expected, result);
     }
 
+    /**
+     * Tests that translating private IDs into public IDs remains consistent when elements are
+     * removed and the underlying graph is compacted.
+     */
+    @Test
+    public void testPublicIdsAfterRemoval() {
+
+        InternalHeapConfiguration hc = new InternalHeapConfiguration();
+        Type type = new MockupType();
+        SelectorLabel sel = new MockupSelector("next");
+        TIntArrayList nodes = new TIntArrayList();
+
+        hc.builder()
+                .addNodes(type, 5, nodes)
+                .addSelector(nodes.get(3), sel, nodes.get(4))
+                .addVariableEdge("x", nodes.get(4))
+                .removeIsolatedNode(nodes.get(1))
+                .build();
+
+        for (int privateId = 0; privateId < hc.graph.size(); privateId++) {
+            assertEquals(privateId, hc.getPrivateId(hc.getPublicId(privateId)));
+        }
+
+        assertEquals(nodes.get(4), hc.selectorTargetOf(nodes.get(3), sel));
+        assertEquals(nodes.get(4), hc.targetOf(hc.variableWith("x")));
+        assertEquals(1, hc.attachedVariablesOf(nodes.get(4)).size());
+
+        int variable = hc.variableWith("x");
+        hc.builder().removeVariableEdge(variable).addNodes(type, 1, nodes).build();
+
+        assertEquals(5, hc.countNodes());
+        for (int privateId = 0; privateId < hc.graph.size(); privateId++) {
+            assertEquals(privateId, hc.getPrivateId(hc.getPublicId(privateId)));
+        }
+        assertTrue(hc.nodes().contains(nodes.get(5)));
+        assertEquals(nodes.get(4), hc.selectorTargetOf(nodes.get(3), sel));
+    }
+
+    /**
+     * Tests that copies of a heap configuration keep track of the nodes changed by builders.
+     */
+    @Test
+    public void testChangedNodes() {
+
+        Object origin = new Object();
+        Type type = new MockupType();
+        SelectorLabel sel = new MockupSelector("next");
+        TIntArrayList nodes = new TIntArrayList();
+
+        HeapConfiguration hc = new InternalHeapConfiguration().builder()
+                .addNodes(type, 4, nodes)
+                .addSelector(nodes.get(0), sel, nodes.get(1))
+                .addSelector(nodes.get(1), sel, nodes.get(2))
+                .addVariableEdge("x", nodes.get(3))
+                .build();
+        assertNull(hc.getChangedNodes(origin));
+
+        hc.trackChanges(origin);
+        assertTrue(hc.getChangedNodes(origin).isEmpty());
+        assertNull(hc.getChangedNodes(new Object()));
+
+        HeapConfiguration copy = hc.clone();
+        copy.builder()
+                .removeSelector(nodes.get(1), sel)
+                .build();
+        copy.builder()
+                .removeVariableEdge(copy.variableWith("x"))
+                .build();
+
+        TIntSet changed = copy.getChangedNodes(origin);
+        assertEquals(3, changed.size());
+        assertTrue(changed.contains(nodes.get(1)));
+        assertTrue(changed.contains(nodes.get(2)));
+        assertTrue(changed.contains(nodes.get(3)));
+        assertTrue(hc.getChangedNodes(origin).isEmpty());
+
+        HeapConfiguration copyOfCopy = copy.clone();
+        copyOfCopy.builder()
+                .removeIsolatedNode(nodes.get(3))
+                .build();
+        changed = copyOfCopy.getChangedNodes(origin);
+        assertEquals(2, changed.size());
+        assertFalse(changed.contains(nodes.get(3)));
+    }
 }
@@ -10,6 +10,13 @@ import gnu.trove.list.array.TIntArrayList;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.Assert.*;
 
 public class HeapConfigurationTest {
@@ -415,6 +422,35 @@ public class HeapConfigurationTest {
         assertEquals(nodes.get(3), hc.selectorTargetOf(nodes.get(0), sel));
     }
 
+    /**
+     * Tests that selectors are found by equality in frozen as well as in mutable heap configurations.
+     */
+    @Test
+    public void testSelectorTargetOf_FrozenAndMutable() {
+
+        HeapConfiguration hc = new InternalHeapConfiguration();
+        Type type = new MockupType();
+        TIntArrayList nodes = new TIntArrayList();
+
+        hc.builder()
+                .addNodes(type, 3, nodes)
+                .addSelector(nodes.get(0), new MockupSelector("first"), nodes.get(1))
+                .addSelector(nodes.get(0), new MockupSelector("second"), nodes.get(2))
+                .build();
+
+        assertEquals(nodes.get(2), hc.selectorTargetOf(nodes.get(0), new MockupSelector("second")));
+        assertEquals(HeapConfiguration.INVALID_ELEMENT, hc.selectorTargetOf(nodes.get(0), new MockupSelector("third")));
+        assertEquals(HeapConfiguration.INVALID_ELEMENT, hc.selectorTargetOf(nodes.get(1), new MockupSelector("first")));
+
+        hc.builder().addSelector(nodes.get(1), new MockupSelector("third"), nodes.get(2));
+        assertEquals(nodes.get(2), hc.selectorTargetOf(nodes.get(0), new MockupSelector("second")));
+        assertEquals(nodes.get(2), hc.selectorTargetOf(nodes.get(1), new MockupSelector("third")));
+        hc.builder().build();
+
+        assertEquals(nodes.get(1), hc.selectorTargetOf(nodes.get(0), new MockupSelector("first")));
+        assertEquals(nodes.get(2), hc.selectorTargetOf(nodes.get(1), new MockupSelector("third")));
+    }
+
     /**
      * Tests invalid inputs when accessing the node reached from a given node by a given selector.
      */
@@ -446,6 +482,75 @@ public class HeapConfigurationTest {
         }
     }
 
+    /**
+     * Tests indexed access to variables, nonterminal edges, and sources of selectors.
+     */
+    @Test
+    public void testIndexedLookups() {
+
+        HeapConfiguration hc = new InternalHeapConfiguration();
+        Type type = new MockupType();
+        TIntArrayList nodes = new TIntArrayList();
+        SelectorLabel next = new MockupSelector("next");
+        SelectorLabel prev = new MockupSelector("prev");
+        MockupNonterminal nt = new MockupNonterminal("nt", 2);
+        MockupNonterminal other = new MockupNonterminal("other", 1);
+
+        hc.builder()
+                .addNodes(type, 4, nodes)
+                .addSelector(nodes.get(0), next, nodes.get(1))
+                .addSelector(nodes.get(2), next, nodes.get(3))
+                .addSelector(nodes.get(3), prev, nodes.get(2))
+                .addVariableEdge("x", nodes.get(0))
+                .addVariableEdge("y", nodes.get(3))
+                .addNonterminalEdge(nt, new TIntArrayList(new int[]{nodes.get(1), nodes.get(2)}))
+                .addNonterminalEdge(other, new TIntArrayList(new int[]{nodes.get(0)}))
+                .addNonterminalEdge(nt, new TIntArrayList(new int[]{nodes.get(3), nodes.get(0)}))
+                .build();
+
+        int x = hc.variableWith("x");
+        assertEquals(nodes.get(0), hc.targetOf(x));
+        assertEquals(nodes.get(3), hc.variableTargetOf("y"));
+        assertEquals(HeapConfiguration.INVALID_ELEMENT, hc.variableWith("z"));
+
+        TIntArrayList ntEdges = hc.nonterminalEdgesWith(nt);
+        assertEquals(2, ntEdges.size());
+        for (int i = 0; i < ntEdges.size(); i++) {
+            assertSame(nt, hc.labelOf(ntEdges.get(i)));
+        }
+        assertEquals(1, hc.nonterminalEdgesWith(other).size());
+        assertTrue(hc.nonterminalEdgesWith(new MockupNonterminal("missing", 1)).isEmpty());
+
+        assertEquals(new TIntArrayList(new int[]{nodes.get(0), nodes.get(2)}), hc.nodesWithSelector(next));
+        assertEquals(new TIntArrayList(new int[]{nodes.get(3)}), hc.nodesWithSelector(prev));
+        assertTrue(hc.nodesWithSelector(new MockupSelector("missing")).isEmpty());
+
+        HeapConfiguration cloned = hc.clone();
+
+        // changes have to be visible while the builder is open and after it has been closed
+        HeapConfigurationBuilder builder = hc.builder()
+                .removeVariableEdge(x)
+                .removeSelector(nodes.get(2), next)
+                .removeNonterminalEdge(ntEdges.get(0))
+                .addVariableEdge("z", nodes.get(1));
+
+        assertEquals(HeapConfiguration.INVALID_ELEMENT, hc.variableWith("x"));
+        assertEquals(nodes.get(1), hc.variableTargetOf("z"));
+        assertEquals(new TIntArrayList(new int[]{nodes.get(0)}), hc.nodesWithSelector(next));
+        assertEquals(new TIntArrayList(new int[]{ntEdges.get(1)}), hc.nonterminalEdgesWith(nt));
+
+        builder.build();
+
+        assertEquals(HeapConfiguration.INVALID_ELEMENT, hc.variableWith("x"));
+        assertEquals(nodes.get(1), hc.variableTargetOf("z"));
+        assertEquals(new TIntArrayList(new int[]{nodes.get(0)}), hc.nodesWithSelector(next));
+        assertEquals(new TIntArrayList(new int[]{ntEdges.get(1)}), hc.nonterminalEdgesWith(nt));
+
+        assertEquals(x, cloned.variableWith("x"));
+        assertEquals(HeapConfiguration.INVALID_ELEMENT, cloned.variableWith("z"));
+        assertEquals(ntEdges, cloned.nonterminalEdgesWith(nt));
+    }
+
     /**
      * Tests creation of deep copies of HeapConfigurations.
      */
@@ -487,4 +592,212 @@ public class HeapConfigurationTest {
         assertEquals("Inputs not considered equal", testInput, testInput_permuted);
         assertEquals("Hash code not identical", testInput.hashCode(), testInput_permuted.hashCode());
     }
+
+    @Test
+    public void testHashIsIsomorphismInvariant() {
+
+        Type type = sceneObject.scene().getType("type");
+        SelectorLabel sel = sceneObject.scene().getSelectorLabel("next");
+
+        HeapConfiguration list = listWithVariable(type, sel, 0);
+
+        TIntArrayList nodes = new TIntArrayList();
+        HeapConfiguration reversed = new InternalHeapConfiguration().builder()
+                .addNodes(type, 3, nodes)
+                .addVariableEdge("x", nodes.get(2))
+                .addSelector(nodes.get(1), sel, nodes.get(0))
+                .addSelector(nodes.get(2), sel, nodes.get(1))
+                .build();
+
+        assertEquals(list, reversed);
+        assertEquals(list.hashCode(), reversed.hashCode());
+        assertEquals(list.hashCode(), list.clone().hashCode());
+    }
+
+    @Test
+    public void testHashDistinguishesVariablePositions() {
+
+        Type type = sceneObject.scene().getType("type");
+        SelectorLabel sel = sceneObject.scene().getSelectorLabel("next");
+
+        HeapConfiguration first = listWithVariable(type, sel, 0);
+        HeapConfiguration second = listWithVariable(type, sel, 1);
+
+        assertNotEquals(first, second);
+        assertNotEquals(first.hashCode(), second.hashCode());
+    }
+
+    @Test
+    public void testHashOfExternalNodes() {
+
+        Type type = sceneObject.scene().getType("type");
+        SelectorLabel sel = sceneObject.scene().getSelectorLabel("next");
+
+        HeapConfiguration first = listWithExternals(type, sel, true);
+        HeapConfiguration second = listWithExternals(type, sel, false);
+
+        assertNotEquals(first, second);
+        assertNotEquals(first.hashCode(), second.hashCode());
+        assertEquals(first.externalOrderInsensitiveHashCode(), second.externalOrderInsensitiveHashCode());
+    }
+
+    @Test
+    public void testHashAfterModification() {
+
+        Type type = sceneObject.scene().getType("type");
+        SelectorLabel sel = sceneObject.scene().getSelectorLabel("next");
+
+        HeapConfiguration hc = listWithVariable(type, sel, 0);
+        int hash = hc.hashCode();
+
+        hc.builder().addVariableEdge("y", hc.nodes().get(1)).build();
+        assertNotEquals(hash, hc.hashCode());
+        assertEquals(hc.clone().hashCode(), hc.hashCode());
+    }
+
+    @Test
+    public void testCertificateIsIsomorphismInvariant() {
+
+        Type type = sceneObject.scene().getType("type");
+        SelectorLabel sel = sceneObject.scene().getSelectorLabel("next");
+
+        TIntArrayList nodes = new TIntArrayList();
+        InternalHeapConfiguration reversed = (InternalHeapConfiguration) new InternalHeapConfiguration().builder()
+                .addNodes(type, 3, nodes)
+                .addVariableEdge("x", nodes.get(2))
+                .addSelector(nodes.get(1), sel, nodes.get(0))
+                .addSelector(nodes.get(2), sel, nodes.get(1))
+                .build();
+        InternalHeapConfiguration list = (InternalHeapConfiguration) listWithVariable(type, sel, 0);
+
+        assertNotNull(list.getCertificate());
+        assertEquals(list.getCertificate(), reversed.getCertificate());
+        assertEquals(list.getCertificate().hashCode(), reversed.getCertificate().hashCode());
+
+        InternalHeapConfiguration testInput = (InternalHeapConfiguration) hcFactory.getInput_testHash();
+        InternalHeapConfiguration testInputPermuted = (InternalHeapConfiguration) hcFactory.getInput_testHash_Permuted();
+        assertNotNull(testInput.getCertificate());
+        assertEquals(testInput.getCertificate(), testInputPermuted.getCertificate());
+    }
+
+    @Test
+    public void testCertificateDistinguishesNonIsomorphicHeaps() {
+
+        Type type = sceneObject.scene().getType("type");
+        SelectorLabel sel = sceneObject.scene().getSelectorLabel("next");
+
+        InternalHeapConfiguration first = (InternalHeapConfiguration) listWithVariable(type, sel, 0);
+        InternalHeapConfiguration second = (InternalHeapConfiguration) listWithVariable(type, sel, 1);
+        assertNotEquals(first.getCertificate(), second.getCertificate());
+
+        InternalHeapConfiguration headFirst = (InternalHeapConfiguration) listWithExternals(type, sel, true);
+        InternalHeapConfiguration headLast = (InternalHeapConfiguration) listWithExternals(type, sel, false);
+        assertNotNull(headFirst.getCertificate());
+        assertNotEquals(headFirst.getCertificate(), headLast.getCertificate());
+    }
+
+    @Test
+    public void testCertificateOfSymmetricHeaps() {
+
+        Type type = sceneObject.scene().getType("type");
+        SelectorLabel sel = sceneObject.scene().getSelectorLabel("next");
+
+        TIntArrayList nodes = new TIntArrayList();
+        InternalHeapConfiguration cycle = (InternalHeapConfiguration) new InternalHeapConfiguration().builder()
+                .addNodes(type, 4, nodes)
+                .addSelector(nodes.get(0), sel, nodes.get(1))
+                .addSelector(nodes.get(1), sel, nodes.get(2))
+                .addSelector(nodes.get(2), sel, nodes.get(3))
+                .addSelector(nodes.get(3), sel, nodes.get(0))
+                .build();
+
+        nodes.clear();
+        InternalHeapConfiguration otherCycle = (InternalHeapConfiguration) new InternalHeapConfiguration().builder()
+                .addNodes(type, 4, nodes)
+                .addSelector(nodes.get(2), sel, nodes.get(0))
+                .addSelector(nodes.get(0), sel, nodes.get(3))
+                .addSelector(nodes.get(3), sel, nodes.get(1))
+                .addSelector(nodes.get(1), sel, nodes.get(2))
+                .build();
+
+        assertNotNull(cycle.getCertificate());
+        assertEquals(cycle.getCertificate(), otherCycle.getCertificate());
+
+        InternalHeapConfiguration isolatedNodes = (InternalHeapConfiguration) new InternalHeapConfiguration().builder()
+                .addNodes(type, 10, new TIntArrayList())
+                .build();
+        assertNull("too many candidates", isolatedNodes.getCertificate());
+
+        cycle.builder();
+        assertNull("mutable heap", cycle.getCertificate());
+    }
+
+    @Test
+    public void testCertificateComputedConcurrently() throws Exception {
+
+        Type type = sceneObject.scene().getType("type");
+        SelectorLabel sel = sceneObject.scene().getSelectorLabel("next");
+
+        InternalHeapConfiguration list = (InternalHeapConfiguration) listWithVariable(type, sel, 0);
+        InternalHeapConfiguration isolatedNodes = (InternalHeapConfiguration) new InternalHeapConfiguration().builder()
+                .addNodes(type, 10, new TIntArrayList())
+                .build();
+        HeapCertificate expected = ((InternalHeapConfiguration) list.clone()).getCertificate();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<HeapCertificate>> listCertificates = new ArrayList<>();
+            List<Future<HeapCertificate>> isolatedCertificates = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                listCertificates.add(executor.submit(() -> {
+                    start.await();
+                    return list.getCertificate();
+                }));
+                isolatedCertificates.add(executor.submit(() -> {
+                    start.await();
+                    return isolatedNodes.getCertificate();
+                }));
+            }
+            start.countDown();
+
+            for (Future<HeapCertificate> certificate : listCertificates) {
+                assertEquals(expected, certificate.get());
+            }
+            for (Future<HeapCertificate> certificate : isolatedCertificates) {
+                assertNull(certificate.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(expected, list.getCertificate());
+        assertNull(isolatedNodes.getCertificate());
+    }
+
+    private HeapConfiguration listWithVariable(Type type, SelectorLabel sel, int variablePosition) {
+
+        TIntArrayList nodes = new TIntArrayList();
+        return new InternalHeapConfiguration().builder()
+                .addNodes(type, 3, nodes)
+                .addSelector(nodes.get(0), sel, nodes.get(1))
+                .addSelector(nodes.get(1), sel, nodes.get(2))
+                .addVariableEdge("x", nodes.get(variablePosition))
+                .build();
+    }
+
+    private HeapConfiguration listWithExternals(Type type, SelectorLabel sel, boolean headFirst) {
+
+        TIntArrayList nodes = new TIntArrayList();
+        HeapConfigurationBuilder builder = new InternalHeapConfiguration().builder()
+                .addNodes(type, 2, nodes)
+                .addSelector(nodes.get(0), sel, nodes.get(1));
+
+        if (headFirst) {
+            builder.setExternal(nodes.get(0)).setExternal(nodes.get(1));
+        } else {
+            builder.setExternal(nodes.get(1)).setExternal(nodes.get(0));
+        }
+        return builder.build();
+    }
 }
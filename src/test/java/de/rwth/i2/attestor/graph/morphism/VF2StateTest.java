@@ -0,0 +1,153 @@
+package de.rwth.i2.attestor.graph.morphism;
+
+import de.rwth.i2.attestor.MockupSceneObject;
+import de.rwth.i2.attestor.graph.SelectorLabel;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.graph.heap.internal.InternalHeapConfiguration;
+import de.rwth.i2.attestor.graph.morphism.checkers.VF2EmbeddingChecker;
+import de.rwth.i2.attestor.graph.morphism.feasibility.CompatibleNodeTypes;
+import de.rwth.i2.attestor.main.scene.SceneObject;
+import de.rwth.i2.attestor.types.Type;
+import gnu.trove.list.array.TIntArrayList;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class VF2StateTest {
+
+    private Type list;
+    private Type tree;
+    private SelectorLabel next;
+
+    @Before
+    public void setUp() {
+
+        SceneObject sceneObject = new MockupSceneObject();
+        list = sceneObject.scene().getType("list");
+        tree = sceneObject.scene().getType("tree");
+        next = sceneObject.scene().getSelectorLabel("next");
+    }
+
+    @Test
+    public void testCandidatesHaveCompatibleLabels() {
+
+        Graph pattern = (Graph) chain(list, 2);
+        Graph target = (Graph) new InternalHeapConfiguration().builder()
+                .addNodes(tree, 3, new TIntArrayList())
+                .addNodes(list, 3, new TIntArrayList())
+                .build();
+
+        VF2State state = new VF2State(pattern, target, new CompatibleNodeTypes());
+
+        int candidates = 0;
+        while (state.nextCandidate()) {
+            assertSame(list, pattern.getNodeLabel(state.getPatternCandidate()));
+            assertSame(list, target.getNodeLabel(state.getTargetCandidate()));
+            ++candidates;
+        }
+        assertEquals("only target nodes of the first pattern node's type are candidates", 3, candidates);
+
+        state = new VF2State(pattern, target);
+        candidates = 0;
+        while (state.nextCandidate()) {
+            ++candidates;
+        }
+        assertEquals("without label restrictions all target nodes are candidates", 6, candidates);
+    }
+
+    @Test
+    public void testRareLabelsFirst() {
+
+        TIntArrayList nodes = new TIntArrayList();
+        Graph pattern = (Graph) new InternalHeapConfiguration().builder()
+                .addNodes(list, 1, nodes)
+                .addNodes(tree, 1, nodes)
+                .addSelector(nodes.get(0), next, nodes.get(1))
+                .build();
+
+        HeapConfiguration target = chain(list, 5);
+
+        VF2State state = new VF2State(pattern, (Graph) target, new CompatibleNodeTypes());
+        assertFalse("the tree node has no candidates and is considered first", state.nextCandidate());
+    }
+
+    @Test
+    public void testEmbeddingWithManyIncompatibleNodes() {
+
+        HeapConfiguration pattern = chain(list, 3);
+
+        TIntArrayList nodes = new TIntArrayList();
+        HeapConfiguration target = new InternalHeapConfiguration().builder()
+                .addNodes(tree, 20, nodes)
+                .addNodes(list, 3, nodes)
+                .addSelector(nodes.get(20), next, nodes.get(21))
+                .addSelector(nodes.get(21), next, nodes.get(22))
+                .build();
+
+        VF2EmbeddingChecker checker = new VF2EmbeddingChecker();
+        checker.run((Graph) pattern, (Graph) target);
+        assertTrue(checker.hasMorphism());
+
+        Morphism morphism = checker.getMorphism();
+        for (int p = 0; p < ((Graph) pattern).size(); p++) {
+            assertSame(list, ((Graph) target).getNodeLabel(morphism.match(p)));
+        }
+    }
+
+    @Test
+    public void testResetForGraphsOfDifferentSize() {
+
+        VF2State state = new VF2State();
+
+        state.reset((Graph) chain(list, 2), (Graph) chain(list, 6), null);
+        assertTrue(state.nextCandidate());
+        state.addCandidate(state.getPatternCandidate(), state.getTargetCandidate());
+        assertEquals(1, state.getPattern().getMatchingSize());
+
+        Graph pattern = (Graph) chain(list, 1);
+        Graph target = (Graph) new InternalHeapConfiguration().builder()
+                .addNodes(tree, 2, new TIntArrayList())
+                .addNodes(list, 1, new TIntArrayList())
+                .build();
+        state.reset(pattern, target, new CompatibleNodeTypes());
+        assertEquals(0, state.getPattern().getMatchingSize());
+        assertEquals(0, state.getTarget().getMatchingSize());
+        assertTrue(state.nextCandidate());
+        assertEquals(2, state.getTargetCandidate());
+        assertFalse(state.nextCandidate());
+    }
+
+    @Test
+    public void testRepeatedEmbeddingsReuseState() {
+
+        VF2EmbeddingChecker checker = new VF2EmbeddingChecker();
+        for (int length = 6; length > 0; length--) {
+            HeapConfiguration pattern = chain(list, length);
+            HeapConfiguration target = chain(list, length).clone();
+            target.builder().addNodes(tree, 2 * length, new TIntArrayList()).build();
+
+            checker.run((Graph) pattern, (Graph) target);
+            assertTrue(checker.hasMorphism());
+
+            Morphism morphism = checker.getMorphism();
+            for (int p = 0; p < length; p++) {
+                assertSame(list, ((Graph) target).getNodeLabel(morphism.match(p)));
+            }
+
+            checker.run((Graph) target, (Graph) pattern);
+            assertFalse(checker.hasMorphism());
+        }
+    }
+
+    private HeapConfiguration chain(Type type, int length) {
+
+        TIntArrayList nodes = new TIntArrayList();
+        HeapConfiguration result = new InternalHeapConfiguration();
+        result.builder().addNodes(type, length, nodes);
+        for (int i = 0; i + 1 < length; i++) {
+            result.builder().addSelector(nodes.get(i), next, nodes.get(i + 1));
+        }
+        return result.builder().build();
+    }
+}
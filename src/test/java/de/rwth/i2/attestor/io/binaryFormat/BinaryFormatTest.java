@@ -0,0 +1,280 @@
+package de.rwth.i2.attestor.io.binaryFormat;
+
+import de.rwth.i2.attestor.MockupSceneObject;
+import de.rwth.i2.attestor.graph.SelectorLabel;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.graph.heap.internal.ExampleHcImplFactory;
+import de.rwth.i2.attestor.graph.heap.internal.InternalHeapConfiguration;
+import de.rwth.i2.attestor.main.scene.SceneObject;
+import de.rwth.i2.attestor.phases.symbolicExecution.procedureImpl.InternalContract;
+import de.rwth.i2.attestor.phases.symbolicExecution.stateSpaceGenerationImpl.InternalStateSpace;
+import de.rwth.i2.attestor.procedures.Contract;
+import de.rwth.i2.attestor.programState.defaultState.DefaultProgramState;
+import de.rwth.i2.attestor.stateSpaceGeneration.ProgramState;
+import de.rwth.i2.attestor.stateSpaceGeneration.StateSpace;
+import de.rwth.i2.attestor.types.Type;
+import de.rwth.i2.attestor.util.Pair;
+import gnu.trove.list.array.TIntArrayList;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BinaryFormatTest {
+
+    private SceneObject sceneObject;
+    private ExampleHcImplFactory hcFactory;
+
+    @Before
+    public void setUp() {
+
+        sceneObject = new MockupSceneObject();
+        hcFactory = new ExampleHcImplFactory(sceneObject);
+    }
+
+    @Test
+    public void testHeapConfigurations() throws IOException {
+
+        List<HeapConfiguration> heaps = new ArrayList<>();
+        heaps.add(hcFactory.getTLLRule());
+        heaps.add(hcFactory.getEmptyHc());
+        heaps.add(hcFactory.getListAndConstants());
+        heaps.add(hcFactory.getAbstractCyclicList());
+
+        for (boolean compress : new boolean[]{false, true}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (BinaryWriter writer = new BinaryWriter(out, compress)) {
+                for (HeapConfiguration heap : heaps) {
+                    writer.writeHeapConfiguration(heap);
+                }
+            }
+
+            try (BinaryReader reader = read(out)) {
+                for (HeapConfiguration heap : heaps) {
+                    assertEquals(heap, reader.readHeapConfiguration());
+                }
+                assertNull(reader.readHeapConfiguration());
+            }
+        }
+    }
+
+    @Test
+    public void testHeapConfiguration_SelectorsWithSameTarget() throws IOException {
+
+        Type type = sceneObject.scene().getType("BT");
+        SelectorLabel left = sceneObject.scene().getSelectorLabel("left");
+        SelectorLabel right = sceneObject.scene().getSelectorLabel("right");
+        SelectorLabel next = sceneObject.scene().getSelectorLabel("next");
+
+        TIntArrayList nodes = new TIntArrayList();
+        HeapConfiguration heap = new InternalHeapConfiguration().builder()
+                .addNodes(type, 4, nodes)
+                .addVariableEdge("x", nodes.get(0))
+                .addSelector(nodes.get(0), next, nodes.get(1))
+                .addSelector(nodes.get(0), left, nodes.get(2))
+                .addSelector(nodes.get(0), right, nodes.get(2))
+                .addSelector(nodes.get(1), left, nodes.get(3))
+                .addSelector(nodes.get(1), right, nodes.get(3))
+                .addSelector(nodes.get(1), next, nodes.get(2))
+                .addSelector(nodes.get(3), left, nodes.get(3))
+                .addSelector(nodes.get(3), right, nodes.get(3))
+                .build();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BinaryWriter writer = new BinaryWriter(out, false)) {
+            writer.writeHeapConfiguration(heap);
+        }
+
+        try (BinaryReader reader = read(out)) {
+            assertEquals(heap, reader.readHeapConfiguration());
+        }
+    }
+
+    @Test
+    public void testHeapConfiguration_OrderOfExternalNodes() throws IOException {
+
+        HeapConfiguration heap = hcFactory.getTLLRule();
+        TIntArrayList externals = heap.externalNodes();
+        HeapConfiguration permuted = heap.clone().builder()
+                .unsetExternal(externals.get(0))
+                .setExternal(externals.get(0))
+                .build();
+        assertNotEquals(heap, permuted);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BinaryWriter writer = new BinaryWriter(out, false)) {
+            writer.writeHeapConfiguration(permuted);
+        }
+
+        try (BinaryReader reader = read(out)) {
+            HeapConfiguration result = reader.readHeapConfiguration();
+            assertEquals(permuted, result);
+            assertNotEquals(heap, result);
+        }
+    }
+
+    @Test
+    public void testContracts() throws IOException {
+
+        List<HeapConfiguration> postconditions = new ArrayList<>();
+        postconditions.add(hcFactory.getTLLRule());
+        postconditions.add(hcFactory.getEmptyHc());
+        List<Contract> contracts = new ArrayList<>();
+        contracts.add(new InternalContract(hcFactory.getTLLRule(), postconditions));
+        contracts.add(new InternalContract(hcFactory.getEmptyHc(), Collections.emptyList()));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BinaryWriter writer = new BinaryWriter(out, true)) {
+            writer.writeContracts("void method()", contracts);
+        }
+
+        try (BinaryReader reader = read(out)) {
+            Pair<String, List<Contract>> result = reader.readContracts();
+            assertEquals("void method()", result.first());
+            assertEquals(2, result.second().size());
+            assertEquals(hcFactory.getTLLRule(), result.second().get(0).getPrecondition());
+            assertEquals(postconditions, new ArrayList<>(result.second().get(0).getPostconditions()));
+            assertEquals(hcFactory.getEmptyHc(), result.second().get(1).getPrecondition());
+            assertTrue(result.second().get(1).getPostconditions().isEmpty());
+            assertNull(reader.readContracts());
+        }
+    }
+
+    @Test
+    public void testStateSpace() throws IOException {
+
+        StateSpace stateSpace = new InternalStateSpace(4);
+        ProgramState initial = state(hcFactory.getList(), 0);
+        ProgramState materialized = state(hcFactory.getListAndConstants(), 0);
+        ProgramState last = state(hcFactory.getEmptyHc(), 1);
+        stateSpace.addInitialState(initial);
+        stateSpace.addState(materialized);
+        stateSpace.addState(last);
+        stateSpace.addMaterializationTransition(initial, materialized);
+        stateSpace.addControlFlowTransition(materialized, last);
+        stateSpace.setFinal(last);
+        stateSpace.addArtificialInfPathsTransition(last);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BinaryWriter writer = new BinaryWriter(out, true)) {
+            writer.writeStateSpace(stateSpace);
+        }
+
+        StateSpace result;
+        try (BinaryReader reader = read(out)) {
+            result = reader.readStateSpace();
+            assertNull(reader.readStateSpace());
+        }
+
+        assertEquals(3, result.size());
+        assertEquals(stateSpace.getInitialStateIds(), result.getInitialStateIds());
+        assertEquals(stateSpace.getFinalStateIds(), result.getFinalStateIds());
+        for (ProgramState state : stateSpace.getStates()) {
+            int id = state.getStateSpaceId();
+            ProgramState other = result.getState(id);
+            assertEquals(state.getHeap(), other.getHeap());
+            assertEquals(state.getProgramCounter(), other.getProgramCounter());
+            assertEquals(state.getAPs(), other.getAPs());
+            assertEquals(stateSpace.getControlFlowSuccessorsIdsOf(id), result.getControlFlowSuccessorsIdsOf(id));
+            assertEquals(stateSpace.getMaterializationSuccessorsIdsOf(id),
+                    result.getMaterializationSuccessorsIdsOf(id));
+            assertEquals(stateSpace.getArtificialInfPathsSuccessorsIdsOf(id),
+                    result.getArtificialInfPathsSuccessorsIdsOf(id));
+        }
+    }
+
+    @Test
+    public void testCompressionReducesSize() throws IOException {
+
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (BinaryWriter plainWriter = new BinaryWriter(plain, false);
+             BinaryWriter compressedWriter = new BinaryWriter(compressed, true)) {
+            for (int i = 0; i < 100; i++) {
+                plainWriter.writeHeapConfiguration(hcFactory.getTLLRule());
+                compressedWriter.writeHeapConfiguration(hcFactory.getTLLRule());
+            }
+        }
+
+        assertTrue(compressed.size() < plain.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnexpectedRecord() throws IOException {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BinaryWriter writer = new BinaryWriter(out, false)) {
+            writer.writeHeapConfiguration(hcFactory.getEmptyHc());
+        }
+
+        try (BinaryReader reader = read(out)) {
+            reader.readStateSpace();
+        }
+    }
+
+    @Test
+    public void testCorruptedContracts() throws IOException {
+
+        List<Contract> contracts = new ArrayList<>();
+        contracts.add(new InternalContract(hcFactory.getTLLRule(),
+                Collections.singletonList(hcFactory.getListAndConstants())));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BinaryWriter writer = new BinaryWriter(out, false)) {
+            writer.writeContracts("void method()", contracts);
+        }
+        byte[] bytes = out.toByteArray();
+        int headerLength = BinaryFormat.MAGIC.length + 2;
+
+        for (int length = headerLength; length < bytes.length - 1; length++) {
+            assertReadFails("truncated after " + length + " bytes", Arrays.copyOf(bytes, length));
+        }
+
+        for (int position = headerLength; position < bytes.length; position++) {
+            for (byte value : new byte[]{0x00, 0x01, 0x02, 0x03, 0x7F, (byte) 0xFF}) {
+                byte[] corrupted = bytes.clone();
+                corrupted[position] = value;
+                try (BinaryReader reader = new BinaryReader(sceneObject, new ByteArrayInputStream(corrupted))) {
+                    reader.readContracts();
+                } catch (IOException ignored) {
+                    // corruptions that do not result in a valid encoding have to be reported as IOException
+                }
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidHeader() throws IOException {
+
+        new BinaryReader(sceneObject, new ByteArrayInputStream("{\"nodes\": []}".getBytes()));
+    }
+
+    private void assertReadFails(String message, byte[] bytes) {
+
+        try (BinaryReader reader = new BinaryReader(sceneObject, new ByteArrayInputStream(bytes))) {
+            reader.readContracts();
+            fail(message);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private BinaryReader read(ByteArrayOutputStream out) throws IOException {
+
+        return new BinaryReader(sceneObject, new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private ProgramState state(HeapConfiguration heap, int programCounter) {
+
+        ProgramState state = new DefaultProgramState(heap);
+        state.setProgramCounter(programCounter);
+        return state;
+    }
+}
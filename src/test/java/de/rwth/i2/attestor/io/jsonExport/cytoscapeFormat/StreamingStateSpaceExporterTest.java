@@ -0,0 +1,109 @@
+package de.rwth.i2.attestor.io.jsonExport.cytoscapeFormat;
+
+import de.rwth.i2.attestor.MockupSceneObject;
+import de.rwth.i2.attestor.graph.heap.internal.ExampleHcImplFactory;
+import de.rwth.i2.attestor.main.scene.SceneObject;
+import de.rwth.i2.attestor.phases.symbolicExecution.stateSpaceGenerationImpl.InternalStateSpace;
+import de.rwth.i2.attestor.phases.symbolicExecution.stateSpaceGenerationImpl.ProgramImpl;
+import de.rwth.i2.attestor.programState.defaultState.DefaultProgramState;
+import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.statements.ReturnVoidStmt;
+import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.statements.Skip;
+import de.rwth.i2.attestor.stateSpaceGeneration.ProgramState;
+import de.rwth.i2.attestor.stateSpaceGeneration.StateSpace;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class StreamingStateSpaceExporterTest {
+
+    private final SceneObject sceneObject = new MockupSceneObject();
+    private final ExampleHcImplFactory hcFactory = new ExampleHcImplFactory(sceneObject);
+
+    private Path dataFile;
+    private Path indexFile;
+
+    @Before
+    public void setUp() throws IOException {
+
+        dataFile = Files.createTempFile("statespace", ".ndjson");
+        indexFile = Files.createTempFile("statespace", ".idx");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+
+        Files.delete(dataFile);
+        Files.delete(indexFile);
+    }
+
+    @Test
+    public void testExport() throws IOException {
+
+        ProgramImpl program = new ProgramImpl(new ArrayList<>(Arrays.asList(
+                new Skip(sceneObject, 1),
+                new ReturnVoidStmt(sceneObject)
+        )));
+
+        StateSpace stateSpace = new InternalStateSpace(3);
+        ProgramState initial = state(0);
+        ProgramState materialized = state(0);
+        ProgramState last = state(1);
+        stateSpace.addInitialState(initial);
+        stateSpace.addState(materialized);
+        stateSpace.addState(last);
+        stateSpace.addMaterializationTransition(initial, materialized);
+        stateSpace.addControlFlowTransition(materialized, last);
+        stateSpace.setFinal(last);
+
+        int exportedStates = new StreamingStateSpaceExporter(dataFile, indexFile).export(stateSpace, program);
+        assertEquals(3, exportedStates);
+
+        byte[] data = Files.readAllBytes(dataFile);
+        String[] lines = new String(data, StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+
+        ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+        assertEquals(3 * (Integer.BYTES + Long.BYTES), index.remaining());
+        while (index.hasRemaining()) {
+            int id = index.getInt();
+            int offset = (int) index.getLong();
+            String line = new String(data, offset, data.length - offset, StandardCharsets.UTF_8);
+            assertTrue(line.startsWith("{\"id\":" + id + ","));
+        }
+
+        String initialLine = lineOf(lines, initial);
+        assertTrue(initialLine.contains("\"type\":\"initialState\""));
+        assertTrue(initialLine.contains("\"materializationSuccessors\":[" + materialized.getStateSpaceId() + "]"));
+        String materializedLine = lineOf(lines, materialized);
+        assertTrue(materializedLine.contains("\"successors\":[" + last.getStateSpaceId() + "]"));
+        assertTrue(lineOf(lines, last).contains("\"type\":\"finalState\""));
+    }
+
+    private ProgramState state(int programCounter) {
+
+        ProgramState state = new DefaultProgramState(hcFactory.getList());
+        state.setProgramCounter(programCounter);
+        return state;
+    }
+
+    private static String lineOf(String[] lines, ProgramState state) {
+
+        for (String line : lines) {
+            if (line.startsWith("{\"id\":" + state.getStateSpaceId() + ",")) {
+                return line;
+            }
+        }
+        fail("No line for state " + state.getStateSpaceId());
+        return null;
+    }
+}
@@ -9,7 +9,9 @@ import de.rwth.i2.attestor.stateSpaceGeneration.ProgramState;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -515,4 +517,209 @@ public class ProofStructureTest extends InternalStateSpace {
         // Expected output
         assertFalse(proofStruct.isSuccessful());
     }
+
+    @Test
+    public void buildProofStructureOnTheFlyTest() {
+
+        LTLFormula formula = null;
+        try {
+            formula = new LTLFormula("X {tree}");
+        } catch (Exception e) {
+            fail("Formula should parse correctly. No Parser and Lexer exception expected!");
+        }
+
+        ProgramState initialState = sceneObject.scene().createProgramState(hc);
+        initialState.setProgramCounter(0);
+        ProgramState state1 = sceneObject.scene().createProgramState(hc);
+        state1.addAP("{ dll }");
+        state1.setProgramCounter(1);
+
+        this.addStateIfAbsent(initialState);
+        this.addInitialState(initialState);
+
+        ProofStructure proofStruct = new ProofStructure();
+        proofStruct.buildOnTheFly(this, formula);
+        assertTrue(proofStruct.isSuccessful());
+
+        this.addStateIfAbsent(state1);
+        this.addControlFlowTransition(initialState, state1);
+        proofStruct.stateExplored(initialState.getStateSpaceId());
+
+        // the violation is only detected once the atomic propositions of state1 are known
+        assertTrue(proofStruct.isSuccessful());
+
+        this.addArtificialInfPathsTransition(state1);
+        proofStruct.stateExplored(state1.getStateSpaceId());
+
+        assertFalse(proofStruct.isSuccessful());
+        FailureTrace failureTrace = proofStruct.getFailureTrace();
+        assertEquals(2, failureTrace.getStateIdTrace().size());
+        assertEquals(initialState, failureTrace.getInitialState());
+        assertEquals(state1, failureTrace.getFinalState());
+    }
+
+    @Test
+    public void failureTraceTestFailingLeaf() {
+
+        LTLFormula formula = null;
+        try {
+            formula = new LTLFormula("({dll} R {sll})");
+        } catch (Exception e) {
+            fail("Formula should parse correctly. No Parser and Lexer exception expected!");
+        }
+
+        // the branch with larger state ids is explored first, but the other branch is shorter
+        ProgramState initialState = addState(0, "{ sll }");
+        ProgramState shortBranch = addState(1, "{ sll }");
+        ProgramState longBranch1 = addState(2, "{ sll }");
+        ProgramState longBranch2 = addState(3, "{ sll }");
+        ProgramState failingState = addState(4, "{ tree }");
+
+        this.addInitialState(initialState);
+        this.addControlFlowTransition(initialState, shortBranch);
+        this.addControlFlowTransition(initialState, longBranch1);
+        this.addControlFlowTransition(longBranch1, longBranch2);
+        this.addControlFlowTransition(longBranch2, failingState);
+        this.addControlFlowTransition(shortBranch, failingState);
+        this.addArtificialInfPathsTransition(failingState);
+
+        ProofStructure proofStruct = new ProofStructure();
+        proofStruct.setBuildFullStructure();
+        proofStruct.build(this, formula);
+
+        assertFalse(proofStruct.isSuccessful());
+        assertEquals(idsOf(initialState, shortBranch, failingState),
+                proofStruct.getFailureTrace().getStateIdTrace());
+    }
+
+    @Test
+    public void failureTraceTestFailingCycle() {
+
+        LTLFormula formula = null;
+        try {
+            formula = new LTLFormula("({dll} U {tree})");
+        } catch (Exception e) {
+            fail("Formula should parse correctly. No Parser and Lexer exception expected!");
+        }
+
+        ProgramState initialState = addState(0, "{ dll }");
+        ProgramState shortBranch = addState(1, "{ dll }");
+        ProgramState longBranch1 = addState(2, "{ dll }");
+        ProgramState longBranch2 = addState(3, "{ dll }");
+        ProgramState loopState = addState(4, "{ dll }");
+
+        this.addInitialState(initialState);
+        this.addControlFlowTransition(initialState, shortBranch);
+        this.addControlFlowTransition(initialState, longBranch1);
+        this.addControlFlowTransition(longBranch1, longBranch2);
+        this.addControlFlowTransition(longBranch2, loopState);
+        this.addControlFlowTransition(shortBranch, loopState);
+        this.addControlFlowTransition(loopState, loopState);
+
+        ProofStructure proofStruct = new ProofStructure();
+        proofStruct.setBuildFullStructure();
+        proofStruct.build(this, formula);
+
+        assertFalse(proofStruct.isSuccessful());
+        assertEquals(idsOf(initialState, shortBranch, loopState),
+                proofStruct.getFailureTrace().getStateIdTrace());
+    }
+
+    @Test
+    public void buildProofStructureTestReleaseCycleWithSeveralEntries() {
+
+        LTLFormula formula = null;
+        try {
+            formula = new LTLFormula("({dll} R {sll})");
+        } catch (Exception e) {
+            fail("Formula should parse correctly. No Parser and Lexer exception expected!");
+        }
+
+        addCycleWithSeveralEntries("{ sll }");
+
+        ProofStructure proofStruct = new ProofStructure();
+        proofStruct.setBuildFullStructure();
+        proofStruct.build(this, formula);
+
+        // the cycle is unharmful no matter at which of its vertices it is closed
+        assertTrue(proofStruct.isSuccessful());
+        assertNull(proofStruct.getFailureTrace());
+    }
+
+    @Test
+    public void failureTraceTestCycleWithSeveralEntries() {
+
+        LTLFormula formula = null;
+        try {
+            formula = new LTLFormula("({dll} U {tree})");
+        } catch (Exception e) {
+            fail("Formula should parse correctly. No Parser and Lexer exception expected!");
+        }
+
+        List<ProgramState> states = addCycleWithSeveralEntries("{ dll }");
+        ProgramState initialState = states.get(0);
+        ProgramState shortBranch = states.get(1);
+        ProgramState firstCycleState = states.get(2);
+        ProgramState secondCycleState = states.get(6);
+
+        ProofStructure proofStruct = new ProofStructure();
+        proofStruct.setBuildFullStructure();
+        proofStruct.build(this, formula);
+
+        assertFalse(proofStruct.isSuccessful());
+
+        // depending on the order in which successors are explored, the cycle is closed at either state of the cycle,
+        // but the trace to this state is always the shortest one
+        List<Integer> trace = proofStruct.getFailureTrace().getStateIdTrace();
+        if (trace.get(trace.size() - 1) == secondCycleState.getStateSpaceId()) {
+            assertEquals(idsOf(initialState, shortBranch, firstCycleState, secondCycleState), trace);
+        } else {
+            assertEquals(idsOf(initialState, shortBranch, firstCycleState), trace);
+        }
+    }
+
+    /**
+     * Adds a cycle of two states to this state space that is entered at its first state by a short path
+     * and at its second state by a longer path.
+     *
+     * @param ap The atomic proposition satisfied by all states.
+     * @return The initial state, the state on the short path, the first state of the cycle,
+     * the three states on the long path and the second state of the cycle (in this order).
+     */
+    private List<ProgramState> addCycleWithSeveralEntries(String ap) {
+
+        List<ProgramState> states = new ArrayList<>();
+        for (int programCounter = 0; programCounter < 7; programCounter++) {
+            states.add(addState(programCounter, ap));
+        }
+
+        this.addInitialState(states.get(0));
+        this.addControlFlowTransition(states.get(0), states.get(1));
+        this.addControlFlowTransition(states.get(1), states.get(2));
+        this.addControlFlowTransition(states.get(0), states.get(3));
+        this.addControlFlowTransition(states.get(3), states.get(4));
+        this.addControlFlowTransition(states.get(4), states.get(5));
+        this.addControlFlowTransition(states.get(5), states.get(6));
+        this.addControlFlowTransition(states.get(2), states.get(6));
+        this.addControlFlowTransition(states.get(6), states.get(2));
+        return states;
+    }
+
+    private ProgramState addState(int programCounter, String ap) {
+
+        ProgramState state = sceneObject.scene().createProgramState(hc);
+        state.addAP(ap);
+        state.setProgramCounter(programCounter);
+        this.addStateIfAbsent(state);
+        return state;
+    }
+
+    private List<Integer> idsOf(ProgramState... states) {
+
+        List<Integer> result = new ArrayList<>();
+        for (ProgramState state : states) {
+            result.add(state.getStateSpaceId());
+        }
+        return result;
+    }
 }
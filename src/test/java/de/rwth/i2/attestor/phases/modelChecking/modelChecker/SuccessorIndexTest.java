@@ -0,0 +1,84 @@
+package de.rwth.i2.attestor.phases.modelChecking.modelChecker;
+
+import de.rwth.i2.attestor.MockupSceneObject;
+import de.rwth.i2.attestor.graph.heap.internal.ExampleHcImplFactory;
+import de.rwth.i2.attestor.phases.symbolicExecution.stateSpaceGenerationImpl.InternalStateSpace;
+import de.rwth.i2.attestor.programState.defaultState.DefaultProgramState;
+import de.rwth.i2.attestor.stateSpaceGeneration.ProgramState;
+import de.rwth.i2.attestor.stateSpaceGeneration.StateSpace;
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SuccessorIndexTest {
+
+    private final ExampleHcImplFactory hcFactory = new ExampleHcImplFactory(new MockupSceneObject());
+
+    @Test
+    public void testSuccessorsSkipMaterialization() {
+
+        StateSpace stateSpace = new InternalStateSpace(10);
+        ProgramState initial = state(0);
+        ProgramState materialized1 = state(0);
+        ProgramState materialized2 = state(0);
+        ProgramState next1 = state(1);
+        ProgramState next2 = state(2);
+        stateSpace.addInitialState(initial);
+        stateSpace.addState(materialized1);
+        stateSpace.addState(materialized2);
+        stateSpace.addState(next1);
+        stateSpace.addState(next2);
+        stateSpace.addMaterializationTransition(initial, materialized1);
+        stateSpace.addMaterializationTransition(initial, materialized2);
+        stateSpace.addControlFlowTransition(materialized1, next1);
+        stateSpace.addControlFlowTransition(materialized2, next1);
+        stateSpace.addControlFlowTransition(materialized2, next2);
+        stateSpace.addControlFlowTransition(next1, next2);
+        stateSpace.setFinal(next2);
+        stateSpace.addArtificialInfPathsTransition(next2);
+
+        SuccessorIndex index = new SuccessorIndex(stateSpace);
+
+        assertEquals(ids(next1, next2), asSet(index.getSuccessorsOf(initial.getStateSpaceId())));
+        assertEquals(2, index.getSuccessorsOf(initial.getStateSpaceId()).length);
+        assertEquals(ids(next2), asSet(index.getSuccessorsOf(next1.getStateSpaceId())));
+        assertEquals(ids(next2), asSet(index.getSuccessorsOf(next2.getStateSpaceId())));
+
+        for (ProgramState state : stateSpace.getStates()) {
+            int id = state.getStateSpaceId();
+            assertEquals(asSet(SuccessorIndex.computeSuccessorsOf(stateSpace, id)), asSet(index.getSuccessorsOf(id)));
+        }
+    }
+
+    @Test
+    public void testUnknownState() {
+
+        StateSpace stateSpace = new InternalStateSpace(1);
+        stateSpace.addInitialState(state(0));
+
+        assertEquals(0, new SuccessorIndex(stateSpace).getSuccessorsOf(42).length);
+    }
+
+    private ProgramState state(int programCounter) {
+
+        ProgramState state = new DefaultProgramState(hcFactory.getList());
+        state.setProgramCounter(programCounter);
+        return state;
+    }
+
+    private static TIntSet ids(ProgramState... states) {
+
+        TIntSet result = new TIntHashSet();
+        for (ProgramState state : states) {
+            result.add(state.getStateSpaceId());
+        }
+        return result;
+    }
+
+    private static TIntSet asSet(int[] ids) {
+
+        return new TIntHashSet(ids);
+    }
+}
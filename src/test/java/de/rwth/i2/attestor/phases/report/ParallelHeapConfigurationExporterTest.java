@@ -0,0 +1,105 @@
+package de.rwth.i2.attestor.phases.report;
+
+import de.rwth.i2.attestor.MockupSceneObject;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.graph.heap.internal.ExampleHcImplFactory;
+import de.rwth.i2.attestor.io.jsonExport.cytoscapeFormat.JsonHeapConfigurationExporter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ParallelHeapConfigurationExporterTest {
+
+    private final ExampleHcImplFactory hcFactory = new ExampleHcImplFactory(new MockupSceneObject());
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+
+        directory = Files.createTempDirectory("report").toFile();
+    }
+
+    @After
+    public void tearDown() {
+
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                assertTrue(file.delete());
+            }
+        }
+        assertTrue(directory.delete());
+    }
+
+    @Test
+    public void testExport() throws IOException {
+
+        List<HeapConfiguration> heaps = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            heaps.add(i % 2 == 0 ? hcFactory.getTLLRule() : hcFactory.getList());
+        }
+
+        ParallelHeapConfigurationExporter exporter = new ParallelHeapConfigurationExporter(4);
+        for (int i = 0; i < heaps.size(); i++) {
+            exporter.export(heaps.get(i), new File(directory, "hc_" + i + ".json"));
+        }
+        exporter.awaitTermination();
+
+        assertEquals(50, exporter.getSerializedHeaps());
+        assertEquals(0, exporter.getCopiedHeaps());
+        for (int i = 0; i < heaps.size(); i++) {
+            assertEquals(expectedContent(heaps.get(i)), contentOf(new File(directory, "hc_" + i + ".json")));
+        }
+    }
+
+    @Test
+    public void testExport_SharedHeapsAreCopied() throws IOException {
+
+        HeapConfiguration shared = hcFactory.getTLLRule();
+        HeapConfiguration other = hcFactory.getTLLRule();
+
+        ParallelHeapConfigurationExporter exporter = new ParallelHeapConfigurationExporter(2);
+        exporter.export(shared, new File(directory, "first.json"));
+        exporter.export(other, new File(directory, "other.json"));
+        exporter.export(shared, new File(directory, "second.json"));
+        exporter.awaitTermination();
+
+        assertEquals(2, exporter.getSerializedHeaps());
+        assertEquals(1, exporter.getCopiedHeaps());
+        String expected = expectedContent(shared);
+        assertEquals(expected, contentOf(new File(directory, "first.json")));
+        assertEquals(expected, contentOf(new File(directory, "second.json")));
+        assertEquals(expected, contentOf(new File(directory, "other.json")));
+    }
+
+    @Test(expected = IOException.class)
+    public void testExport_FailureIsReported() throws IOException {
+
+        ParallelHeapConfigurationExporter exporter = new ParallelHeapConfigurationExporter(2);
+        exporter.export(hcFactory.getList(), new File(new File(directory, "missing"), "hc_0.json"));
+        exporter.awaitTermination();
+    }
+
+    private static String expectedContent(HeapConfiguration heap) {
+
+        StringWriter writer = new StringWriter();
+        new JsonHeapConfigurationExporter(writer).export(heap);
+        return writer.toString();
+    }
+
+    private static String contentOf(File file) throws IOException {
+
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
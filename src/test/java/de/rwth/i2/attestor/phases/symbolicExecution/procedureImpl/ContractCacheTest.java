@@ -0,0 +1,203 @@
+package de.rwth.i2.attestor.phases.symbolicExecution.procedureImpl;
+
+import de.rwth.i2.attestor.MockupSceneObject;
+import de.rwth.i2.attestor.grammar.Grammar;
+import de.rwth.i2.attestor.graph.Nonterminal;
+import de.rwth.i2.attestor.graph.SelectorLabel;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.main.scene.SceneObject;
+import de.rwth.i2.attestor.phases.symbolicExecution.recursive.interproceduralAnalysis.NonRecursiveMethodExecutor;
+import de.rwth.i2.attestor.phases.symbolicExecution.stateSpaceGenerationImpl.ProgramImpl;
+import de.rwth.i2.attestor.procedures.ContractMatch;
+import de.rwth.i2.attestor.procedures.Method;
+import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.statements.InvokeStmt;
+import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.statements.ReturnVoidStmt;
+import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.statements.Skip;
+import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.statements.invoke.StaticInvokeHelper;
+import de.rwth.i2.attestor.types.Type;
+import gnu.trove.list.array.TIntArrayList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ContractCacheTest {
+
+    private final SceneObject sceneObject = new MockupSceneObject();
+    private final Type type = sceneObject.scene().getType("node");
+    private final SelectorLabel next = sceneObject.scene().getSelectorLabel("next");
+
+    private File directory;
+    private Grammar grammar;
+
+    @Before
+    public void setUp() throws IOException {
+
+        directory = Files.createTempDirectory("contracts").toFile();
+
+        Nonterminal nonterminal = sceneObject.scene().createNonterminal("L", 2, new boolean[]{false, false});
+        grammar = Grammar.builder()
+                .addRule(nonterminal, list(2))
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+
+        File[] files = directory.listFiles();
+        if(files != null) {
+            for(File file : files) {
+                assertTrue(file.delete());
+            }
+        }
+        assertTrue(directory.delete());
+    }
+
+    @Test
+    public void testStoreAndLoad() throws IOException {
+
+        Method callee = createMethod("void callee()", Collections.emptyList());
+        Method caller = createMethod("void caller()", Collections.singletonList(callee));
+        List<HeapConfiguration> postconditions = new ArrayList<>();
+        postconditions.add(list(3));
+        caller.addContract(new InternalContract(list(2), postconditions));
+
+        ContractCache cache = new ContractCache(sceneObject, directory.getPath(), grammar, Collections.emptyList());
+        cache.store(caller);
+        cache.store(callee);
+        assertEquals(1, cache.getStoredContracts());
+        assertEquals(1, directory.listFiles().length);
+
+        InternalContractCollection contractCollection =
+                new InternalContractCollection(new InternalPreconditionMatchingStrategy());
+        caller.setMethodExecution(new NonRecursiveMethodExecutor(caller, null, contractCollection, null));
+        ContractCache otherCache = new ContractCache(sceneObject, directory.getPath(), grammar, Collections.emptyList());
+        assertEquals(1, otherCache.load(caller));
+        assertEquals(0, otherCache.load(callee));
+        assertEquals(1, otherCache.getLoadedContracts());
+
+        ContractMatch match = contractCollection.matchContract(list(2));
+        assertTrue(match.hasMatch());
+        assertEquals(list(3), match.getPostconditions().iterator().next());
+    }
+
+    @Test
+    public void testLoadCorruptedFile() throws IOException {
+
+        Method method = createMethod("void method()", Collections.emptyList());
+        method.addContract(new InternalContract(list(2), Collections.singletonList(list(3))));
+
+        ContractCache cache = new ContractCache(sceneObject, directory.getPath(), grammar, Collections.emptyList());
+        cache.store(method);
+        File file = cache.fileOf(method);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length / 2));
+
+        ContractCache otherCache = new ContractCache(sceneObject, directory.getPath(), grammar, Collections.emptyList());
+        assertEquals(0, otherCache.load(method));
+        assertEquals(0, otherCache.getLoadedContracts());
+        assertFalse("corrupted files are deleted", file.exists());
+    }
+
+    @Test
+    public void testStoreRemovesTemporaryFileOnFailure() {
+
+        Method method = createMethod("void method()", Collections.emptyList());
+        method.addContract(new InternalContract(list(2), Collections.singletonList(list(3))) {
+            @Override
+            public Collection<HeapConfiguration> getPostconditions() {
+                throw new IllegalStateException("postconditions are not available");
+            }
+        });
+
+        ContractCache cache = new ContractCache(sceneObject, directory.getPath(), grammar, Collections.emptyList());
+        try {
+            cache.store(method);
+            fail("Storing contracts should fail.");
+        } catch (IOException | IllegalStateException ignored) {
+        }
+        assertEquals(0, directory.listFiles().length);
+        assertEquals(0, cache.getStoredContracts());
+    }
+
+    @Test
+    public void testFingerprint_ChangedCallee() {
+
+        Method callee = createMethod("void callee()", Collections.emptyList());
+        Method caller = createMethod("void caller()", Collections.singletonList(callee));
+        Method unrelated = createMethod("void unrelated()", Collections.emptyList());
+
+        ContractCache cache = new ContractCache(sceneObject, directory.getPath(), grammar, Collections.emptyList());
+        String callerFingerprint = cache.fingerprintOf(caller);
+        String unrelatedFingerprint = cache.fingerprintOf(unrelated);
+        assertEquals(callerFingerprint, cache.fingerprintOf(caller));
+
+        callee.setBody(new ProgramImpl(new ArrayList<>(Collections.singletonList(new Skip(sceneObject, 1)))));
+
+        assertNotEquals(callerFingerprint, cache.fingerprintOf(caller));
+        assertEquals(unrelatedFingerprint, cache.fingerprintOf(unrelated));
+    }
+
+    @Test
+    public void testFingerprint_ChangedGrammar() {
+
+        Method method = createMethod("void method()", Collections.emptyList());
+        ContractCache cache = new ContractCache(sceneObject, directory.getPath(), grammar, Collections.emptyList());
+
+        Nonterminal nonterminal = sceneObject.scene().getNonterminal("L");
+        Grammar otherGrammar = Grammar.builder()
+                .addRule(nonterminal, list(2))
+                .addRule(nonterminal, list(3))
+                .build();
+        ContractCache otherCache = new ContractCache(sceneObject, directory.getPath(), otherGrammar,
+                Collections.emptyList());
+
+        assertNotEquals(cache.fingerprintOf(method), otherCache.fingerprintOf(method));
+    }
+
+    private Method createMethod(String signature, List<Method> callees) {
+
+        Method method = sceneObject.scene().getOrCreateMethod(signature);
+        ProgramImpl.ProgramBuilder builder = ProgramImpl.builder();
+        int programCounter = 0;
+        for(Method callee : callees) {
+            programCounter++;
+            builder.addStatement(new InvokeStmt(sceneObject, callee,
+                    new StaticInvokeHelper(sceneObject, new ArrayList<>()), programCounter));
+        }
+        builder.addStatement(new ReturnVoidStmt(sceneObject));
+        method.setBody(builder.build());
+        method.setMethodExecution(createExecutor(method));
+        return method;
+    }
+
+    private NonRecursiveMethodExecutor createExecutor(Method method) {
+
+        return new NonRecursiveMethodExecutor(method, null,
+                new InternalContractCollection(new InternalPreconditionMatchingStrategy()), null);
+    }
+
+    private HeapConfiguration list(int length) {
+
+        HeapConfiguration hc = sceneObject.scene().createHeapConfiguration();
+        TIntArrayList nodes = new TIntArrayList();
+        hc.builder().addNodes(type, length, nodes).build();
+        for(int i = 0; i + 1 < length; i++) {
+            hc.builder().addSelector(nodes.get(i), next, nodes.get(i + 1)).build();
+        }
+        return hc.builder()
+                .setExternal(nodes.get(0))
+                .setExternal(nodes.get(length - 1))
+                .build();
+    }
+}
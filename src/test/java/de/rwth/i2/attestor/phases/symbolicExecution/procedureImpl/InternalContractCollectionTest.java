@@ -31,8 +31,8 @@ public class InternalContractCollectionTest {
         );
 
         HeapConfiguration h1 = simpleGraph();
-        HeapConfiguration h2 = otherSimpleGraphWithSameHash();
-        assertEquals(h1.hashCode(), h2.hashCode());
+        HeapConfiguration h2 = otherSimpleGraph();
+        assertNotEquals(h1.hashCode(), h2.hashCode());
 
         ContractMatch firstMatch = contractCollection.matchContract(h1);
         assertFalse(firstMatch.hasMatch());
@@ -70,7 +70,111 @@ public class InternalContractCollectionTest {
 
     }
 
-    private HeapConfiguration otherSimpleGraphWithSameHash() {
+    @Test
+    public void testMatchContract_IsomorphicPrecondition_MatchedByCertificate() {
+
+        InternalContractCollection contractCollection = new InternalContractCollection(
+                new InternalPreconditionMatchingStrategy()
+        );
+        HeapConfiguration precondition = simpleGraph();
+        contractCollection.addContract(new InternalContract(precondition, new LinkedHashSet<>()));
+
+        ContractMatch match = contractCollection.matchContract(simpleGraph());
+        assertTrue(match.hasMatch());
+        assertSame(precondition, match.getPrecondition());
+        assertArrayEquals(identityReordering(), match.getExternalReordering());
+
+        assertEquals(1, contractCollection.getHits());
+        assertEquals(0, contractCollection.getMisses());
+        assertEquals(0, contractCollection.getMorphismChecks());
+    }
+
+    @Test
+    public void testMatchContract_ReorderedExternalNodes_MatchedByMorphism() {
+
+        InternalContractCollection contractCollection = new InternalContractCollection(
+                new InternalPreconditionMatchingStrategy()
+        );
+        contractCollection.addContract(new InternalContract(simpleGraph(), new LinkedHashSet<>()));
+
+        ContractMatch match = contractCollection.matchContract(reorderedSimpleGraph());
+        assertTrue(match.hasMatch());
+        assertArrayEquals(new int[]{1, 0}, match.getExternalReordering());
+
+        assertFalse(contractCollection.matchContract(otherSimpleGraph()).hasMatch());
+
+        assertEquals(1, contractCollection.getHits());
+        assertEquals(1, contractCollection.getMisses());
+        assertEquals(1, contractCollection.getMorphismChecks());
+    }
+
+    @Test
+    public void testAddContract_IsomorphicPrecondition_PostconditionsAreMerged() {
+
+        InternalContractCollection contractCollection = new InternalContractCollection(
+                new InternalPreconditionMatchingStrategy()
+        );
+        contractCollection.addContract(new InternalContract(simpleGraph(), new LinkedHashSet<>()));
+
+        Collection<HeapConfiguration> postconditions = new ArrayList<>();
+        postconditions.add(otherSimpleGraph());
+        contractCollection.addContract(new InternalContract(simpleGraph(), postconditions));
+
+        assertEquals(1, contractCollection.getContractsForExport().size());
+        assertEquals(1, contractCollection.matchContract(simpleGraph()).getPostconditions().size());
+    }
+
+    @Test
+    public void testMatchContract_NonIsomorphicPreconditionWithSameHash() {
+
+        InternalContractCollection contractCollection = new InternalContractCollection(
+                new InternalPreconditionMatchingStrategy()
+        );
+
+        HeapConfiguration h1 = cycleOfSixNodes();
+        HeapConfiguration h2 = twoCyclesOfThreeNodesWithSameHash();
+        // contracts are grouped by hash codes that ignore the order of external nodes
+        assertEquals(h1.externalOrderInsensitiveHashCode(), h2.externalOrderInsensitiveHashCode());
+
+        Collection<HeapConfiguration> postconditions = new ArrayList<>();
+        postconditions.add(simpleGraph());
+        contractCollection.addContract(new InternalContract(h1, postconditions));
+
+        ContractMatch firstMatch = contractCollection.matchContract(h2);
+        assertFalse(firstMatch.hasMatch());
+        assertNull(firstMatch.getPostconditions());
+        assertEquals(1, contractCollection.getMorphismChecks());
+
+        Collection<HeapConfiguration> otherPostconditions = new ArrayList<>();
+        otherPostconditions.add(otherSimpleGraph());
+        contractCollection.addContract(new InternalContract(h2, otherPostconditions));
+        assertEquals(2, contractCollection.getContractsForExport().size());
+
+        ContractMatch secondMatch = contractCollection.matchContract(cycleOfSixNodes());
+        assertTrue(secondMatch.hasMatch());
+        assertSame(h1, secondMatch.getPrecondition());
+        assertEquals(postconditions, secondMatch.getPostconditions());
+
+        ContractMatch thirdMatch = contractCollection.matchContract(twoCyclesOfThreeNodesWithSameHash());
+        assertTrue(thirdMatch.hasMatch());
+        assertSame(h2, thirdMatch.getPrecondition());
+        assertEquals(otherPostconditions, thirdMatch.getPostconditions());
+    }
+
+    private HeapConfiguration reorderedSimpleGraph() {
+
+        HeapConfiguration hc = new InternalHeapConfiguration();
+
+        TIntArrayList nodes = new TIntArrayList();
+        return hc.builder().addNodes(type, 2, nodes)
+                .setExternal(nodes.get(1))
+                .setExternal(nodes.get(0))
+                .addSelector(nodes.get(1), SEL, nodes.get(0))
+                .addVariableEdge("x", nodes.get(0))
+                .build();
+    }
+
+    private HeapConfiguration otherSimpleGraph() {
 
         HeapConfiguration hc = new InternalHeapConfiguration();
 
@@ -83,6 +187,39 @@ public class InternalContractCollectionTest {
                 .build();
     }
 
+    private HeapConfiguration cycleOfSixNodes() {
+
+        HeapConfiguration hc = new InternalHeapConfiguration();
+
+        TIntArrayList nodes = new TIntArrayList();
+        hc.builder().addNodes(type, 6, nodes)
+                .setExternal(nodes.get(0))
+                .setExternal(nodes.get(3));
+        for (int i = 0; i < 6; i++) {
+            hc.builder().addSelector(nodes.get(i), SEL, nodes.get((i + 1) % 6));
+        }
+        return hc.builder().build();
+    }
+
+    /**
+     * If the order of external nodes is ignored, every node has the same neighbourhood as in
+     * {@link #cycleOfSixNodes()}. Hence, color refinement cannot distinguish both heap configurations
+     * although they are not isomorphic.
+     */
+    private HeapConfiguration twoCyclesOfThreeNodesWithSameHash() {
+
+        HeapConfiguration hc = new InternalHeapConfiguration();
+
+        TIntArrayList nodes = new TIntArrayList();
+        hc.builder().addNodes(type, 6, nodes)
+                .setExternal(nodes.get(0))
+                .setExternal(nodes.get(3));
+        for (int i = 0; i < 6; i++) {
+            hc.builder().addSelector(nodes.get(i), SEL, nodes.get(i / 3 * 3 + (i + 1) % 3));
+        }
+        return hc.builder().build();
+    }
+
     private HeapConfiguration simpleGraph() {
 
         HeapConfiguration hc = new InternalHeapConfiguration();
@@ -9,6 +9,7 @@ import de.rwth.i2.attestor.graph.morphism.MorphismOptions;
 import de.rwth.i2.attestor.types.Type;
 import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.map.TIntIntMap;
+import gnu.trove.set.TIntSet;
 
 import java.util.List;
 
@@ -123,6 +124,12 @@ public class HeapConfigurationDummy implements HeapConfiguration {
 		return 0;
 	}
 
+	@Override
+	public TIntArrayList nodesWithSelector(SelectorLabel sel) {
+		fail("Not expected to be called");
+		return null;
+	}
+
 	@Override
 	public int countExternalNodes() {
 		fail("Not expected to be called");
@@ -165,6 +172,12 @@ public class HeapConfigurationDummy implements HeapConfiguration {
 		return null;
 	}
 
+	@Override
+	public TIntArrayList nonterminalEdgesWith(Nonterminal label) {
+		fail("Not expected to be called");
+		return null;
+	}
+
 	@Override
 	public int rankOf(int ntEdge) {
 		fail("Not expected to be called");
@@ -229,4 +242,24 @@ public class HeapConfigurationDummy implements HeapConfiguration {
 		return null;
 	}
 
+	@Override
+	public int externalOrderInsensitiveHashCode() {
+		return hashCode();
+	}
+
+	@Override
+	public AbstractMatchingChecker getEmbeddingsOf(HeapConfiguration pattern, MorphismOptions options, TIntSet nodes) {
+		fail("Not expected to be called");
+		return null;
+	}
+
+	@Override
+	public void trackChanges(Object origin) {
+	}
+
+	@Override
+	public TIntSet getChangedNodes(Object origin) {
+		return null;
+	}
+
 }
@@ -8,6 +8,8 @@ import de.rwth.i2.attestor.stateSpaceGeneration.StateSpace;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 
@@ -92,4 +94,82 @@ public class InterproceduralAnalysisTest {
 		verify( testSubject ).notifyDependencies( any() );
 	}
 
+	@Test
+	public void testRegisterProcedureCall_DuplicatesAreNotEnqueued() {
+		//given
+		ProcedureCall call = mock(ProcedureCall.class);
+		ProcedureCall otherCall = mock(ProcedureCall.class);
+
+		//when
+		testSubject.registerProcedureCall(call);
+		testSubject.registerProcedureCall(otherCall);
+		testSubject.registerProcedureCall(call);
+
+		//then
+		assertEquals( 2, testSubject.remainingProcedureCalls.size() );
+		assertEquals( 2, testSubject.getNumberOfEnqueuedProcedureCalls() );
+		assertEquals( 1, testSubject.getNumberOfDuplicateProcedureCalls() );
+	}
+
+	@Test
+	public void testRunConcurrently_IndependentCallsAreExecuted() {
+		//given
+		InterproceduralAnalysis concurrentSubject = spy(new InterproceduralAnalysis(2));
+		ProcedureCall call1 = mock(ProcedureCall.class);
+		ProcedureCall call2 = mock(ProcedureCall.class);
+		when( call1.execute() ).thenReturn( ssWithFinalStates );
+		when( call2.execute() ).thenReturn( ssWithoutFinalStates );
+
+		concurrentSubject.registerProcedureCall(call1);
+		concurrentSubject.registerProcedureCall(call2);
+
+		//when
+		concurrentSubject.run();
+
+		//then
+		verify( call1 ).execute();
+		verify( call2 ).execute();
+		verify( concurrentSubject ).notifyDependencies( call1 );
+		verify( concurrentSubject, never() ).notifyDependencies( call2 );
+	}
+
+	@Test
+	public void testRunConcurrently_DependenciesOfChangedContractsAreContinued() {
+		//given
+		InterproceduralAnalysis concurrentSubject = new InterproceduralAnalysis(2);
+		FakePartialStateSpace dependency = new FakePartialStateSpace( ssWithoutFinalStates, ssWithoutFinalStates );
+		ProcedureCall call = mock(ProcedureCall.class);
+		ProcedureCall callingCall = mock(ProcedureCall.class);
+		when( call.execute() ).thenReturn( ssWithFinalStates );
+
+		concurrentSubject.registerStateSpace(callingCall, ssWithoutFinalStates);
+		concurrentSubject.registerDependency(call, dependency);
+		concurrentSubject.registerProcedureCall(call);
+
+		//when
+		concurrentSubject.run();
+
+		//then
+		assertTrue( dependency.didContinue );
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testRunConcurrently_FailuresArePropagated() {
+		//given
+		InterproceduralAnalysis concurrentSubject = new InterproceduralAnalysis(2);
+		ProcedureCall call = mock(ProcedureCall.class);
+		when( call.execute() ).thenThrow( new IllegalStateException("Procedure call execution failed.") );
+
+		concurrentSubject.registerProcedureCall(call);
+
+		//when
+		concurrentSubject.run();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructor_NonPositiveParallelism() {
+
+		new InterproceduralAnalysis(0);
+	}
+
 }
@@ -0,0 +1,269 @@
+package de.rwth.i2.attestor.stateSpace;
+
+import de.rwth.i2.attestor.MockupSceneObject;
+import de.rwth.i2.attestor.grammar.AbstractionOptions;
+import de.rwth.i2.attestor.grammar.Grammar;
+import de.rwth.i2.attestor.grammar.canonicalization.CanonicalizationStrategyBuilder;
+import de.rwth.i2.attestor.grammar.materialization.strategies.MaterializationStrategyBuilder;
+import de.rwth.i2.attestor.graph.Nonterminal;
+import de.rwth.i2.attestor.graph.SelectorLabel;
+import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
+import de.rwth.i2.attestor.graph.heap.internal.ExampleHcImplFactory;
+import de.rwth.i2.attestor.graph.heap.internal.InternalHeapConfiguration;
+import de.rwth.i2.attestor.main.scene.SceneObject;
+import de.rwth.i2.attestor.phases.symbolicExecution.procedureImpl.InternalContractCollection;
+import de.rwth.i2.attestor.phases.symbolicExecution.procedureImpl.InternalPreconditionMatchingStrategy;
+import de.rwth.i2.attestor.phases.symbolicExecution.procedureImpl.StateSpaceGeneratorFactory;
+import de.rwth.i2.attestor.phases.symbolicExecution.procedureImpl.scopes.DefaultScopeExtractor;
+import de.rwth.i2.attestor.phases.symbolicExecution.recursive.InternalProcedureCall;
+import de.rwth.i2.attestor.phases.symbolicExecution.recursive.InternalProcedureRegistry;
+import de.rwth.i2.attestor.phases.symbolicExecution.recursive.interproceduralAnalysis.InterproceduralAnalysis;
+import de.rwth.i2.attestor.phases.symbolicExecution.recursive.interproceduralAnalysis.RecursiveMethodExecutor;
+import de.rwth.i2.attestor.phases.symbolicExecution.stateSpaceGenerationImpl.ProgramImpl;
+import de.rwth.i2.attestor.phases.symbolicExecution.utilStrategies.StateSpaceBoundedAbortStrategy;
+import de.rwth.i2.attestor.procedures.Contract;
+import de.rwth.i2.attestor.procedures.Method;
+import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.statements.*;
+import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.statements.invoke.StaticInvokeHelper;
+import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.values.Field;
+import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.values.Local;
+import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.values.NullConstant;
+import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.values.boolExpr.EqualExpr;
+import de.rwth.i2.attestor.semantics.util.Constants;
+import de.rwth.i2.attestor.stateSpaceGeneration.*;
+import de.rwth.i2.attestor.types.Type;
+import de.rwth.i2.attestor.types.Types;
+import de.rwth.i2.attestor.util.SingleElementUtil;
+import gnu.trove.list.array.TIntArrayList;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares state spaces generated in parallel with those generated sequentially for programs that
+ * require materialization and canonicalization with respect to a grammar.
+ */
+public class ParallelStateSpaceGenerationTest {
+
+    private static final int NO_LIMIT = 1000;
+    private static final int THREADS = 4;
+
+    private final SceneObject sceneObject = new MockupSceneObject();
+    private final Type type = sceneObject.scene().getType("List");
+    private final SelectorLabel next = sceneObject.scene().getSelectorLabel("next");
+    private Nonterminal nt;
+
+    @Before
+    public void setUp() {
+
+        type.addSelectorLabel(next, Constants.NULL);
+
+        ExampleHcImplFactory hcFactory = new ExampleHcImplFactory(sceneObject);
+        nt = sceneObject.scene().createNonterminal("List", 2, new boolean[]{false, true});
+        Grammar grammar = Grammar.builder()
+                .addRule(nt, hcFactory.getListRule1())
+                .addRule(nt, hcFactory.getListRule2())
+                .addRule(nt, hcFactory.getListRule3())
+                .build();
+
+        sceneObject.scene().strategies().setMaterializationStrategy(
+                new MaterializationStrategyBuilder()
+                        .setGrammar(grammar)
+                        .setIndexedMode(false)
+                        .build()
+        );
+        sceneObject.scene().strategies().setCanonicalizationStrategy(
+                new CanonicalizationStrategyBuilder()
+                        .setOptions(new AbstractionOptions().setAdmissibleAbstraction(true))
+                        .setGrammar(grammar)
+                        .build()
+        );
+    }
+
+    @Test
+    public void testListTraversal() {
+
+        StateSpace sequential = generateTraversal(1, NO_LIMIT);
+        StateSpace parallel = generateTraversal(THREADS, NO_LIMIT);
+
+        assertFalse(sequential.containsAbortedStates());
+        assertFalse(parallel.containsAbortedStates());
+        assertFalse(sequential.getFinalStates().isEmpty());
+        assertEquals(sequential.size(), parallel.size());
+        assertEquals(sequential.getFinalStates(), parallel.getFinalStates());
+        for (ProgramState state : sequential.getStates()) {
+            assertTrue(parallel.getStates().contains(state));
+        }
+    }
+
+    @Test
+    public void testListTraversalWithStateSpaceLimit() {
+
+        StateSpace full = generateTraversal(1, NO_LIMIT);
+        int limit = full.size() / 2;
+        int maxSuccessors = maxSuccessorsOf(full);
+
+        StateSpace sequential = generateTraversal(1, limit);
+        StateSpace parallel = generateTraversal(THREADS, limit);
+
+        assertTrue(sequential.containsAbortedStates());
+        assertTrue(parallel.containsAbortedStates());
+        assertTrue("no state is expanded after the limit has been exceeded",
+                parallel.size() <= limit + maxSuccessors);
+        assertTrue(sequential.size() <= limit + maxSuccessors);
+    }
+
+    @Test
+    public void testRecursiveTraversal() {
+
+        RecursiveResult sequential = analyzeRecursiveTraversal(1);
+        RecursiveResult parallel = analyzeRecursiveTraversal(THREADS);
+
+        assertFalse(sequential.mainStateSpace.getFinalStates().isEmpty());
+        assertEquals(sequential.mainStateSpace.size(), parallel.mainStateSpace.size());
+        assertEquals(sequential.mainStateSpace.getFinalStates(), parallel.mainStateSpace.getFinalStates());
+
+        assertFalse(sequential.contracts.isEmpty());
+        assertEquals(sequential.contracts.size(), parallel.contracts.size());
+        for (Contract contract : sequential.contracts) {
+            Contract match = findContract(parallel.contracts, contract.getPrecondition());
+            assertNotNull("missing contract for precondition " + contract.getPrecondition(), match);
+            assertEquals(contract.getPostconditions().size(), match.getPostconditions().size());
+            for (HeapConfiguration postcondition : contract.getPostconditions()) {
+                assertTrue(match.getPostconditions().contains(postcondition));
+            }
+        }
+    }
+
+    private StateSpace generateTraversal(int threads, int maxStateSpaceSize) {
+
+        configure(threads, maxStateSpaceSize);
+        Local x = new Local(type, "x");
+
+        List<SemanticsCommand> instructions = new ArrayList<>();
+        instructions.add(new GotoStmt(sceneObject, 1));
+        instructions.add(new IfStmt(sceneObject, new EqualExpr(x, new NullConstant()), 4, 2, new LinkedHashSet<>()));
+        instructions.add(new AssignStmt(sceneObject, x, new Field(type, x, next), 3, new LinkedHashSet<>()));
+        instructions.add(new GotoStmt(sceneObject, 1));
+        instructions.add(new ReturnVoidStmt(sceneObject));
+
+        try {
+            return new StateSpaceGeneratorFactory(sceneObject.scene())
+                    .create(new ProgramImpl(instructions), initialState())
+                    .generate();
+        } catch (StateSpaceGenerationAbortedException e) {
+            fail("Aborting the top-level state space generation should not raise an exception");
+            return null;
+        }
+    }
+
+    private RecursiveResult analyzeRecursiveTraversal(int threads) {
+
+        configure(threads, NO_LIMIT);
+        Local x = new Local(type, "x");
+        Local y = new Local(type, "y");
+        Local z = new Local(type, "z");
+
+        Method traverse = sceneObject.scene().getOrCreateMethod("traverse" + threads);
+        traverse.setRecursive(true);
+
+        List<SemanticsCommand> body = new ArrayList<>();
+        body.add(new IdentityStmt(sceneObject, 1, y, "@parameter0:"));
+        body.add(new IfStmt(sceneObject, new EqualExpr(y, new NullConstant()), 4, 2, new LinkedHashSet<>()));
+        body.add(new AssignStmt(sceneObject, z, new Field(type, y, next), 3, new LinkedHashSet<>()));
+        body.add(new InvokeStmt(sceneObject, traverse,
+                new StaticInvokeHelper(sceneObject, SingleElementUtil.createList(z)), 4));
+        body.add(new ReturnVoidStmt(sceneObject));
+        traverse.setBody(new ProgramImpl(body));
+
+        List<SemanticsCommand> main = new ArrayList<>();
+        main.add(new InvokeStmt(sceneObject, traverse,
+                new StaticInvokeHelper(sceneObject, SingleElementUtil.createList(x)), 1));
+        main.add(new ReturnVoidStmt(sceneObject));
+
+        StateSpaceGeneratorFactory factory = new StateSpaceGeneratorFactory(sceneObject.scene());
+        InterproceduralAnalysis analysis = new InterproceduralAnalysis();
+        InternalProcedureRegistry registry = new InternalProcedureRegistry(analysis, factory);
+        traverse.setMethodExecution(new RecursiveMethodExecutor(
+                traverse,
+                new DefaultScopeExtractor(sceneObject, traverse.getName()),
+                new InternalContractCollection(new InternalPreconditionMatchingStrategy()),
+                registry
+        ));
+
+        RecursiveResult result = new RecursiveResult();
+        ProgramState initialState = initialState();
+        try {
+            result.mainStateSpace = factory.create(new ProgramImpl(main), initialState).generate();
+        } catch (StateSpaceGenerationAbortedException e) {
+            fail("State space generation aborted");
+        }
+
+        analysis.registerStateSpace(
+                new InternalProcedureCall(traverse, initialState.getHeap(), factory, null),
+                result.mainStateSpace
+        );
+        analysis.run();
+
+        result.contracts = traverse.getContractsForExport();
+        return result;
+    }
+
+    private void configure(int threads, int maxStateSpaceSize) {
+
+        sceneObject.scene().options().setStateSpaceGenerationThreads(threads);
+        sceneObject.scene().options().setMaxStateSpace(maxStateSpaceSize);
+        sceneObject.scene().strategies().setAbortStrategy(
+                new StateSpaceBoundedAbortStrategy(maxStateSpaceSize, 100)
+        );
+    }
+
+    /**
+     * @return A state in which x points to the head of an abstract list.
+     */
+    private ProgramState initialState() {
+
+        TIntArrayList nodes = new TIntArrayList();
+        HeapConfiguration heap = new InternalHeapConfiguration().builder()
+                .addNodes(type, 1, nodes)
+                .addNodes(Types.NULL, 1, nodes)
+                .addVariableEdge("x", nodes.get(0))
+                .addVariableEdge(Constants.NULL, nodes.get(1))
+                .addNonterminalEdge(nt, nodes)
+                .build();
+
+        return sceneObject.scene().createProgramState(heap).prepareHeap();
+    }
+
+    private static int maxSuccessorsOf(StateSpace stateSpace) {
+
+        int result = 0;
+        for (ProgramState state : stateSpace.getStates()) {
+            result = Math.max(result, stateSpace.getControlFlowSuccessorsOf(state).size()
+                    + stateSpace.getMaterializationSuccessorsOf(state).size());
+        }
+        return result;
+    }
+
+    private static Contract findContract(Collection<Contract> contracts, HeapConfiguration precondition) {
+
+        for (Contract contract : contracts) {
+            if (contract.getPrecondition().equals(precondition)) {
+                return contract;
+            }
+        }
+        return null;
+    }
+
+    private static class RecursiveResult {
+
+        StateSpace mainStateSpace;
+        Collection<Contract> contracts;
+    }
+}
@@ -4,9 +4,11 @@ import de.rwth.i2.attestor.MockupSceneObject;
 import de.rwth.i2.attestor.graph.heap.HeapConfiguration;
 import de.rwth.i2.attestor.graph.heap.internal.ExampleHcImplFactory;
 import de.rwth.i2.attestor.main.scene.SceneObject;
+import de.rwth.i2.attestor.phases.symbolicExecution.stateSpaceGenerationImpl.ConcurrentInternalStateSpace;
 import de.rwth.i2.attestor.phases.symbolicExecution.stateSpaceGenerationImpl.InternalStateSpace;
 import de.rwth.i2.attestor.phases.symbolicExecution.stateSpaceGenerationImpl.ProgramImpl;
 import de.rwth.i2.attestor.phases.symbolicExecution.utilStrategies.*;
+import de.rwth.i2.attestor.programState.AtomicPropositions;
 import de.rwth.i2.attestor.programState.defaultState.DefaultProgramState;
 import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.mockupImpls.MockupAbortStrategy;
 import de.rwth.i2.attestor.semantics.jimpleSemantics.jimple.mockupImpls.MockupMaterializationStrategy;
@@ -204,4 +206,146 @@ public class StateSpaceGeneratorTest {
             }
         }
     }
+
+    @Test
+    public void testGenerateInParallel() {
+
+        HeapConfiguration initialGraph = hcFactory.getEmptyGraphWithConstants();
+
+        Type type = sceneObject.scene().getType("type");
+
+        List<SemanticsCommand> programInstructions = new ArrayList<>();
+        programInstructions.add(new IfStmt(sceneObject, new IntConstant(1), 1, 2, new LinkedHashSet<>()));
+        programInstructions.add(new AssignStmt(sceneObject, new Local(type, "x"), new NewExpr(type),
+                3, new LinkedHashSet<>()));
+        programInstructions.add(new Skip(sceneObject, 3));
+        programInstructions.add(new ReturnVoidStmt(sceneObject));
+        ProgramImpl mainProgram = new ProgramImpl(programInstructions);
+
+        StateSpace sequential = null;
+        StateSpace parallel = null;
+        try {
+            StateSpaceGenerator sequentialGenerator = stateSpaceGeneratorBuilder
+                    .setProgram(mainProgram)
+                    .addInitialState(new DefaultProgramState(initialGraph.clone()))
+                    .build();
+            sequential = sequentialGenerator.generate();
+
+            parallel = StateSpaceGenerator.builder(sequentialGenerator)
+                    .setStateExplorationStrategy(new DepthFirstStateExplorationStrategy())
+                    .setStateSpaceSupplier(() -> new ConcurrentInternalStateSpace(100))
+                    .setParallelism(4)
+                    .setProgram(mainProgram)
+                    .addInitialState(new DefaultProgramState(initialGraph.clone()))
+                    .build()
+                    .generate();
+        } catch (StateSpaceGenerationAbortedException e) {
+            fail("State space generation aborted");
+        }
+
+        assertEquals(sequential.getStates().size(), parallel.getStates().size());
+        assertEquals(sequential.getFinalStates(), parallel.getFinalStates());
+        for (ProgramState state : sequential.getStates()) {
+            assertTrue(parallel.getStates().contains(state));
+        }
+    }
+
+    @Test
+    public void testGenerateWithCertificates() {
+
+        HeapConfiguration initialGraph = hcFactory.getEmptyGraphWithConstants();
+
+        Type type = sceneObject.scene().getType("type");
+
+        List<SemanticsCommand> programInstructions = new ArrayList<>();
+        programInstructions.add(new IfStmt(sceneObject, new IntConstant(1), 1, 2, new LinkedHashSet<>()));
+        programInstructions.add(new AssignStmt(sceneObject, new Local(type, "x"), new NewExpr(type),
+                3, new LinkedHashSet<>()));
+        programInstructions.add(new AssignStmt(sceneObject, new Local(type, "x"), new NewExpr(type),
+                3, new LinkedHashSet<>()));
+        programInstructions.add(new ReturnVoidStmt(sceneObject));
+        ProgramImpl mainProgram = new ProgramImpl(programInstructions);
+
+        StateSpace isomorphism = null;
+        StateSpace certificates = null;
+        try {
+            StateSpaceGenerator generator = stateSpaceGeneratorBuilder
+                    .setProgram(mainProgram)
+                    .addInitialState(new DefaultProgramState(initialGraph.clone()))
+                    .build();
+            isomorphism = generator.generate();
+
+            certificates = StateSpaceGenerator.builder(generator)
+                    .setStateExplorationStrategy(new DepthFirstStateExplorationStrategy())
+                    .setStateSpaceSupplier(() -> new InternalStateSpace(100, true))
+                    .setProgram(mainProgram)
+                    .addInitialState(new DefaultProgramState(initialGraph.clone()))
+                    .build()
+                    .generate();
+        } catch (StateSpaceGenerationAbortedException e) {
+            fail("State space generation aborted");
+        }
+
+        assertEquals(isomorphism.getStates().size(), certificates.getStates().size());
+        assertEquals(isomorphism.getFinalStates(), certificates.getFinalStates());
+        for (ProgramState state : isomorphism.getStates()) {
+            assertTrue(certificates.getStates().contains(state));
+        }
+    }
+
+    @Test
+    public void testGenerateWithExplorationListener() {
+
+        List<ProgramState> exploredStates = new ArrayList<>();
+        StateSpace res = null;
+        try {
+            res = stateSpaceGeneratorBuilder
+                    .setProgram(skipProgram())
+                    .addInitialState(new DefaultProgramState(hcFactory.getEmptyGraphWithConstants()))
+                    .setStateExplorationListener((stateSpace, state) -> {
+                        assertTrue(stateSpace.getStates().contains(state));
+                        exploredStates.add(state);
+                    })
+                    .build()
+                    .generate();
+        } catch (StateSpaceGenerationAbortedException e) {
+            fail("State space generation aborted");
+        }
+
+        assertEquals(res.getStates().size(), exploredStates.size());
+        assertFalse(res.containsAbortedStates());
+    }
+
+    @Test
+    public void testGenerateAbortedByExplorationListener() {
+
+        List<ProgramState> exploredStates = new ArrayList<>();
+        StateSpace res = null;
+        try {
+            res = stateSpaceGeneratorBuilder
+                    .setProgram(skipProgram())
+                    .addInitialState(new DefaultProgramState(hcFactory.getEmptyGraphWithConstants()))
+                    .setStateExplorationListener((stateSpace, state) -> {
+                        exploredStates.add(state);
+                        throw new StateSpaceGenerationAbortedException();
+                    })
+                    .build()
+                    .generate();
+        } catch (StateSpaceGenerationAbortedException e) {
+            fail("Aborting the top-level state space generation should not raise an exception");
+        }
+
+        assertEquals(1, exploredStates.size());
+        assertTrue(res.containsAbortedStates());
+        assertTrue(res.getFinalStates().isEmpty());
+        assertFalse(exploredStates.get(0).getAPs().contains(AtomicPropositions.ABORTED));
+    }
+
+    private ProgramImpl skipProgram() {
+
+        List<SemanticsCommand> programInstructions = new ArrayList<>();
+        programInstructions.add(new Skip(sceneObject, 1));
+        programInstructions.add(new ReturnVoidStmt(sceneObject));
+        return new ProgramImpl(programInstructions);
+    }
 }